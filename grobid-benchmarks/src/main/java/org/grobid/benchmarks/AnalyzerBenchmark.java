@@ -0,0 +1,60 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.analyzers.GrobidAnalyzer;
+import org.grobid.core.document.Document;
+import org.grobid.core.layout.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenization of a short text and of the whole text of a document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class AnalyzerBenchmark {
+    @Param({"sample1/sample.pdf", "test/0807.3577.pdf"})
+    public String sample;
+
+    private GrobidAnalyzer analyzer;
+    private String documentText;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        analyzer = GrobidAnalyzer.getInstance();
+        Document doc = Document.fromPdf(GrobidBenchmarks.getSample(sample), -1, -1);
+        StringBuilder text = new StringBuilder();
+        for (Block block : doc.getBlocks()) {
+            if (block.getText() != null) {
+                text.append(block.getText()).append('\n');
+            }
+        }
+        documentText = text.toString();
+    }
+
+    @Benchmark
+    public List<String> tokenizeReferences() throws Exception {
+        return analyzer.tokenize(GrobidBenchmarks.REFERENCES);
+    }
+
+    @Benchmark
+    public List<String> tokenizeDocument() throws Exception {
+        return analyzer.tokenize(documentText);
+    }
+}
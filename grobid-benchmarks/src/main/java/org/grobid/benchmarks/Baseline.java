@@ -0,0 +1,81 @@
+package org.grobid.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Reference scores of the benchmarks, kept in a properties file: one line per benchmark and parameters, with
+ * the average time per operation in the unit of the benchmark, e.g.
+ *
+ * <pre>
+ * FullTextBenchmark.fullText[sample1/sample.pdf]=1234.5
+ * </pre>
+ */
+public class Baseline {
+    private static final String HEADER =
+            "# Baseline of the grobid benchmarks, average time per operation in the unit of each benchmark.\n" +
+            "# Written by: java -jar target/benchmarks.jar -update\n" +
+            "# Scores depend on the machine: record the baseline on the machine where the benchmarks are compared.\n";
+
+    private final Map<String, Double> scores = new TreeMap<String, Double>();
+
+    /**
+     * @return the baseline of a file, empty if the file does not exist
+     */
+    public static Baseline load(File file) throws IOException {
+        Baseline baseline = new Baseline();
+        if (!file.exists()) {
+            return baseline;
+        }
+        Properties properties = new Properties();
+        InputStream input = new FileInputStream(file);
+        try {
+            properties.load(input);
+        } finally {
+            input.close();
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (value.length() > 0) {
+                baseline.scores.put(key, Double.valueOf(value));
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * @return the score of a benchmark, or null if it has no baseline
+     */
+    public Double get(String key) {
+        return scores.get(key);
+    }
+
+    public void put(String key, double score) {
+        scores.put(key, score);
+    }
+
+    /**
+     * Write the baseline with the benchmarks sorted by name. The keys are written as is, so that the file
+     * stays readable: they must not contain '=', ':' or spaces.
+     */
+    public void save(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "ISO-8859-1");
+        try {
+            writer.write(HEADER);
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                writer.write(entry.getKey() + "=" + String.format(Locale.ROOT, "%.3f", entry.getValue()) + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
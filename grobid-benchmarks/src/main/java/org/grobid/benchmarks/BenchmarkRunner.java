@@ -0,0 +1,184 @@
+package org.grobid.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs the benchmarks and compares their scores with the checked-in baseline.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [-baseline file] [-threshold percent] [-update] [-quick] [regexp...]
+ * </pre>
+ *
+ * <ul>
+ * <li>-baseline: baseline file, baseline/benchmarks.properties by default</li>
+ * <li>-threshold: slowdown tolerated before reporting a regression, in percent (default 10)</li>
+ * <li>-update: record the scores in the baseline instead of comparing them</li>
+ * <li>-quick: a single fork and few iterations, for checking that the benchmarks run</li>
+ * <li>regexp: the benchmarks to run, all of them by default (e.g. TaggerBenchmark, FullTextBenchmark.fullText)</li>
+ * </ul>
+ *
+ * The exit code is 1 if a benchmark is slower than its baseline by more than the threshold, or if a selected
+ * benchmark gives no score because it failed. The standard JMH command line is still available with
+ * java -cp target/benchmarks.jar org.openjdk.jmh.Main.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        File baselineFile = new File("baseline" + File.separator + "benchmarks.properties");
+        double threshold = 10.0;
+        boolean update = false;
+        boolean quick = false;
+        List<String> includes = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-baseline")) {
+                baselineFile = new File(args[++i]);
+            } else if (args[i].equals("-threshold")) {
+                threshold = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("-update")) {
+                update = true;
+            } else if (args[i].equals("-quick")) {
+                quick = true;
+            } else {
+                includes.add(args[i]);
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder();
+        if (includes.isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackage().getName() + "\\..*Benchmark");
+        }
+        for (String include : includes) {
+            options.include(include);
+        }
+        if (quick) {
+            options.forks(1).warmupIterations(1).measurementIterations(2);
+        }
+        Options runOptions = options.build();
+        Collection<RunResult> results = new Runner(runOptions).run();
+        // JMH reports the errors of a benchmark and goes on with the next one, without score for it
+        Set<String> failures = getFailures(runOptions, results);
+
+        Baseline baseline = Baseline.load(baselineFile);
+        int regressions = 0;
+        if (update) {
+            for (RunResult result : results) {
+                baseline.put(getKey(result.getParams()), result.getPrimaryResult().getScore());
+            }
+            baseline.save(baselineFile);
+            System.out.println("Baseline written to " + baselineFile.getPath());
+        } else {
+            regressions = report(results, baseline, threshold);
+            if (regressions > 0) {
+                System.out.println(regressions + " benchmark(s) slower than the baseline by more than " 
+                        + threshold + "%");
+            }
+        }
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure + " gave no score");
+        }
+        if ((regressions > 0) || !failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the selected benchmarks without any score
+     */
+    static Set<String> getFailures(Options options, Collection<RunResult> results) {
+        Set<String> failures = new TreeSet<String>();
+        for (BenchmarkListEntry entry : BenchmarkList.defaultList().find(
+                OutputFormatFactory.createFormatInstance(System.out, VerboseMode.SILENT),
+                options.getIncludes(), options.getExcludes())) {
+            failures.add(getName(entry.getUsername()));
+        }
+        for (RunResult result : results) {
+            failures.remove(getName(result.getParams().getBenchmark()));
+        }
+        return failures;
+    }
+
+    /**
+     * Print the score of each benchmark against its baseline.
+     *
+     * @return the number of regressions
+     */
+    static int report(Collection<RunResult> results, Baseline baseline, double threshold) {
+        int regressions = 0;
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-70s %12s %12s %-8s %8s  %s",
+                "Benchmark", "Baseline", "Score", "Unit", "Change", "Status"));
+        for (RunResult result : results) {
+            String key = getKey(result.getParams());
+            Result primary = result.getPrimaryResult();
+            double score = primary.getScore();
+            Double reference = baseline.get(key);
+            String status;
+            String change = "";
+            if (reference == null) {
+                status = "NEW";
+            } else {
+                // all the benchmarks measure an average time, lower is better
+                double percent = (score - reference) * 100.0 / reference;
+                change = String.format(Locale.ROOT, "%+.1f%%", percent);
+                if (percent > threshold) {
+                    status = "REGRESSION";
+                    regressions++;
+                } else if (percent < -threshold) {
+                    status = "IMPROVED";
+                } else {
+                    status = "OK";
+                }
+            }
+            System.out.println(String.format(Locale.ROOT, "%-70s %12s %12.3f %-8s %8s  %s", key,
+                    reference == null ? "-" : String.format(Locale.ROOT, "%.3f", reference), score,
+                    primary.getScoreUnit(), change, status));
+        }
+        return regressions;
+    }
+
+    /**
+     * @return the name of a benchmark in the baseline, e.g. FullTextBenchmark.fullText[sample1/sample.pdf]
+     */
+    static String getKey(BenchmarkParams params) {
+        StringBuilder key = new StringBuilder(getName(params.getBenchmark()));
+        if (!params.getParamsKeys().isEmpty()) {
+            key.append('[');
+            boolean first = true;
+            for (String param : params.getParamsKeys()) {
+                if (!first) {
+                    key.append(',');
+                }
+                key.append(params.getParam(param));
+                first = false;
+            }
+            key.append(']');
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the name of a benchmark without the package, e.g. FullTextBenchmark.fullText
+     */
+    static String getName(String benchmark) {
+        String prefix = BenchmarkRunner.class.getPackage().getName() + ".";
+        return benchmark.startsWith(prefix) ? benchmark.substring(prefix.length()) : benchmark;
+    }
+}
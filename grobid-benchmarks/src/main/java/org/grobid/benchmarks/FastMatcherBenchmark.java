@@ -0,0 +1,52 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.analyzers.GrobidAnalyzer;
+import org.grobid.core.lexicon.FastMatcher;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.OffsetPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching of the journal names lexicon in references, as done for the citation features.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FastMatcherBenchmark {
+    private FastMatcher journals;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        journals = new FastMatcher(new File(GrobidProperties.get_GROBID_HOME_PATH(),
+                "lexicon" + File.separator + "journals" + File.separator + "journals.txt"));
+        tokens = GrobidAnalyzer.getInstance().tokenize(GrobidBenchmarks.REFERENCES);
+    }
+
+    @Benchmark
+    public List<OffsetPosition> matchText() {
+        return journals.matcher(GrobidBenchmarks.REFERENCES);
+    }
+
+    @Benchmark
+    public List<OffsetPosition> matchTokens() {
+        return journals.matcher(tokens);
+    }
+}
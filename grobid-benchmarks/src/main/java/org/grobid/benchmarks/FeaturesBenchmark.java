@@ -0,0 +1,79 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.analyzers.GrobidAnalyzer;
+import org.grobid.core.document.Document;
+import org.grobid.core.engines.FullTextParser;
+import org.grobid.core.engines.Segmentation;
+import org.grobid.core.engines.SegmentationLabel;
+import org.grobid.core.engines.tagging.FeatureMatrix;
+import org.grobid.core.features.FeaturesVectorDate;
+import org.grobid.core.utilities.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of the features of the segmentation, full text and date models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FeaturesBenchmark {
+    @Param({"sample1/sample.pdf", "test/0807.3577.pdf"})
+    public String sample;
+
+    private Document doc;
+    private List<List<String>> dates;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        Segmentation segmentation = new Segmentation();
+        doc = segmentation.processing(Document.fromPdf(GrobidBenchmarks.getSample(sample), -1, -1));
+
+        dates = new ArrayList<List<String>>();
+        for (String date : GrobidBenchmarks.DATES) {
+            List<String> lines = new ArrayList<String>();
+            for (String token : GrobidAnalyzer.getInstance().tokenize(date)) {
+                if (!token.equals(" ")) {
+                    lines.add(token + " <date>");
+                }
+            }
+            dates.add(lines);
+        }
+    }
+
+    @Benchmark
+    public FeatureMatrix segmentationFeatures() {
+        return Segmentation.getAllLinesFeatureMatrix(doc);
+    }
+
+    @Benchmark
+    public Pair<String, List<String>> fulltextFeatures() {
+        return FullTextParser.getBodyTextFeatured(doc, doc.getDocumentPart(SegmentationLabel.BODY));
+    }
+
+    @Benchmark
+    public List<String> dateFeatures() throws Exception {
+        List<String> res = new ArrayList<String>(dates.size());
+        for (List<String> lines : dates) {
+            res.add(FeaturesVectorDate.addFeaturesDate(lines));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,57 @@
+package org.grobid.benchmarks;
+
+import org.apache.commons.io.output.NullWriter;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.factory.GrobidFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end full text processing of the samples, from the PDF to the TEI. The pdf2xml cache, if enabled in
+ * grobid.properties, makes the conversion happen only once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FullTextBenchmark {
+    @Param({"sample1/sample.pdf", "test/0807.3577.pdf", "test/test_Grobid_2_05982691.pdf"})
+    public String sample;
+
+    private Engine engine;
+    private File pdf;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        engine = GrobidFactory.getInstance().createEngine();
+        pdf = GrobidBenchmarks.getSample(sample);
+    }
+
+    @Benchmark
+    public String fullText() throws Exception {
+        return engine.fullTextToTEI(pdf.getPath(), false, false);
+    }
+
+    /**
+     * Same processing with the TEI written section by section instead of being built as a string.
+     */
+    @Benchmark
+    public void fullTextStreamed() throws Exception {
+        engine.fullTextToTEI(pdf.getPath(), false, false, null, -1, -1, false, new NullWriter());
+    }
+}
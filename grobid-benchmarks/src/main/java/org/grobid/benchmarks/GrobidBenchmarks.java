@@ -0,0 +1,69 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+
+import java.io.File;
+
+/**
+ * Initialization and inputs shared by the benchmarks.
+ *
+ * The benchmarks are run from the grobid-benchmarks directory by default; the locations of grobid-home and of
+ * the sample PDF can be changed with the system properties grobid.home and grobid.benchmarks.samples.
+ */
+public class GrobidBenchmarks {
+    /**
+     * Bibliographical references, as found in the reference section of an article.
+     */
+    public static final String REFERENCES =
+            "[1] J. Smith, A. Doe, Parsing scholarly documents with conditional random fields, " +
+            "Journal of Machine Learning Research 12 (2011) 2493-2537.\n" +
+            "[2] P. Lopez, GROBID: combining automatic bibliographic data recognition and term extraction " +
+            "for scholarship publications, in: Proceedings of the 13th European Conference on Digital " +
+            "Libraries (ECDL), Corfu, Greece, 2009, pp. 473-474.\n" +
+            "[3] M. Johnson, Y. Zhang, Citation analysis in the life sciences, Nature 415 (6870) (2002) 1013-1014.\n" +
+            "[4] R. Kumar, Information extraction from PDF, Physical Review Letters 98 (8) (2007) 082505.\n";
+
+    /**
+     * Dates in the formats found in article headers.
+     */
+    public static final String[] DATES = {"12 March 2013", "2004", "Received: 3 June 1999; accepted 10/11/1999",
+            "Spring 2012", "Jan. 5, 2010", "published online 2014-07-21"};
+
+    private static boolean initialized = false;
+
+    /**
+     * Load the configuration of grobid-home and the native libraries, once per JVM.
+     */
+    public static synchronized void init() throws Exception {
+        if (initialized) {
+            return;
+        }
+        File home = new File(System.getProperty("grobid.home", "../grobid-home")).getAbsoluteFile();
+        if (!home.exists()) {
+            throw new GrobidResourceException("Cannot run the benchmarks, because grobid-home '" + home.getPath()
+                    + "' does not exist. Set its location with -Dgrobid.home=...");
+        }
+        MockContext.setInitialContext(home.getPath(),
+                new File(home, "config" + File.separator + "grobid.properties").getPath());
+        GrobidProperties.getInstance();
+        LibraryLoader.load();
+        initialized = true;
+    }
+
+    /**
+     * @param name path of a sample PDF relative to the samples directory, by default the test resources of
+     *             grobid-core
+     */
+    public static File getSample(String name) {
+        File samples = new File(System.getProperty("grobid.benchmarks.samples", "../grobid-core/src/test/resources"));
+        File sample = new File(samples, name).getAbsoluteFile();
+        if (!sample.exists()) {
+            throw new GrobidResourceException("The sample PDF '" + sample.getPath() + "' does not exist. "
+                    + "Set the samples directory with -Dgrobid.benchmarks.samples=...");
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,52 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.document.Document;
+import org.grobid.core.document.DocumentSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion of the pdf2xml output by the SAX parser, the PDF being converted once during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class Pdf2XmlBenchmark {
+    @Param({"sample1/sample.pdf", "test/0807.3577.pdf"})
+    public String sample;
+
+    private DocumentSource source;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        source = DocumentSource.fromPdf(GrobidBenchmarks.getSample(sample));
+    }
+
+    @TearDown
+    public void tearDown() {
+        DocumentSource.close(source, true);
+    }
+
+    @Benchmark
+    public Document parse() {
+        Document doc = new Document(source);
+        doc.addTokenizedDocument();
+        return doc;
+    }
+}
@@ -0,0 +1,87 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.tagging.DebugCapture;
+import org.grobid.core.engines.tagging.GenericTagger;
+import org.grobid.core.engines.tagging.TaggerFactory;
+import org.grobid.core.factory.GrobidFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Labeling by each model of the inputs it receives when processing the full text of a sample: the inputs are
+ * recorded with a {@link DebugCapture} during the setup, then labeled again by the model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class TaggerBenchmark {
+    @Param({"segmentation", "header", "fulltext", "reference-segmenter", "citation", "name/header",
+            "name/citation", "date", "affiliation-address"})
+    public String model;
+
+    @Param({"test/0807.3577.pdf"})
+    public String sample;
+
+    private GenericTagger tagger;
+    private List<String> inputs;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        GrobidModels grobidModel = GrobidModels.modelFor(model);
+        if (grobidModel == null) {
+            throw new IllegalArgumentException("Unknown model: " + model);
+        }
+        Engine engine = GrobidFactory.getInstance().createEngine();
+        DebugCapture capture = DebugCapture.start();
+        try {
+            engine.fullTextToTEI(GrobidBenchmarks.getSample(sample).getPath(), false, false);
+        } finally {
+            DebugCapture.stop();
+        }
+        inputs = new ArrayList<String>();
+        for (DebugCapture.Entry entry : capture.getEntries()) {
+            if (entry.getModel() == grobidModel) {
+                inputs.add(entry.getFeatures());
+            }
+        }
+        if (inputs.isEmpty()) {
+            throw new IllegalStateException("The model " + model + " is not used for processing " + sample);
+        }
+        tagger = TaggerFactory.getTagger(grobidModel);
+    }
+
+    /**
+     * Label all the inputs of the model for the sample, one call per input as done by the parsers.
+     */
+    @Benchmark
+    public void label(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(tagger.label(input));
+        }
+    }
+
+    @Benchmark
+    public List<String> labelBatch() {
+        return tagger.labelBatch(inputs);
+    }
+}
@@ -0,0 +1,58 @@
+package org.grobid.benchmarks;
+
+import org.grobid.core.data.BiblioItem;
+import org.grobid.core.document.Document;
+import org.grobid.core.document.TEIFormater;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.factory.GrobidFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TEI serialization of the header and of the references of a sample, parsed once during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class TeiBenchmark {
+    @Param({"test/0807.3577.pdf"})
+    public String sample;
+
+    private Document doc;
+    private BiblioItem header;
+
+    @Setup
+    public void setUp() throws Exception {
+        GrobidBenchmarks.init();
+        Engine engine = GrobidFactory.getInstance().createEngine();
+        doc = engine.getParsers().getSegmentationParser().processing(
+                Document.fromPdf(GrobidBenchmarks.getSample(sample), -1, -1));
+        doc = engine.getParsers().getFullTextParser().processingSegmentedDocument(doc, false, false, 0, false, false);
+        header = new BiblioItem();
+        engine.processHeader(doc, false, header);
+    }
+
+    @Benchmark
+    public StringBuffer header() {
+        return new TEIFormater(doc).toTEIHeader(header, false, null, false);
+    }
+
+    @Benchmark
+    public StringBuffer references() throws Exception {
+        return new TEIFormater(doc).toTEIReferences(new StringBuffer(), doc.getBibDataSets(), false);
+    }
+}
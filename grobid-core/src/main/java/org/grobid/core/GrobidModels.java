@@ -70,6 +70,21 @@ public enum GrobidModels {
         return StringUtils.substringBefore(folderName, "/") + ".template";
     }
 
+    /**
+     * @param name the name of the constant, the folder name or the model name of a model (e.g. NAMES_HEADER,
+     *             name/header or name-header)
+     * @return the model, or null if no model has this name
+     */
+    public static GrobidModels modelFor(String name) {
+        for (GrobidModels model : values()) {
+            if (model.name().equalsIgnoreCase(name) || model.getFolderName().equals(name)
+                    || model.getModelName().equals(name)) {
+                return model;
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         return folderName;
@@ -0,0 +1,153 @@
+package org.grobid.core.document;
+
+import eugfc.imageio.plugins.PNMRegistry;
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.utilities.GrobidProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copy of the assets extracted by pdf2xml (images and vector graphics) to the asset directory of a request, the
+ * JPG and PPM images being converted to PNG.
+ *
+ * The conversions run on a pool shared by all the engines, so that the images of a document are converted
+ * concurrently, and the number of images decoded in memory at a time is bounded by grobid.assets.threads. A
+ * conversion which is not started yet when the assets are awaited is run by the awaiting thread.
+ */
+public class AssetConverter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssetConverter.class);
+
+    private static ExecutorService executor = null;
+
+    private final List<FutureTask<Void>> conversions = new ArrayList<FutureTask<Void>>();
+
+    private AssetConverter() {
+    }
+
+    /**
+     * Copy the PNG and vector files of a pdf2xml data directory, and start converting its bitmap images.
+     *
+     * @param dataDirectory  the directory of the files extracted by pdf2xml
+     * @param assetDirectory the directory where the assets are written, created if needed
+     * @return the conversions in progress, to be awaited before the data directory is removed
+     */
+    public static AssetConverter start(File dataDirectory, final File assetDirectory) {
+        AssetConverter converter = new AssetConverter();
+        if (!assetDirectory.exists()) {
+            if (assetDirectory.mkdir()) {
+                LOGGER.debug("Directory created: " + assetDirectory.getPath());
+            } else {
+                LOGGER.error("Failed to create directory: " + assetDirectory.getPath());
+            }
+        }
+        // for image conversion we're using an ImageIO plugin for PPM format support
+        // see https://github.com/eug/imageio-pnm
+        PNMRegistry.registerAllServicesProviders();
+
+        File[] files = dataDirectory.exists() ? dataDirectory.listFiles() : null;
+        if (files == null) {
+            return converter;
+        }
+        for (final File file : files) {
+            String name = file.getName().toLowerCase();
+            if (name.endsWith(".png") || name.endsWith(".vec")) {
+                try {
+                    FileUtils.copyFileToDirectory(file, assetDirectory);
+                } catch (IOException e) {
+                    LOGGER.error("Cannot copy the asset " + file.getPath(), e);
+                }
+            } else if (name.endsWith(".jpg") || name.endsWith(".ppm")) {
+                FutureTask<Void> conversion = new FutureTask<Void>(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        convert(file, assetDirectory);
+                        return null;
+                    }
+                });
+                converter.conversions.add(conversion);
+                getExecutor().execute(conversion);
+            }
+        }
+        return converter;
+    }
+
+    /**
+     * Wait for the end of the conversions, the ones which are not started yet being run by the current thread.
+     */
+    public void await() {
+        for (FutureTask<Void> conversion : conversions) {
+            // does nothing if the conversion is already started by the pool
+            conversion.run();
+        }
+        for (FutureTask<Void> conversion : conversions) {
+            try {
+                conversion.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GrobidException("Interrupted while converting the assets", e);
+            } catch (ExecutionException e) {
+                throw new GrobidException("An exception occurred while converting the assets", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Convert an image to PNG in the asset directory, the errors being logged.
+     */
+    static void convert(File file, File assetDirectory) {
+        String name = file.getName().toLowerCase();
+        File output = new File(assetDirectory, name.substring(0, name.length() - 4) + ".png");
+        try {
+            BufferedImage image = ImageIO.read(file);
+            if (image == null) {
+                LOGGER.warn("Cannot decode the image " + file.getPath());
+                return;
+            }
+            ImageIO.write(image, "png", output);
+        } catch (IOException e) {
+            LOGGER.error("Cannot convert the image " + file.getPath() + " to PNG", e);
+        }
+    }
+
+    /**
+     * Stop the threads of the pool, which is created again on next use.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int nbThreads = Math.max(GrobidProperties.getAssetsThreads(), 1);
+            executor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "grobid-assets-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+}
@@ -10,6 +10,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
 import org.grobid.core.data.BibDataSet;
+import org.grobid.core.engines.tagging.FeatureMatrix;
 import org.grobid.core.engines.tagging.GenericTaggerUtils;
 import org.grobid.core.engines.Segmentation;
 import org.grobid.core.layout.Block;
@@ -94,7 +95,7 @@ public class BasicStructureBuilder {
 //            Integer ii = i;
 
             String localText = block.getText();
-            List<LayoutToken> tokens = block.tokens;
+            List<LayoutToken> tokens = block.getTokens();
 
             if ((localText != null) && (tokens != null)) {
                 if (tokens.size() > 0) {
@@ -149,7 +150,7 @@ public class BasicStructureBuilder {
             for (Block block : doc.getBlocks()) {
 
                 String localText = block.getText();
-                List<LayoutToken> tokens = block.tokens;
+                List<LayoutToken> tokens = block.getTokens();
 
                 if ((localText != null) && (tokens.size() > 0)) {
 
@@ -161,7 +162,7 @@ public class BasicStructureBuilder {
                             if (groupStr.trim().equals("" + counter)) {
                                 localText = localText.substring(0, localText.length() - groupStr.length());
                                 block.setText(localText);
-                                tokens.remove(tokens.size() - 1);
+                                block.removeToken(tokens.size() - 1);
                                 counter++;
                             }
                         }
@@ -174,7 +175,7 @@ public class BasicStructureBuilder {
                             if (groupStr.trim().equals("" + counter)) {
                                 localText = localText.substring(groupStr.length(), localText.length() - 1);
                                 block.setText(localText);
-                                tokens.remove(0);
+                                block.removeToken(0);
                                 counter++;
                             }
                         }
@@ -688,7 +689,18 @@ public class BasicStructureBuilder {
     }	
 	
     static public Document generalResultSegmentation(Document doc, String labeledResult, List<String> documentTokens) {
-        List<Pair<String, String>> labeledTokens = GenericTaggerUtils.getTokensAndLabels(labeledResult);
+        return generalResultSegmentation(doc, GenericTaggerUtils.getTokensAndLabels(labeledResult), documentTokens);
+    }
+
+    /**
+     * Same as {@link #generalResultSegmentation(Document, String, List)} for a feature matrix labeled with
+     * {@link org.grobid.core.engines.tagging.GenericTagger#label(FeatureMatrix)}.
+     */
+    static public Document generalResultSegmentation(Document doc, FeatureMatrix features, int[] labels, List<String> documentTokens) {
+        return generalResultSegmentation(doc, GenericTaggerUtils.getTokensAndLabels(features, labels), documentTokens);
+    }
+
+    static private Document generalResultSegmentation(Document doc, List<Pair<String, String>> labeledTokens, List<String> documentTokens) {
 
         SortedSetMultimap<String, DocumentPiece> labeledBlocks = TreeMultimap.create();
         doc.setLabeledBlocks(labeledBlocks);
@@ -15,7 +15,9 @@ import org.grobid.core.features.FeaturesVectorHeader;
 import org.grobid.core.layout.Block;
 import org.grobid.core.layout.Cluster;
 import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.layout.LayoutTokenStore;
 import org.grobid.core.sax.PDF2XMLSaxParser;
+import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.TextUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +27,7 @@ import javax.xml.parsers.SAXParserFactory;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,6 +57,9 @@ public class Document {
     private String lang = null;
 
     private List<Block> blocks = null;
+    // layout information of the tokens of the blocks
+    private LayoutTokenStore tokenStore = null;
+    private int nbPages = 0;
     private List<Cluster> clusters = null;
 
     private List<Integer> blockHeaders = null;
@@ -90,7 +96,91 @@ public class Document {
 
     public Document(DocumentSource documentSource) {
         top = new DocumentNode("top", "0");
-        setPathXML(documentSource.getXmlFile());
+        // a piped source has no XML file, see appendTokenizedDocument(DocumentSource)
+        File xmlFile = documentSource.getXmlFile();
+        if (xmlFile != null) {
+            setPathXML(xmlFile);
+        }
+    }
+
+    /**
+     * Convert a PDF file with pdf2xml and parse the resulting XML representation, as it is produced when
+     * pdf2xml is piped (see {@link DocumentSource#fromPdfPipe(File, int, int)}). A temporary XML file is
+     * removed once parsed, so the returned document does not hold any resource and can be handed over to
+     * another thread for labeling.
+     *
+     * If grobid.pdf.window.pages is set, the pages are converted by windows of this size, see
+     * {@link #fromPdfWindows(File, int, int, int)}.
+     *
+     * @param pdfFile   the pdf file to be converted
+     * @param startPage the starting page to consider, -1 for the first page (default)
+     * @param endPage   the end page to consider, -1 for the last page (default)
+     * @return the tokenized document
+     */
+    public static Document fromPdf(File pdfFile, int startPage, int endPage) {
+        int windowPages = GrobidProperties.getPdfWindowPages();
+        if ((windowPages > 0) && ((endPage <= 0) || (endPage - Math.max(startPage, 1) + 1 > windowPages))) {
+            return fromPdfWindows(pdfFile, startPage, endPage, windowPages);
+        }
+
+        DocumentSource documentSource = null;
+        try {
+            documentSource = DocumentSource.fromPdfPipe(pdfFile, startPage, endPage);
+            Document doc = new Document(documentSource);
+            doc.appendTokenizedDocument(documentSource);
+
+            if (doc.getBlocks() == null) {
+                throw new GrobidException("PDF parsing resulted in empty content");
+            }
+            return doc;
+        } finally {
+            DocumentSource.close(documentSource, true);
+        }
+    }
+
+    /**
+     * Convert a PDF file with pdf2xml by windows of pages, each window being parsed and appended to the
+     * document before the next one is converted. Each conversion is then subject to the pdf2xml timeout and
+     * memory limit separately, and only the XML representation of one window exists at a time. The tokens of
+     * all the windows are kept in the document, so its memory still grows with the number of pages.
+     *
+     * @param pdfFile     the pdf file to be converted
+     * @param startPage   the starting page to consider, -1 for the first page (default)
+     * @param endPage     the end page to consider, -1 for the last page (default)
+     * @param windowPages the number of pages converted at a time
+     * @return the tokenized document
+     */
+    public static Document fromPdfWindows(File pdfFile, int startPage, int endPage, int windowPages) {
+        Document doc = null;
+        int first = Math.max(startPage, 1);
+        while ((endPage <= 0) || (first <= endPage)) {
+            int last = first + windowPages - 1;
+            if ((endPage > 0) && (last > endPage)) {
+                last = endPage;
+            }
+            DocumentSource documentSource = null;
+            int pages;
+            try {
+                documentSource = DocumentSource.fromPdfPipe(pdfFile, first, last);
+                if (doc == null) {
+                    doc = new Document(documentSource);
+                }
+                pages = doc.appendTokenizedDocument(documentSource);
+            } finally {
+                DocumentSource.close(documentSource, true);
+            }
+            LOGGER.debug("Pages " + first + " to " + last + " of " + pdfFile + ": " + pages + " pages converted");
+            // pdf2xml gives no page beyond the last page of the document
+            if (pages < last - first + 1) {
+                break;
+            }
+            first = last + 1;
+        }
+
+        if ((doc == null) || (doc.getBlocks() == null)) {
+            throw new GrobidException("PDF parsing resulted in empty content");
+        }
+        return doc;
     }
 
 //    public Document(String pdfPath, String repositPath) {
@@ -118,6 +208,13 @@ public class Document {
         return bibDataSets;
     }
 
+    public LayoutTokenStore getTokenStore() {
+        if (tokenStore == null) {
+            tokenStore = new LayoutTokenStore();
+        }
+        return tokenStore;
+    }
+
     public void addBlock(Block b) {
         if (blocks == null)
             blocks = new ArrayList<Block>();
@@ -186,34 +283,99 @@ public class Document {
         PDF2XMLSaxParser parser = new PDF2XMLSaxParser(this, images);
 
         tokenizations = null;
+        parse(new File(pathXML), parser);
+        tokenizations = parser.getTokenization();
+        nbPages = parser.getNbPages();
+        // we filter out possible line numbering for review works
+        // filterLineNumber();
+        return tokenizations;
+    }
 
-        File file = new File(pathXML);
+    /**
+     * Parse the PDF2XML representation of the next pages of the document, which are added after the blocks
+     * and the tokenization of the pages already parsed.
+     *
+     * @param file the PDF2XML representation of the next pages
+     * @return the number of pages parsed
+     */
+    public int appendTokenizedDocument(File file) {
+        if (tokenizations == null) {
+            tokenizations = new ArrayList<String>();
+        }
+        List<String> images = new ArrayList<String>();
+        PDF2XMLSaxParser parser = new PDF2XMLSaxParser(this, images, tokenizations, nbPages);
+        parse(file, parser);
+        nbPages += parser.getNbPages();
+        return parser.getNbPages();
+    }
+
+    /**
+     * Parse the PDF2XML representation of the next pages of the document, read from the XML file of a source
+     * or from the output of pdf2xml when the source is piped, see {@link DocumentSource#fromPdfPipe(File, int, int)}.
+     *
+     * @param source the PDF2XML representation of the next pages
+     * @return the number of pages parsed
+     */
+    public int appendTokenizedDocument(DocumentSource source) {
+        if (source.getXmlStream() == null) {
+            return appendTokenizedDocument(source.getXmlFile());
+        }
+        if (tokenizations == null) {
+            tokenizations = new ArrayList<String>();
+        }
+        List<String> images = new ArrayList<String>();
+        PDF2XMLSaxParser parser = new PDF2XMLSaxParser(this, images, tokenizations, nbPages);
+        try {
+            parse(source.getXmlStream(), "pdf2xml output of " + source.getPdfFile(), parser);
+        } catch (GrobidException e) {
+            // a truncated output is explained by the end of the process
+            if (source.isPdf2XmlTimedOut()) {
+                throw new GrobidException("PDF to XML conversion timed out", GrobidExceptionStatus.TIMEOUT);
+            }
+            throw e;
+        }
+        source.checkPdf2Xml();
+        nbPages += parser.getNbPages();
+        return parser.getNbPages();
+    }
+
+    /**
+     * @return the number of pages parsed
+     */
+    public int getNbPages() {
+        return nbPages;
+    }
+
+    private void parse(File file, PDF2XMLSaxParser parser) {
         FileInputStream in = null;
         try {
             in = new FileInputStream(file);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot parse file: " + file, e, GrobidExceptionStatus.PARSING_ERROR);
+        }
+        try {
+            parse(in, "file: " + file, parser);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                LOGGER.error("Cannot close input stream", e);
+            }
+        }
+    }
 
+    private void parse(InputStream in, String name, PDF2XMLSaxParser parser) {
+        try {
             // get a factory
             SAXParserFactory spf = SAXParserFactory.newInstance();
             // get a new instance of parser
             SAXParser p = spf.newSAXParser();
 
             p.parse(in, parser);
-            tokenizations = parser.getTokenization();
+            getTokenStore().trimToSize();
         } catch (Exception e) {
-            throw new GrobidException("Cannot parse file: " + file, e, GrobidExceptionStatus.PARSING_ERROR);
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    LOGGER.error("Cannot close input stream", e);
-                }
-
-            }
+            throw new GrobidException("Cannot parse " + name, e, GrobidExceptionStatus.PARSING_ERROR);
         }
-        // we filter out possible line numbering for review works
-        // filterLineNumber();
-        return tokenizations;
     }
 
     /**
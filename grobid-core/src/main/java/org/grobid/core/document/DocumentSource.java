@@ -4,17 +4,32 @@ import org.apache.commons.lang3.StringUtils;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.exceptions.GrobidExceptionStatus;
 import org.grobid.core.exceptions.GrobidResourceException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.grobid.core.process.ProcessRunner;
+import org.grobid.core.process.StreamGobbler;
 import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.KeyGen;
 import org.grobid.core.utilities.Utilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * User: zholudev
@@ -28,11 +43,25 @@ public class DocumentSource {
     private static final int PDF2XML_MEM_LIMIT_KBYTES = GrobidProperties.getPdf2XMLMemoryLimitMb() * 1024;
     private final static File tmpPath = GrobidProperties.getTempPath();
 
+    // kills the piped pdf2xml processes which exceed the timeout
+    private static ScheduledExecutorService pipeTimer = null;
+
     private File pdfFile;
     private File xmlFile;
     private int timeout = DEFAULT_TIMEOUT; // timeout 20 second for
     boolean cleanupXml = false;
 
+    // pdf2xml process whose standard output is parsed, see fromPdfPipe()
+    private Process process;
+    private InputStream xmlStream;
+    private StreamGobbler errorStream;
+    private ScheduledFuture<?> timeoutKill;
+    private volatile boolean timedOut = false;
+    // copy of the piped XML representation, stored in the pdf2xml cache once the conversion succeeded
+    private String cacheKey;
+    private File cacheFile;
+    private OutputStream cacheOutput;
+
 
     private DocumentSource() {
     }
@@ -54,11 +83,186 @@ public class DocumentSource {
         }
 
         DocumentSource source = new DocumentSource();
-        source.xmlFile = source.pdf2xml(true, false, startPage, endPage, pdfFile, tmpPath, withImages);
+        Pdf2XmlCache cache = Pdf2XmlCache.getInstance();
+        String key = null;
+        if (cache != null) {
+            try {
+                key = Pdf2XmlCache.getKey(pdfFile, startPage, endPage, withImages);
+                source.xmlFile = cache.get(key, new File(tmpPath, KeyGen.getKey() + ".lxml"));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot look up the pdf2xml cache for " + pdfFile + ": " + e.getMessage());
+            }
+        }
+        if (source.xmlFile == null) {
+            source.xmlFile = source.pdf2xml(true, false, startPage, endPage, pdfFile, tmpPath, withImages);
+            if ((key != null) && (source.xmlFile != null)) {
+                cache.put(key, source.xmlFile);
+            }
+        }
         source.cleanupXml = true;
         return source;
     }
 
+    /**
+     * Start pdf2xml on a pdf file without images, its XML representation being read from
+     * {@link #getXmlStream()} as it is produced instead of from a temporary file. The source falls back
+     * to {@link #fromPdf(File, int, int)} when pdf2xml is run by the server mode or when
+     * grobid.pdf2xml.pipe is false.
+     *
+     * When the pdf2xml results are cached, a cached result is read from its file, and a new one is
+     * copied to a temporary file as it is read, which is stored in the cache if the conversion succeeds.
+     *
+     * The XML stream must be read until its end, then {@link #checkPdf2Xml()} gives the status of
+     * the conversion; {@link #close(boolean)} kills the process if it is still running.
+     */
+    public static DocumentSource fromPdfPipe(File pdfFile, int startPage, int endPage) {
+        if (!GrobidProperties.isPdf2XMLPipe() || GrobidProperties.isContextExecutionServer()) {
+            return fromPdf(pdfFile, startPage, endPage);
+        }
+        if (!pdfFile.exists() || pdfFile.isDirectory()) {
+            throw new GrobidException("Input PDF file " + pdfFile + " does not exist or a directory", GrobidExceptionStatus.BAD_INPUT_DATA);
+        }
+
+        DocumentSource source = new DocumentSource();
+        source.pdfFile = pdfFile;
+        Pdf2XmlCache cache = Pdf2XmlCache.getInstance();
+        if (cache != null) {
+            try {
+                source.cacheKey = Pdf2XmlCache.getKey(pdfFile, startPage, endPage, false);
+                source.xmlFile = cache.get(source.cacheKey, new File(tmpPath, KeyGen.getKey() + ".lxml"));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot look up the pdf2xml cache for " + pdfFile + ": " + e.getMessage());
+                source.cacheKey = null;
+            }
+            if (source.xmlFile != null) {
+                source.cleanupXml = true;
+                return source;
+            }
+        }
+
+        // pdf2xml writes the XML representation on its standard output when the XML file is "-", and is
+        // exec'ed so that destroying the process kills pdf2xml itself and not only the shell
+        List<String> cmd = Arrays.asList("bash", "-c", "ulimit -Sv " + PDF2XML_MEM_LIMIT_KBYTES + " && exec "
+                + source.getPdf2xmlCommand(false) + getPageOptions(startPage, endPage) + " '" + pdfFile + "' -");
+        LOGGER.debug("Executing command: " + cmd);
+        try {
+            source.process = new ProcessBuilder(cmd).start();
+        } catch (IOException e) {
+            throw new GrobidException("Cannot start the PDF to XML conversion of " + pdfFile, e);
+        }
+        IOUtils.closeQuietly(source.process.getOutputStream());
+        source.xmlStream = source.process.getInputStream();
+        source.errorStream = new StreamGobbler(source.process.getErrorStream());
+        if (source.cacheKey != null) {
+            source.cacheFile = new File(tmpPath, KeyGen.getKey() + ".lxml");
+            try {
+                source.cacheOutput = new BufferedOutputStream(new FileOutputStream(source.cacheFile));
+                source.xmlStream = new TeeInputStream(source.xmlStream, source.cacheOutput);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot copy the pdf2xml result of " + pdfFile + " to the cache: " + e.getMessage());
+                source.cacheFile = null;
+            }
+        }
+
+        final DocumentSource timed = source;
+        source.timeoutKill = getPipeTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                timed.timedOut = true;
+                timed.process.destroy();
+                // a parser blocked on the output fails instead of waiting for more data
+                IOUtils.closeQuietly(timed.process.getInputStream());
+            }
+        }, source.timeout, TimeUnit.MILLISECONDS);
+        return source;
+    }
+
+    /**
+     * @return the XML representation written by pdf2xml, or null if it is read from {@link #getXmlFile()}
+     */
+    public InputStream getXmlStream() {
+        return xmlStream;
+    }
+
+    /**
+     * @return true if pdf2xml has been killed because it exceeded the timeout
+     */
+    public boolean isPdf2XmlTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Wait for the end of pdf2xml once its XML stream is read, and check its exit status.
+     */
+    public void checkPdf2Xml() {
+        if (process == null) {
+            return;
+        }
+        // the parser stops at the end of the root element, the rest of the output is consumed so that
+        // pdf2xml does not block on a full pipe and the copy for the cache is complete
+        try {
+            IOUtils.copy(xmlStream, new NullOutputStream());
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read the end of the pdf2xml output of " + pdfFile + ": " + e.getMessage());
+        }
+        int exit;
+        try {
+            exit = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new GrobidException("Interrupted while waiting for the PDF to XML conversion", e);
+        }
+        timeoutKill.cancel(false);
+        if (timedOut) {
+            throw new GrobidException("PDF to XML conversion timed out", GrobidExceptionStatus.TIMEOUT);
+        }
+        if (exit != 0) {
+            String errorStreamContents = null;
+            try {
+                errorStreamContents = IOUtils.toString(errorStream);
+            } catch (IOException e) {
+                LOGGER.error("Error retrieving error stream from process: {}", e);
+            }
+            throw new GrobidException("PDF to XML conversion failed " + (StringUtils.isEmpty(errorStreamContents) ? "" : ("due to: " + errorStreamContents)),
+                    GrobidExceptionStatus.TIMEOUT);
+        }
+        if (cacheFile != null) {
+            try {
+                cacheOutput.close();
+                Pdf2XmlCache.getInstance().put(cacheKey, cacheFile);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot copy the pdf2xml result of " + pdfFile + " to the cache: " + e.getMessage());
+            } finally {
+                FileUtils.deleteQuietly(cacheFile);
+                cacheFile = null;
+            }
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getPipeTimer() {
+        if (pipeTimer == null) {
+            pipeTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "grobid-pdf2xml-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return pipeTimer;
+    }
+
+    private static String getPageOptions(int startPage, int endPage) {
+        String options = "";
+        if (startPage > 0)
+            options += " -f " + startPage + " ";
+        if (endPage > 0)
+            options += " -l " + endPage + " ";
+        return options;
+    }
+
     private String getPdf2xmlCommand(boolean full) {
         String pdf2xml = GrobidProperties.getPdf2XMLPath().getAbsolutePath();
         pdf2xml += GrobidProperties.isContextExecutionServer() ? "/pdftoxml_server" : "/pdftoxml";
@@ -84,12 +288,7 @@ public class DocumentSource {
         long time = System.currentTimeMillis();
         String pdftoxml0;
 
-        pdftoxml0 = getPdf2xmlCommand(full);
-
-        if (startPage > 0)
-            pdftoxml0 += " -f " + startPage + " ";
-        if (endPage > 0)
-            pdftoxml0 += " -l " + endPage + " ";
+        pdftoxml0 = getPdf2xmlCommand(full) + getPageOptions(startPage, endPage);
 
         // if the XML representation already exists, no need to redo the
         // conversion,
@@ -110,7 +309,7 @@ public class DocumentSource {
             if (GrobidProperties.isContextExecutionServer()) {
                 tmpPathXML = processPdf2XmlServerMode(pdfPath, tmpPathXML, cmd);
             } else {
-                cmd = Arrays.asList("bash", "-c", "ulimit -Sv " + PDF2XML_MEM_LIMIT_KBYTES + " && " + pdftoxml0 + " '" + pdfPath + "' " + tmpPathXML);
+                cmd = Arrays.asList("bash", "-c", "ulimit -Sv " + PDF2XML_MEM_LIMIT_KBYTES + " && exec " + pdftoxml0 + " '" + pdfPath + "' " + tmpPathXML);
 
                 LOGGER.debug("Executing command: " + cmd);
 
@@ -245,6 +444,20 @@ public class DocumentSource {
 
 
     public void close(boolean cleanImages) {
+        if (process != null) {
+            timeoutKill.cancel(false);
+            IOUtils.closeQuietly(xmlStream);
+            try {
+                errorStream.close();
+            } catch (IOException e) {
+                LOGGER.error("IOException while closing the stream gobbler: {}", e);
+            }
+            process.destroy();
+            if (cacheFile != null) {
+                IOUtils.closeQuietly(cacheOutput);
+                FileUtils.deleteQuietly(cacheFile);
+            }
+        }
         try {
             if (cleanupXml) {
                 cleanXmlFile(xmlFile, cleanImages);
@@ -0,0 +1,225 @@
+package org.grobid.core.document;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.KeyGen;
+import org.grobid.core.utilities.SHA1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * On-disk cache of the XML files produced by pdf2xml, keyed by the SHA1 of the content of the pdf,
+ * the page range and the image extraction flag, so that processing the same pdf again (for instance
+ * header then fulltext, or a retry) does not run pdf2xml again.
+ *
+ * The cached files are copied in and out of the cache directory, the copies being owned by the
+ * caller. The total size of the cache is bounded, the least recently used entries being removed
+ * first. The order of use survives a restart through the modification time of the cached files.
+ *
+ * The cache is disabled by default. When enabled, the text of every converted pdf is kept on disk under
+ * grobid.pdf2xml.cache.path until evicted, which matters for a service receiving confidential documents.
+ */
+public class Pdf2XmlCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Pdf2XmlCache.class);
+
+    private static final String XML_EXTENSION = ".lxml";
+    private static final String TMP_EXTENSION = ".tmp";
+    // pdf2xml writes the images of [file].lxml under [file].lxml_data
+    private static final String DATA_SUFFIX = "_data";
+
+    private static Pdf2XmlCache instance;
+
+    private final File directory;
+    private final long maxSize;
+    // entry key to entry size in bytes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    private long size = 0;
+
+    /**
+     * @return the cache configured in grobid.properties, or null if pdf2xml results are not cached
+     */
+    public static synchronized Pdf2XmlCache getInstance() {
+        long maxSize = GrobidProperties.getPdf2XMLCacheMaxSizeMb() * 1024L * 1024L;
+        // the cache can be disabled at runtime, its directory and size are the ones of its first use
+        if (maxSize <= 0) {
+            return null;
+        }
+        if (instance == null) {
+            instance = new Pdf2XmlCache(GrobidProperties.getPdf2XMLCachePath(), maxSize);
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the cache returned by getInstance, for the tests. A null cache is created again on next use.
+     */
+    static synchronized void setInstance(Pdf2XmlCache cache) {
+        instance = cache;
+    }
+
+    public Pdf2XmlCache(File directory, long maxSize) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new GrobidResourceException("Cannot create the pdf2xml cache directory '"
+                    + directory.getAbsolutePath() + "'");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        load();
+    }
+
+    /**
+     * @return the key of the pdf2xml result of a pdf file, identical for identical file contents
+     */
+    public static String getKey(File pdfFile, int startPage, int endPage, boolean withImages) throws IOException {
+        // pdf2xml ignores the non positive page bounds
+        return SHA1.getSHA1(pdfFile) + "-" + Math.max(startPage, 0) + "-" + Math.max(endPage, 0)
+                + (withImages ? "-images" : "");
+    }
+
+    /**
+     * Copy a cached pdf2xml result, and its images if any, to the given XML file. The copy is made under the
+     * lock of the cache, so that the entry cannot be evicted by a concurrent put while it is copied.
+     *
+     * @return the target file, or null if the key is not cached
+     */
+    public synchronized File get(String key, File target) {
+        if (entries.get(key) == null) {
+            return null;
+        }
+        File cached = new File(directory, key + XML_EXTENSION);
+        File cachedData = new File(cached.getPath() + DATA_SUFFIX);
+        File targetData = new File(target.getPath() + DATA_SUFFIX);
+        try {
+            FileUtils.copyFile(cached, target);
+            if (cachedData.isDirectory()) {
+                FileUtils.copyDirectory(cachedData, targetData);
+            }
+            cached.setLastModified(System.currentTimeMillis());
+            LOGGER.debug("pdf2xml cache hit for " + key);
+            return target;
+        } catch (IOException e) {
+            // the cached files have been removed outside of the cache
+            LOGGER.warn("Cannot read the cached pdf2xml result " + key + ": " + e.getMessage());
+            FileUtils.deleteQuietly(target);
+            FileUtils.deleteQuietly(targetData);
+            size -= entries.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Copy a pdf2xml result, and its images if any, in the cache under the given key.
+     */
+    public void put(String key, File xmlFile) {
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return;
+            }
+        }
+        // copied under a temporary name first, so that an entry is never seen half written
+        File tmp = new File(directory, KeyGen.getKey() + TMP_EXTENSION);
+        File tmpData = new File(tmp.getPath() + DATA_SUFFIX);
+        File xmlData = new File(xmlFile.getPath() + DATA_SUFFIX);
+        try {
+            FileUtils.copyFile(xmlFile, tmp);
+            long entrySize = tmp.length();
+            if (xmlData.isDirectory()) {
+                FileUtils.copyDirectory(xmlData, tmpData);
+                entrySize += FileUtils.sizeOfDirectory(tmpData);
+            }
+            synchronized (this) {
+                if (entries.containsKey(key)) {
+                    return;
+                }
+                File cached = new File(directory, key + XML_EXTENSION);
+                File cachedData = new File(cached.getPath() + DATA_SUFFIX);
+                if ((tmpData.exists() && !tmpData.renameTo(cachedData)) || !tmp.renameTo(cached)) {
+                    LOGGER.warn("Cannot store the pdf2xml result " + key + " in the cache");
+                    return;
+                }
+                entries.put(key, entrySize);
+                size += entrySize;
+                evict();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot store the pdf2xml result " + key + " in the cache: " + e.getMessage());
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+            FileUtils.deleteQuietly(tmpData);
+        }
+    }
+
+    /**
+     * @return the total size of the cached entries in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while ((size > maxSize) && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            File cached = new File(directory, eldest.getKey() + XML_EXTENSION);
+            FileUtils.deleteQuietly(cached);
+            FileUtils.deleteQuietly(new File(cached.getPath() + DATA_SUFFIX));
+            size -= eldest.getValue();
+            it.remove();
+            LOGGER.debug("pdf2xml cache eviction of " + eldest.getKey());
+        }
+    }
+
+    private synchronized void load() {
+        File[] leftovers = directory.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.getName().contains(TMP_EXTENSION);
+            }
+        });
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                FileUtils.deleteQuietly(leftover);
+            }
+        }
+
+        File[] files = directory.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(XML_EXTENSION);
+            }
+        });
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            public int compare(File f1, File f2) {
+                long t1 = f1.lastModified();
+                long t2 = f2.lastModified();
+                return (t1 < t2) ? -1 : ((t1 == t2) ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            long entrySize = file.length();
+            File data = new File(file.getPath() + DATA_SUFFIX);
+            if (data.isDirectory()) {
+                entrySize += FileUtils.sizeOfDirectory(data);
+            }
+            String name = file.getName();
+            entries.put(name.substring(0, name.length() - XML_EXTENSION.length()), entrySize);
+            size += entrySize;
+        }
+        evict();
+    }
+}
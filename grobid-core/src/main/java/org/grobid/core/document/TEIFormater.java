@@ -16,6 +16,8 @@ import org.grobid.core.engines.FullTextParser;
 import org.grobid.core.utilities.KeyGen;
 import org.grobid.core.utilities.Pair;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
@@ -67,6 +69,29 @@ public class TEIFormater {
     public TEIFormater(Document document) {
         doc = document;
     }
+
+    /**
+     * Write the sections of TEI accumulated in a buffer to an output, and clear the buffer so that it can be
+     * reused for the next sections. The sections only read back their own content from the buffer, so the
+     * TEI can be written section by section without being held entirely in memory.
+     *
+     * @param output the output, or null to keep accumulating the TEI in the buffer
+     * @return the buffer
+     */
+    public static StringBuffer flush(StringBuffer tei, Writer output) throws IOException {
+        if (output == null) {
+            return tei;
+        }
+        // written by chunks, to avoid a copy of the buffer as a string
+        char[] chunk = new char[Math.min(tei.length(), 8192)];
+        for (int start = 0; start < tei.length(); start += chunk.length) {
+            int end = Math.min(start + chunk.length, tei.length());
+            tei.getChars(start, end, chunk, 0);
+            output.write(chunk, 0, end - start);
+        }
+        tei.setLength(0);
+        return tei;
+    }
 	
     public StringBuffer toTEIHeader(BiblioItem biblio,
                                     boolean withStyleSheet,
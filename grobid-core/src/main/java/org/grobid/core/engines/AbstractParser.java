@@ -1,6 +1,7 @@
 package org.grobid.core.engines;
 
 import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.tagging.FeatureMatrix;
 import org.grobid.core.engines.tagging.GenericTagger;
 import org.grobid.core.engines.tagging.TaggerFactory;
 import org.grobid.core.utilities.counters.CntManager;
@@ -11,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
 
 public abstract class AbstractParser implements GenericTagger, Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractParser.class);
@@ -39,6 +41,16 @@ public abstract class AbstractParser implements GenericTagger, Closeable {
         return genericTagger.label(data);
     }
 
+    @Override
+    public List<String> labelBatch(List<String> sequences) {
+        return genericTagger.labelBatch(sequences);
+    }
+
+    @Override
+    public int[] label(FeatureMatrix matrix) {
+        return genericTagger.label(matrix);
+    }
+
     @Override
     public void close() throws IOException {
         try {	
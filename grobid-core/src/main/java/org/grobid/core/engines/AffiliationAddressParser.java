@@ -3,14 +3,18 @@ package org.grobid.core.engines;
 import org.chasen.crfpp.Tagger;
 import org.grobid.core.GrobidModels;
 import org.grobid.core.data.Affiliation;
+import org.grobid.core.engines.tagging.LabelCache;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorAffiliationAddress;
 import org.grobid.core.lexicon.Lexicon;
 import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.Pair;
 import org.grobid.core.utilities.TextUtilities;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 /**
@@ -29,48 +33,130 @@ public class AffiliationAddressParser extends AbstractParser {
                 return null;
             }
 
-            ArrayList<String> affiliationBlocks = new ArrayList<String>();
-            input = input.trim();
-
-            input = TextUtilities.dehyphenize(input);
-            //StringTokenizer st = new StringTokenizer(input, " \n\t" + TextUtilities.fullPunctuations, true);
-            //List<String> tokenizations = new ArrayList<String>();
-			// TBD: pass the language object to the tokenizer 
-			List<String> tokenizations = analyzer.tokenize(input);
-            //while (st.hasMoreTokens()) {
-            //    String tok = st.nextToken();
-			int p = 0;
-			for(String tok : tokenizations) {
-                if (tok.length() == 0) continue;
-                if (tok.equals("\n")) {
-                    //tokenizations.add(" ");
-					tokenizations.set(p, " ");
-                } /*else {
-                    tokenizations.add(tok);
-                }*/
-                if (!tok.equals(" ")) {
-                    if (tok.equals("\n")) {
-                        affiliationBlocks.add("@newline");
-                    } else
-                        affiliationBlocks.add(tok + " <affiliation>");
-                }
-				p++;
+            LabelCache<Pair<String, List<String>>> labelCache = LabelCache.getCache(GrobidModels.AFFIILIATON_ADDRESS);
+            // the features are built from the trimmed input
+            String key = input.trim();
+            Pair<String, List<String>> labeled = (labelCache == null) ? null : labelCache.get(key);
+            if (labeled == null) {
+                List<String> tokenizations = new ArrayList<String>();
+                String header = getAffiliationFeatures(input, tokenizations);
+
+                // add context
+//                st = new StringTokenizer(header, "\n");
+
+                //TODO:
+                String res = label(header);
+                labeled = new Pair<String, List<String>>(res, tokenizations);
+                if (labelCache != null)
+                    labelCache.put(key, labeled);
             }
+            // the cached tokens are not given to the result builder
+            return resultBuilder(labeled.a, new ArrayList<String>(labeled.b), false); // don't use pre-labels
+        } catch (Exception e) {
+            throw new GrobidException("An exception occurred while running Grobid.", e);
+        }
+    }
 
-            List<List<OffsetPosition>> placesPositions = new ArrayList<List<OffsetPosition>>();
-            placesPositions.add(lexicon.inCityNames(input));
-
-            String header = FeaturesVectorAffiliationAddress.addFeaturesAffiliationAddress(affiliationBlocks, placesPositions);
-
-            // add context
-//            st = new StringTokenizer(header, "\n");
+    /**
+     * Processing of a list of raw affiliation+address strings, all of them being labeled with a single call
+     * to the tagger. The inputs already labeled, in the batch or in the memoization cache, are labeled only once.
+     *
+     * @param inputs raw affiliation+address strings
+     * @return for each input, in the same order, the list of recognized affiliations or null
+     */
+    public List<List<Affiliation>> processingBatch(List<String> inputs) {
+        List<List<Affiliation>> results = new ArrayList<List<Affiliation>>(inputs.size());
+        try {
+            LabelCache<Pair<String, List<String>>> labelCache = LabelCache.getCache(GrobidModels.AFFIILIATON_ADDRESS);
+            // labeled result and tokens of each input, or index of its features in the sequences to label
+            List<Pair<String, List<String>>> labeledInputs = new ArrayList<Pair<String, List<String>>>(inputs.size());
+            List<Integer> positions = new ArrayList<Integer>(inputs.size());
+            Map<String, Integer> toLabelPositions = new HashMap<String, Integer>();
+            List<String> toLabel = new ArrayList<String>(inputs.size());
+            List<List<String>> tokenizationsList = new ArrayList<List<String>>(inputs.size());
+            for (String input : inputs) {
+                Pair<String, List<String>> labeled = null;
+                Integer position = null;
+                if ((input != null) && (input.length() != 0)) {
+                    String key = input.trim();
+                    labeled = (labelCache == null) ? null : labelCache.get(key);
+                    position = toLabelPositions.get(key);
+                    if ((labeled == null) && (position == null)) {
+                        List<String> tokenizations = new ArrayList<String>();
+                        position = toLabel.size();
+                        toLabelPositions.put(key, position);
+                        toLabel.add(getAffiliationFeatures(input, tokenizations));
+                        tokenizationsList.add(tokenizations);
+                    }
+                }
+                labeledInputs.add(labeled);
+                positions.add(labeled == null ? position : null);
+            }
 
-            //TODO:
-            String res = label(header);
-            return resultBuilder(res, tokenizations, false); // don't use pre-labels
+            List<String> labeled = toLabel.isEmpty() ? new ArrayList<String>() : labelBatch(toLabel);
+            List<Pair<String, List<String>>> newLabeled = new ArrayList<Pair<String, List<String>>>(labeled.size());
+            for (int i = 0; i < labeled.size(); i++) {
+                newLabeled.add(new Pair<String, List<String>>(labeled.get(i), tokenizationsList.get(i)));
+            }
+            if (labelCache != null) {
+                for (Map.Entry<String, Integer> toLabelPosition : toLabelPositions.entrySet()) {
+                    labelCache.put(toLabelPosition.getKey(), newLabeled.get(toLabelPosition.getValue()));
+                }
+            }
+            for (int i = 0; i < inputs.size(); i++) {
+                Pair<String, List<String>> res = labeledInputs.get(i);
+                if ((res == null) && (positions.get(i) != null)) {
+                    res = newLabeled.get(positions.get(i));
+                }
+                // the cached tokens are not given to the result builder
+                results.add(res == null ? null : resultBuilder(res.a, new ArrayList<String>(res.b), false)); // don't use pre-labels
+            }
         } catch (Exception e) {
             throw new GrobidException("An exception occurred while running Grobid.", e);
         }
+        return results;
+    }
+
+    /**
+     * Build the feature matrix of a raw affiliation+address string.
+     *
+     * @param input         raw affiliation+address string
+     * @param tokenizations list filled with the tokens of the input, new lines being replaced by spaces
+     * @return the feature matrix
+     */
+    private String getAffiliationFeatures(String input, List<String> tokenizations) throws Exception {
+        ArrayList<String> affiliationBlocks = new ArrayList<String>();
+        input = input.trim();
+
+        input = TextUtilities.dehyphenize(input);
+        //StringTokenizer st = new StringTokenizer(input, " \n\t" + TextUtilities.fullPunctuations, true);
+        //List<String> tokenizations = new ArrayList<String>();
+		// TBD: pass the language object to the tokenizer 
+		tokenizations.addAll(analyzer.tokenize(input));
+        //while (st.hasMoreTokens()) {
+        //    String tok = st.nextToken();
+		int p = 0;
+		for(String tok : tokenizations) {
+            if (tok.length() == 0) continue;
+            if (tok.equals("\n")) {
+                //tokenizations.add(" ");
+				tokenizations.set(p, " ");
+            } /*else {
+                tokenizations.add(tok);
+            }*/
+            if (!tok.equals(" ")) {
+                if (tok.equals("\n")) {
+                    affiliationBlocks.add("@newline");
+                } else
+                    affiliationBlocks.add(tok + " <affiliation>");
+            }
+			p++;
+        }
+
+        List<List<OffsetPosition>> placesPositions = new ArrayList<List<OffsetPosition>>();
+        placesPositions.add(lexicon.inCityNames(input));
+
+        return FeaturesVectorAffiliationAddress.addFeaturesAffiliationAddress(affiliationBlocks, placesPositions);
     }
 
     /**
@@ -3,6 +3,7 @@ package org.grobid.core.engines;
 import org.grobid.core.GrobidModels;
 import org.grobid.core.data.Person;
 import org.grobid.core.engines.tagging.GenericTagger;
+import org.grobid.core.engines.tagging.LabelCache;
 import org.grobid.core.engines.tagging.TaggerFactory;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorName;
@@ -14,7 +15,9 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 /**
@@ -43,77 +46,165 @@ public class AuthorParser {
      */
     public List<Person> processing(List<String> inputs,
                                    boolean head) {
+        try {
+            if (!normalizeNames(inputs))
+                return null;
+
+            LabelCache<String> labelCache = LabelCache.getCache(getModel(head));
+            String key = getCacheKey(inputs);
+            String res = (labelCache == null) ? null : labelCache.get(key);
+            if (res == null) {
+                String header = getNameFeatures(inputs);
+                if (header == null)
+                    return null;
+
+                // clear internal context
+                GenericTagger tagger = head ? namesHeaderParser : namesCitationParser;
+                res = tagger.label(header);
+                if (labelCache != null)
+                    labelCache.put(key, res);
+            }
+            return resultExtraction(res);
+        } catch (GrobidException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("An exception occured while running Grobid.", e);
+        }
+    }
+
+    /**
+     * Processing of several independent lists of author sequences (typically the author fields of all the
+     * references of a document), all of them being labeled with a single call to the tagger. The sequences
+     * already labeled, in the batch or in the memoization cache, are labeled only once.
+     *
+     * @param inputsList - list of lists of sequences of author names to be processed.
+     * @param head - if true use the model for header's name, otherwise the model for names in citation
+     * @return for each list of sequences, in the same order, the list of Person entities or null
+     */
+    public List<List<Person>> processingBatch(List<List<String>> inputsList,
+                                              boolean head) {
+        List<List<Person>> results = new ArrayList<List<Person>>(inputsList.size());
+        try {
+            LabelCache<String> labelCache = LabelCache.getCache(getModel(head));
+            // labeled result of each list, or index of its features in the sequences to label
+            List<String> labeledInputs = new ArrayList<String>(inputsList.size());
+            List<Integer> positions = new ArrayList<Integer>(inputsList.size());
+            Map<String, Integer> toLabelPositions = new HashMap<String, Integer>();
+            List<String> toLabel = new ArrayList<String>(inputsList.size());
+            for (List<String> inputs : inputsList) {
+                String res = null;
+                Integer position = null;
+                if (normalizeNames(inputs)) {
+                    String key = getCacheKey(inputs);
+                    res = (labelCache == null) ? null : labelCache.get(key);
+                    position = toLabelPositions.get(key);
+                    if ((res == null) && (position == null)) {
+                        String header = getNameFeatures(inputs);
+                        if (header != null) {
+                            position = toLabel.size();
+                            toLabelPositions.put(key, position);
+                            toLabel.add(header);
+                        }
+                    }
+                }
+                labeledInputs.add(res);
+                positions.add(res == null ? position : null);
+            }
+
+            GenericTagger tagger = head ? namesHeaderParser : namesCitationParser;
+            List<String> labeled = toLabel.isEmpty() ? new ArrayList<String>() : tagger.labelBatch(toLabel);
+            if (labelCache != null) {
+                for (Map.Entry<String, Integer> toLabelPosition : toLabelPositions.entrySet()) {
+                    labelCache.put(toLabelPosition.getKey(), labeled.get(toLabelPosition.getValue()));
+                }
+            }
+            for (int i = 0; i < inputsList.size(); i++) {
+                String res = labeledInputs.get(i);
+                if ((res == null) && (positions.get(i) != null)) {
+                    res = labeled.get(positions.get(i));
+                }
+                results.add(res == null ? null : resultExtraction(res));
+            }
+        } catch (GrobidException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("An exception occured while running Grobid.", e);
+        }
+        return results;
+    }
+
+    /**
+     * Remove the "et al." ending of the last sequence of names, in place.
+     *
+     * @return false if there is no sequence to process
+     */
+    private static boolean normalizeNames(List<String> inputs) {
         if (inputs == null)
-            return null;
+            return false;
 
         if (inputs.size() == 0)
-            return null;
+            return false;
 
         if (inputs.get(inputs.size() - 1) != null) {
             String last = inputs.get(inputs.size() - 1).trim();
             inputs.set(inputs.size() - 1, last.replaceAll("et\\.? al\\.?.*$", ""));
         }
+        return true;
+    }
 
-        List<Person> fullAuthors = null;
+    /**
+     * Key of normalized sequences of names in the memoization cache, the length of each sequence being
+     * given so that different splits of the same text do not share a key.
+     */
+    private static String getCacheKey(List<String> inputs) {
+        StringBuilder key = new StringBuilder();
+        for (String input : inputs) {
+            if (input != null) {
+                key.append(input.length()).append(':').append(input);
+            }
+        }
+        return key.toString();
+    }
 
+    private static GrobidModels getModel(boolean head) {
+        return head ? GrobidModels.NAMES_HEADER : GrobidModels.NAMES_CITATION;
+    }
+
+    /**
+     * @param inputs sequences of names normalized with {@link #normalizeNames(List)}
+     */
+    private String getNameFeatures(List<String> inputs) throws Exception {
         ArrayList<String> authorBlocks = new ArrayList<String>();
-        try {
-            for (String input : inputs) {
-                if (input == null)
-                    continue;
-                //System.out.println(input);
+        for (String input : inputs) {
+            if (input == null)
+                continue;
 
-                //StringTokenizer st = new StringTokenizer(input, TextUtilities.fullPunctuations, true);
-				// TBD: add the language object in the tokenizer call
-				List<String> tokenizations = analyzer.tokenize(input);
+            //StringTokenizer st = new StringTokenizer(input, TextUtilities.fullPunctuations, true);
+			// TBD: add the language object in the tokenizer call
+			List<String> tokenizations = analyzer.tokenize(input);
 
-                //if (st.countTokens() == 0)
-				if (tokenizations.size() == 0)
-                    return null;
-                //while (st.hasMoreTokens()) {
-                //    String tok = st.nextToken();
-				for(String tok : tokenizations) {
-                    if (!tok.equals(" ")) {
-                        authorBlocks.add(tok + " <author>");
-                    }
+            //if (st.countTokens() == 0)
+			if (tokenizations.size() == 0)
+                return null;
+            //while (st.hasMoreTokens()) {
+            //    String tok = st.nextToken();
+			for(String tok : tokenizations) {
+                if (!tok.equals(" ")) {
+                    authorBlocks.add(tok + " <author>");
                 }
-                authorBlocks.add("\n");
-                //System.out.println(authorBlocks);
             }
+            authorBlocks.add("\n");
+        }
 
-            String header = FeaturesVectorName.addFeaturesName(authorBlocks);
-            // clear internal context
-//            Tagger tagger = head ? taggerHeader : taggerCitation;
-            GenericTagger tagger = head ? namesHeaderParser : namesCitationParser;
-
-            String res = tagger.label(header);
-//            StringTokenizer st = new StringTokenizer(header, "\n");
-//            AbstractParser.feedTaggerAndParse(tagger, st);
-
-//            StringBuilder res = new StringBuilder();
-//            for (int i = 0; i < tagger.size(); i++) {
-//                for (int j = 0; j < tagger.xsize(); j++) {
-//                    //System.out.print(tagger.x(i, j) + "\t");
-//                    res.append(tagger.x(i, j)).append("\t");
-//                }
-//
-//                res.append("<author>" + "\t");
-//                res.append(tagger.y2(i));
-//                /*if (line.length() == 0)
-//                        res.append(" ");*/
-//                res.append("\n");
-//
-//                /*System.out.print("Details");
-//                for (int j = 0; j < tagger.ysize(); ++j) {
-//                      System.out.print("\t" + tagger.yname(j) + "/prob=" + tagger.prob(i,j)
-//                               + "/alpha=" + tagger.alpha(i, j)
-//                               + "/beta=" + tagger.beta(i, j));
-//                }
-//                System.out.print("\n");*/
-//            }
-//
-//            tagger.delete();
+        return FeaturesVectorName.addFeaturesName(authorBlocks);
+    }
 
+    /**
+     * Extract the persons from a labeled sequence of names.
+     */
+    private List<Person> resultExtraction(String res) {
+        List<Person> fullAuthors = null;
+        try {
             // extract results from the processed file
             StringTokenizer st2 = new StringTokenizer(res, "\n");
             String lastTag = null;
@@ -5,6 +5,7 @@ import org.grobid.core.GrobidModels;
 import org.grobid.core.data.BibDataSet;
 import org.grobid.core.data.BiblioItem;
 import org.grobid.core.data.Date;
+import org.grobid.core.data.Person;
 import org.grobid.core.document.Document;
 import org.grobid.core.engines.citations.LabeledReferenceResult;
 import org.grobid.core.engines.citations.ReferenceSegmenter;
@@ -13,6 +14,7 @@ import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorCitation;
 import org.grobid.core.lexicon.Lexicon;
 import org.grobid.core.utilities.Consolidation;
+import org.grobid.core.utilities.consolidation.ConsolidationExecutor;
 import org.grobid.core.utilities.OffsetPosition;
 import org.grobid.core.utilities.TextUtilities;
 import org.grobid.core.utilities.counters.CntManager;
@@ -43,110 +45,159 @@ public class CitationParser extends AbstractParser {
     }
 
     public BiblioItem processing(String input, boolean consolidate) {
-        BiblioItem resCitation;
         if (StringUtils.isBlank(input)) {
             return null;
         }
+        List<String> inputs = new ArrayList<String>(1);
+        inputs.add(input);
+        return processing(inputs, consolidate).get(0);
+    }
 
+    /**
+     * Processing of a list of raw reference strings. All the references are labeled with a single call to the
+     * citation tagger, and similarly their author and date fields are labeled with a single call to the name and
+     * date taggers.
+     *
+     * @param inputs      raw reference strings
+     * @param consolidate if true, the recognized references are consolidated
+     * @return for each input, in the same order, the recognized bibliographical item or null
+     */
+    public List<BiblioItem> processing(List<String> inputs, boolean consolidate) {
+        List<BiblioItem> results = new ArrayList<BiblioItem>(inputs.size());
         try {
-            ArrayList<String> citationBlocks = new ArrayList<String>();
-
-            input = TextUtilities.dehyphenize(input);
-            input = input.replace("\n", " ");
-            input = input.replaceAll("\\p{Cntrl}", " ").trim();
-            //StringTokenizer st = new StringTokenizer(input,
-            //        TextUtilities.fullPunctuations, true);
-
-			// TBD: add the language object in the tokenizer call
-			List<String> tokenizations = analyzer.tokenize(input);
-
-            //if (st.countTokens() == 0)
-			if (tokenizations.size() == 0)
-                return null;
-
-            //List<String> tokenizations = new ArrayList<String>();
-            //while (st.hasMoreTokens()) {
-            //    final String tok = st.nextToken();
-			for(String tok : tokenizations) {
-                //tokenizations.add(tok);
-                if (!tok.equals(" ")) {
-                    citationBlocks.add(tok + " <citation>");
+            List<List<String>> tokenizationsList = new ArrayList<List<String>>(inputs.size());
+            List<String> toLabel = new ArrayList<String>(inputs.size());
+            for (String input : inputs) {
+                List<String> tokenizations = null;
+                if (!StringUtils.isBlank(input)) {
+                    input = TextUtilities.dehyphenize(input);
+                    input = input.replace("\n", " ");
+                    input = input.replaceAll("\\p{Cntrl}", " ").trim();
+
+                    // TBD: add the language object in the tokenizer call
+                    tokenizations = analyzer.tokenize(input);
+                    if (tokenizations.size() == 0) {
+                        tokenizations = null;
+                    } else {
+                        toLabel.add(getCitationFeatures(input, tokenizations));
+                    }
                 }
+                tokenizationsList.add(tokenizations);
             }
-            citationBlocks.add("\n");
-
-            List<List<OffsetPosition>> journalsPositions = new ArrayList<List<OffsetPosition>>();
-            List<List<OffsetPosition>> abbrevJournalsPositions = new ArrayList<List<OffsetPosition>>();
-            List<List<OffsetPosition>> conferencesPositions = new ArrayList<List<OffsetPosition>>();
-            List<List<OffsetPosition>> publishersPositions = new ArrayList<List<OffsetPosition>>();
-
-            journalsPositions.add(lexicon.inJournalNames(input));
-            abbrevJournalsPositions.add(lexicon.inAbbrevJournalNames(input));
-            conferencesPositions.add(lexicon.inConferenceNames(input));
-            publishersPositions.add(lexicon.inPublisherNames(input));
 
-            String ress = FeaturesVectorCitation.addFeaturesCitation(
-                    citationBlocks, journalsPositions, abbrevJournalsPositions,
-                    conferencesPositions, publishersPositions);
-            String res = label(ress);
-
-            resCitation = resultExtraction(res, true, tokenizations);
-            // post-processing (additional field parsing and cleaning)
-            if (resCitation != null) {
-                BiblioItem.cleanTitles(resCitation);
+            List<String> labeled = toLabel.isEmpty() ? new ArrayList<String>() : labelBatch(toLabel);
+            List<List<String>> authorsList = new ArrayList<List<String>>();
+            List<String> datesList = new ArrayList<String>();
+            int l = 0;
+            for (List<String> tokenizations : tokenizationsList) {
+                BiblioItem resCitation = null;
+                if (tokenizations != null) {
+                    resCitation = resultExtraction(labeled.get(l++), true, tokenizations);
+                }
+                if (resCitation != null) {
+                    BiblioItem.cleanTitles(resCitation);
 
-                resCitation.setOriginalAuthors(resCitation.getAuthors());
+                    resCitation.setOriginalAuthors(resCitation.getAuthors());
 
-                ArrayList<String> auts = new ArrayList<String>();
-                if (resCitation.getAuthors() != null) {
-                    auts.add(resCitation.getAuthors());
+                    ArrayList<String> auts = new ArrayList<String>();
+                    if (resCitation.getAuthors() != null) {
+                        auts.add(resCitation.getAuthors());
+                    }
+                    authorsList.add(auts);
+                    if (resCitation.getPublicationDate() != null) {
+                        datesList.add(resCitation.getPublicationDate());
+                    }
                 }
+                results.add(resCitation);
+            }
 
-                resCitation.setFullAuthors(parsers.getAuthorParser().processingCitation(auts));
-                if (resCitation.getPublicationDate() != null) {
-                    List<Date> dates = parsers.getDateParser().processing(resCitation
-                            .getPublicationDate());
-                    if (dates != null) {
-                        Date bestDate = null;
-                        if (dates.size() > 0) {
-                            // we take the earliest most specified date
-                            for (Date theDate : dates) {
-                                if (bestDate == null) {
-                                    bestDate = theDate;
-                                } else {
-                                    if (bestDate.compareTo(theDate) == 1) {
+            // post-processing (additional field parsing and cleaning)
+            List<List<Person>> fullAuthorsList = authorsList.isEmpty() ? new ArrayList<List<Person>>() :
+                    parsers.getAuthorParser().processingBatch(authorsList, false);
+            List<List<Date>> datesResults = datesList.isEmpty() ? new ArrayList<List<Date>>() :
+                    parsers.getDateParser().processingBatch(datesList);
+            int a = 0;
+            int d = 0;
+            for (int i = 0; i < results.size(); i++) {
+                BiblioItem resCitation = results.get(i);
+                if (resCitation != null) {
+                    resCitation.setFullAuthors(fullAuthorsList.get(a++));
+                    if (resCitation.getPublicationDate() != null) {
+                        List<Date> dates = datesResults.get(d++);
+                        if (dates != null) {
+                            Date bestDate = null;
+                            if (dates.size() > 0) {
+                                // we take the earliest most specified date
+                                for (Date theDate : dates) {
+                                    if (bestDate == null) {
                                         bestDate = theDate;
+                                    } else {
+                                        if (bestDate.compareTo(theDate) == 1) {
+                                            bestDate = theDate;
+                                        }
                                     }
                                 }
-                            }
-                            if (bestDate != null) {
-                                resCitation
-                                        .setNormalizedPublicationDate(bestDate);
+                                if (bestDate != null) {
+                                    resCitation
+                                            .setNormalizedPublicationDate(bestDate);
+                                }
                             }
                         }
                     }
+
+                    resCitation.setPageRange(TextUtilities.cleanField(
+                            resCitation.getPageRange(), true));
+                    resCitation.setPublisher(TextUtilities.cleanField(
+                            resCitation.getPublisher(), true));
+                    resCitation.setJournal(TextUtilities.cleanField(
+                            resCitation.getJournal(), true));
+                    resCitation.postProcessPages();
                 }
 
-                resCitation.setPageRange(TextUtilities.cleanField(
-                        resCitation.getPageRange(), true));
-                resCitation.setPublisher(TextUtilities.cleanField(
-                        resCitation.getPublisher(), true));
-                resCitation.setJournal(TextUtilities.cleanField(
-                        resCitation.getJournal(), true));
-                resCitation.postProcessPages();
             }
 
             if (consolidate) {
-                resCitation = consolidateCitation(resCitation);
+                List<BiblioItem> toConsolidate = new ArrayList<BiblioItem>();
+                for (BiblioItem resCitation : results) {
+                    if (resCitation != null) {
+                        toConsolidate.add(resCitation);
+                    }
+                }
+                // the crossref lookups of all the citations are done concurrently
+                ConsolidationExecutor.getInstance().consolidate(toConsolidate);
             }
 
-            return resCitation;
+            return results;
         } catch (Exception e) {
             throw new GrobidException(
                     "An exception occured while running Grobid.", e);
         }
     }
 
+    private String getCitationFeatures(String input, List<String> tokenizations) throws Exception {
+        ArrayList<String> citationBlocks = new ArrayList<String>();
+        for (String tok : tokenizations) {
+            if (!tok.equals(" ")) {
+                citationBlocks.add(tok + " <citation>");
+            }
+        }
+        citationBlocks.add("\n");
+
+        List<List<OffsetPosition>> journalsPositions = new ArrayList<List<OffsetPosition>>();
+        List<List<OffsetPosition>> abbrevJournalsPositions = new ArrayList<List<OffsetPosition>>();
+        List<List<OffsetPosition>> conferencesPositions = new ArrayList<List<OffsetPosition>>();
+        List<List<OffsetPosition>> publishersPositions = new ArrayList<List<OffsetPosition>>();
+
+        journalsPositions.add(lexicon.inJournalNames(input));
+        abbrevJournalsPositions.add(lexicon.inAbbrevJournalNames(input));
+        conferencesPositions.add(lexicon.inConferenceNames(input));
+        publishersPositions.add(lexicon.inPublisherNames(input));
+
+        return FeaturesVectorCitation.addFeaturesCitation(
+                citationBlocks, journalsPositions, abbrevJournalsPositions,
+                conferencesPositions, publishersPositions);
+    }
+
     public List<BibDataSet> processingReferenceSection(Document doc, ReferenceSegmenter referenceSegmenter, boolean consolidate) {
         List<BibDataSet> results = new ArrayList<BibDataSet>();
 
@@ -168,9 +219,16 @@ public class CitationParser extends AbstractParser {
             cntManager.i(CitationParserCounters.SEGMENTED_REFERENCES, references.size());
         }
 
+        List<String> inputs = new ArrayList<String>(references.size());
         for (LabeledReferenceResult ref : references) {
-            BiblioItem bib = processing(TextUtilities.dehyphenize(ref.getReferenceText()), consolidate);
-			if (!bib.rejectAsReference()) {
+            inputs.add(TextUtilities.dehyphenize(ref.getReferenceText()));
+        }
+        List<BiblioItem> bibs = processing(inputs, consolidate);
+
+        for (int i = 0; i < references.size(); i++) {
+            LabeledReferenceResult ref = references.get(i);
+            BiblioItem bib = bibs.get(i);
+			if ((bib != null) && !bib.rejectAsReference()) {
 	            BibDataSet bds = new BibDataSet();
 	            bds.setRefSymbol(ref.getLabel());
 	            bds.setResBib(bib);
@@ -445,14 +503,12 @@ public class CitationParser extends AbstractParser {
             if (consolidator == null) {
                 consolidator = new Consolidation();
             }
-            consolidator.openDb();
             ArrayList<BiblioItem> bibis = new ArrayList<BiblioItem>();
             boolean valid = consolidator.consolidate(resCitation, bibis);
             if ((valid) && (bibis.size() > 0)) {
                 BiblioItem bibo = bibis.get(0);
                 BiblioItem.correct(resCitation, bibo);
             }
-            consolidator.closeDb();
         } catch (Exception e) {
             // e.printStackTrace();
             throw new GrobidException(
@@ -2,12 +2,15 @@ package org.grobid.core.engines;
 
 import org.grobid.core.GrobidModels;
 import org.grobid.core.data.Date;
+import org.grobid.core.engines.tagging.LabelCache;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorDate;
 import org.grobid.core.utilities.TextUtilities;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,37 +25,113 @@ public class DateParser extends AbstractParser {
     }
 
     /**
-     * Processing of authors in header
+     * Processing of a raw date string
      */
     public List<Date> processing(String input) {
         if (input == null)
             return null;
 
-        List<Date> dates = null;
+        try {
+            LabelCache<String> labelCache = LabelCache.getCache(GrobidModels.DATE);
+            String res = (labelCache == null) ? null : labelCache.get(input);
+            if (res == null) {
+                String headerDate = getDateFeatures(input);
+                if (headerDate == null)
+                    return null;
 
-        List<String> dateBlocks = new ArrayList<String>();
+                // add context
+//                st = new StringTokenizer(headerDate, "\n");
+                //TODO:
+//                String res = getTaggerResult(st, "<date>");
+                res = label(headerDate);
+                if (labelCache != null)
+                    labelCache.put(input, res);
+            }
+            return resultExtraction(res);
+        } catch (GrobidException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("An exception occured while running Grobid.", e);
+        }
+    }
+
+    /**
+     * Processing of a list of raw date strings, all the dates being labeled with a single call to the tagger.
+     * The dates already labeled, in the batch or in the memoization cache, are labeled only once.
+     *
+     * @param inputs raw date strings
+     * @return for each input, in the same order, the list of recognized dates or null
+     */
+    public List<List<Date>> processingBatch(List<String> inputs) {
+        List<List<Date>> results = new ArrayList<List<Date>>(inputs.size());
         try {
-            //StringTokenizer st = new StringTokenizer(input, "([" + TextUtilities.punctuations, true);
-			List<String> tokenizations = analyzer.tokenize(input);
-            //if (st.countTokens() == 0)
-			if (tokenizations.size() == 0) 
-                return null;
-            //while (st.hasMoreTokens()) {
-            //    String tok = st.nextToken();
-			for(String tok : tokenizations) {
-                if (!tok.equals(" ")) {
-                    dateBlocks.add(tok + " <date>");
+            LabelCache<String> labelCache = LabelCache.getCache(GrobidModels.DATE);
+            // labeled result of each input, or index of its features in the sequences to label
+            List<String> labeledInputs = new ArrayList<String>(inputs.size());
+            List<Integer> positions = new ArrayList<Integer>(inputs.size());
+            Map<String, Integer> toLabelPositions = new HashMap<String, Integer>();
+            List<String> toLabel = new ArrayList<String>(inputs.size());
+            for (String input : inputs) {
+                String res = ((input == null) || (labelCache == null)) ? null : labelCache.get(input);
+                Integer position = (input == null) ? null : toLabelPositions.get(input);
+                if ((res == null) && (input != null) && (position == null)) {
+                    String headerDate = getDateFeatures(input);
+                    if (headerDate != null) {
+                        position = toLabel.size();
+                        toLabelPositions.put(input, position);
+                        toLabel.add(headerDate);
+                    }
                 }
+                labeledInputs.add(res);
+                positions.add(res == null ? position : null);
             }
-//          dateBlocks.add("\n");
 
-            String headerDate = FeaturesVectorDate.addFeaturesDate(dateBlocks);
+            List<String> labeled = toLabel.isEmpty() ? new ArrayList<String>() : labelBatch(toLabel);
+            if (labelCache != null) {
+                for (Map.Entry<String, Integer> toLabelPosition : toLabelPositions.entrySet()) {
+                    labelCache.put(toLabelPosition.getKey(), labeled.get(toLabelPosition.getValue()));
+                }
+            }
+            for (int i = 0; i < inputs.size(); i++) {
+                String res = labeledInputs.get(i);
+                if ((res == null) && (positions.get(i) != null)) {
+                    res = labeled.get(positions.get(i));
+                }
+                results.add(res == null ? null : resultExtraction(res));
+            }
+        } catch (GrobidException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("An exception occured while running Grobid.", e);
+        }
+        return results;
+    }
 
-            // add context
-//            st = new StringTokenizer(headerDate, "\n");
-            //TODO:
-//            String res = getTaggerResult(st, "<date>");
-            String res = label(headerDate);
+    private String getDateFeatures(String input) throws Exception {
+        List<String> dateBlocks = new ArrayList<String>();
+        //StringTokenizer st = new StringTokenizer(input, "([" + TextUtilities.punctuations, true);
+		List<String> tokenizations = analyzer.tokenize(input);
+        //if (st.countTokens() == 0)
+		if (tokenizations.size() == 0) 
+            return null;
+        //while (st.hasMoreTokens()) {
+        //    String tok = st.nextToken();
+		for(String tok : tokenizations) {
+            if (!tok.equals(" ")) {
+                dateBlocks.add(tok + " <date>");
+            }
+        }
+//      dateBlocks.add("\n");
+
+        return FeaturesVectorDate.addFeaturesDate(dateBlocks);
+    }
+
+    /**
+     * Extract the dates from a labeled date sequence.
+     */
+    private List<Date> resultExtraction(String res) {
+        List<Date> dates = null;
+        try {
             // extract results from the processed file
 
             //System.out.print(res.toString());
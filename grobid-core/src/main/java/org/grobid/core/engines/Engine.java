@@ -37,6 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -114,7 +115,35 @@ public class Engine implements Closeable {
      *         sequence of authors.
      */
     public List<List<Person>> processAuthorsCitationLists(List<String> authorSequences) throws Exception {
-        return null;
+        if (authorSequences == null)
+            return null;
+        List<List<String>> inputsList = new ArrayList<List<String>>(authorSequences.size());
+        for (String authorSequence : authorSequences) {
+            List<String> inputs = new ArrayList<String>();
+            inputs.add(authorSequence);
+            inputsList.add(inputs);
+        }
+        return parsers.getAuthorParser().processingBatch(inputsList, false);
+    }
+
+    /**
+     * Parse a list of independent sequences of authors from headers.
+     *
+     * @param authorSequences - the list of strings corresponding each to a raw sequence of
+     *                        names.
+     * @return the list of all recognized structured author objects for each
+     *         sequence of authors.
+     */
+    public List<List<Person>> processAuthorsHeaderLists(List<String> authorSequences) throws Exception {
+        if (authorSequences == null)
+            return null;
+        List<List<String>> inputsList = new ArrayList<List<String>>(authorSequences.size());
+        for (String authorSequence : authorSequences) {
+            List<String> inputs = new ArrayList<String>();
+            inputs.add(authorSequence);
+            inputsList.add(inputs);
+        }
+        return parsers.getAuthorParser().processingBatch(inputsList, true);
     }
 
     /**
@@ -137,15 +166,9 @@ public class Engine implements Closeable {
      *         each sequence of affiliation + address block.
      */
     public List<List<Affiliation>> processAffiliations(List<String> addressBlocks) throws Exception {
-        List<List<Affiliation>> results = null;
-        for (String addressBlock : addressBlocks) {
-            List<Affiliation> localRes = parsers.getAffiliationAddressParser().processing(addressBlock);
-            if (results == null) {
-                results = new ArrayList<List<Affiliation>>();
-            }
-            results.add(localRes);
-        }
-        return results;
+        if ((addressBlocks == null) || (addressBlocks.size() == 0))
+            return null;
+        return parsers.getAffiliationAddressParser().processingBatch(addressBlocks);
     }
 
     /**
@@ -169,7 +192,9 @@ public class Engine implements Closeable {
      *         for each inputed string.
      */
     public List<List<org.grobid.core.data.Date>> processDates(List<String> dateBlocks) {
-        return null;
+        if (dateBlocks == null)
+            return null;
+        return parsers.getDateParser().processingBatch(dateBlocks);
     }
 
     /**
@@ -201,12 +226,7 @@ public class Engine implements Closeable {
             return null;
         if (references.size() == 0)
             return null;
-        List<BiblioItem> results = new ArrayList<BiblioItem>();
-        for (String reference : references) {
-            BiblioItem bit = parsers.getCitationParser().processing(reference, consolidate);
-            results.add(bit);
-        }
-        return results;
+        return parsers.getCitationParser().processing(references, consolidate);
     }
 
     /**
@@ -424,6 +444,24 @@ public class Engine implements Closeable {
         return resultTEI.getLeft();
     }
 
+    /**
+     * Apply a parsing model for the header of a document already converted by pdf2xml, typically
+     * restricted to its first three pages, see {@link Document#fromPdf(File, int, int)}.
+     *
+     * @param doc         the tokenized document
+     * @param consolidate - the consolidation option allows GROBID to exploit Crossref
+     *                    web services for improving header information
+     * @param result      bib result
+     * @return the TEI representation of the extracted bibliographical
+     *         information
+     */
+    public String processHeader(Document doc, boolean consolidate, BiblioItem result) {
+        if (result == null) {
+            result = new BiblioItem();
+        }
+        return parsers.getHeaderParser().processingHeaderBlock(consolidate, doc, result);
+    }
+
     /**
      * Use the segmentation model to identify the header section of a PDF file, then apply a parsing model for the
      * header based on CRF
@@ -575,6 +613,64 @@ public class Engine implements Closeable {
         return resultDoc.getTei();
     }
 
+    /**
+     * Same as {@link #fullTextToTEI(String, boolean, boolean, String, int, int, boolean)}, the 
+     * resulting TEI being written to an output section by section, so that the whole TEI string  
+     * of a large document is never built in memory. The output is not closed.
+     *
+	 * @param output the output where the TEI is written
+     */
+    public void fullTextToTEI(String inputFile, 
+								boolean consolidateHeader, 
+								boolean consolidateCitations,
+								String assetPath,
+								int startPage,
+								int endPage,
+								boolean generateIDs,
+								Writer output) throws Exception {
+        LOGGER.debug("Starting processing fullTextToTEI on " + inputFile);
+        long time = System.currentTimeMillis();
+        parsers.getFullTextParser().processing(inputFile, consolidateHeader, 
+				consolidateCitations, 0, assetPath, startPage, endPage, generateIDs, output);
+        LOGGER.debug("Ending processing fullTextToTEI on " + inputFile + ". Time to process: " 
+			+ (System.currentTimeMillis() - time) + "ms");
+    }
+
+    /**
+     * Apply the segmentation and the full text models to a document already converted by pdf2xml, 
+     * see {@link Document#fromPdf(File, int, int)}. The assets are not extracted.
+     *
+     * @param doc                  - the tokenized document
+     * @param consolidateHeader    - the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving header information
+     * @param consolidateCitations - the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving citations information
+	 * @return the resulting structured document as a TEI string.
+     */
+    public String fullTextToTEI(Document doc, 
+								boolean consolidateHeader, 
+								boolean consolidateCitations) throws Exception {
+        doc = parsers.getSegmentationParser().processing(doc);
+        Document resultDoc = parsers.getFullTextParser().processingSegmentedDocument(doc, consolidateHeader, 
+				consolidateCitations, 0, false, false);
+        return resultDoc.getTei();
+    }
+
+    /**
+     * Same as {@link #fullTextToTEI(Document, boolean, boolean)}, the resulting TEI being written  
+     * to an output section by section. The output is not closed.
+     *
+	 * @param output the output where the TEI is written
+     */
+    public void fullTextToTEI(Document doc, 
+								boolean consolidateHeader, 
+								boolean consolidateCitations,
+								Writer output) throws Exception {
+        doc = parsers.getSegmentationParser().processing(doc);
+        parsers.getFullTextParser().processingSegmentedDocument(doc, consolidateHeader, 
+				consolidateCitations, 0, false, false, output);
+    }
+
     public void extractFigures(String inputFile, String assetPath) {
         FigureParser figureParser = parsers.getFigureParser();
 
@@ -724,6 +820,84 @@ public class Engine implements Closeable {
         return batchProcess(directoryPath, resultPath, consolidateHeader, consolidateCitations, 1);
     }
 
+    /**
+     * Extract the headers for all PDF files in a given directory with several threads, each thread using
+     * its own engine from the engine pool, and produce the results as XML files TEI conformant.
+     *
+     * @param directoryPath - the path to the directory containing PDF to be processed.
+     * @param resultPath    - the path to the directory where the results as XML files
+     *                      shall be written.
+     * @param consolidate   - the consolidation option allows GROBID to exploit Crossref
+     *                      web services for improving header information
+     * @param nbThreads     - the number of files processed concurrently
+     * @return the number of successfully processed files.
+     */
+    public int batchProcessHeader(String directoryPath, String resultPath, boolean consolidate, int nbThreads) {
+        return new ParallelBatchProcessor(nbThreads, cntManager).processHeader(directoryPath, resultPath, consolidate);
+    }
+
+    /**
+     * Extract the fulltext for all PDF files in a given directory with several threads, each thread using
+     * its own engine from the engine pool, and produce the results as XML files TEI conformant.
+     *
+     * @param directoryPath        - the path to the directory containing PDF to be processed.
+     * @param resultPath           - the path to the directory where the results as XML files
+     *                             shall be written.
+     * @param consolidateHeader    - the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving header information
+     * @param consolidateCitations - the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving citations information
+     * @param nbThreads            - the number of files processed concurrently
+     * @return the number of successfully processed files.
+     */
+    public int batchProcessFulltext(String directoryPath, String resultPath, boolean consolidateHeader,
+		boolean consolidateCitations, int nbThreads) {
+        return new ParallelBatchProcessor(nbThreads, cntManager).processFulltext(directoryPath, resultPath,
+                consolidateHeader, consolidateCitations);
+    }
+
+    /**
+     * Extract the headers for all PDF files in a given directory with a pipeline overlapping the pdf2xml
+     * conversion of the next files with the labeling of the already converted ones, and produce the
+     * results as XML files TEI conformant.
+     *
+     * @param directoryPath - the path to the directory containing PDF to be processed.
+     * @param resultPath    - the path to the directory where the results as XML files
+     *                      shall be written.
+     * @param consolidate   - the consolidation option allows GROBID to exploit Crossref
+     *                      web services for improving header information
+     * @param nbConverters  - the number of pdf2xml conversion threads
+     * @param nbLabelers    - the number of labeling threads, each using its own engine from the engine pool
+     * @return the number of successfully processed files.
+     */
+    public int batchProcessHeader(String directoryPath, String resultPath, boolean consolidate, int nbConverters,
+        int nbLabelers) {
+        return new PipelinedBatchProcessor(nbConverters, nbLabelers, nbConverters + nbLabelers, cntManager)
+                .processHeader(directoryPath, resultPath, consolidate);
+    }
+
+    /**
+     * Extract the fulltext for all PDF files in a given directory with a pipeline overlapping the pdf2xml
+     * conversion of the next files with the labeling of the already converted ones, and produce the
+     * results as XML files TEI conformant.
+     *
+     * @param directoryPath        - the path to the directory containing PDF to be processed.
+     * @param resultPath           - the path to the directory where the results as XML files
+     *                             shall be written.
+     * @param consolidateHeader    - the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving header information
+     * @param consolidateCitations - the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving citations information
+     * @param nbConverters         - the number of pdf2xml conversion threads
+     * @param nbLabelers           - the number of labeling threads, each using its own engine from the engine pool
+     * @return the number of successfully processed files.
+     */
+    public int batchProcessFulltext(String directoryPath, String resultPath, boolean consolidateHeader,
+		boolean consolidateCitations, int nbConverters, int nbLabelers) {
+        return new PipelinedBatchProcessor(nbConverters, nbLabelers, nbConverters + nbLabelers, cntManager)
+                .processFulltext(directoryPath, resultPath, consolidateHeader, consolidateCitations);
+    }
+
     /**
      * @param directoryPath        input path, folder where the pdf files are supposed to be
      *                             located
@@ -735,6 +909,32 @@ public class Engine implements Closeable {
      */
     private int batchProcess(String directoryPath, String resultPath, boolean consolidateHeader, 
 		boolean consolidateCitations, int type) {
+        File[] refFiles = getPdfFiles(directoryPath, resultPath);
+        if (refFiles == null)
+            return 0;
+
+        try {
+            // System.out.println(refFiles.length + " files to be processed.");
+
+            int n = 0;
+            for (; n < refFiles.length; n++) {
+                batchProcessFile(refFiles[n], resultPath, consolidateHeader, consolidateCitations, type);
+            }
+
+            return refFiles.length;
+        } catch (Exception e) {
+            throw new GrobidException("An exception occured while running Grobid.", e);
+        }
+    }
+
+    /**
+     * Check the input and output paths of a batch process and list the pdf files to be processed.
+     *
+     * @param directoryPath input path, folder where the pdf files are supposed to be located
+     * @param resultPath    output path, folder where the tei files are written to, created if needed
+     * @return the pdf files of the input folder, or null if the folder cannot be listed
+     */
+    static File[] getPdfFiles(String directoryPath, String resultPath) {
         if (directoryPath == null) {
             throw new GrobidResourceException("Cannot start parsing, because the input path, "
                     + "where the pdf files are supposed to be located is null.");
@@ -758,62 +958,123 @@ public class Engine implements Closeable {
             }
         }
 
+        // we process all pdf files in the directory
+        return path.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".pdf") || name.endsWith(".PDF");
+            }
+        });
+    }
+
+    /**
+     * Process one pdf file of a batch and write the resulting TEI in the output folder.
+     *
+     * @param pdfFile              the pdf file to be processed
+     * @param resultPath           output path, folder where the tei file is written to
+     * @param consolidateHeader    consolidate header
+     * @param consolidateCitations consolidate citations
+     * @param type                 0 for header processing, 1 for fulltext processing
+     */
+    void batchProcessFile(File pdfFile, String resultPath, boolean consolidateHeader,
+        boolean consolidateCitations, int type) throws Exception {
+        if (!pdfFile.exists()) {
+            throw new GrobidResourceException("A problem occurs in reading pdf file '" 
+				+ pdfFile.getAbsolutePath()
+                + "'. The file does not exists. ");
+        }
+        String tei = null;
+        if (type == 0) {
+            // BiblioItem res = processHeader(pdfFile.getPath(),
+            // consolidateHeader);
+            BiblioItem res = new BiblioItem();
+            tei = processHeader(pdfFile.getPath(), consolidateHeader, res);
+        } else if (type == 1) {
+            // the full text is written straight to the result file
+            File outFile = getBatchResultFile(pdfFile, resultPath, type);
+            Writer writer = openBatchResult(outFile);
+            boolean done = false;
+            try {
+                fullTextToTEI(pdfFile.getPath(), consolidateHeader, consolidateCitations, null, -1, -1, 
+                    false, writer);
+                writer.write("\n");
+                done = true;
+            } finally {
+                closeBatchResult(outFile, writer, done);
+            }
+        }
+        writeBatchResult(pdfFile, resultPath, tei, type);
+		/*
+		 * else if (type == 2) { processCitations(pdfFile.getPath(),
+		 * resultPath, resultPath); }
+		 */
+    }
+
+    /**
+     * Process one pdf file of a batch already converted by pdf2xml and write the resulting TEI in the
+     * output folder.
+     *
+     * @param doc                  the tokenized document, see {@link Document#fromPdf(File, int, int)}
+     * @param pdfFile              the pdf file from which the document has been converted
+     * @param resultPath           output path, folder where the tei file is written to
+     * @param consolidateHeader    consolidate header
+     * @param consolidateCitations consolidate citations
+     * @param type                 0 for header processing, 1 for fulltext processing
+     */
+    void batchProcessDocument(Document doc, File pdfFile, String resultPath, boolean consolidateHeader,
+        boolean consolidateCitations, int type) throws Exception {
+        String tei = null;
+        if (type == 0) {
+            tei = processHeader(doc, consolidateHeader, new BiblioItem());
+        } else if (type == 1) {
+            File outFile = getBatchResultFile(pdfFile, resultPath, type);
+            Writer writer = openBatchResult(outFile);
+            boolean done = false;
+            try {
+                fullTextToTEI(doc, consolidateHeader, consolidateCitations, writer);
+                writer.write("\n");
+                done = true;
+            } finally {
+                closeBatchResult(outFile, writer, done);
+            }
+        }
+        writeBatchResult(pdfFile, resultPath, tei, type);
+    }
+
+    private static void writeBatchResult(File pdfFile, String resultPath, String tei, int type) 
+        throws IOException {
+        if (tei == null) {
+            return;
+        }
+        Writer writer = openBatchResult(getBatchResultFile(pdfFile, resultPath, type));
         try {
-            // we process all pdf files in the directory
-            File[] refFiles = path.listFiles(new FilenameFilter() {
-                public boolean accept(File dir, String name) {
-                    return name.endsWith(".pdf") || name.endsWith(".PDF");
-                }
-            });
+            writer.write(tei);
+            writer.write("\n");
+        } finally {
+            writer.close();
+        }
+    }
 
-            if (refFiles == null)
-                return 0;
+    private static File getBatchResultFile(File pdfFile, String resultPath, int type) {
+        String ending = (type == 0) ? GrobidProperties.FILE_ENDING_TEI_HEADER 
+            : GrobidProperties.FILE_ENDING_TEI_FULLTEXT;
+        return new File(resultPath + "/" + pdfFile.getName().replace(".pdf", ending));
+    }
 
-            // System.out.println(refFiles.length + " files to be processed.");
+    private static Writer openBatchResult(File outFile) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile, false), "UTF-8"));
+    }
 
-            int n = 0;
-            for (; n < refFiles.length; n++) {
-                File pdfFile = refFiles[n];
-                if (!pdfFile.exists()) {
-                    throw new GrobidResourceException("A problem occurs in reading pdf file '" 
-						+ pdfFile.getAbsolutePath()
-                        + "'. The file does not exists. ");
-                }
-                if (type == 0) {
-                    // BiblioItem res = processHeader(pdfFile.getPath(),
-                    // consolidateHeader);
-                    BiblioItem res = new BiblioItem();
-                    String tei = processHeader(pdfFile.getPath(), consolidateHeader, res);
-                    // if (res!= null) {
-                    if (tei != null) {
-                        String outPath = resultPath + "/" + pdfFile.getName().replace(".pdf", 
-							GrobidProperties.FILE_ENDING_TEI_HEADER);
-                        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(outPath), 
-							false), "UTF-8");
-                        // writer.write(res.toTEI(0) + "\n");
-                        writer.write(tei + "\n");
-                        writer.close();
-                    }
-                } else if (type == 1) {
-                    String tei = fullTextToTEI(pdfFile.getPath(), consolidateHeader, consolidateCitations);
-                    if (tei != null) {
-                        String outPath = resultPath + "/" + pdfFile.getName().replace(".pdf", 
-							GrobidProperties.FILE_ENDING_TEI_FULLTEXT);
-                        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(outPath), 
-							false), "UTF-8");
-                        writer.write(tei + "\n");
-                        writer.close();
-                    }
-                }
-				/*
-				 * else if (type == 2) { processCitations(pdfFile.getPath(),
-				 * resultPath, resultPath); }
-				 */
+    /**
+     * Close a streamed result file, which is removed if its processing failed so that no truncated 
+     * TEI is left in the output folder.
+     */
+    private static void closeBatchResult(File outFile, Writer writer, boolean done) throws IOException {
+        try {
+            writer.close();
+        } finally {
+            if (!done && !outFile.delete()) {
+                LOGGER.warn("Cannot delete the incomplete result file " + outFile.getPath());
             }
-
-            return refFiles.length;
-        } catch (Exception e) {
-            throw new GrobidException("An exception occured while running Grobid.", e);
         }
     }
 
@@ -15,17 +15,19 @@ import java.io.IOException;
 public class EngineParsers implements Closeable {
     public static final Logger LOGGER = LoggerFactory.getLogger(EngineParsers.class);
 
-    private AuthorParser authorParser = null;
-    private AffiliationAddressParser affiliationAddressParser = null;
-    private HeaderParser headerParser = null;
-    private DateParser dateParser = null;
-    private CitationParser citationParser = null;
-    private FullTextParser fullTextParser = null;
-    private ReferenceExtractor referenceExtractor = null;
-    private ChemicalParser chemicalParser = null;
-    private Segmentation segmentationParser = null;
-    private ReferenceSegmenterParser referenceSegmenterParser = null;
-    private FigureParser figureParser = null;
+    // volatile for the lazy creation with double-checked locking, the parsers being shared with the
+    // threads parsing the sections of a document
+    private volatile AuthorParser authorParser = null;
+    private volatile AffiliationAddressParser affiliationAddressParser = null;
+    private volatile HeaderParser headerParser = null;
+    private volatile DateParser dateParser = null;
+    private volatile CitationParser citationParser = null;
+    private volatile FullTextParser fullTextParser = null;
+    private volatile ReferenceExtractor referenceExtractor = null;
+    private volatile ChemicalParser chemicalParser = null;
+    private volatile Segmentation segmentationParser = null;
+    private volatile ReferenceSegmenterParser referenceSegmenterParser = null;
+    private volatile FigureParser figureParser = null;
 
 
     public AffiliationAddressParser getAffiliationAddressParser() {
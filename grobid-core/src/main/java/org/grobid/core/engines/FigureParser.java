@@ -15,9 +15,7 @@ import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.Pair;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
@@ -90,17 +88,6 @@ public class FigureParser extends AbstractParser {
             tokenizationsBody = featSeg.getB();
             if ( (figureText != null) && (figureText.trim().length() > 0) ) {
                 labelledText = label(figureText);
-
-                // print file out for debugging purposes
-
-                try {
-                    PrintWriter out = new PrintWriter("rese.txt");
-                    out.println(labelledText);
-                    out.flush();
-                    out.close();
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                }
             }
         }
     }
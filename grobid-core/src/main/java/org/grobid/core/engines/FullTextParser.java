@@ -29,6 +29,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Matcher;
 
 /**
@@ -83,6 +85,27 @@ public class FullTextParser extends AbstractParser {
 							int startPage,
 							int endPage,
 							boolean generateIDs) throws Exception {
+		return processing(input, consolidateHeader, consolidateCitations, mode, assetPath, 
+			startPage, endPage, generateIDs, null);
+	}
+
+    /**
+     * Same as {@link #processing(String, boolean, boolean, int, String, int, int, boolean)}, the TEI
+     * being written section by section to an output instead of being built in the document.
+     *
+     * @param output if not null, the output where the TEI is written, the TEI of the returned document 
+	 * being then null
+     * @return the document object
+     */
+    public Document processing(String input, 
+							boolean consolidateHeader, 
+							boolean consolidateCitations,
+							int mode,
+							String assetPath,
+							int startPage,
+							int endPage,
+							boolean generateIDs,
+							Writer output) throws Exception {
         if (input == null) {
             throw new GrobidResourceException("Cannot process pdf file, because input file was null.");
         }
@@ -101,84 +124,182 @@ public class FullTextParser extends AbstractParser {
         try {
             // general segmentation
             Document doc = parsers.getSegmentationParser().processing(input, assetPath, startPage, endPage); 
-			SortedSet<DocumentPiece> documentBodyParts = doc.getDocumentPart(SegmentationLabel.BODY);
-			Pair<String,List<String>> featSeg = getBodyTextFeatured(doc, documentBodyParts);
-			String rese = null;
-			List<String> tokenizationsBody = null;
-			if (featSeg != null) {
-				// if featSeg is null, it usually means that no body segment is found in the 
-				// document segmentation
-				String bodytext = featSeg.getA();
-				tokenizationsBody = featSeg.getB();
-				if ( (bodytext != null) && (bodytext.trim().length() > 0) ) { 
-					rese = label(bodytext);
-                    PrintWriter out = new PrintWriter("rese.txt");
-                    out.println(rese);
-                    out.flush();
-                    out.close();
-				}
-				//System.out.println(rese);
-			}
+			return processingSegmentedDocument(doc, consolidateHeader, consolidateCitations, mode,
+					assetPath != null, generateIDs, output);
+        } catch (Exception e) {
+            throw new GrobidException("An exception occurred while running Grobid.", e);
+        }
+    }
+
+    /**
+     * Machine-learning recognition of the complete full text structures of a document already 
+     * segmented, see {@link Segmentation#processing(Document)}.
+     *
+     * @param doc the segmented document
+     * @param consolidateHeader if consolidate header
+     * @param consolidateCitations if consolidate citations
+	 * @param mode, 0 for light re-structuring (more robust), 1 for full re-structuring
+	 * @param generateImageReferences if true, the references to the extracted images are 
+	 * added to the resulting TEI
+	 * @param generateIDs if true, generate random attribute id on the textual elements of 
+	 * the resulting TEI 
+     * @return the document object with built TEI
+     */
+    public Document processingSegmentedDocument(Document doc,
+							boolean consolidateHeader, 
+							boolean consolidateCitations,
+							int mode,
+							boolean generateImageReferences,
+							boolean generateIDs) throws Exception {
+		return processingSegmentedDocument(doc, consolidateHeader, consolidateCitations, mode,
+			generateImageReferences, generateIDs, null);
+	}
 
-            // header processing
-			BiblioItem resHeader = new BiblioItem();
-			//if (mode == 0) 
-			{
-            	parsers.getHeaderParser().processingHeaderBlock(consolidateHeader, doc, resHeader);
+    /**
+     * Same as {@link #processingSegmentedDocument(Document, boolean, boolean, int, boolean, boolean)}, 
+     * the TEI being written section by section to an output instead of being built in the document.
+     *
+     * @param output if not null, the output where the TEI is written, the TEI of the returned document 
+	 * being then null
+     * @return the document object
+     */
+    public Document processingSegmentedDocument(Document doc,
+							boolean consolidateHeader, 
+							boolean consolidateCitations,
+							int mode,
+							boolean generateImageReferences,
+							boolean generateIDs,
+							Writer output) throws Exception {
+		// the header parsing writes to the document (header blocks, language), so it is done before 
+		// the other sections, which then only read the document and can be parsed concurrently
+		BiblioItem resHeader = headerTask(doc, consolidateHeader).call();
+		Callable<List<BibDataSet>> citationTask = citationTask(doc, consolidateCitations);
+		Callable<Pair<String,List<String>>> annexTask = annexTask(doc);
+
+		Pair<String,List<String>> resBody;
+		List<BibDataSet> resCitations;
+		Pair<String,List<String>> resAnnex;
+		if (SectionExecutor.isEnabled()) {
+			// the body, usually the largest section, is labeled by the current thread
+			FutureTask<List<BibDataSet>> citations = SectionExecutor.fork(citationTask);
+			FutureTask<Pair<String,List<String>>> annex = SectionExecutor.fork(annexTask);
+			try {
+				resBody = labelBody(doc);
+				resCitations = SectionExecutor.join(citations);
+				resAnnex = SectionExecutor.join(annex);
+			} finally {
+				// no effect on the completed tasks
+				citations.cancel(true);
+				annex.cancel(true);
 			}
-			/*else {
-				parsers.getHeaderParser().processingHeaderSection(doc, consolidateHeader, resHeader);
-			}*/
-            // citation processing
-            List<BibDataSet> resCitations = parsers.getCitationParser().
-				processingReferenceSection(doc, parsers.getReferenceSegmenterParser(), consolidateCitations);
-
-            doc.setBibDataSets(resCitations);
-
-            if (resCitations != null) {
-                for (BibDataSet bds : resCitations) {
-                    String marker = bds.getRefSymbol();
-                    if (marker != null) {
-                        marker = marker.replace(".", "");
-                        marker = marker.replace(" ", "");
-                        bds.setRefSymbol(marker);
-                    }
-                    //BiblioItem bib = citationParser.processing(bds.getRawBib(), consolidateCitations);
-                    //bds.setResBib(bib);
+		} else {
+			resBody = labelBody(doc);
+			resCitations = citationTask.call();
+			resAnnex = annexTask.call();
+		}
+
+        doc.setBibDataSets(resCitations);
+
+        if (resCitations != null) {
+            for (BibDataSet bds : resCitations) {
+                String marker = bds.getRefSymbol();
+                if (marker != null) {
+                    marker = marker.replace(".", "");
+                    marker = marker.replace(" ", "");
+                    bds.setRefSymbol(marker);
                 }
+                //BiblioItem bib = citationParser.processing(bds.getRawBib(), consolidateCitations);
+                //bds.setResBib(bib);
             }
-
-			// possible annexes (view as a piece of full text similar to the body)
-			documentBodyParts = doc.getDocumentPart(SegmentationLabel.ANNEX);
-            featSeg = getBodyTextFeatured(doc, documentBodyParts);
-			String rese2 = null;
-			List<String> tokenizationsBody2 = null;
-			if (featSeg != null) {
-				// if featSeg is null, it usually means that no body segment is found in the 
-				// document segmentation
-				String bodytext = featSeg.getA();
-				tokenizationsBody2 = featSeg.getB();
-	            rese2 = label(bodytext);
-				//System.out.println(rese);
-			}
-			
-			boolean generateImageReferences = false;
-			if (assetPath != null) 
-				generateImageReferences = true;
-
-            // final combination
-            toTEI(doc, // document
-				rese, rese2, // labeled data for body and annex  
-				tokenizationsBody, tokenizationsBody2, // tokenization for body and annex 
-				resHeader, resCitations, // header and bibliographical citations
-				null, false, mode,
-				generateIDs, generateImageReferences);
-            return doc;
-        } catch (Exception e) {
-            throw new GrobidException("An exception occurred while running Grobid.", e);
         }
+
+		String rese = resBody.getA();
+		List<String> tokenizationsBody = resBody.getB();
+		String rese2 = resAnnex.getA();
+		List<String> tokenizationsBody2 = resAnnex.getB();
+		
+        // final combination
+        toTEI(doc, // document
+			rese, rese2, // labeled data for body and annex  
+			tokenizationsBody, tokenizationsBody2, // tokenization for body and annex 
+			resHeader, resCitations, // header and bibliographical citations
+			null, false, mode,
+			generateIDs, generateImageReferences, output);
+        return doc;
     }
 
+	/**
+	 * @return the labeled body and its tokenization, which are null if no body segment is found
+	 */
+	private Pair<String,List<String>> labelBody(Document doc) {
+		SortedSet<DocumentPiece> documentBodyParts = doc.getDocumentPart(SegmentationLabel.BODY);
+		Pair<String,List<String>> featSeg = getBodyTextFeatured(doc, documentBodyParts);
+		String rese = null;
+		List<String> tokenizationsBody = null;
+		if (featSeg != null) {
+			// if featSeg is null, it usually means that no body segment is found in the 
+			// document segmentation
+			String bodytext = featSeg.getA();
+			tokenizationsBody = featSeg.getB();
+			if ( (bodytext != null) && (bodytext.trim().length() > 0) ) { 
+				rese = label(bodytext);
+			}
+			//System.out.println(rese);
+		}
+		return new Pair<String,List<String>>(rese, tokenizationsBody);
+	}
+
+	private Callable<BiblioItem> headerTask(final Document doc, final boolean consolidateHeader) {
+		return new Callable<BiblioItem>() {
+			@Override
+			public BiblioItem call() throws Exception {
+		        // header processing
+				BiblioItem resHeader = new BiblioItem();
+				//if (mode == 0) 
+				{
+		        	parsers.getHeaderParser().processingHeaderBlock(consolidateHeader, doc, resHeader);
+				}
+				/*else {
+					parsers.getHeaderParser().processingHeaderSection(doc, consolidateHeader, resHeader);
+				}*/
+				return resHeader;
+			}
+		};
+	}
+
+	private Callable<List<BibDataSet>> citationTask(final Document doc, final boolean consolidateCitations) {
+		return new Callable<List<BibDataSet>>() {
+			@Override
+			public List<BibDataSet> call() throws Exception {
+		        // citation processing
+		        return parsers.getCitationParser().
+					processingReferenceSection(doc, parsers.getReferenceSegmenterParser(), consolidateCitations);
+			}
+		};
+	}
+
+	private Callable<Pair<String,List<String>>> annexTask(final Document doc) {
+		return new Callable<Pair<String,List<String>>>() {
+			@Override
+			public Pair<String,List<String>> call() throws Exception {
+				// possible annexes (view as a piece of full text similar to the body)
+				SortedSet<DocumentPiece> documentBodyParts = doc.getDocumentPart(SegmentationLabel.ANNEX);
+		        Pair<String,List<String>> featSeg = getBodyTextFeatured(doc, documentBodyParts);
+				String rese2 = null;
+				List<String> tokenizationsBody2 = null;
+				if (featSeg != null) {
+					// if featSeg is null, it usually means that no body segment is found in the 
+					// document segmentation
+					String bodytext = featSeg.getA();
+					tokenizationsBody2 = featSeg.getB();
+			            rese2 = label(bodytext);
+					//System.out.println(rese);
+				}
+				return new Pair<String,List<String>>(rese2, tokenizationsBody2);
+			}
+		};
+	}
+
 	static public Pair<String,List<String>> getBodyTextFeatured(Document doc, 
 												SortedSet<DocumentPiece> documentBodyParts) {
 		if ((documentBodyParts == null) || (documentBodyParts.size() == 0)) {				
@@ -1283,7 +1404,8 @@ public class FullTextParser extends AbstractParser {
 
     /**
      * Create the TEI representation for a document based on the parsed header, references
-     * and body sections.
+     * and body sections. If an output is given, each section is written to it once built,
+     * otherwise the TEI is set in the document.
      */
     private void toTEI(Document doc,
                        String reseBody,
@@ -1296,7 +1418,8 @@ public class FullTextParser extends AbstractParser {
                        boolean withStyleSheet,
 					   int mode,
 					   boolean generateIDs,
-					   boolean generateImageReferences) {
+					   boolean generateImageReferences,
+					   Writer output) {
         if (doc.getBlocks() == null) {
             return;
         }
@@ -1304,6 +1427,7 @@ public class FullTextParser extends AbstractParser {
         StringBuffer tei;
         try {
             tei = teiFormater.toTEIHeader(resHeader, withStyleSheet, null, generateIDs);
+			tei = TEIFormater.flush(tei, output);
 			
 			//System.out.println(rese);
 			if (mode == 0) {
@@ -1314,6 +1438,7 @@ public class FullTextParser extends AbstractParser {
            		tei = teiFormater.toTEIBodyML(tei, reseBody, resHeader, resCitations, 
 					tokenizationsBody, doc);
 			}
+			tei = TEIFormater.flush(tei, output);
 
 			tei.append("\t\t<back>\n");
 			if (mode == 0) {
@@ -1333,6 +1458,7 @@ public class FullTextParser extends AbstractParser {
 						reseAcknowledgement = label(acknowledgementText);
 					tei = teiFormater.toTEIAcknowledgementLight(tei, reseAcknowledgement, 
 						tokenizationsAcknowledgement, resCitations, generateIDs);
+					tei = TEIFormater.flush(tei, output);
 				}
 				
 				tei = teiFormater.toTEIAnnexLight(tei, reseAnnex, resHeader, resCitations, 
@@ -1342,6 +1468,7 @@ public class FullTextParser extends AbstractParser {
 				tei = teiFormater.toTEIAnnexML(tei, reseAnnex, resHeader, resCitations, 
 					tokenizationsAnnex, doc);
 			}
+			tei = TEIFormater.flush(tei, output);
 			tei = teiFormater.toTEIReferences(tei, resCitations, generateIDs);
             doc.calculateTeiIdToBibDataSets();
 
@@ -1349,11 +1476,14 @@ public class FullTextParser extends AbstractParser {
 			
             tei.append("\t</text>\n");
             tei.append("</TEI>\n");
+            tei = TEIFormater.flush(tei, output);
         } catch (Exception e) {
             throw new GrobidException("An exception occurred while running Grobid.", e);
         }
 //System.out.println(tei.toString());		
-        doc.setTei(tei.toString());
+        if (output == null) {
+            doc.setTei(tei.toString());
+        }
     }
 
     @Override
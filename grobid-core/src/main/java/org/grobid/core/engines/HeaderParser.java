@@ -70,23 +70,9 @@ public class HeaderParser extends AbstractParser {
      */
     public Pair<String, Document> processing2(String pdfInput, boolean consolidate,
                                               BiblioItem resHeader, int startPage, int endPage) {
-        DocumentSource documentSource = null;
-        try {
-            documentSource = DocumentSource.fromPdf(new File(pdfInput), startPage, endPage);
-            Document doc = new Document(documentSource);
-            doc.addTokenizedDocument();
-
-            if (doc.getBlocks() == null) {
-                throw new GrobidException("PDF parsing resulted in empty content");
-            }
-
-            String tei = processingHeaderBlock(consolidate, doc, resHeader);
-            return Pair.of(tei, doc);
-        } finally {
-            if (documentSource != null) {
-                documentSource.close(true);
-            }
-        }
+        Document doc = Document.fromPdf(new File(pdfInput), startPage, endPage);
+        String tei = processingHeaderBlock(consolidate, doc, resHeader);
+        return Pair.of(tei, doc);
     }
 
     /**
@@ -1563,7 +1549,6 @@ public class HeaderParser extends AbstractParser {
             if (consolidator == null) {
                 consolidator = new Consolidation();
             }
-            consolidator.openDb();
             List<BiblioItem> bibis = new ArrayList<BiblioItem>();
             boolean valid = consolidator.consolidate(resHeader, bibis);
             if ((valid) && (bibis.size() > 0)) {
@@ -1572,7 +1557,6 @@ public class HeaderParser extends AbstractParser {
                     BiblioItem.correct(resHeader, bibo);
                 }
             }
-            consolidator.closeDb();
         } catch (Exception e) {
             // e.printStackTrace();
             throw new GrobidException("An exception occured while running Grobid.", e);
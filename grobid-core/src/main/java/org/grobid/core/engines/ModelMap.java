@@ -27,7 +27,7 @@ public class ModelMap {
 	/**
 	 * Map that contains all the models loaded in memory.
 	 */
-	private static Map<String, Model> models = null;
+	private static final Map<String, Model> models = new HashMap<String, Model>();
 
 	/**
 	 * Return a tagger created corresponding to the model given in argument.
@@ -83,11 +83,8 @@ public class ModelMap {
 	 *            the path to the model
 	 * @return the model corresponding to the given path.
 	 */
-	protected static Model getModel(String modelPath) {
+	protected static synchronized Model getModel(String modelPath) {
 		LOGGER.debug("start getModel");
-		if (models == null) {
-			models = new HashMap<String, Model>();
-		}
 		if (models.get(modelPath) == null) {
 			getNewModel(modelPath);
 		}
@@ -0,0 +1,159 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.engines.counters.BatchProcessCounters;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.factory.GrobidPoolingFactory;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.counters.CntManager;
+import org.grobid.core.utilities.counters.CntsMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch processing of the pdf files of a directory with several threads. Each file is processed with an
+ * engine borrowed from the {@link GrobidPoolingFactory} pool, and a failure on one file is logged and
+ * counted without stopping the processing of the other files.
+ *
+ * Progress is logged after each file, and counters as well as the throughput are reported through the
+ * given {@link CntManager}.
+ */
+public class ParallelBatchProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelBatchProcessor.class);
+
+    public static final String THROUGHPUT_METRIC = "Batch throughput (files/s)";
+
+    private final int nbThreads;
+    private final CntManager cntManager;
+
+    public ParallelBatchProcessor(int nbThreads, CntManager cntManager) {
+        if (nbThreads < 1) {
+            throw new IllegalArgumentException("The number of threads of a batch process must be positive: " + nbThreads);
+        }
+        this.nbThreads = nbThreads;
+        this.cntManager = cntManager;
+    }
+
+    /**
+     * @return the number of successfully processed files.
+     */
+    public int processHeader(String directoryPath, String resultPath, boolean consolidate) {
+        return process(directoryPath, resultPath, consolidate, consolidate, 0);
+    }
+
+    /**
+     * @return the number of successfully processed files.
+     */
+    public int processFulltext(String directoryPath, String resultPath, boolean consolidateHeader,
+                               boolean consolidateCitations) {
+        return process(directoryPath, resultPath, consolidateHeader, consolidateCitations, 1);
+    }
+
+    private int process(String directoryPath, final String resultPath, final boolean consolidateHeader,
+                        final boolean consolidateCitations, final int type) {
+        File[] refFiles = Engine.getPdfFiles(directoryPath, resultPath);
+        if (refFiles == null) {
+            return 0;
+        }
+
+        final int total = refFiles.length;
+        final AtomicInteger done = new AtomicInteger(0);
+        final AtomicInteger failed = new AtomicInteger(0);
+        cntManager.i(BatchProcessCounters.FILES_TO_PROCESS, total);
+        cntManager.addMetric(THROUGHPUT_METRIC, new ThroughputMetric());
+
+        int poolSize = nbThreads;
+        if (poolSize > GrobidProperties.getMaxPoolConnections()) {
+            // more threads would only wait for an engine and possibly time out on the pool
+            poolSize = GrobidProperties.getMaxPoolConnections();
+            LOGGER.warn("Number of threads " + nbThreads + " exceeds the maximum size of the engine pool, using "
+                    + poolSize + " threads");
+        }
+
+        LOGGER.info("Processing " + total + " files of " + directoryPath + " with " + poolSize + " threads");
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(total);
+        try {
+            for (final File pdfFile : refFiles) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        long fileStart = System.currentTimeMillis();
+                        boolean success = false;
+                        try {
+                            processFile(pdfFile, resultPath, consolidateHeader, consolidateCitations, type);
+                            success = true;
+                            cntManager.i(BatchProcessCounters.PROCESSED_FILES);
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            cntManager.i(BatchProcessCounters.FAILED_FILES);
+                            LOGGER.error("An error occured while processing the file " + pdfFile.getAbsolutePath()
+                                    + ". Continuing the process for the other files", e);
+                        } finally {
+                            cntManager.i(BatchProcessCounters.FILES_PROCESSING_TIME_MS,
+                                    System.currentTimeMillis() - fileStart);
+                            int nbDone = done.incrementAndGet();
+                            LOGGER.info("Processed " + nbDone + "/" + total + " files (" + failed.get() + " failed)");
+                        }
+                        return success;
+                    }
+                }));
+            }
+
+            int nbSuccess = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get()) {
+                    nbSuccess++;
+                }
+            }
+            return nbSuccess;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("The batch processing of " + directoryPath + " has been interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new GrobidException("An exception occured while running Grobid batch.", e);
+        } finally {
+            executor.shutdownNow();
+            cntManager.i(BatchProcessCounters.BATCH_ELAPSED_TIME_MS, System.currentTimeMillis() - start);
+            LOGGER.info("Batch processing of " + directoryPath + " finished: " + (done.get() - failed.get())
+                    + " files processed, " + failed.get() + " failed, in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Process a file with an engine of the pool.
+     */
+    protected void processFile(File pdfFile, String resultPath, boolean consolidateHeader,
+                               boolean consolidateCitations, int type) throws Exception {
+        Engine engine = GrobidPoolingFactory.getEngineFromPool();
+        try {
+            engine.batchProcessFile(pdfFile, resultPath, consolidateHeader, consolidateCitations, type);
+        } finally {
+            GrobidPoolingFactory.returnEngine(engine);
+        }
+    }
+
+    /**
+     * Number of processed files per second of batch wall clock time.
+     */
+    static class ThroughputMetric implements CntsMetric {
+        @Override
+        public String getMetricString(CntManager cntManager) {
+            long elapsed = cntManager.cnt(BatchProcessCounters.BATCH_ELAPSED_TIME_MS);
+            if (elapsed == 0) {
+                return "n/a";
+            }
+            return String.format("%.2f", cntManager.cnt(BatchProcessCounters.PROCESSED_FILES) * 1000.0 / elapsed);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.document.Document;
+import org.grobid.core.engines.counters.BatchProcessCounters;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.factory.GrobidPoolingFactory;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.counters.CntManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Batch processing of the pdf files of a directory as a two stage pipeline: a first pool of threads
+ * converts the pdf files with pdf2xml and tokenizes them, while a second pool of threads applies the
+ * CRF models to the already converted documents. The external pdf2xml process and the labeling thus
+ * overlap instead of being run one after the other for each file.
+ *
+ * The two stages are connected by a bounded queue, so that the converters wait when the labelers are
+ * behind and the number of converted documents held in memory stays bounded. Each labeler borrows an
+ * engine from the {@link GrobidPoolingFactory} pool for each document. As for
+ * {@link ParallelBatchProcessor}, a failure on one file is logged and counted without stopping the
+ * processing of the other files. If a labeler thread dies however (e.g. on an Error), the batch is aborted
+ * rather than leaving the converters waiting for room in the queue.
+ */
+public class PipelinedBatchProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedBatchProcessor.class);
+
+    // marks the end of the converted documents for a labeler
+    private static final ConvertedPdf END = new ConvertedPdf(null, null);
+
+    private final int nbConverters;
+    private final int nbLabelers;
+    private final int queueSize;
+    private final CntManager cntManager;
+
+    public PipelinedBatchProcessor(int nbConverters, int nbLabelers, int queueSize, CntManager cntManager) {
+        if (nbConverters < 1 || nbLabelers < 1) {
+            throw new IllegalArgumentException("The number of converter and labeler threads of a batch process " +
+                    "must be positive: " + nbConverters + ", " + nbLabelers);
+        }
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("The size of the queue of converted documents must be positive: "
+                    + queueSize);
+        }
+        this.nbConverters = nbConverters;
+        this.nbLabelers = nbLabelers;
+        this.queueSize = queueSize;
+        this.cntManager = cntManager;
+    }
+
+    /**
+     * @return the number of successfully processed files.
+     */
+    public int processHeader(String directoryPath, String resultPath, boolean consolidate) {
+        return process(directoryPath, resultPath, consolidate, consolidate, 0);
+    }
+
+    /**
+     * @return the number of successfully processed files.
+     */
+    public int processFulltext(String directoryPath, String resultPath, boolean consolidateHeader,
+                               boolean consolidateCitations) {
+        return process(directoryPath, resultPath, consolidateHeader, consolidateCitations, 1);
+    }
+
+    private int process(String directoryPath, final String resultPath, final boolean consolidateHeader,
+                        final boolean consolidateCitations, final int type) {
+        File[] refFiles = Engine.getPdfFiles(directoryPath, resultPath);
+        if (refFiles == null) {
+            return 0;
+        }
+
+        final int total = refFiles.length;
+        final AtomicInteger done = new AtomicInteger(0);
+        final AtomicInteger failed = new AtomicInteger(0);
+        // set when a labeler thread dies, nothing takes the converted documents from the queue anymore then
+        final AtomicReference<Throwable> labelerError = new AtomicReference<Throwable>();
+        cntManager.i(BatchProcessCounters.FILES_TO_PROCESS, total);
+        cntManager.addMetric(ParallelBatchProcessor.THROUGHPUT_METRIC, new ParallelBatchProcessor.ThroughputMetric());
+
+        int labelers = nbLabelers;
+        if (labelers > GrobidProperties.getMaxPoolConnections()) {
+            labelers = GrobidProperties.getMaxPoolConnections();
+            LOGGER.warn("Number of labeler threads " + nbLabelers + " exceeds the maximum size of the engine pool, " +
+                    "using " + labelers + " threads");
+        }
+        // the header model only looks at the first pages
+        final int startPage = (type == 0) ? 0 : -1;
+        final int endPage = (type == 0) ? 2 : -1;
+
+        LOGGER.info("Processing " + total + " files of " + directoryPath + " with " + nbConverters
+                + " converter threads and " + labelers + " labeler threads");
+        long start = System.currentTimeMillis();
+        final BlockingQueue<ConvertedPdf> queue = new ArrayBlockingQueue<ConvertedPdf>(queueSize);
+        ExecutorService converterExecutor = Executors.newFixedThreadPool(nbConverters);
+        ExecutorService labelerExecutor = Executors.newFixedThreadPool(labelers);
+        try {
+            List<Future<Integer>> labelerFutures = new ArrayList<Future<Integer>>(labelers);
+            for (int i = 0; i < labelers; i++) {
+                labelerFutures.add(labelerExecutor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws InterruptedException {
+                        int nbSuccess = 0;
+                        try {
+                            while (true) {
+                                ConvertedPdf converted = queue.take();
+                                if (converted == END) {
+                                    return nbSuccess;
+                                }
+                                if (label(converted, resultPath, consolidateHeader, consolidateCitations, type)) {
+                                    nbSuccess++;
+                                } else {
+                                    failed.incrementAndGet();
+                                }
+                                int nbDone = done.incrementAndGet();
+                                LOGGER.info("Processed " + nbDone + "/" + total + " files (" + failed.get()
+                                        + " failed)");
+                            }
+                        } catch (RuntimeException e) {
+                            labelerError.compareAndSet(null, e);
+                            throw e;
+                        } catch (Error e) {
+                            labelerError.compareAndSet(null, e);
+                            throw e;
+                        }
+                    }
+                }));
+            }
+
+            List<Future<?>> converterFutures = new ArrayList<Future<?>>(total);
+            for (final File pdfFile : refFiles) {
+                converterFutures.add(converterExecutor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws InterruptedException {
+                        if (labelerError.get() != null) {
+                            return null;
+                        }
+                        long fileStart = System.currentTimeMillis();
+                        Document doc = null;
+                        try {
+                            doc = convert(pdfFile, startPage, endPage);
+                        } catch (Exception e) {
+                            cntManager.i(BatchProcessCounters.FAILED_FILES);
+                            LOGGER.error("An error occured while converting the file " + pdfFile.getAbsolutePath()
+                                    + ". Continuing the process for the other files", e);
+                            int nbFailed = failed.incrementAndGet();
+                            int nbDone = done.incrementAndGet();
+                            LOGGER.info("Processed " + nbDone + "/" + total + " files (" + nbFailed + " failed)");
+                        } finally {
+                            long time = System.currentTimeMillis() - fileStart;
+                            cntManager.i(BatchProcessCounters.CONVERSION_TIME_MS, time);
+                            cntManager.i(BatchProcessCounters.FILES_PROCESSING_TIME_MS, time);
+                        }
+                        if (doc != null) {
+                            // waits while the labelers are behind
+                            offer(queue, new ConvertedPdf(pdfFile, doc), labelerError);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : converterFutures) {
+                future.get();
+            }
+            for (int i = 0; i < labelers; i++) {
+                offer(queue, END, labelerError);
+            }
+
+            int nbSuccess = 0;
+            for (Future<Integer> future : labelerFutures) {
+                nbSuccess += future.get();
+            }
+            return nbSuccess;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("The batch processing of " + directoryPath + " has been interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = (labelerError.get() != null) ? labelerError.get() : e.getCause();
+            throw new GrobidException("An exception occured while running Grobid batch.", cause);
+        } finally {
+            converterExecutor.shutdownNow();
+            labelerExecutor.shutdownNow();
+            try {
+                labelerExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            cntManager.i(BatchProcessCounters.BATCH_ELAPSED_TIME_MS, System.currentTimeMillis() - start);
+            LOGGER.info("Batch processing of " + directoryPath + " finished: " + (done.get() - failed.get())
+                    + " files processed, " + failed.get() + " failed, in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Queue a converted document, giving up if a labeler thread died.
+     */
+    private static void offer(BlockingQueue<ConvertedPdf> queue, ConvertedPdf converted,
+                              AtomicReference<Throwable> labelerError) throws InterruptedException {
+        while (!queue.offer(converted, 100, TimeUnit.MILLISECONDS)) {
+            if (labelerError.get() != null) {
+                throw new GrobidException("The batch is aborted, a labeler thread failed", labelerError.get());
+            }
+        }
+    }
+
+    /**
+     * Convert and tokenize a pdf file.
+     */
+    protected Document convert(File pdfFile, int startPage, int endPage) throws Exception {
+        return Document.fromPdf(pdfFile, startPage, endPage);
+    }
+
+    /**
+     * Label a converted document with an engine of the pool, and write its result.
+     */
+    protected void labelDocument(Document doc, File pdfFile, String resultPath, boolean consolidateHeader,
+                                 boolean consolidateCitations, int type) throws Exception {
+        Engine engine = GrobidPoolingFactory.getEngineFromPool();
+        try {
+            engine.batchProcessDocument(doc, pdfFile, resultPath, consolidateHeader, consolidateCitations, type);
+        } finally {
+            GrobidPoolingFactory.returnEngine(engine);
+        }
+    }
+
+    private boolean label(ConvertedPdf converted, String resultPath, boolean consolidateHeader,
+                          boolean consolidateCitations, int type) {
+        long fileStart = System.currentTimeMillis();
+        try {
+            labelDocument(converted.doc, converted.pdfFile, resultPath, consolidateHeader, consolidateCitations,
+                    type);
+            cntManager.i(BatchProcessCounters.PROCESSED_FILES);
+            return true;
+        } catch (Exception e) {
+            cntManager.i(BatchProcessCounters.FAILED_FILES);
+            LOGGER.error("An error occured while processing the file " + converted.pdfFile.getAbsolutePath()
+                    + ". Continuing the process for the other files", e);
+            return false;
+        } finally {
+            long time = System.currentTimeMillis() - fileStart;
+            cntManager.i(BatchProcessCounters.LABELING_TIME_MS, time);
+            cntManager.i(BatchProcessCounters.FILES_PROCESSING_TIME_MS, time);
+        }
+    }
+
+    private static class ConvertedPdf {
+        private final File pdfFile;
+        private final Document doc;
+
+        private ConvertedPdf(File pdfFile, Document doc) {
+            this.pdfFile = pdfFile;
+            this.doc = doc;
+        }
+    }
+}
@@ -17,7 +17,9 @@ import org.grobid.core.data.BiblioItem;
 import org.grobid.core.data.Date;
 import org.grobid.core.data.Person;
 import org.grobid.core.factory.GrobidFactory;
+import org.grobid.core.lexicon.Lexicon;
 import org.grobid.core.main.batch.GrobidMainArgs;
+import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.Utilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +65,18 @@ public class ProcessEngine implements Closeable {
     public void processHeader(final GrobidMainArgs pGbdArgs) throws Exception {
         inferPdfInputPath(pGbdArgs);
         inferOutputPath(pGbdArgs);
+        if (pGbdArgs.getNbConverters() > 0) {
+            getEngine().batchProcessHeader(pGbdArgs.getPath2Input(), pGbdArgs.getPath2Output(), false,
+                    pGbdArgs.getNbConverters(), pGbdArgs.getNbThreads());
+            LOGGER.info(Engine.getCntManager().toString());
+            return;
+        }
+        if (pGbdArgs.getNbThreads() > 1) {
+            getEngine().batchProcessHeader(pGbdArgs.getPath2Input(), pGbdArgs.getPath2Output(), false,
+                    pGbdArgs.getNbThreads());
+            LOGGER.info(Engine.getCntManager().toString());
+            return;
+        }
         final File pdfDirectory = new File(pGbdArgs.getPath2Input());
         String result;
         File[] files = pdfDirectory.listFiles();
@@ -101,6 +115,18 @@ public class ProcessEngine implements Closeable {
     public void processFullText(final GrobidMainArgs pGbdArgs) throws Exception {
         inferPdfInputPath(pGbdArgs);
         inferOutputPath(pGbdArgs);
+        if (pGbdArgs.getNbConverters() > 0) {
+            getEngine().batchProcessFulltext(pGbdArgs.getPath2Input(), pGbdArgs.getPath2Output(), false, false,
+                    pGbdArgs.getNbConverters(), pGbdArgs.getNbThreads());
+            LOGGER.info(Engine.getCntManager().toString());
+            return;
+        }
+        if (pGbdArgs.getNbThreads() > 1) {
+            getEngine().batchProcessFulltext(pGbdArgs.getPath2Input(), pGbdArgs.getPath2Output(), false, false,
+                    pGbdArgs.getNbThreads());
+            LOGGER.info(Engine.getCntManager().toString());
+            return;
+        }
         final File pdfDirectory = new File(pGbdArgs.getPath2Input());
         String result;
         File[] files = pdfDirectory.listFiles();
@@ -430,6 +456,17 @@ public class ProcessEngine implements Closeable {
         }
     }
 
+    /**
+     * Compile the lexical resources of grobid-home in the snapshot loaded at start instead of their text
+     * sources.
+     *
+     * @param pGbdArgs The parameters.
+     * @throws Exception
+     */
+    public void compileLexicon(final GrobidMainArgs pGbdArgs) throws Exception {
+        Lexicon.compileSnapshot(GrobidProperties.getLexiconSnapshotPath());
+    }
+
     /**
      * List the engine methods that can be called.
      *
@@ -640,7 +640,7 @@ System.out.println("");
 					if (token != null && previousFeatures != null) {
 						double previousLineStartX = lineStartX;
                         lineStartX = token.getX();
-                        double characterWidth = token.width / token.getText().length();
+                        double characterWidth = token.getWidth() / token.getText().length();
 						if (!Double.isNaN(previousLineStartX)) {
                             // Indentation if line start is > 1 character width to the right of previous line start
                             if (lineStartX - previousLineStartX > characterWidth)
@@ -0,0 +1,104 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.engines.tagging.DebugCapture;
+import org.grobid.core.utilities.GrobidProperties;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of threads shared by all the engines for parsing the independent sections of a document concurrently,
+ * see {@link FullTextParser#processingSegmentedDocument(org.grobid.core.document.Document, boolean, boolean, int,
+ * boolean, boolean)}. Its size is given by grobid.fulltext.section.threads, so that it does not grow with the
+ * number of engines.
+ *
+ * A task which is not started yet when it is joined is run by the joining thread, as with a fork/join pool, so
+ * that a request is never slower than a sequential processing when the pool is busy. The tasks record their
+ * labeling in the debug capture of the request which forked them.
+ */
+public class SectionExecutor {
+    private static ExecutorService executor = null;
+
+    /**
+     * @return true if the sections of a document are parsed concurrently
+     */
+    public static boolean isEnabled() {
+        return GrobidProperties.getFulltextSectionThreads() > 0;
+    }
+
+    /**
+     * Start a task on the pool.
+     *
+     * @return the task, to be given to {@link #join(FutureTask)}
+     */
+    public static <T> FutureTask<T> fork(final Callable<T> task) {
+        final DebugCapture capture = DebugCapture.current();
+        FutureTask<T> future = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                DebugCapture previous = DebugCapture.current();
+                DebugCapture.attach(capture);
+                try {
+                    return task.call();
+                } finally {
+                    DebugCapture.attach(previous);
+                }
+            }
+        });
+        getExecutor().execute(future);
+        return future;
+    }
+
+    /**
+     * Wait for the result of a task, which is run by the current thread if not started yet.
+     *
+     * @throws Exception the exception thrown by the task
+     */
+    public static <T> T join(FutureTask<T> task) throws Exception {
+        // does nothing if the task is already started by the pool
+        task.run();
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stop the threads of the pool, which is created again on next use.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int nbThreads = Math.max(GrobidProperties.getFulltextSectionThreads(), 1);
+            executor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "grobid-section-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+}
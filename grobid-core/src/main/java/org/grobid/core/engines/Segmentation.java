@@ -1,34 +1,29 @@
 package org.grobid.core.engines;
 
-import eugfc.imageio.plugins.PNMRegistry;
-import org.apache.commons.io.FileUtils;
 import org.grobid.core.GrobidModels;
+import org.grobid.core.document.AssetConverter;
 import org.grobid.core.document.BasicStructureBuilder;
 import org.grobid.core.document.Document;
 import org.grobid.core.document.DocumentSource;
+import org.grobid.core.engines.tagging.FeatureMatrix;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.exceptions.GrobidResourceException;
 import org.grobid.core.features.FeatureFactory;
 import org.grobid.core.features.FeaturesVectorSegmentation;
 import org.grobid.core.layout.Block;
 import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.LanguageUtilities;
 import org.grobid.core.utilities.TextUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 
-// for image conversion we're using an ImageIO plugin for PPM format support
-// see https://github.com/eug/imageio-pnm
-// the jar for this plugin is located in the local repository
-
 /**
  * Realise a high level segmentation of a document into cover page, document header, page footer,
  * page header, document body, bibliographical section, each bibliographical references in
@@ -117,106 +112,104 @@ public class Segmentation extends AbstractParser {
                     inputFile.getAbsolutePath() + "' does not exist.");
         }
 
+        if (assetPath == null) {
+            // without assets to extract, large documents can be converted by windows of pages
+            return processing(Document.fromPdf(inputFile, startPage, endPage));
+        }
+
         DocumentSource documentSource = null;
         try {
-            boolean assets = false;
-            if (assetPath != null) {
-                assets = true;
-            }
-
-            documentSource = DocumentSource.fromPdf(new File(input), startPage, endPage, assets);
+            documentSource = DocumentSource.fromPdf(new File(input), startPage, endPage, true);
             Document doc = new Document(documentSource);
 
-            List<String> tokenizations = doc.addTokenizedDocument();
+            doc.addTokenizedDocument();
 
             if (doc.getBlocks() == null) {
                 throw new GrobidException("PDF parsing resulted in empty content");
             }
 
-            String content = //getAllTextFeatured(doc, headerMode);
-                    getAllLinesFeatured(doc);
-            if ((content != null) && (content.trim().length() > 0)) {
-                String labelledResult = label(content);
-                try {
-                    PrintWriter out = new PrintWriter("segLabelledResult.txt");
-                    out.println(labelledResult);
-                    out.flush();
-                    out.close();
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                }
-                // set the different sections of the Document object
-                doc = BasicStructureBuilder.generalResultSegmentation(doc, labelledResult, tokenizations);
-
-
-                // if assets is true, the images are still there under directory pathXML+"_data"
-                // we copy them to the assetPath directory
-                if (assetPath != null) {
-                    // copy the files under the directory pathXML+"_data"
-                    // we copy the asset files into the path specified by assetPath
-                    File assetFile = new File(assetPath);
-                    if (!assetFile.exists()) {
-                        // we create it
-                        if (assetFile.mkdir()) {
-                            LOGGER.debug("Directory created: " + assetFile.getPath());
-                        } else {
-                            LOGGER.error("Failed to create directory: " + assetFile.getPath());
-                        }
-                    }
-                    PNMRegistry.registerAllServicesProviders();
-
-                    // filter all .jpg, .png and .vec files
-                    File directoryPath = new File(documentSource.getXmlFile().getAbsolutePath() + "_data");
-                    if (directoryPath.exists()) {
-                        File[] files = directoryPath.listFiles();
-                        if (files != null) {
-                            for (final File currFile : files) {
-                                if (currFile.getName().toLowerCase().endsWith(".png") | currFile.getName().toLowerCase().endsWith(".vec")) {
-                                    try {
-                                        FileUtils.copyFileToDirectory(currFile, assetFile);
-                                    } catch (IOException e) {
-                                        e.printStackTrace();
-                                    }
-                                } else if (currFile.getName().toLowerCase().endsWith(".jpg")
-                                        || currFile.getName().toLowerCase().endsWith(".ppm")
-                                    //	|| currFile.getName().toLowerCase().endsWith(".pbm")
-                                        ) {
-                                    try {
-                                        final BufferedImage bi = ImageIO.read(currFile);
-                                        String outputfilePath = null;
-                                        if (currFile.getName().toLowerCase().endsWith(".jpg")) {
-                                            outputfilePath = assetFile.getPath() + "/" +
-                                                    currFile.getName().toLowerCase().replace(".jpg", ".png");
-                                        }
-										/*else if (currFile.getName().toLowerCase().endsWith(".pbm")) {
-											outputfilePath = assetFile.getPath() + "/" +
-												 currFile.getName().toLowerCase().replace(".pbm",".png");
-										}*/
-                                        else {
-                                            outputfilePath = assetFile.getPath() + "/" +
-                                                    currFile.getName().toLowerCase().replace(".ppm", ".png");
-                                        }
-                                        ImageIO.write(bi, "png", new File(outputfilePath));
-                                    } catch (IOException e) {
-                                        e.printStackTrace();
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+            doc = processing(doc);
+            if (doc.getLabeledBlocks() != null) {
+                // the images are under the directory pathXML+"_data": they are copied to the assetPath 
+                // directory and converted to PNG on the pool of AssetConverter, before the directory is removed
+                AssetConverter assets = AssetConverter.start(
+                        new File(documentSource.getXmlFile().getAbsolutePath() + "_data"), new File(assetPath));
+                assets.await();
             }
             return doc;
         } finally {
-            // keep it clean when leaving...
-            if (assetPath == null) {
-                // remove the pdf2xml tmp file
-                DocumentSource.close(documentSource, false);
-            } else {
-                // remove the pdf2xml tmp files, including the sub-directories
-                DocumentSource.close(documentSource, true);
+            // remove the pdf2xml tmp files, including the sub-directories
+            DocumentSource.close(documentSource, true);
+        }
+    }
+
+    /**
+     * Segment a document already converted from PDF and tokenized into high level zones, see
+     * {@link Document#fromPdf(File, int, int)}.
+     *
+     * @param doc the tokenized document
+     * @return Document object with segmentation informations
+     */
+    public Document processing(Document doc) {
+        List<Integer> pageStarts = new ArrayList<Integer>();
+        FeatureMatrix features = getAllLinesFeatureMatrix(doc, pageStarts);
+        if ((features != null) && (features.getRowCount() > 0)) {
+            int[] labels = labelWindows(features, pageStarts,
+                    GrobidProperties.getPdfWindowPages(), GrobidProperties.getPdfWindowOverlapPages());
+            // set the different sections of the Document object
+            doc = BasicStructureBuilder.generalResultSegmentation(doc, features, labels, doc.getTokenizations());
+        }
+        return doc;
+    }
+
+    /**
+     * Label the lines of a document by windows of pages, so that the size of a labeling is bounded by the
+     * window size instead of the document size. Each window is labeled with some pages of context on both
+     * sides, whose labels are dropped, so that the lines at the border of a window are labeled as in the
+     * whole document.
+     *
+     * @param features    the features of the lines of the document
+     * @param pageStarts  the first row of each page
+     * @param windowPages the number of pages of a window, 0 to label the document at once
+     * @param overlap     the number of pages of context on each side of a window
+     * @return the label of each row
+     */
+    protected int[] labelWindows(FeatureMatrix features, List<Integer> pageStarts, int windowPages, int overlap) {
+        int nbPages = pageStarts.size();
+        if ((windowPages <= 0) || (nbPages <= windowPages)) {
+            return label(features);
+        }
+        overlap = Math.max(overlap, 0);
+        int nbRows = features.getRowCount();
+        int[] labels = new int[nbRows];
+        for (int firstPage = 0; firstPage < nbPages; firstPage += windowPages) {
+            int lastPage = firstPage + windowPages; // exclusive
+            int start = pageRow(pageStarts, firstPage, nbRows);
+            int end = pageRow(pageStarts, lastPage, nbRows);
+            if (start >= end) {
+                continue;
+            }
+            int contextStart = pageRow(pageStarts, firstPage - overlap, nbRows);
+            int contextEnd = pageRow(pageStarts, lastPage + overlap, nbRows);
+            FeatureMatrix window = features.getRows(contextStart, contextEnd);
+            int[] windowLabels = label(window);
+            for (int row = start; row < end; row++) {
+                // the labels of the window are ids of its own values
+                labels[row] = features.intern(window.getValue(windowLabels[row - contextStart]));
             }
         }
+        return labels;
+    }
+
+    // first row of a page, the rows before the first page start belonging to the first page
+    private static int pageRow(List<Integer> pageStarts, int page, int nbRows) {
+        if (page <= 0) {
+            return 0;
+        }
+        if (page >= pageStarts.size()) {
+            return nbRows;
+        }
+        return pageStarts.get(page);
     }
 
     /**
@@ -623,8 +616,25 @@ public class Segmentation extends AbstractParser {
      * Regarding layout features: font, size and style are the one associated to the first token of the line.
      */
     public static String getAllLinesFeatured(Document doc) {
+        FeatureMatrix matrix = getAllLinesFeatureMatrix(doc);
+        return matrix == null ? null : matrix.toString();
+    }
+
+    /**
+     * Same features as {@link #getAllLinesFeatured(Document)}, as a typed feature matrix with one row per line.
+     *
+     * @return the feature matrix, or null if the document has no block
+     */
+    public static FeatureMatrix getAllLinesFeatureMatrix(Document doc) {
+        return getAllLinesFeatureMatrix(doc, null);
+    }
+
+    /**
+     * @param pageStarts if not null, the first row of each page is added to it
+     */
+    static FeatureMatrix getAllLinesFeatureMatrix(Document doc, List<Integer> pageStarts) {
         FeatureFactory featureFactory = FeatureFactory.getInstance();
-        StringBuilder fulltext = new StringBuilder();
+        FeatureMatrix matrix = new FeatureMatrix();
         String currentFont = null;
         int currentFontSize = -1;
 
@@ -636,6 +646,7 @@ public class Segmentation extends AbstractParser {
         // vector for features
         FeaturesVectorSegmentation features;
         FeaturesVectorSegmentation previousFeatures = null;
+        boolean previousPageStart = false; // the previous features are the first line of a page
         boolean endblock;
         boolean endPage = true;
         boolean newPage = true;
@@ -922,10 +933,10 @@ public class Segmentation extends AbstractParser {
 //System.out.println(coordinateLineY + "\t" + pageHeight);
 
                 if (previousFeatures != null) {
-                    String vector = previousFeatures.printVector();
-                    fulltext.append(vector);
+                    addRow(matrix, previousFeatures, previousPageStart, pageStarts);
                 }
                 previousFeatures = features;
+                previousPageStart = "PAGESTART".equals(features.pageStatus);
             }
             // update page-level and document-level positions
             if (tokens != null) {
@@ -934,9 +945,16 @@ public class Segmentation extends AbstractParser {
             }
         }
         if (previousFeatures != null)
-            fulltext.append(previousFeatures.printVector());
+            addRow(matrix, previousFeatures, previousPageStart, pageStarts);
 
-        return fulltext.toString();
+        return matrix;
+    }
+
+    private static void addRow(FeatureMatrix matrix, FeaturesVectorSegmentation features, boolean pageStart,
+                               List<Integer> pageStarts) {
+        if (features.addRow(matrix) && pageStart && (pageStarts != null)) {
+            pageStarts.add(matrix.getRowCount() - 1);
+        }
     }
 
 
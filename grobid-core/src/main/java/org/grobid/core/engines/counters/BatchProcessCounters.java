@@ -0,0 +1,17 @@
+package org.grobid.core.engines.counters;
+
+/**
+ * Counters of the parallel batch processing of a directory of pdf files.
+ */
+public enum BatchProcessCounters {
+    FILES_TO_PROCESS,
+    PROCESSED_FILES,
+    FAILED_FILES,
+    // cumulated time spent on the files by all the threads
+    FILES_PROCESSING_TIME_MS,
+    // pipelined batches only: cumulated time spent in pdf2xml and in the labeling stage
+    CONVERSION_TIME_MS,
+    LABELING_TIME_MS,
+    // wall clock time of the batches
+    BATCH_ELAPSED_TIME_MS
+}
@@ -0,0 +1,14 @@
+package org.grobid.core.engines.counters;
+
+/**
+ * Counters of the pool of engines shared by the concurrent requests.
+ */
+public enum EnginePoolCounters {
+    BORROWED_ENGINES,
+    CREATED_ENGINES,
+    // engines discarded after a failure instead of being reused
+    INVALIDATED_ENGINES,
+    BORROW_TIMEOUTS,
+    // cumulated time spent waiting for an engine
+    BORROW_WAIT_TIME_MS
+}
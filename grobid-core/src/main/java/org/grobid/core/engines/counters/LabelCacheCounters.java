@@ -0,0 +1,11 @@
+package org.grobid.core.engines.counters;
+
+/**
+ * Counters of the memoization of the labeling of short inputs (dates, names, affiliations).
+ */
+public enum LabelCacheCounters {
+    HITS,
+    MISSES,
+    // caches dropped because their model has been (re)loaded
+    INVALIDATIONS
+}
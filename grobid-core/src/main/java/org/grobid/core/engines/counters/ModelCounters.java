@@ -0,0 +1,17 @@
+package org.grobid.core.engines.counters;
+
+/**
+ * Counters of the loading of the CRF models.
+ */
+public enum ModelCounters {
+    LOADED_MODELS,
+    // cumulated time spent loading models
+    LOAD_TIME_MS,
+    // models unloaded to stay within the memory budget
+    EVICTED_MODELS,
+    EVICTION_TIME_MS,
+    // models replaced by a new version without restarting
+    RELOADED_MODELS,
+    // cumulated time spent loading the new versions
+    RELOAD_TIME_MS
+}
@@ -1,5 +1,6 @@
 package org.grobid.core.engines.tagging;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import org.chasen.crfpp.Model;
 import org.chasen.crfpp.Tagger;
@@ -11,50 +12,119 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Labeling with a CRF++ model shared by all the threads, a native tagger holding the decoding state being
+ * created for each labeling.
+ *
  * User: zholudev
  * Date: 3/20/14
  */
 public class CRFPPTagger implements GenericTagger {
     public static final Logger LOGGER = LoggerFactory.getLogger(CRFPPTagger.class);
+    private final GrobidModels grobidModel;
     private final Model model;
 
     public CRFPPTagger(GrobidModels model) {
+        this.grobidModel = model;
         this.model = ModelMap.getModel(model);
     }
 
     @Override
     public String label(Iterable<String> data) {
-        return getTaggerResult(data, null);
+        String res = getTaggerResult(data, null);
+        if (DebugCapture.isActive()) {
+            DebugCapture.record(grobidModel, Joiner.on('\n').join(data), res);
+        }
+        return res;
     }
 
 
-    protected String getTaggerResult(Iterable<String> st, String type) {
+    @Override
+    public List<String> labelBatch(List<String> sequences) {
+        // CRF++ parses one sequence at a time, but the same native tagger can be reused for all of them
+        List<String> res = new ArrayList<String>(sequences.size());
         Tagger tagger = null;
-        StringBuilder res;
         try {
-            tagger = feedTaggerAndParse(st);
-
-            res = new StringBuilder();
-            for (int i = 0; i < tagger.size(); i++) {
-                for (int j = 0; j < tagger.xsize(); j++) {
-                    res.append(tagger.x(i, j)).append("\t");
+            tagger = getNewTagger();
+            for (String sequence : sequences) {
+                if (sequence.trim().isEmpty()) {
+                    res.add("");
+                    continue;
                 }
+                feedTaggerAndParse(tagger, Splitter.on("\n").split(sequence));
+                res.add(getTaggerResult(tagger, null));
+            }
+        } finally {
+            if (tagger != null) {
+                tagger.delete();
+            }
+        }
+        DebugCapture.record(grobidModel, sequences, res);
+        return res;
+    }
 
-                if (type != null) {
-                    res.append(type).append("\t");
+    @Override
+    public int[] label(FeatureMatrix matrix) {
+        int[] labels = new int[matrix.getRowCount()];
+        Tagger tagger = null;
+        try {
+            tagger = getNewTagger();
+            int row = 0;
+            for (int s = 0; s < matrix.getSequenceCount(); s++) {
+                int start = row;
+                List<String> rows = new ArrayList<String>();
+                for (int end = matrix.getSequenceEnd(s); row < end; row++) {
+                    rows.add(matrix.getRow(row));
+                }
+                feedTaggerAndParse(tagger, rows);
+                if (tagger.size() != rows.size()) {
+                    throw new GrobidException("CRF++ tagging returned " + tagger.size() + " labels for "
+                            + rows.size() + " rows", GrobidExceptionStatus.TAGGING_ERROR);
+                }
+                for (int i = 0; i < tagger.size(); i++) {
+                    labels[start + i] = matrix.intern(tagger.y2(i));
                 }
-
-                res.append(tagger.y2(i));
-                res.append("\n");
             }
         } finally {
             if (tagger != null) {
                 tagger.delete();
             }
         }
+        if (DebugCapture.isActive()) {
+            DebugCapture.record(grobidModel, matrix.toString(), matrix.toLabeledString(labels));
+        }
+        return labels;
+    }
+
+    protected String getTaggerResult(Iterable<String> st, String type) {
+        Tagger tagger = null;
+        try {
+            tagger = feedTaggerAndParse(st);
+            return getTaggerResult(tagger, type);
+        } finally {
+            if (tagger != null) {
+                tagger.delete();
+            }
+        }
+    }
 
+    private static String getTaggerResult(Tagger tagger, String type) {
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < tagger.size(); i++) {
+            for (int j = 0; j < tagger.xsize(); j++) {
+                res.append(tagger.x(i, j)).append("\t");
+            }
+
+            if (type != null) {
+                res.append(type).append("\t");
+            }
+
+            res.append(tagger.y2(i));
+            res.append("\n");
+        }
         return res.toString();
     }
 
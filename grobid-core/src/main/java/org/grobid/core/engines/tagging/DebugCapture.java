@@ -0,0 +1,125 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opt-in capture of the feature matrices given to the CRF models and of their labeled output, for
+ * debugging one request. A capture is bound to the thread processing the request between
+ * {@link #start()} and {@link #stop()}; when no capture is started, recording is a single thread local
+ * lookup and nothing is kept.
+ *
+ * <pre>
+ * DebugCapture.start();
+ * try {
+ *     tei = engine.fullTextToTEI(...);
+ * } finally {
+ *     capture = DebugCapture.stop();
+ * }
+ * </pre>
+ */
+public class DebugCapture {
+    private static final ThreadLocal<DebugCapture> CURRENT = new ThreadLocal<DebugCapture>();
+
+    private final List<Entry> entries = Collections.synchronizedList(new ArrayList<Entry>());
+
+    /**
+     * Start capturing the labeling done by the current thread, replacing any capture already started.
+     */
+    public static DebugCapture start() {
+        DebugCapture capture = new DebugCapture();
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    /**
+     * Stop capturing the labeling done by the current thread.
+     *
+     * @return the capture started on this thread, or null if none was started
+     */
+    public static DebugCapture stop() {
+        DebugCapture capture = CURRENT.get();
+        CURRENT.remove();
+        return capture;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return the capture started on the current thread, or null if none was started
+     */
+    public static DebugCapture current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind a capture to the current thread, so that the labeling done by a task running on behalf of a
+     * request is recorded with it. The entries of the tasks running concurrently are interleaved.
+     *
+     * @param capture the capture of the request, or null to unbind the current capture
+     */
+    public static void attach(DebugCapture capture) {
+        if (capture == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(capture);
+        }
+    }
+
+    /**
+     * Record the labeling of a sequence by a model if a capture is started on the current thread.
+     */
+    public static void record(GrobidModels model, String features, String labeled) {
+        DebugCapture capture = CURRENT.get();
+        if (capture != null) {
+            capture.entries.add(new Entry(model, features, labeled));
+        }
+    }
+
+    public static void record(GrobidModels model, List<String> features, List<String> labeled) {
+        DebugCapture capture = CURRENT.get();
+        if (capture != null) {
+            for (int i = 0; i < features.size(); i++) {
+                capture.entries.add(new Entry(model, features.get(i), labeled.get(i)));
+            }
+        }
+    }
+
+    /**
+     * @return the recorded labeling in order of call
+     */
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<Entry>(entries);
+        }
+    }
+
+    public static class Entry {
+        private final GrobidModels model;
+        private final String features;
+        private final String labeled;
+
+        Entry(GrobidModels model, String features, String labeled) {
+            this.model = model;
+            this.features = features;
+            this.labeled = labeled;
+        }
+
+        public GrobidModels getModel() {
+            return model;
+        }
+
+        public String getFeatures() {
+            return features;
+        }
+
+        public String getLabeled() {
+            return labeled;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.grobid.core.engines.tagging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed feature matrix given to a {@link GenericTagger}, as an alternative to the feature strings built with
+ * the <code>printVector()</code> methods of the feature vectors.
+ *
+ * Each cell is the id of an interned value, so that the feature values repeated on many rows (block and
+ * font status, boolean flags, positions...) are stored once per matrix, and the labels returned by a tagger
+ * are ids in the same table (see {@link #getValue(int)}). Rows are grouped in sequences, which correspond to
+ * the blocks separated by a blank line in the string format.
+ *
+ * A matrix is not thread-safe, and can be reused after {@link #clear()}.
+ */
+public class FeatureMatrix {
+    private static final String[] SMALL_INTS = new String[256];
+
+    static {
+        for (int i = 0; i < SMALL_INTS.length; i++) {
+            SMALL_INTS[i] = Integer.toString(i);
+        }
+    }
+
+    // the native input is built in a buffer of the labeling thread, only the resulting string is allocated
+    private static final ThreadLocal<StringBuilder> INPUT_BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(4096);
+        }
+    };
+    // larger buffers are not kept, so that a huge document does not retain memory in all the threads
+    private static final int MAX_KEPT_BUFFER = 1 << 20;
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final List<String> values = new ArrayList<String>();
+
+    private int[] cells = new int[256];
+    private int nbCells = 0;
+    // end offset in cells of each row
+    private int[] rowEnds = new int[32];
+    private int nbRows = 0;
+    // end row of each closed sequence
+    private int[] sequenceEnds = new int[4];
+    private int nbSequences = 0;
+
+    /**
+     * @return the id of a value, which is added to the values of the matrix if not present
+     */
+    public int intern(String value) {
+        if (value == null) {
+            value = "null";
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    public FeatureMatrix add(String value) {
+        int id = intern(value);
+        if (nbCells == cells.length) {
+            cells = Arrays.copyOf(cells, nbCells * 2);
+        }
+        cells[nbCells++] = id;
+        return this;
+    }
+
+    public FeatureMatrix add(int value) {
+        return add(value >= 0 && value < SMALL_INTS.length ? SMALL_INTS[value] : Integer.toString(value));
+    }
+
+    /**
+     * Boolean features are written as 1 or 0.
+     */
+    public FeatureMatrix add(boolean value) {
+        return add(value ? SMALL_INTS[1] : SMALL_INTS[0]);
+    }
+
+    /**
+     * End the current row, which must have at least one value.
+     */
+    public void endRow() {
+        if (nbCells == rowStart(nbRows)) {
+            throw new IllegalStateException("A row of the feature matrix must have at least one value");
+        }
+        if (nbRows == rowEnds.length) {
+            rowEnds = Arrays.copyOf(rowEnds, nbRows * 2);
+        }
+        rowEnds[nbRows++] = nbCells;
+    }
+
+    /**
+     * End the current sequence, the following rows are labeled independently. Does nothing if the current
+     * sequence has no row.
+     */
+    public void endSequence() {
+        if (nbRows == sequenceStart(nbSequences)) {
+            return;
+        }
+        if (nbSequences == sequenceEnds.length) {
+            sequenceEnds = Arrays.copyOf(sequenceEnds, nbSequences * 2);
+        }
+        sequenceEnds[nbSequences++] = nbRows;
+    }
+
+    public int getRowCount() {
+        return nbRows;
+    }
+
+    public int getColumnCount(int row) {
+        checkRow(row);
+        return rowEnds[row] - rowStart(row);
+    }
+
+    /**
+     * @return the number of sequences, including the last one even if not explicitly ended
+     */
+    public int getSequenceCount() {
+        return nbRows > sequenceStart(nbSequences) ? nbSequences + 1 : nbSequences;
+    }
+
+    /**
+     * @return the index of the row following the last row of a sequence
+     */
+    public int getSequenceEnd(int sequence) {
+        if (sequence < 0 || sequence >= getSequenceCount()) {
+            throw new IndexOutOfBoundsException("Sequence " + sequence + " out of " + getSequenceCount());
+        }
+        return sequence < nbSequences ? sequenceEnds[sequence] : nbRows;
+    }
+
+    public int getValueId(int row, int column) {
+        checkRow(row);
+        int start = rowStart(row);
+        if (column < 0 || start + column >= rowEnds[row]) {
+            throw new IndexOutOfBoundsException("Column " + column + " out of " + (rowEnds[row] - start));
+        }
+        return cells[start + column];
+    }
+
+    public String getValue(int row, int column) {
+        return values.get(getValueId(row, column));
+    }
+
+    /**
+     * @param id id of an interned value, for instance a label returned by {@link GenericTagger#label(FeatureMatrix)}
+     */
+    public String getValue(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * @return a new matrix with the rows from <code>from</code> (inclusive) to <code>to</code> (exclusive) and
+     * their sequence ends, whose values have their own ids
+     */
+    public FeatureMatrix getRows(int from, int to) {
+        if (from < 0 || to > nbRows || from > to) {
+            throw new IndexOutOfBoundsException("Rows " + from + " to " + to + " out of " + nbRows);
+        }
+        FeatureMatrix res = new FeatureMatrix();
+        int sequence = 0;
+        for (int row = from; row < to; row++) {
+            while (sequence < nbSequences && sequenceEnds[sequence] < row) {
+                sequence++;
+            }
+            if (row > from && sequence < nbSequences && sequenceEnds[sequence] == row) {
+                res.endSequence();
+            }
+            for (int i = rowStart(row); i < rowEnds[row]; i++) {
+                res.add(values.get(cells[i]));
+            }
+            res.endRow();
+        }
+        return res;
+    }
+
+    /**
+     * @return the values of a row separated by spaces, as a line of the string format
+     */
+    public String getRow(int row) {
+        StringBuilder sb = new StringBuilder();
+        appendRow(sb, row);
+        return sb.toString();
+    }
+
+    /**
+     * @return the matrix in the string format accepted by the taggers, built in a buffer of the current thread
+     */
+    public String toTaggerInput() {
+        StringBuilder sb = INPUT_BUFFER.get();
+        sb.setLength(0);
+        appendTo(sb);
+        String res = sb.toString();
+        if (sb.capacity() > MAX_KEPT_BUFFER) {
+            INPUT_BUFFER.remove();
+        } else {
+            sb.setLength(0);
+        }
+        return res;
+    }
+
+    /**
+     * Append the matrix in the string format: one line per row, values separated by spaces, and sequences
+     * separated by a blank line.
+     */
+    public void appendTo(StringBuilder sb) {
+        int sequence = 0;
+        for (int row = 0; row < nbRows; row++) {
+            if (sequence < nbSequences && row == sequenceEnds[sequence]) {
+                sb.append('\n');
+                sequence++;
+            }
+            appendRow(sb, row);
+            sb.append('\n');
+        }
+    }
+
+    /**
+     * @return the matrix in the string format with the label of each row as last column, separated by a tab
+     * as in the labeled results of the taggers
+     */
+    public String toLabeledString(int[] labels) {
+        StringBuilder sb = new StringBuilder();
+        int sequence = 0;
+        for (int row = 0; row < nbRows; row++) {
+            if (sequence < nbSequences && row == sequenceEnds[sequence]) {
+                sb.append('\n');
+                sequence++;
+            }
+            for (int i = rowStart(row); i < rowEnds[row]; i++) {
+                sb.append(values.get(cells[i])).append('\t');
+            }
+            sb.append(values.get(labels[row])).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Remove all the rows and values, keeping the allocated arrays.
+     */
+    public void clear() {
+        ids.clear();
+        values.clear();
+        nbCells = 0;
+        nbRows = 0;
+        nbSequences = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb);
+        return sb.toString();
+    }
+
+    private void appendRow(StringBuilder sb, int row) {
+        checkRow(row);
+        for (int i = rowStart(row); i < rowEnds[row]; i++) {
+            if (i > rowStart(row)) {
+                sb.append(' ');
+            }
+            sb.append(values.get(cells[i]));
+        }
+    }
+
+    private int rowStart(int row) {
+        return row == 0 ? 0 : rowEnds[row - 1];
+    }
+
+    private int sequenceStart(int sequence) {
+        return sequence == 0 ? 0 : sequenceEnds[sequence - 1];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= nbRows) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + nbRows);
+        }
+    }
+}
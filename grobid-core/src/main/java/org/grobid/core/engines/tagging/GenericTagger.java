@@ -1,12 +1,34 @@
 package org.grobid.core.engines.tagging;
 
 import java.io.Closeable;
+import java.util.List;
 
 /**
+ * A tagger is shared by all the engines (see {@link TaggerFactory}) and its labeling methods are thread-safe: they
+ * can be called concurrently without external synchronization, and the model is loaded once whatever the
+ * number of engines.
+ *
  * User: zholudev
  * Date: 3/20/14
  */
 public interface GenericTagger extends Closeable {
     String label(Iterable<String> data);
     String label(String data);
+
+    /**
+     * Labels several independent sequences at once, so that implementations can go through the native
+     * tagger a single time instead of once per sequence.
+     *
+     * @param sequences feature matrices, one per sequence, in the same format as accepted by {@link #label(String)}
+     * @return labeled results in the same order as the input sequences
+     */
+    List<String> labelBatch(List<String> sequences);
+
+    /**
+     * Labels a typed feature matrix, without going through the string format on the Java side.
+     *
+     * @param matrix the features, each sequence of the matrix being labeled independently
+     * @return the id of the label of each row, as an interned value of the matrix (see {@link FeatureMatrix#getValue(int)})
+     */
+    int[] label(FeatureMatrix matrix);
 }
@@ -1,6 +1,7 @@
 package org.grobid.core.engines.tagging;
 
 
+import org.apache.commons.lang3.StringUtils;
 import org.grobid.core.utilities.Pair;
 
 import java.util.ArrayList;
@@ -34,6 +35,66 @@ public class GenericTaggerUtils {
         return res;
     }
 
+    /**
+     * @param matrix the labeled feature matrix
+     * @param labels the label ids returned by {@link GenericTagger#label(FeatureMatrix)}
+     * @return the same pairs as {@link #getTokensAndLabels(String)} for the string format of the labeled matrix,
+     * the token being the first value of each row
+     */
+    public static List<Pair<String, String>> getTokensAndLabels(FeatureMatrix matrix, int[] labels) {
+        List<Pair<String, String>> res = new ArrayList<Pair<String, String>>(matrix.getRowCount() + matrix.getSequenceCount());
+        int row = 0;
+        for (int s = 0; s < matrix.getSequenceCount(); s++) {
+            if (s > 0) {
+                res.add(null);
+            }
+            for (int end = matrix.getSequenceEnd(s); row < end; row++) {
+                res.add(new Pair<String, String>(matrix.getValue(row, 0), matrix.getValue(labels[row])));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Reads the labels of a labeled result, i.e. the last column of each non blank line, as ids of the values
+     * of the labeled feature matrix.
+     *
+     * @return one label id per row of the matrix, or null if the number of labeled lines does not match
+     */
+    public static int[] getLabels(String labeledResult, FeatureMatrix matrix) {
+        int[] labels = new int[matrix.getRowCount()];
+        int row = 0;
+        int lastLabel = -1;
+        int start = 0;
+        int length = labeledResult.length();
+        while (start < length) {
+            int end = labeledResult.indexOf('\n', start);
+            if (end == -1) {
+                end = length;
+            }
+            int labelEnd = end;
+            while (labelEnd > start && Character.isWhitespace(labeledResult.charAt(labelEnd - 1))) {
+                labelEnd--;
+            }
+            if (labelEnd > start) {
+                if (row == labels.length) {
+                    return null;
+                }
+                int labelStart = labelEnd;
+                while (labelStart > start && !isSeparator(labeledResult.charAt(labelStart - 1))) {
+                    labelStart--;
+                }
+                // consecutive rows mostly have the same label, which then does not need to be extracted again
+                if (lastLabel == -1 || !regionEquals(labeledResult, labelStart, labelEnd, matrix.getValue(lastLabel))) {
+                    lastLabel = matrix.intern(labeledResult.substring(labelStart, labelEnd));
+                }
+                labels[row++] = lastLabel;
+            }
+            start = end + 1;
+        }
+        return row == labels.length ? labels : null;
+    }
+
     // I-<citation> --> <citation>
     // <citation> --> <citation>
     public static String getPlainLabel(String label) {
@@ -43,4 +104,112 @@ public class GenericTaggerUtils {
     public static boolean isBeginningOfEntity(String label) {
         return label.startsWith(START_ENTITY_LABEL_PREFIX);
     }
+
+    /**
+     * @param data feature matrix or labeled result
+     * @return number of non empty blocks of lines, blocks being separated by blank lines
+     */
+    public static int countBlocks(String data) {
+        int blocks = 0;
+        boolean inBlock = false;
+        int start = 0;
+        int length = data.length();
+        while (start <= length) {
+            int end = data.indexOf('\n', start);
+            if (end == -1) {
+                end = length;
+            }
+            if (isBlank(data, start, end)) {
+                inBlock = false;
+            } else if (!inBlock) {
+                inBlock = true;
+                blocks++;
+            }
+            start = end + 1;
+        }
+        return blocks;
+    }
+
+    /**
+     * Concatenates several sequences into a single tagger input, sequences being separated by a blank line.
+     * Blank sequences are skipped.
+     */
+    public static String joinSequences(List<String> sequences) {
+        StringBuilder sb = new StringBuilder();
+        for (String sequence : sequences) {
+            if (StringUtils.isBlank(sequence)) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append("\n\n");
+            }
+            sb.append(sequence.trim());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits the labeled result of a {@link #joinSequences(List)} input back into one labeled result per sequence,
+     * using the number of blocks of each input sequence.
+     *
+     * @param labeledResult labeled result of the concatenated sequences
+     * @param sequences     the original sequences
+     * @return labeled results, one per sequence (empty string for blank sequences),
+     * or null if the labeled result does not have the expected block structure
+     */
+    public static List<String> splitSequences(String labeledResult, List<String> sequences) {
+        List<String> blocks = new ArrayList<String>();
+        StringBuilder current = new StringBuilder();
+        for (String line : labeledResult.split("\n")) {
+            if (line.trim().isEmpty()) {
+                if (current.length() > 0) {
+                    blocks.add(current.toString());
+                    current.setLength(0);
+                }
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            current.append(line);
+        }
+        if (current.length() > 0) {
+            blocks.add(current.toString());
+        }
+
+        List<String> res = new ArrayList<String>(sequences.size());
+        int b = 0;
+        for (String sequence : sequences) {
+            int nb = StringUtils.isBlank(sequence) ? 0 : countBlocks(sequence);
+            if (b + nb > blocks.size()) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < nb; i++) {
+                if (i > 0) {
+                    sb.append("\n\n");
+                }
+                sb.append(blocks.get(b++));
+            }
+            res.add(sb.toString());
+        }
+        return b == blocks.size() ? res : null;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean regionEquals(String data, int start, int end, String value) {
+        return value.length() == end - start && data.regionMatches(start, value, 0, value.length());
+    }
+
+    private static boolean isBlank(String data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(data.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,96 @@
+package org.grobid.core.engines.tagging;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.LabelCacheCounters;
+import org.grobid.core.utilities.GrobidProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded memoization of the labeling of short inputs, such as dates, author lists and affiliations, which are
+ * highly repetitive in a batch ("2013", "Smith J, Doe A", recurring institution names...).
+ *
+ * There is one cache per model, shared by all the engines. A cache is dropped with {@link #invalidate(GrobidModels)}
+ * when its model is (re)loaded, so the parsers must get the cache with {@link #getCache(GrobidModels)} for each
+ * input instead of keeping it: a labeling still running with the previous model then fills a cache which is
+ * not used anymore. The cached values must not be modified by the parsers.
+ *
+ * @param <V> the labeling result kept for an input
+ */
+public class LabelCache<V> {
+    private static final ConcurrentMap<GrobidModels, LabelCache<?>> caches = new ConcurrentHashMap<GrobidModels, LabelCache<?>>();
+
+    private final GrobidModels model;
+    private final Cache<String, V> cache;
+
+    LabelCache(GrobidModels model, int maxEntries) {
+        this.model = model;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    /**
+     * @return the cache of the current version of a model, or null if the memoization is disabled
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> LabelCache<V> getCache(GrobidModels model) {
+        LabelCache<?> labelCache = caches.get(model);
+        if (labelCache == null) {
+            int size = GrobidProperties.getLabelCacheSize();
+            if (size <= 0) {
+                return null;
+            }
+            labelCache = new LabelCache<V>(model, size);
+            LabelCache<?> previous = caches.putIfAbsent(model, labelCache);
+            if (previous != null) {
+                labelCache = previous;
+            }
+        }
+        return (LabelCache<V>) labelCache;
+    }
+
+    /**
+     * Drop the labeling results memoized for a model, to be called when the model is (re)loaded.
+     */
+    public static void invalidate(GrobidModels model) {
+        if (caches.remove(model) != null) {
+            Engine.getCntManager().i(LabelCacheCounters.INVALIDATIONS);
+        }
+    }
+
+    /**
+     * Drop the labeling results memoized for all the models.
+     */
+    public static void invalidateAll() {
+        for (GrobidModels model : caches.keySet()) {
+            invalidate(model);
+        }
+    }
+
+    /**
+     * @param key the normalized input
+     * @return the result memoized for the input, or null
+     */
+    public V get(String key) {
+        V value = cache.getIfPresent(key);
+        Engine.getCntManager().i(value == null ? LabelCacheCounters.MISSES : LabelCacheCounters.HITS);
+        return value;
+    }
+
+    public void put(String key, V value) {
+        if ((key != null) && (value != null)) {
+            cache.put(key, value);
+        }
+    }
+
+    public GrobidModels getModel() {
+        return model;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+}
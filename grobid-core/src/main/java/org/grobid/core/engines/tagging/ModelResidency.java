@@ -0,0 +1,159 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.ModelCounters;
+import org.grobid.core.utilities.GrobidProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the Wapiti models loaded in memory. The models are loaded on first use by their tagger, so that
+ * a deployment only pays for the models it actually uses, and the least recently used models are unloaded when
+ * the approximate memory of the loaded models exceeds the budget given in grobid.properties. An unloaded model
+ * is freed once its labelings in progress are finished, and loaded again on next use.
+ *
+ * The memory of a model is approximated by the size of its file.
+ */
+public class ModelResidency {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelResidency.class);
+
+    // loaded models and their approximate memory
+    private static final Map<WapitiTagger, Long> residents = new HashMap<WapitiTagger, Long>();
+    // budget in bytes overriding the one of grobid.properties, -1 if not set
+    private static volatile long budget = -1;
+
+    /**
+     * Register a model which has just been loaded by its tagger, and unload the least recently used models
+     * if the budget is exceeded.
+     *
+     * @param loadTime the time spent loading the model in milliseconds
+     */
+    static void loaded(WapitiTagger tagger, long loadTime) {
+        Engine.getCntManager().i(ModelCounters.LOADED_MODELS);
+        Engine.getCntManager().i(ModelCounters.LOAD_TIME_MS, loadTime);
+        LOGGER.info("Model " + tagger.getModel() + " loaded in " + loadTime + " ms");
+
+        List<WapitiTagger> evicted;
+        synchronized (ModelResidency.class) {
+            residents.put(tagger, tagger.getModelSize());
+            evicted = selectEvicted(tagger);
+        }
+        // outside of the lock, as unloading takes the lock of the tagger
+        for (WapitiTagger victim : evicted) {
+            long start = System.currentTimeMillis();
+            if (victim.unloadModel()) {
+                long time = System.currentTimeMillis() - start;
+                Engine.getCntManager().i(ModelCounters.EVICTED_MODELS);
+                Engine.getCntManager().i(ModelCounters.EVICTION_TIME_MS, time);
+                LOGGER.info("Model " + victim.getModel() + " unloaded to stay within the memory budget of the models");
+            }
+        }
+    }
+
+    /**
+     * Unload a model, which is freed once its labelings in progress are finished and loaded again on next use.
+     *
+     * @return false if the model was not loaded
+     */
+    static boolean unload(WapitiTagger tagger) {
+        // outside of the lock, as unloading takes the lock of the tagger
+        boolean unloaded = tagger.unloadModel();
+        synchronized (ModelResidency.class) {
+            residents.remove(tagger);
+        }
+        return unloaded;
+    }
+
+    /**
+     * Select the least recently used models to unload so that the loaded models fit in the budget, the model
+     * which has just been loaded being kept anyway.
+     */
+    private static List<WapitiTagger> selectEvicted(WapitiTagger loaded) {
+        List<WapitiTagger> evicted = new ArrayList<WapitiTagger>();
+        // models unloaded concurrently with their registration
+        residents.keySet().retainAll(getLoaded());
+        long maxMemory = getMemoryBudget();
+        if (maxMemory <= 0) {
+            return evicted;
+        }
+        long memory = getResidentMemory();
+        if (memory <= maxMemory) {
+            return evicted;
+        }
+
+        List<WapitiTagger> candidates = new ArrayList<WapitiTagger>(residents.keySet());
+        candidates.remove(loaded);
+        Collections.sort(candidates, new Comparator<WapitiTagger>() {
+            @Override
+            public int compare(WapitiTagger t1, WapitiTagger t2) {
+                long diff = t1.getLastUse() - t2.getLastUse();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+        for (WapitiTagger candidate : candidates) {
+            if (memory <= maxMemory) {
+                break;
+            }
+            memory -= residents.remove(candidate);
+            evicted.add(candidate);
+        }
+        return evicted;
+    }
+
+    private static List<WapitiTagger> getLoaded() {
+        List<WapitiTagger> loaded = new ArrayList<WapitiTagger>(residents.size());
+        for (WapitiTagger tagger : residents.keySet()) {
+            if (tagger.isLoaded()) {
+                loaded.add(tagger);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @return the approximate memory of the loaded models in bytes
+     */
+    public static synchronized long getResidentMemory() {
+        long memory = 0;
+        for (Long size : residents.values()) {
+            memory += size;
+        }
+        return memory;
+    }
+
+    /**
+     * @return the loaded models
+     */
+    public static synchronized List<GrobidModels> getResidentModels() {
+        List<GrobidModels> models = new ArrayList<GrobidModels>(residents.size());
+        for (WapitiTagger tagger : residents.keySet()) {
+            models.add(tagger.getModel());
+        }
+        return models;
+    }
+
+    /**
+     * @return the memory budget of the loaded models in bytes, 0 for no limit
+     */
+    public static long getMemoryBudget() {
+        long bytes = budget;
+        return bytes >= 0 ? bytes : GrobidProperties.getModelsMemoryBudget() * 1024 * 1024;
+    }
+
+    /**
+     * Override the budget given in grobid.properties.
+     *
+     * @param bytes the memory budget in bytes, 0 for no limit, -1 to use grobid.properties again
+     */
+    public static void setMemoryBudget(long bytes) {
+        budget = bytes;
+    }
+}
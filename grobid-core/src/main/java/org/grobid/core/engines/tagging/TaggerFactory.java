@@ -1,7 +1,12 @@
 package org.grobid.core.engines.tagging;
 
 import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.ModelCounters;
+import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.utilities.GrobidProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -11,6 +16,7 @@ import java.util.Map;
  * Date: 3/20/14
  */
 public class TaggerFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaggerFactory.class);
     private static Map<GrobidModels, GenericTagger> cache = new HashMap<GrobidModels, GenericTagger>();
 
     public static synchronized GenericTagger getTagger(GrobidModels model) {
@@ -27,7 +33,40 @@ public class TaggerFactory {
                     throw new IllegalStateException("Unsupported Grobid CRF engine: " + GrobidProperties.getGrobidCRFEngine());
             }
             cache.put(model, t);
+            // results memoized with a previous instance of the model are not valid anymore
+            LabelCache.invalidate(model);
         }
         return t;
     }
+
+    /**
+     * Replace a model by the current version of its file, typically after it has been retrained, without
+     * restarting: the new version is loaded while the current one keeps labeling, then the new labelings
+     * switch to it and the previous version is freed once its labelings in progress are finished.
+     *
+     * @return false if the model is not loaded yet, in which case its new version is simply loaded on first use
+     * @throws GrobidException if the new version cannot be loaded, the current version being kept
+     */
+    public static boolean reloadModel(GrobidModels model) {
+        GenericTagger t;
+        synchronized (TaggerFactory.class) {
+            t = cache.get(model);
+        }
+        if ((t != null) && !(t instanceof WapitiTagger)) {
+            throw new GrobidException("Reloading the model " + model + " is only supported with the Wapiti engine, "
+                    + "a restart is needed to use its new version");
+        }
+
+        long start = System.currentTimeMillis();
+        boolean reloaded = (t != null) && ((WapitiTagger) t).reloadModel();
+        LabelCache.invalidate(model);
+        if (!reloaded) {
+            return false;
+        }
+        long time = System.currentTimeMillis() - start;
+        Engine.getCntManager().i(ModelCounters.RELOADED_MODELS);
+        Engine.getCntManager().i(ModelCounters.RELOAD_TIME_MS, time);
+        LOGGER.info("Model " + model + " reloaded in " + time + " ms");
+        return true;
+    }
 }
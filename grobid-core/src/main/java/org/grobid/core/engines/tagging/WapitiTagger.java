@@ -2,20 +2,40 @@ package org.grobid.core.engines.tagging;
 
 import com.google.common.base.Joiner;
 import org.grobid.core.GrobidModels;
+import org.grobid.core.exceptions.GrobidResourceException;
 import org.grobid.core.jni.WapitiModel;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 /**
+ * Labeling with a Wapiti model shared by all the threads, without lock: the labeling threads only register
+ * with the current version of the model, so that it is not freed while in use when it is reloaded or unloaded.
+ *
  * User: zholudev
  * Date: 3/20/14
  */
 public class WapitiTagger implements GenericTagger {
 
-    private final WapitiModel wapitiModel;
+    private final GrobidModels model;
+    // null while the model is not loaded
+    private volatile WapitiModel wapitiModel;
+    private volatile long lastUse;
 
+    /**
+     * The model is loaded on first use, see {@link ModelResidency}, its file being checked now so that a missing
+     * model fails when the parsers are created rather than in the middle of a labeling.
+     *
+     * @throws GrobidResourceException if the model file does not exist
+     */
     public WapitiTagger(GrobidModels model) {
-        wapitiModel = new WapitiModel(model);
+        File modelFile = new File(model.getModelPath());
+        if (!modelFile.exists() || modelFile.isDirectory()) {
+            throw new GrobidResourceException("Model file does not exists or a directory: "
+                    + modelFile.getAbsolutePath());
+        }
+        this.model = model;
     }
 
     @Override
@@ -25,11 +45,153 @@ public class WapitiTagger implements GenericTagger {
 
     @Override
     public String label(String data) {
-        return wapitiModel.label(data);
+        WapitiModel current = acquireModel();
+        String res;
+        try {
+            res = current.label(data);
+        } finally {
+            current.release();
+        }
+        DebugCapture.record(model, data, res);
+        return res;
     }
 
+    @Override
+    public List<String> labelBatch(List<String> sequences) {
+        WapitiModel current = acquireModel();
+        List<String> res;
+        try {
+            res = current.labelBatch(sequences);
+        } finally {
+            current.release();
+        }
+        DebugCapture.record(model, sequences, res);
+        return res;
+    }
+
+    @Override
+    public int[] label(FeatureMatrix matrix) {
+        WapitiModel current = acquireModel();
+        int[] res;
+        try {
+            res = current.label(matrix);
+        } finally {
+            current.release();
+        }
+        if (DebugCapture.isActive()) {
+            DebugCapture.record(model, matrix.toString(), matrix.toLabeledString(res));
+        }
+        return res;
+    }
+
+    /**
+     * Load the model again from its file and switch the new labelings to it. The labelings in progress
+     * finish with the previous version, which is freed afterwards.
+     *
+     * @return false if the model is not loaded, in which case the current version of its file is simply loaded
+     * on next use
+     */
+    public boolean reloadModel() {
+        WapitiModel previous;
+        long time;
+        synchronized (this) {
+            if (wapitiModel == null) {
+                return false;
+            }
+            long start = System.currentTimeMillis();
+            WapitiModel newModel = new WapitiModel(model);
+            time = System.currentTimeMillis() - start;
+            previous = wapitiModel;
+            wapitiModel = newModel;
+        }
+        previous.retire();
+        ModelResidency.loaded(this, time);
+        return true;
+    }
+
+    /**
+     * @return true if the model is currently loaded
+     */
+    public boolean isLoaded() {
+        return wapitiModel != null;
+    }
+
+    public GrobidModels getModel() {
+        return model;
+    }
+
+    /**
+     * @return the approximate memory used by the model once loaded, based on the size of its file
+     */
+    public long getModelSize() {
+        return new File(model.getModelPath()).length();
+    }
+
+    /**
+     * @return the time of the last labeling, in milliseconds
+     */
+    long getLastUse() {
+        return lastUse;
+    }
+
+    WapitiModel acquireModel() {
+        while (true) {
+            WapitiModel current = wapitiModel;
+            if (current == null) {
+                current = loadModel();
+            }
+            if (current.acquire()) {
+                long now = System.currentTimeMillis();
+                // not written again within the same millisecond, as the field is shared by all the labeling threads
+                if (now != lastUse) {
+                    lastUse = now;
+                }
+                return current;
+            }
+            // the model has just been replaced or unloaded and freed, the current one is taken
+        }
+    }
+
+    private WapitiModel loadModel() {
+        WapitiModel loaded;
+        long time;
+        synchronized (this) {
+            if (wapitiModel != null) {
+                return wapitiModel;
+            }
+            long start = System.currentTimeMillis();
+            loaded = new WapitiModel(model);
+            time = System.currentTimeMillis() - start;
+            wapitiModel = loaded;
+        }
+        // outside of the lock of this tagger, as other taggers may be unloaded
+        ModelResidency.loaded(this, time);
+        return loaded;
+    }
+
+    /**
+     * Unload the model, which is freed once the labelings in progress are finished and loaded again on next use.
+     *
+     * @return false if the model was not loaded
+     */
+    boolean unloadModel() {
+        WapitiModel previous;
+        synchronized (this) {
+            previous = wapitiModel;
+            wapitiModel = null;
+        }
+        if (previous == null) {
+            return false;
+        }
+        previous.retire();
+        return true;
+    }
+
+    /**
+     * Does not unload the model: the tagger is shared by the parsers of all the engines, see {@link TaggerFactory},
+     * and closing one engine must not unload it for the others. The models are unloaded by {@link ModelResidency}.
+     */
     @Override
     public void close() throws IOException {
-        wapitiModel.close();
     }
 }
@@ -56,7 +56,8 @@ public class AbstractEngineFactory {
 	 */
 	public static void fullInit() {
 		init();
-        if (GrobidProperties.getGrobidCRFEngine() == GrobidCRFEngine.CRFPP) {
+        // otherwise the models are loaded on first use
+        if ((GrobidProperties.getGrobidCRFEngine() == GrobidCRFEngine.CRFPP) && GrobidProperties.isModelsPreload()) {
 		    ModelMap.initModels();
         }
 		Lexicon.getInstance();
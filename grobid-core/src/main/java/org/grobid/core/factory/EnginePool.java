@@ -0,0 +1,238 @@
+package org.grobid.core.factory;
+
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.EngineParsers;
+import org.grobid.core.engines.counters.EnginePoolCounters;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.utilities.counters.CntManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of {@link Engine} instances shared by concurrent requests.
+ *
+ * The returned engines are kept and handed out again, so that the parsers they have loaded are reused
+ * instead of being created for each request. Borrowing does not take any monitor: the number of engines
+ * in use is bounded by a semaphore and the idle engines are kept in a lock-free queue. A request waits for
+ * an engine at most the given timeout when all the engines are in use.
+ *
+ * By contract, each borrowed engine must be given back once with {@link #release(Engine)}, or with
+ * {@link #invalidate(Engine)} if it should not be reused.
+ */
+public class EnginePool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnginePool.class);
+
+    private final AbstractEngineFactory factory;
+    private final int maxSize;
+    private final long defaultTimeout;
+    private final CntManager cntManager;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<Engine> idleEngines = new ConcurrentLinkedQueue<Engine>();
+    // the size of a concurrent queue is not a constant time operation
+    private final AtomicInteger nbIdle = new AtomicInteger(0);
+    private final AtomicInteger nbActive = new AtomicInteger(0);
+    private final AtomicInteger nbCreated = new AtomicInteger(0);
+
+    /**
+     * @param factory        the factory of the engines
+     * @param maxSize        the maximum number of engines in use at the same time
+     * @param defaultTimeout the maximum time to wait for an engine in milliseconds
+     * @param cntManager     counters of the pool
+     */
+    public EnginePool(AbstractEngineFactory factory, int maxSize, long defaultTimeout, CntManager cntManager) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size of the engine pool must be positive: " + maxSize);
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.defaultTimeout = defaultTimeout;
+        this.cntManager = cntManager;
+        permits = new Semaphore(maxSize);
+    }
+
+    /**
+     * Create engines ahead of the first requests, so that they do not pay for loading the parsers.
+     *
+     * @param size the number of engines to create, bounded by the maximum size of the pool
+     */
+    public void warmUp(int size) {
+        long start = System.currentTimeMillis();
+        int nbEngines = Math.min(size, maxSize) - nbIdle.get() - nbActive.get();
+        for (int i = 0; i < nbEngines; i++) {
+            Engine engine = createEngine();
+            try {
+                warm(engine);
+            } catch (Exception e) {
+                LOGGER.warn("The parsers of the engine cannot be loaded in advance: " + e.getMessage());
+            }
+            idleEngines.offer(engine);
+            nbIdle.incrementAndGet();
+        }
+        if (nbEngines > 0) {
+            LOGGER.info(nbEngines + " engines created in the pool in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Load the parsers of an engine created by the warm-up.
+     */
+    protected void warm(Engine engine) {
+        EngineParsers parsers = engine.getParsers();
+        parsers.getSegmentationParser();
+        parsers.getHeaderParser();
+        parsers.getFullTextParser();
+        parsers.getCitationParser();
+    }
+
+    /**
+     * Borrow an engine, waiting at most the default timeout of the pool.
+     *
+     * @throws NoSuchElementException if no engine is available in time
+     */
+    public Engine borrow() {
+        return borrow(defaultTimeout);
+    }
+
+    /**
+     * Borrow an engine, waiting at most the given timeout.
+     *
+     * @param timeout the maximum time to wait in milliseconds
+     * @throws NoSuchElementException if no engine is available in time
+     */
+    public Engine borrow(long timeout) {
+        long start = System.currentTimeMillis();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire() || permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        long waited = System.currentTimeMillis() - start;
+        if (waited > 0) {
+            cntManager.i(EnginePoolCounters.BORROW_WAIT_TIME_MS, waited);
+        }
+        if (!acquired) {
+            cntManager.i(EnginePoolCounters.BORROW_TIMEOUTS);
+            throw new NoSuchElementException("No engine available in the pool after " + waited + " ms, "
+                    + maxSize + " engines in use");
+        }
+
+        Engine engine = idleEngines.poll();
+        if (engine != null) {
+            nbIdle.decrementAndGet();
+        } else {
+            try {
+                engine = createEngine();
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        nbActive.incrementAndGet();
+        cntManager.i(EnginePoolCounters.BORROWED_ENGINES);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Number of engines in pool active/max: " + nbActive.get() + "/" + maxSize);
+        }
+        return engine;
+    }
+
+    /**
+     * Give back a borrowed engine to be reused.
+     */
+    public void release(Engine engine) {
+        if (engine == null) {
+            return;
+        }
+        idleEngines.offer(engine);
+        nbIdle.incrementAndGet();
+        nbActive.decrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * Give back a borrowed engine which is closed instead of being reused, for instance after a failure
+     * which may have left it in an inconsistent state.
+     */
+    public void invalidate(Engine engine) {
+        if (engine == null) {
+            return;
+        }
+        nbActive.decrementAndGet();
+        permits.release();
+        cntManager.i(EnginePoolCounters.INVALIDATED_ENGINES);
+        closeEngine(engine);
+    }
+
+    /**
+     * Close the idle engines, the engines in use being closed when they are released.
+     */
+    public void clear() {
+        Engine engine;
+        while ((engine = idleEngines.poll()) != null) {
+            nbIdle.decrementAndGet();
+            closeEngine(engine);
+        }
+    }
+
+    private Engine createEngine() {
+        Engine engine = factory.createEngine();
+        if (engine == null) {
+            throw new GrobidException("The engine factory of the pool has not created an engine");
+        }
+        nbCreated.incrementAndGet();
+        cntManager.i(EnginePoolCounters.CREATED_ENGINES);
+        return engine;
+    }
+
+    private static void closeEngine(Engine engine) {
+        try {
+            engine.close();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot close an engine of the pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of borrowed engines
+     */
+    public int getActiveCount() {
+        return nbActive.get();
+    }
+
+    /**
+     * @return the number of engines ready to be borrowed without creating a new one
+     */
+    public int getIdleCount() {
+        return nbIdle.get();
+    }
+
+    /**
+     * @return the number of engines created since the creation of the pool
+     */
+    public int getCreatedCount() {
+        return nbCreated.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "active/idle/max: " + getActiveCount() + "/" + getIdleCount() + "/" + maxSize
+                + ", created: " + getCreatedCount()
+                + ", timeouts: " + cntManager.cnt(EnginePoolCounters.BORROW_TIMEOUTS);
+    }
+}
@@ -1,5 +1,6 @@
 package org.grobid.core.features;
 
+import org.grobid.core.engines.tagging.FeatureMatrix;
 import org.grobid.core.layout.LayoutToken;
 
 /**
@@ -44,194 +45,109 @@ public class FeaturesVectorSegmentation {
 	public int lineLength = 0;
 
     public String printVector() {
-        if (string == null) return null;
-        if (string.length() == 0) return null;
-        StringBuffer res = new StringBuffer();
+        FeatureMatrix matrix = new FeatureMatrix();
+        if (!addRow(matrix)) return null;
+        return matrix.toString();
+    }
+
+    /**
+     * Add the features as a new row of a feature matrix, in the same order as {@link #printVector()}.
+     *
+     * @return false if there is no lexical feature, in which case no row is added
+     */
+    public boolean addRow(FeatureMatrix matrix) {
+        if (string == null) return false;
+        if (string.length() == 0) return false;
 
         // token string (1)
-        res.append(string);
+        matrix.add(string);
 		
 		// second token string
 		if (secondString != null)
-			res.append(" " + secondString);
+			matrix.add(secondString);
 		else
-			res.append(" " + string);
+			matrix.add(string);
 		
         // lowercase string
-        res.append(" " + string.toLowerCase());
+        matrix.add(string.toLowerCase());
 
         // prefix (4)
-        res.append(" " + string.substring(0, 1));
+        matrix.add(string.substring(0, 1));
+        matrix.add(string.substring(0, Math.min(2, string.length())));
+        matrix.add(string.substring(0, Math.min(3, string.length())));
+        matrix.add(string.substring(0, Math.min(4, string.length())));
 
-        if (string.length() > 1)
-            res.append(" " + string.substring(0, 2));
-        else
-            res.append(" " + string.substring(0, 1));
-
-        if (string.length() > 2)
-            res.append(" " + string.substring(0, 3));
-        else if (string.length() > 1)
-            res.append(" " + string.substring(0, 2));
-        else
-            res.append(" " + string.substring(0, 1));
-
-        if (string.length() > 3)
-            res.append(" " + string.substring(0, 4));
-        else if (string.length() > 2)
-            res.append(" " + string.substring(0, 3));
-        else if (string.length() > 1)
-            res.append(" " + string.substring(0, 2));
-        else
-            res.append(" " + string.substring(0, 1));
-
-		/*
-        // suffix (4)
-        res.append(" " + string.charAt(string.length() - 1));
-
-        if (string.length() > 1)
-            res.append(" " + string.substring(string.length() - 2, string.length()));
-        else
-            res.append(" " + string.charAt(string.length() - 1));
-
-        if (string.length() > 2)
-            res.append(" " + string.substring(string.length() - 3, string.length()));
-        else if (string.length() > 1)
-            res.append(" " + string.substring(string.length() - 2, string.length()));
-        else
-            res.append(" " + string.charAt(string.length() - 1));
-
-        if (string.length() > 3)
-            res.append(" " + string.substring(string.length() - 4, string.length()));
-        else if (string.length() > 2)
-            res.append(" " + string.substring(string.length() - 3, string.length()));
-        else if (string.length() > 1)
-            res.append(" " + string.substring(string.length() - 2, string.length()));
-        else
-            res.append(" " + string.charAt(string.length() - 1));
-*/
         // block information (1)
 		if (blockStatus != null)
-			res.append(" " + blockStatus);
-        //res.append(" 0");
+			matrix.add(blockStatus);
 
         // line information (1)
 		if (lineStatus != null)
-			res.append(" " + lineStatus);
+			matrix.add(lineStatus);
 
         // page information (1)
-        res.append(" " + pageStatus);
-
-        // alignmet/horizontal position information (1)
-        //res.append(" " + alignmentStatus);
+        matrix.add(pageStatus);
 
         // font information (1)
-        res.append(" " + fontStatus);
+        matrix.add(fontStatus);
 
         // font size information (1)
-        res.append(" " + fontSize);
+        matrix.add(fontSize);
 
         // string type information (3)
-        if (bold)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (italic)
-            res.append(" 1");
-        else
-            res.append(" 0");
+        matrix.add(bold);
+        matrix.add(italic);
 
         // capitalisation (1)
         if (digit.equals("ALLDIGIT"))
-            res.append(" NOCAPS");
+            matrix.add("NOCAPS");
         else
-            res.append(" " + capitalisation);
+            matrix.add(capitalisation);
 
         // digit information (1)
-        res.append(" " + digit);
+        matrix.add(digit);
 
         // character information (1)
-        if (singleChar)
-            res.append(" 1");
-        else
-            res.append(" 0");
+        matrix.add(singleChar);
 
         // lexical information (9)
-        if (properName)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (commonName)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (firstName)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (year)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (month)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (email)
-            res.append(" 1");
-        else
-            res.append(" 0");
-
-        if (http)
-            res.append(" 1");
-        else
-            res.append(" 0");
+        matrix.add(properName);
+        matrix.add(commonName);
+        matrix.add(firstName);
+        matrix.add(year);
+        matrix.add(month);
+        matrix.add(email);
+        matrix.add(http);
 
         // punctuation information (1)
 		if (punctType != null)
-			res.append(" " + punctType); // in case the token is a punctuation (NO otherwise)
+			matrix.add(punctType); // in case the token is a punctuation (NO otherwise)
 
         // relative document position (1)
-        res.append(" " + relativeDocumentPosition);
+        matrix.add(relativeDocumentPosition);
 
-        // relative page position coordinate (1)
-        //res.append(" " + relativePagePosition);
-		
         // relative page position characters (1)
-        res.append(" " + relativePagePositionChar);
+        matrix.add(relativePagePositionChar);
 		
 		// punctuation profile
 		if ( (punctuationProfile == null) || (punctuationProfile.length() == 0) ) {
 			// string profile
-			res.append(" no");
+			matrix.add("no");
 			// number of punctuation symbols in the line
-			res.append(" 0");
+			matrix.add(0);
 		}
 		else {
 			// string profile
-			res.append(" " + punctuationProfile);
+			matrix.add(punctuationProfile);
 			// number of punctuation symbols in the line
-			res.append(" "+punctuationProfile.length());
+			matrix.add(punctuationProfile.length());
 		}
 
 		// current line length on a predefined scale and relative to the longest line of the current block
-		res.append(" " + lineLength);
-
-        // label - for training data (1)
-        /*if (label != null)
-              res.append(" " + label + "\n");
-          else
-              res.append(" 0\n");
-          */
-
-        res.append("\n");
+		matrix.add(lineLength);
 
-        return res.toString();
+        matrix.endRow();
+        return true;
     }
 
 }
\ No newline at end of file
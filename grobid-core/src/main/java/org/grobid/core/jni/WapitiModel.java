@@ -3,21 +3,38 @@ package org.grobid.core.jni;
 import fr.limsi.wapiti.SWIGTYPE_p_mdl_t;
 import fr.limsi.wapiti.Wapiti;
 import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.tagging.FeatureMatrix;
+import org.grobid.core.engines.tagging.GenericTaggerUtils;
 import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.exceptions.GrobidExceptionStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * A Wapiti model loaded in native memory.
+ *
+ * A model is shared by all the engines and can label concurrently from any number of threads: once loaded, the
+ * native model is only read by the labeling, which allocates its decoding state (lattice, scores, back pointers)
+ * for each call, and the input of the matrices is built in a buffer of the labeling thread. A model must not be
+ * closed while labeling, see {@link #acquire()} and {@link #retire()}.
+ *
  * User: zholudev
  * Date: 3/17/14
  */
 public class WapitiModel {
     public static final Logger LOGGER = LoggerFactory.getLogger(WapitiModel.class);
 
-    private SWIGTYPE_p_mdl_t model;
+    // read without lock by the labeling threads
+    private volatile SWIGTYPE_p_mdl_t model;
     private File modelFile;
+    // number of labelings in progress, -1 once the model has been freed after being retired
+    private final AtomicInteger users = new AtomicInteger(0);
+    private volatile boolean retired = false;
 
     public WapitiModel(File modelFile) {
         this.modelFile = modelFile;
@@ -38,20 +55,118 @@ public class WapitiModel {
         }
         LOGGER.info("Loading model: " + modelFile + " (size: " + modelFile.length() + ")");
         model = WapitiWrapper.getModel(modelFile);
+        if (model == null) {
+            throw new GrobidException("Cannot load the Wapiti model: " + modelFile.getAbsolutePath());
+        }
     }
 
-    public String label(String data) {
-        if (model == null) {
-            LOGGER.warn("Model has been already closed, reopening: " + modelFile.getAbsolutePath());
-            init();
+    /**
+     * Register a labeling with this model, which is then not freed by {@link #retire()} before the
+     * matching {@link #release()}.
+     *
+     * @return false if the model has been retired and freed, in which case the model replacing it must be used
+     */
+    public boolean acquire() {
+        while (true) {
+            int n = users.get();
+            if (n < 0) {
+                return false;
+            }
+            if (users.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        if (users.decrementAndGet() == 0 && retired) {
+            freeRetired();
+        }
+    }
+
+    /**
+     * Free the model once the labelings in progress are finished, when it has been replaced by a new version.
+     */
+    public void retire() {
+        retired = true;
+        freeRetired();
+    }
+
+    private void freeRetired() {
+        if (users.compareAndSet(0, -1)) {
+            LOGGER.info("Freeing the replaced model: " + modelFile);
+            close();
         }
-        String label = WapitiWrapper.label(model, data).trim();
+    }
+
+    public String label(String data) {
+        String label = WapitiWrapper.label(getNativeModel(), data).trim();
         //TODO: VZ: Grobid currently expects tabs as separators whereas wapiti uses spaces for separating features.
         // for now it is safer to replace, although it does not look nice
-        label = label.replaceAll(" ", "\t");
+        label = label.replace(' ', '\t');
         return label;
     }
 
+    /**
+     * Labels all the sequences with a single call to Wapiti, sequences being separated by blank lines
+     * in the native input.
+     */
+    public List<String> labelBatch(List<String> sequences) {
+        if (sequences.size() == 1) {
+            List<String> res = new ArrayList<String>(1);
+            res.add(label(sequences.get(0)));
+            return res;
+        }
+        String data = GenericTaggerUtils.joinSequences(sequences);
+        if (data.isEmpty()) {
+            List<String> res = new ArrayList<String>(sequences.size());
+            for (int i = 0; i < sequences.size(); i++) {
+                res.add("");
+            }
+            return res;
+        }
+
+        List<String> res = GenericTaggerUtils.splitSequences(label(data), sequences);
+        if (res == null) {
+            // should not happen, but we do not want to misalign results if Wapiti splits sequences differently
+            LOGGER.warn("Unexpected sequence structure in the batch labeling result of " + modelFile.getName()
+                    + ", labeling the " + sequences.size() + " sequences one by one");
+            res = new ArrayList<String>(sequences.size());
+            for (String sequence : sequences) {
+                res.add(label(sequence));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Labels a feature matrix, the labels being read directly from the native result without reformatting it.
+     *
+     * @return the id of the label of each row in the matrix
+     */
+    public int[] label(FeatureMatrix matrix) {
+        if (matrix.getRowCount() == 0) {
+            return new int[0];
+        }
+        String labeled = WapitiWrapper.label(getNativeModel(), matrix.toTaggerInput());
+        int[] labels = GenericTaggerUtils.getLabels(labeled, matrix);
+        if (labels == null) {
+            throw new GrobidException("Wapiti labeling of " + modelFile.getName() + " does not return one label for each of the "
+                    + matrix.getRowCount() + " rows", GrobidExceptionStatus.TAGGING_ERROR);
+        }
+        return labels;
+    }
+
+    private SWIGTYPE_p_mdl_t getNativeModel() {
+        SWIGTYPE_p_mdl_t current = model;
+        if (current == null) {
+            LOGGER.warn("Model has been already closed, reopening: " + modelFile.getAbsolutePath());
+            init();
+            current = model;
+        }
+        return current;
+    }
+
     public synchronized void close() {
         if (model != null) {
             Wapiti.freeModel(model);
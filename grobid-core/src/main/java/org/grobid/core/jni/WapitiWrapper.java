@@ -3,6 +3,7 @@ package org.grobid.core.jni;
 import com.google.common.base.Throwables;
 import fr.limsi.wapiti.SWIGTYPE_p_mdl_t;
 import fr.limsi.wapiti.Wapiti;
+import org.apache.commons.lang3.StringUtils;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.exceptions.GrobidExceptionStatus;
 
@@ -13,8 +14,12 @@ import java.io.File;
  * Date: 3/17/14
  */
 public class WapitiWrapper {
+    /**
+     * Label the sequences of a feature string with a loaded model. Can be called concurrently on the same model:
+     * the decoding state is allocated by the native library for each call, and the model is not modified.
+     */
     public static String label(SWIGTYPE_p_mdl_t model, String data) {
-        if (data.trim().isEmpty()) {
+        if (StringUtils.isBlank(data)) {
             System.err.println("Empty data is provided to Wapiti tagger: " + Throwables.getStackTraceAsString(new Throwable()));
             return "";
         }
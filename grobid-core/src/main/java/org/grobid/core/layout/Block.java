@@ -1,6 +1,7 @@
 package org.grobid.core.layout;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -25,7 +26,12 @@ public class Block {
     public LayoutToken firstToken = null;
     public LayoutToken lastToken = null;
 
-    public List<LayoutToken> tokens = null;
+    // the tokens of the block, kept as a range of the token store while they are contiguous in the store,
+    // otherwise as a list
+    private LayoutTokenStore store = null;
+    private int storeStart = 0;
+    private int storeEnd = 0;
+    private List<LayoutToken> tokens = null;
 
     // start position of the block in the original tokenization
     private int startToken = -1;
@@ -43,19 +49,69 @@ public class Block {
     }
 
     public void addToken(LayoutToken lt) {
-        if (tokens == null)
-            tokens = new ArrayList<LayoutToken>();
+        if (tokens == null) {
+            if (store == null) {
+                store = lt.getStore();
+                storeStart = lt.getIndex();
+                storeEnd = storeStart + 1;
+                return;
+            }
+            if ((store == lt.getStore()) && (storeEnd == lt.getIndex())) {
+                storeEnd++;
+                return;
+            }
+            materializeTokens();
+        }
         tokens.add(lt);
     }
 
+    /**
+     * @return the tokens of the block, or null if the block has no token. The list is read-only, the tokens
+     * are removed with {@link #removeToken(int)}.
+     */
     public List<LayoutToken> getTokens() {
-        return tokens;
+        if (tokens != null) {
+            return Collections.unmodifiableList(tokens);
+        }
+        if (store != null) {
+            return store.subList(storeStart, storeEnd);
+        }
+        return null;
+    }
+
+    public void removeToken(int index) {
+        if (tokens == null && store != null) {
+            if (index == 0 && storeStart < storeEnd) {
+                storeStart++;
+                return;
+            }
+            if (index == storeEnd - storeStart - 1 && index >= 0) {
+                storeEnd--;
+                return;
+            }
+            materializeTokens();
+        }
+        if (tokens == null) {
+            throw new IndexOutOfBoundsException("Token " + index + " of a block without token");
+        }
+        tokens.remove(index);
     }
 
     public void resetTokens() {
+        store = null;
+        storeStart = 0;
+        storeEnd = 0;
         tokens = null;
     }
 
+    private void materializeTokens() {
+        tokens = new ArrayList<LayoutToken>();
+        if (store != null) {
+            tokens.addAll(store.subList(storeStart, storeEnd));
+            store = null;
+        }
+    }
+
     public void setType(Type t) {
         type = t;
     }
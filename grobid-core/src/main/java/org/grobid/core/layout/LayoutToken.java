@@ -1,119 +1,153 @@
 package org.grobid.core.layout;
 
 /**
- * Class for representing the layout information associated to a PDF object.
+ * Class for representing the layout information associated to a PDF object, as a view over the
+ * {@link LayoutTokenStore} of the document.
  *
  * @author Patrice Lopez
  */
 public class LayoutToken {
-    private String text = null;
-    public double y = 0.0;
-    public double x = 0.0;
-    public double width = 0.0;
-    public double height = 0.0;
-    private String font = null;
-    private boolean bold = false;
-    private boolean italic = false;
-    private String colorFont = null;
-    public double fontSize = 0.0;
-    private boolean rotation = false;
+    private final LayoutTokenStore store;
+    private final int index;
 
+    /**
+     * Create a token kept in its own store. The tokens of a document are rather created with
+     * {@link LayoutTokenStore#newToken()}, as views over the store of the document.
+     */
     public LayoutToken() {
+        this(new LayoutTokenStore(1));
+    }
+
+    private LayoutToken(LayoutTokenStore store) {
+        this(store, store.append());
+    }
+
+    LayoutToken(LayoutTokenStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    LayoutTokenStore getStore() {
+        return store;
+    }
+
+    int getIndex() {
+        return index;
     }
 
     public void setFont(String f) {
-        font = f;
+        store.setFont(index, f);
     }
 
     public String getFont() {
-        return font;
+        return store.getFont(index);
     }
 
     public void setText(String f) {
         //text = f.replaceAll("\n", "");
-		text = f;
+		store.setText(index, f);
     }
 
     public void setRotation(boolean b) {
-        rotation = b;
+        store.setRotation(index, b);
     }
 
     public boolean getRotation() {
-        return rotation;
+        return store.getRotation(index);
     }
 
     public String getText() {
-        return text;
+        return store.getText(index);
     }
 
     public void setColorFont(String f) {
-        colorFont = f;
+        store.setColorFont(index, f);
     }
 
     public String getColorFont() {
-        return colorFont;
+        return store.getColorFont(index);
     }
 
     public void setBold(boolean b) {
-        bold = b;
+        store.setBold(index, b);
     }
 
     public void setItalic(boolean i) {
-        italic = i;
+        store.setItalic(index, i);
     }
 
     public boolean getBold() {
-        return bold;
+        return store.getBold(index);
     }
 
     public boolean getItalic() {
-        return italic;
+        return store.getItalic(index);
     }
 
     public void setFontSize(double d) {
-        fontSize = d;
+        store.setFontSize(index, d);
     }
 
     public double getFontSize() {
-        return fontSize;
+        return store.getFontSize(index);
     }
 
     public void setX(double d) {
-        x = d;
+        store.setX(index, d);
     }
 
     public double getX() {
-        return x;
+        return store.getX(index);
     }
 
     public void setY(double d) {
-        y = d;
+        store.setY(index, d);
     }
 
     public double getY() {
-        return y;
+        return store.getY(index);
     }
 
     public void setHeight(double d) {
-        height = d;
+        store.setHeight(index, d);
     }
 
     public double getHeight() {
-        return height;
+        return store.getHeight(index);
     }
 
     public void setWidth(double d) {
-        width = d;
+        store.setWidth(index, d);
     }
 
     public double getWidth() {
-        return width;
+        return store.getWidth(index);
+    }
+
+    /**
+     * Two views are equal if they are on the same token of the same store.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LayoutToken)) {
+            return false;
+        }
+        LayoutToken that = (LayoutToken) o;
+        return store == that.store && index == that.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + index;
     }
 
     @Override
     public String toString() {
         return "LayoutToken{" +
-                "text='" + text + '\'' +
+                "text='" + getText() + '\'' +
                 '}';
     }
 }
\ No newline at end of file
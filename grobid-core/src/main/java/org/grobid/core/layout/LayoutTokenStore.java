@@ -0,0 +1,258 @@
+package org.grobid.core.layout;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar storage of the layout tokens of a document, as produced by the pdf2xml parser.
+ *
+ * Each property of the tokens is kept in a primitive array indexed by the token position, and the font names
+ * and colours, repeated on almost every token, are dictionary-encoded, so that a document costs a few arrays
+ * instead of one object and several strings per token. {@link LayoutToken} and the token lists of a {@link Block}
+ * are views over the store.
+ *
+ * A store is filled by a single thread while parsing; it can then be read concurrently.
+ */
+public class LayoutTokenStore {
+    private static final byte BOLD = 1;
+    private static final byte ITALIC = 2;
+    private static final byte ROTATION = 4;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private String[] texts;
+    private double[] xs;
+    private double[] ys;
+    private double[] widths;
+    private double[] heights;
+    private double[] fontSizes;
+    private int[] fonts;
+    private int[] colors;
+    private byte[] flags;
+    private int size = 0;
+
+    // dictionary of the font names and colours
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final List<String> values = new ArrayList<String>();
+
+    public LayoutTokenStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LayoutTokenStore(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+    /**
+     * Add a token with no text nor layout information.
+     *
+     * @return the view on the new token
+     */
+    public LayoutToken newToken() {
+        return new LayoutToken(this, append());
+    }
+
+    int append() {
+        if (size == texts.length) {
+            allocate(Math.max(size * 2, 1));
+        }
+        fonts[size] = -1;
+        colors[size] = -1;
+        return size++;
+    }
+
+    public LayoutToken get(int index) {
+        checkIndex(index);
+        return new LayoutToken(this, index);
+    }
+
+    /**
+     * @return a read-only view on the tokens from index <code>from</code> (inclusive) to <code>to</code> (exclusive)
+     */
+    public List<LayoutToken> subList(final int from, final int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Tokens " + from + " to " + to + " out of " + size);
+        }
+        return new AbstractList<LayoutToken>() {
+            @Override
+            public LayoutToken get(int index) {
+                if (index < 0 || index >= to - from) {
+                    throw new IndexOutOfBoundsException("Token " + index + " out of " + (to - from));
+                }
+                return new LayoutToken(LayoutTokenStore.this, from + index);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of distinct font names and colours
+     */
+    public int getDictionarySize() {
+        return values.size();
+    }
+
+    /**
+     * Release the unused capacity, to be called once the document is parsed.
+     */
+    public void trimToSize() {
+        if (size < texts.length) {
+            allocate(size);
+        }
+    }
+
+    String getText(int index) {
+        return texts[index];
+    }
+
+    void setText(int index, String text) {
+        texts[index] = text;
+    }
+
+    String getFont(int index) {
+        return lookup(fonts[index]);
+    }
+
+    void setFont(int index, String font) {
+        fonts[index] = intern(font);
+    }
+
+    String getColorFont(int index) {
+        return lookup(colors[index]);
+    }
+
+    void setColorFont(int index, String color) {
+        colors[index] = intern(color);
+    }
+
+    double getX(int index) {
+        return xs[index];
+    }
+
+    void setX(int index, double x) {
+        xs[index] = x;
+    }
+
+    double getY(int index) {
+        return ys[index];
+    }
+
+    void setY(int index, double y) {
+        ys[index] = y;
+    }
+
+    double getWidth(int index) {
+        return widths[index];
+    }
+
+    void setWidth(int index, double width) {
+        widths[index] = width;
+    }
+
+    double getHeight(int index) {
+        return heights[index];
+    }
+
+    void setHeight(int index, double height) {
+        heights[index] = height;
+    }
+
+    double getFontSize(int index) {
+        return fontSizes[index];
+    }
+
+    void setFontSize(int index, double fontSize) {
+        fontSizes[index] = fontSize;
+    }
+
+    boolean getBold(int index) {
+        return (flags[index] & BOLD) != 0;
+    }
+
+    void setBold(int index, boolean bold) {
+        setFlag(index, BOLD, bold);
+    }
+
+    boolean getItalic(int index) {
+        return (flags[index] & ITALIC) != 0;
+    }
+
+    void setItalic(int index, boolean italic) {
+        setFlag(index, ITALIC, italic);
+    }
+
+    boolean getRotation(int index) {
+        return (flags[index] & ROTATION) != 0;
+    }
+
+    void setRotation(int index, boolean rotation) {
+        setFlag(index, ROTATION, rotation);
+    }
+
+    private void setFlag(int index, byte flag, boolean value) {
+        if (value) {
+            flags[index] |= flag;
+        } else {
+            flags[index] &= ~flag;
+        }
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    private String lookup(int id) {
+        return id == -1 ? null : values.get(id);
+    }
+
+    private void allocate(int capacity) {
+        if (texts == null) {
+            texts = new String[capacity];
+            xs = new double[capacity];
+            ys = new double[capacity];
+            widths = new double[capacity];
+            heights = new double[capacity];
+            fontSizes = new double[capacity];
+            fonts = new int[capacity];
+            colors = new int[capacity];
+            flags = new byte[capacity];
+        } else {
+            texts = Arrays.copyOf(texts, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            fontSizes = Arrays.copyOf(fontSizes, capacity);
+            fonts = Arrays.copyOf(fonts, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " out of " + size);
+        }
+    }
+}
@@ -7,14 +7,32 @@ import org.grobid.core.utilities.OffsetPosition;
 
 import java.util.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
  * Class for fast matching of word sequences over text stream.
  *
+ * The terms are compiled into an Aho-Corasick automaton over the ids of their tokens, stored in
+ * primitive arrays. Matching is linear in the length of the text and does not allocate anything
+ * but the returned positions. The automaton is immutable, and is compiled again on the next
+ * match when terms are loaded after a first match.
+ *
  * @author Patrice Lopez
  */
 public final class FastMatcher {
-    private Map terms = null;
+    private static String delimiters = " \n\t" + TextUtilities.fullPunctuations;
+    private static final BitSet DELIMITERS = new BitSet();
+
+    static {
+        for (int i = 0; i < delimiters.length(); i++) {
+            DELIMITERS.set(delimiters.charAt(i));
+        }
+    }
+
+    // the terms being loaded, null once compiled in the automaton
+    private TrieBuilder builder = null;
+    // null when terms have been loaded since the last compilation
+    private volatile Automaton automaton = null;
 
     public FastMatcher(File file) {
         if (!file.exists()) {
@@ -32,6 +50,10 @@ public final class FastMatcher {
         }
     }
 
+    private FastMatcher(Automaton automaton) {
+        this.automaton = automaton;
+    }
+
 	/**
 	 * Load a set of terms to the fast matcher from a file listing terms one per line
 	 */
@@ -41,39 +63,11 @@ public final class FastMatcher {
         InputStreamReader reader = new InputStreamReader(fileIn, "UTF-8");
         BufferedReader bufReader = new BufferedReader(reader);
         String line;
-        if (terms == null) {
-            terms = new HashMap();
-        }
-        //Map t = terms;
         int nbTerms = 0;
-		//String token = null;
         while ((line = bufReader.readLine()) != null) {
             if (line.length() == 0) continue;
 			line = line.toLowerCase();
 			nbTerms += loadTerm(line);
-            /*StringTokenizer st = new StringTokenizer(line, " \n\t" + TextUtilities.fullPunctuations, false);
-            while (st.hasMoreTokens()) {
-				token = st.nextToken();
-                if (token.length() == 0) {
-                    continue;
-                }
-                Map t2 = (Map) t.get(token);
-                if (t2 == null) {
-                    t2 = new HashMap();
-                    t.put(token, t2);
-                }
-                t = t2;
-            }
-            // end of the term
-            if (t != terms) {
-                Map t2 = (Map) t.get("#");
-                if (t2 == null) {
-                    t2 = new HashMap();
-                    t.put("#", t2);
-                }
-                nbTerms++;
-                t = terms;
-            }*/
         }
         bufReader.close();
         reader.close();
@@ -84,40 +78,44 @@ public final class FastMatcher {
 	/**
 	 * Load a term to the fast matcher
 	 */
-	public int loadTerm(String term) throws IOException, ClassNotFoundException,
+	public synchronized int loadTerm(String term) throws IOException, ClassNotFoundException,
             InstantiationException, IllegalAccessException {
-		int nbTerms = 0;
 		if ( (term == null) || (term.length() == 0) )
 			return 0;
-		String token = null;
-		Map t = terms;	
-		StringTokenizer st = new StringTokenizer(term, " \n\t" + TextUtilities.fullPunctuations, false);
+        if (builder == null) {
+            builder = (automaton == null) ? new TrieBuilder() : automaton.toBuilder();
+        }
+		int node = 0;
+		StringTokenizer st = new StringTokenizer(term, delimiters, false);
       	while (st.hasMoreTokens()) {
-			token = st.nextToken();
+			String token = st.nextToken();
           	if (token.length() == 0) {
               	continue;
            	}
-          	Map t2 = (Map) t.get(token);
-           	if (t2 == null) {
-             	t2 = new HashMap();
-              	t.put(token, t2);
-           	}
-           	t = t2;
+          	node = builder.addChild(node, builder.getTokenId(token));
        	}
        	// end of the term
-       	if (t != terms) {
-          	Map t2 = (Map) t.get("#");
-           	if (t2 == null) {
-              	t2 = new HashMap();
-               	t.put("#", t2);
-          	}
-           	nbTerms++;
-           	t = terms;
-      	}
-		return nbTerms;
+       	if (node == 0) {
+            return 0;
+        }
+        builder.terminals.set(node);
+        automaton = null;
+		return 1;
 	}
 
-    private static String delimiters = " \n\t" + TextUtilities.fullPunctuations;
+    private Automaton getAutomaton() {
+        Automaton result = automaton;
+        if (result == null) {
+            synchronized (this) {
+                if (automaton == null) {
+                    automaton = new Automaton((builder == null) ? new TrieBuilder() : builder);
+                    builder = null;
+                }
+                result = automaton;
+            }
+        }
+        return result;
+    }
 
     /**
      * Identify terms in a piece of text and gives corresponding token positions.
@@ -127,85 +125,7 @@ public final class FastMatcher {
      * @return the list of offset positions of the matches, an empty list if no match have been found
      */
     public List<OffsetPosition> matcher(String text) {
-        List<OffsetPosition> results = new ArrayList<OffsetPosition>();
-        List<Integer> startPos = new ArrayList<Integer>();
-        List<Integer> lastNonSeparatorPos = new ArrayList<Integer>();
-        List<Map> t = new ArrayList<Map>();
-        int currentPos = 0;
-        StringTokenizer st = new StringTokenizer(text, delimiters, true);
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            if (token.equals(" ")) {
-                continue;
-            }
-            if (delimiters.indexOf(token) != -1) {
-                currentPos++;
-                continue;
-            }
-            if ((token.charAt(0) == '<') && (token.charAt(token.length() - 1) == '>')) {
-                currentPos++;
-                continue;
-            }
-            token = token.toLowerCase();
-
-            // we try to complete opened matching
-            int i = 0;
-            List<Map> new_t = new ArrayList<Map>();
-            List<Integer> new_startPos = new ArrayList<Integer>();
-            List<Integer> new_lastNonSeparatorPos = new ArrayList<Integer>();
-            // continuation of current opened matching
-            for (Map tt : t) {
-                Map t2 = (Map) tt.get(token);
-                if (t2 != null) {
-                    new_t.add(t2);
-                    new_startPos.add(startPos.get(i));
-                    new_lastNonSeparatorPos.add(currentPos);
-                }
-                //else
-                {
-                    t2 = (Map) tt.get("#");
-                    if (t2 != null) {
-                        // end of the current term, matching sucesssful
-                        OffsetPosition ofp = new OffsetPosition();
-                        ofp.start = startPos.get(i).intValue();
-                        ofp.end = lastNonSeparatorPos.get(i).intValue();
-                        results.add(ofp);
-                    }
-                }
-                i++;
-            }
-
-            // we start new matching starting at the current token
-            Map t2 = (Map) terms.get(token);
-            if (t2 != null) {
-                new_t.add(t2);
-                new_startPos.add(new Integer(currentPos));
-                new_lastNonSeparatorPos.add(currentPos);
-            }
-
-            t = new_t;
-            startPos = new_startPos;
-            lastNonSeparatorPos = new_lastNonSeparatorPos;
-            currentPos++;
-        }
-
-        // test if the end of the string correspond to the end of a term
-        int i = 0;
-        if (t != null) {
-            for (Map tt : t) {
-                Map t2 = (Map) tt.get("#");
-                if (t2 != null) {
-                    // end of the current term, matching sucesssful
-                    OffsetPosition ofp = new OffsetPosition();
-                    ofp.start = startPos.get(i).intValue();
-                    ofp.end = lastNonSeparatorPos.get(i).intValue();
-                    results.add(ofp);
-                }
-                i++;
-            }
-        }
-
-        return results;
+        return getAutomaton().match(text);
     }
 
     /**
@@ -216,19 +136,375 @@ public final class FastMatcher {
      * @return the list of offset positions of the matches, an empty list if no match have been found
      */
     public List<OffsetPosition> matcher(List<String> tokens) {
-        String text = "";
+        StringBuilder text = new StringBuilder();
         for (String token : tokens) {
             if (!token.trim().equals("@newline")) {
 				int ind = token.indexOf(" ");
 				if (ind == -1)
 					ind = token.indexOf("\t");
 				if (ind == -1)
-                	text += " " + token;
+                	text.append(" ").append(token);
 				else
-					text += " " + token.substring(0, ind);
+					text.append(" ").append(token, 0, ind);
             }
         }
-        return matcher(text);
+        return matcher(text.toString());
     }
-}
 
+    /**
+     * Write the compiled terms, to be read back with {@link #read(ByteBuffer)}.
+     */
+    void write(DataOutputStream out) throws IOException {
+        getAutomaton().write(out);
+    }
+
+    /**
+     * @return a matcher of the compiled terms read from the buffer
+     */
+    static FastMatcher read(ByteBuffer buffer) {
+        return new FastMatcher(new Automaton(buffer));
+    }
+
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Mutable trie used while loading terms, the node 0 being the root.
+     */
+    private static final class TrieBuilder {
+        private final Map<String, Integer> tokenIds = new HashMap<String, Integer>();
+        private final List<String> tokens = new ArrayList<String>();
+        private final BitSet terminals = new BitSet();
+        private int[] depths = new int[64];
+        private int nbNodes = 1;
+        // open addressing table of the edges, keyed by parent node << 32 | token id
+        private long[] edgeKeys = new long[64];
+        private int[] edgeChildren = new int[64];
+        private int nbEdges = 0;
+
+        private int getTokenId(String token) {
+            Integer id = tokenIds.get(token);
+            if (id == null) {
+                id = tokens.size();
+                tokenIds.put(token, id);
+                tokens.add(token);
+            }
+            return id;
+        }
+
+        private int slot(long key, long[] keys, int[] children) {
+            int mask = keys.length - 1;
+            int slot = mix((int) (key ^ (key >>> 32))) & mask;
+            // the root is never a child, so 0 marks an empty slot
+            while ((children[slot] != 0) && (keys[slot] != key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private int getChild(int node, int tokenId) {
+            int slot = slot(((long) node << 32) | tokenId, edgeKeys, edgeChildren);
+            return (edgeChildren[slot] == 0) ? -1 : edgeChildren[slot];
+        }
+
+        private int addChild(int node, int tokenId) {
+            int child = getChild(node, tokenId);
+            if (child != -1) {
+                return child;
+            }
+            child = nbNodes++;
+            if (child == depths.length) {
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            depths[child] = depths[node] + 1;
+            putEdge(node, tokenId, child);
+            return child;
+        }
+
+        private void putEdge(int node, int tokenId, int child) {
+            if (2 * (nbEdges + 1) > edgeKeys.length) {
+                long[] keys = new long[edgeKeys.length * 2];
+                int[] children = new int[edgeKeys.length * 2];
+                for (int i = 0; i < edgeKeys.length; i++) {
+                    if (edgeChildren[i] != 0) {
+                        int slot = slot(edgeKeys[i], keys, children);
+                        keys[slot] = edgeKeys[i];
+                        children[slot] = edgeChildren[i];
+                    }
+                }
+                edgeKeys = keys;
+                edgeChildren = children;
+            }
+            long key = ((long) node << 32) | tokenId;
+            int slot = slot(key, edgeKeys, edgeChildren);
+            edgeKeys[slot] = key;
+            edgeChildren[slot] = child;
+            nbEdges++;
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton compiled from a trie, the node 0 being the root. The edges of a node
+     * are stored in a range of the edge arrays, sorted by token id.
+     */
+    private static final class Automaton {
+        private final String[] tokens;
+        // open addressing table of the token ids + 1, by hash of the token
+        private final int[] tokenTable;
+        private final int[] firstEdges;
+        private final int[] edgeTokens;
+        private final int[] edgeChildren;
+        private final int[] depths;
+        private final BitSet terminals;
+        // longest proper suffix of a node which is also a node
+        private final int[] failures;
+        // longest proper suffix of a node which is the end of a term, -1 if none
+        private final int[] outputs;
+        private final int maxDepth;
+
+        private Automaton(TrieBuilder builder) {
+            tokens = builder.tokens.toArray(new String[builder.tokens.size()]);
+            tokenTable = createTokenTable(tokens);
+            int nbNodes = builder.nbNodes;
+            depths = Arrays.copyOf(builder.depths, nbNodes);
+            terminals = (BitSet) builder.terminals.clone();
+            maxDepth = getMaxDepth(depths);
+
+            long[] edges = new long[builder.nbEdges];
+            int nbEdges = 0;
+            for (int i = 0; i < builder.edgeKeys.length; i++) {
+                if (builder.edgeChildren[i] != 0) {
+                    edges[nbEdges++] = builder.edgeKeys[i];
+                }
+            }
+            Arrays.sort(edges);
+            firstEdges = new int[nbNodes + 1];
+            edgeTokens = new int[nbEdges];
+            edgeChildren = new int[nbEdges];
+            for (int i = 0; i < nbEdges; i++) {
+                int parent = (int) (edges[i] >>> 32);
+                edgeTokens[i] = (int) edges[i];
+                edgeChildren[i] = builder.getChild(parent, edgeTokens[i]);
+                firstEdges[parent + 1]++;
+            }
+            for (int i = 0; i < nbNodes; i++) {
+                firstEdges[i + 1] += firstEdges[i];
+            }
+
+            // breadth first, so that the failure of a node is known before its children
+            failures = new int[nbNodes];
+            outputs = new int[nbNodes];
+            outputs[0] = -1;
+            int[] queue = new int[nbNodes];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = 0;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int e = firstEdges[node]; e < firstEdges[node + 1]; e++) {
+                    int child = edgeChildren[e];
+                    int failure = 0;
+                    if (node != 0) {
+                        failure = next(failures[node], edgeTokens[e]);
+                    }
+                    failures[child] = failure;
+                    outputs[child] = terminals.get(failure) ? failure : outputs[failure];
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        private Automaton(ByteBuffer buffer) {
+            tokens = new String[buffer.getInt()];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = LexiconSnapshot.readString(buffer);
+            }
+            tokenTable = createTokenTable(tokens);
+            depths = LexiconSnapshot.readInts(buffer);
+            firstEdges = LexiconSnapshot.readInts(buffer);
+            edgeTokens = LexiconSnapshot.readInts(buffer);
+            edgeChildren = LexiconSnapshot.readInts(buffer);
+            failures = LexiconSnapshot.readInts(buffer);
+            outputs = LexiconSnapshot.readInts(buffer);
+            terminals = new BitSet(depths.length);
+            for (int node : LexiconSnapshot.readInts(buffer)) {
+                terminals.set(node);
+            }
+            maxDepth = getMaxDepth(depths);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(tokens.length);
+            for (String token : tokens) {
+                LexiconSnapshot.writeString(out, token);
+            }
+            LexiconSnapshot.writeInts(out, depths, depths.length);
+            LexiconSnapshot.writeInts(out, firstEdges, firstEdges.length);
+            LexiconSnapshot.writeInts(out, edgeTokens, edgeTokens.length);
+            LexiconSnapshot.writeInts(out, edgeChildren, edgeChildren.length);
+            LexiconSnapshot.writeInts(out, failures, failures.length);
+            LexiconSnapshot.writeInts(out, outputs, outputs.length);
+            int[] terminalNodes = new int[terminals.cardinality()];
+            int i = 0;
+            for (int node = terminals.nextSetBit(0); node >= 0; node = terminals.nextSetBit(node + 1)) {
+                terminalNodes[i++] = node;
+            }
+            LexiconSnapshot.writeInts(out, terminalNodes, terminalNodes.length);
+        }
+
+        private static int[] createTokenTable(String[] tokens) {
+            int tableSize = Integer.highestOneBit(Math.max(tokens.length, 1)) * 4;
+            int[] table = new int[tableSize];
+            for (int i = 0; i < tokens.length; i++) {
+                int slot = mix(tokens[i].hashCode()) & (tableSize - 1);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                table[slot] = i + 1;
+            }
+            return table;
+        }
+
+        private static int getMaxDepth(int[] depths) {
+            int maxDepth = 0;
+            for (int depth : depths) {
+                maxDepth = Math.max(maxDepth, depth);
+            }
+            return maxDepth;
+        }
+
+        private TrieBuilder toBuilder() {
+            TrieBuilder builder = new TrieBuilder();
+            for (String token : tokens) {
+                builder.getTokenId(token);
+            }
+            builder.terminals.or(terminals);
+            builder.depths = Arrays.copyOf(depths, Math.max(depths.length, 64));
+            builder.nbNodes = depths.length;
+            for (int node = 0; node < depths.length; node++) {
+                for (int e = firstEdges[node]; e < firstEdges[node + 1]; e++) {
+                    builder.putEdge(node, edgeTokens[e], edgeChildren[e]);
+                }
+            }
+            return builder;
+        }
+
+        private int getChild(int node, int tokenId) {
+            int low = firstEdges[node];
+            int high = firstEdges[node + 1] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (edgeTokens[mid] < tokenId) {
+                    low = mid + 1;
+                } else if (edgeTokens[mid] > tokenId) {
+                    high = mid - 1;
+                } else {
+                    return edgeChildren[mid];
+                }
+            }
+            return -1;
+        }
+
+        private int next(int node, int tokenId) {
+            while (true) {
+                int child = getChild(node, tokenId);
+                if (child != -1) {
+                    return child;
+                }
+                if (node == 0) {
+                    return 0;
+                }
+                node = failures[node];
+            }
+        }
+
+        /**
+         * @return the id of the lower cased text between start and end, -1 if it is not a token of a term
+         */
+        private int getTokenId(String text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    // lower casing may change the length of the token outside of ascii
+                    return getTokenId(text.substring(start, end).toLowerCase());
+                }
+                hash = 31 * hash + Character.toLowerCase(c);
+            }
+            int mask = tokenTable.length - 1;
+            for (int slot = mix(hash) & mask; tokenTable[slot] != 0; slot = (slot + 1) & mask) {
+                String token = tokens[tokenTable[slot] - 1];
+                if (token.length() == end - start) {
+                    int i = 0;
+                    while ((i < token.length()) && (token.charAt(i) == Character.toLowerCase(text.charAt(start + i)))) {
+                        i++;
+                    }
+                    if (i == token.length()) {
+                        return tokenTable[slot] - 1;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private int getTokenId(String token) {
+            int mask = tokenTable.length - 1;
+            for (int slot = mix(token.hashCode()) & mask; tokenTable[slot] != 0; slot = (slot + 1) & mask) {
+                if (tokens[tokenTable[slot] - 1].equals(token)) {
+                    return tokenTable[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private List<OffsetPosition> match(String text) {
+            List<OffsetPosition> results = new ArrayList<OffsetPosition>();
+            // positions of the last tokens, enough for the longest term
+            int[] positions = new int[Math.max(maxDepth, 1)];
+            int nbTokens = 0;
+            int node = 0;
+            int currentPos = 0;
+            int length = text.length();
+            int start = 0;
+            while (start < length) {
+                char c = text.charAt(start);
+                if (DELIMITERS.get(c)) {
+                    // spaces are not counted as tokens
+                    if (c != ' ') {
+                        currentPos++;
+                    }
+                    start++;
+                    continue;
+                }
+                int end = start + 1;
+                while ((end < length) && !DELIMITERS.get(text.charAt(end))) {
+                    end++;
+                }
+                if ((c == '<') && (text.charAt(end - 1) == '>')) {
+                    currentPos++;
+                    start = end;
+                    continue;
+                }
+
+                int tokenId = getTokenId(text, start, end);
+                node = (tokenId == -1) ? 0 : next(node, tokenId);
+                positions[nbTokens % positions.length] = currentPos;
+                nbTokens++;
+                // the terms ending here, the longest first
+                int output = terminals.get(node) ? node : outputs[node];
+                while (output > 0) {
+                    OffsetPosition ofp = new OffsetPosition();
+                    ofp.start = positions[(nbTokens - depths[output]) % positions.length];
+                    ofp.end = currentPos;
+                    results.add(ofp);
+                    output = outputs[output];
+                }
+                currentPos++;
+                start = end;
+            }
+            return results;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -54,6 +55,10 @@ public class Lexicon {
 	private FastMatcher locationPattern = null;
 	private FastMatcher personTitlePattern = null;
 	private FastMatcher orgFormPattern = null;
+    // precompiled resources, null if the text sources are loaded
+    private LexiconSnapshot snapshot = null;
+    // the files the resources have been loaded from
+    private final List<File> sources = new ArrayList<File>();
 	
     public static Lexicon getInstance() {
         if (instance == null) {
@@ -79,6 +84,25 @@ public class Lexicon {
      * Hidden constructor
      */
     private Lexicon() {
+        this(GrobidProperties.getLexiconSnapshotPath());
+    }
+
+    /**
+     * @param snapshotPath the snapshot to load if up to date, null to load the text sources
+     */
+    private Lexicon(File snapshotPath) {
+        if (snapshotPath != null) {
+            snapshot = LexiconSnapshot.open(snapshotPath, GrobidProperties.getGrobidHomePath());
+        }
+        if (snapshot != null) {
+            dictionary_en = snapshot.getSet("dictionary_en");
+            dictionary_de = snapshot.getSet("dictionary_de");
+            lastNames = snapshot.getSet("lastNames");
+            firstNames = snapshot.getSet("firstNames");
+            countryCodes = snapshot.getMap("countryCodes");
+            countries = snapshot.getSet("countries");
+            return;
+        }
         initDictionary();
         initNames();
 		// the loading of the journal and conference names is lazy
@@ -94,6 +118,80 @@ public class Lexicon {
                 "/lexicon/countries/CountryCodes.xml");
     }
 
+    /**
+     * Compile all the lexical resources from their text sources into a snapshot, loaded instead of the
+     * text sources by the next instances as long as the sources do not change.
+     */
+    public static void compileSnapshot(File snapshotPath) throws IOException {
+        long start = System.currentTimeMillis();
+        Lexicon lexicon = new Lexicon(null);
+        LexiconSnapshot.Writer writer = new LexiconSnapshot.Writer(GrobidProperties.getGrobidHomePath());
+        writer.addSet("dictionary_en", lexicon.dictionary_en);
+        writer.addSet("dictionary_de", lexicon.dictionary_de);
+        writer.addSet("lastNames", lexicon.lastNames);
+        writer.addSet("firstNames", lexicon.firstNames);
+        writer.addMap("countryCodes", lexicon.countryCodes);
+        writer.addSet("countries", lexicon.countries);
+
+        // the gazetteers missing from the snapshot are still loaded from text when first used
+        try {
+            lexicon.initJournals();
+            writer.addMatcher("abbrevJournalPattern", lexicon.abbrevJournalPattern);
+            writer.addMatcher("journalPattern", lexicon.journalPattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Journal names not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initConferences();
+            writer.addMatcher("conferencePattern", lexicon.conferencePattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Conference names not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initPublishers();
+            writer.addMatcher("publisherPattern", lexicon.publisherPattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Publisher names not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initCities();
+            writer.addMatcher("cityPattern", lexicon.cityPattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("City names not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initOrganisations();
+            writer.addMatcher("organisationPattern", lexicon.organisationPattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Organisation names not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initOrgForms();
+            writer.addMatcher("orgFormPattern", lexicon.orgFormPattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Organisation forms not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initLocations();
+            writer.addMatcher("locationPattern", lexicon.locationPattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Location names not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+        try {
+            lexicon.initPersonTitles();
+            writer.addMatcher("personTitlePattern", lexicon.personTitlePattern);
+        } catch (GrobidException e) {
+            LOGGER.warn("Person titles not compiled in the lexicon snapshot: " + e.getMessage());
+        }
+
+        for (File source : lexicon.sources) {
+            writer.addSource(source);
+        }
+        writer.write(snapshotPath);
+        LOGGER.info("Lexicon snapshot " + snapshotPath.getAbsolutePath() + " compiled in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
     private void initDictionary() {
     	LOGGER.info("Initiating dictionary");
         dictionary_en = new HashSet<String>();
@@ -111,6 +209,9 @@ public class Lexicon {
             throw new GrobidResourceException("Cannot add entries to dictionary (language '" + lang +
                     "'), because cannot read file '" + file.getAbsolutePath() + "'.");
         }
+        sources.add(file);
+        dictionary_en = modifiable(dictionary_en);
+        dictionary_de = modifiable(dictionary_de);
         InputStream ist = null;
         InputStreamReader isr = null;
         BufferedReader dis = null;
@@ -189,6 +290,29 @@ public class Lexicon {
         LOGGER.info("End of initialization of country codes");
     }
 
+    /**
+     * @return a set entries can be added to, the sets of the snapshot being read-only
+     */
+    private static Set<String> modifiable(Set<String> set) {
+        return (set instanceof HashSet) ? set : new HashSet<String>(set);
+    }
+
+    private File getSource(String path) {
+        File file = new File(GrobidProperties.getGrobidHomePath() + path);
+        sources.add(file);
+        return file;
+    }
+
+    /**
+     * @return the matcher compiled in the snapshot, null if there is none
+     */
+    private FastMatcher getSnapshotMatcher(String name) {
+        if ((snapshot == null) || !snapshot.contains(name)) {
+            return null;
+        }
+        return snapshot.getMatcher(name);
+    }
+
     private void addCountryCodes(String path) {
         File file = new File(path);
         if (!file.exists()) {
@@ -199,6 +323,7 @@ public class Lexicon {
             throw new GrobidResourceException("Cannot add country codes to dictionary, because cannot read file '" +
                     file.getAbsolutePath() + "'.");
         }
+        sources.add(file);
         InputStream ist = null;
         InputStreamReader isr = null;
         BufferedReader dis = null;
@@ -248,6 +373,8 @@ public class Lexicon {
             throw new GrobidResourceException("Cannot add first names to dictionary, because cannot read file '" +
                     file.getAbsolutePath() + "'.");
         }
+        sources.add(file);
+        firstNames = modifiable(firstNames);
         InputStream ist = null;
         BufferedReader dis = null;
         try {
@@ -298,6 +425,8 @@ public class Lexicon {
             throw new GrobidResourceException("Cannot add last names to dictionary, because cannot read file '" +
                     file.getAbsolutePath() + "'.");
         }
+        sources.add(file);
+        lastNames = modifiable(lastNames);
         InputStream ist = null;
         BufferedReader dis = null;
         try {
@@ -393,12 +522,15 @@ public class Lexicon {
     }
 
     public void initJournals() {
+        abbrevJournalPattern = getSnapshotMatcher("abbrevJournalPattern");
+        journalPattern = getSnapshotMatcher("journalPattern");
+        if ((abbrevJournalPattern != null) && (journalPattern != null)) {
+            return;
+        }
         try {
-            abbrevJournalPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/journals/abbrev_journals.txt"));
+            abbrevJournalPattern = new FastMatcher(getSource("/lexicon/journals/abbrev_journals.txt"));
 
-            journalPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/journals/journals.txt"));
+            journalPattern = new FastMatcher(getSource("/lexicon/journals/journals.txt"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException(
                     "Error when compiling lexicon regular expression for abbreviated journal names.", e);
@@ -406,43 +538,52 @@ public class Lexicon {
     }
 
     public void initConferences() {
+        conferencePattern = getSnapshotMatcher("conferencePattern");
+        if (conferencePattern != null) {
+            return;
+        }
         // ArrayList<String> conferences = new ArrayList<String>();
         try {
-            conferencePattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/journals/proceedings.txt"));
+            conferencePattern = new FastMatcher(getSource("/lexicon/journals/proceedings.txt"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for conference names.", e);
         }
     }
 
     public void initPublishers() {
+        publisherPattern = getSnapshotMatcher("publisherPattern");
+        if (publisherPattern != null) {
+            return;
+        }
         try {
-            publisherPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/publishers/publishers.txt"));
+            publisherPattern = new FastMatcher(getSource("/lexicon/publishers/publishers.txt"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for conference names.", e);
         }
     }
 
     public void initCities() {
+        cityPattern = getSnapshotMatcher("cityPattern");
+        if (cityPattern != null) {
+            return;
+        }
         try {
-            cityPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/places/cities15000.txt"));
+            cityPattern = new FastMatcher(getSource("/lexicon/places/cities15000.txt"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for cities.", e);
         }
     }
 
 	public void initOrganisations() {
+        organisationPattern = getSnapshotMatcher("organisationPattern");
+        if (organisationPattern != null) {
+            return;
+        }
         try {
-            organisationPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/organisations/WikiOrganizations.lst"));
-			organisationPattern.loadTerms(new File(GrobidProperties.getGrobidHomePath() + 
-				"/lexicon/organisations/government.government_agency"));
-			organisationPattern.loadTerms(new File(GrobidProperties.getGrobidHomePath() + 
-				"/lexicon/organisations/known_corporations.lst"));
-			organisationPattern.loadTerms(new File(GrobidProperties.getGrobidHomePath() + 
-				"/lexicon/organisations/venture_capital.venture_funded_company"));
+            organisationPattern = new FastMatcher(getSource("/lexicon/organisations/WikiOrganizations.lst"));
+			organisationPattern.loadTerms(getSource("/lexicon/organisations/government.government_agency"));
+			organisationPattern.loadTerms(getSource("/lexicon/organisations/known_corporations.lst"));
+			organisationPattern.loadTerms(getSource("/lexicon/organisations/venture_capital.venture_funded_company"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for organisations.", e);
         } catch (IOException e) {
@@ -454,9 +595,12 @@ public class Lexicon {
     }
 	
 	public void initOrgForms() {
+        orgFormPattern = getSnapshotMatcher("orgFormPattern");
+        if (orgFormPattern != null) {
+            return;
+        }
         try {
-			orgFormPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/organisations/orgClosings.txt"));	
+			orgFormPattern = new FastMatcher(getSource("/lexicon/organisations/orgClosings.txt"));	
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for organisations.", e);
         } catch (Exception e) {
@@ -465,18 +609,24 @@ public class Lexicon {
     }
 	
 	public void initLocations() {
+        locationPattern = getSnapshotMatcher("locationPattern");
+        if (locationPattern != null) {
+            return;
+        }
         try {
-            locationPattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/places/location.txt"));
+            locationPattern = new FastMatcher(getSource("/lexicon/places/location.txt"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for locations.", e);
         }
     }
 
 	public void initPersonTitles() {
+        personTitlePattern = getSnapshotMatcher("personTitlePattern");
+        if (personTitlePattern != null) {
+            return;
+        }
         try {
-            personTitlePattern = new FastMatcher(new
-                    File(GrobidProperties.getGrobidHomePath() + "/lexicon/names/VincentNgPeopleTitles.txt"));
+            personTitlePattern = new FastMatcher(getSource("/lexicon/names/VincentNgPeopleTitles.txt"));
         } catch (PatternSyntaxException e) {
             throw new GrobidResourceException("Error when compiling lexicon regular expression for locations.", e);
         }
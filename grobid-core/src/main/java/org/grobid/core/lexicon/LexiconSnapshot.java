@@ -0,0 +1,372 @@
+package org.grobid.core.lexicon;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.utilities.KeyGen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Binary snapshot of the lexical resources, compiled from their text sources under grobid-home/lexicon
+ * so that the {@link Lexicon} does not parse them again at each start.
+ *
+ * The snapshot is memory-mapped read-only: the word sets are looked up directly in the mapped file,
+ * whose pages are shared by all the processes using the same grobid-home, while the term matchers are
+ * copied from it with bulk reads. The snapshot records the size and the modification time of each of
+ * its sources, and is ignored when one of them has changed or when it has been written by another
+ * version of this class.
+ */
+public class LexiconSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LexiconSnapshot.class);
+
+    private static final int MAGIC = 0x474c4558;
+    // to be incremented when the format or the content of the snapshot changes
+    static final int VERSION = 1;
+
+    private final Map<String, ByteBuffer> sections;
+
+    private LexiconSnapshot(Map<String, ByteBuffer> sections) {
+        this.sections = sections;
+    }
+
+    /**
+     * @param file     the snapshot file
+     * @param homePath the directory the paths of the sources are relative to
+     * @return the snapshot, or null if it does not exist, is stale or cannot be read
+     */
+    public static LexiconSnapshot open(File file, File homePath) {
+        if (!file.isFile()) {
+            LOGGER.info("No lexicon snapshot " + file.getAbsolutePath() + ", loading the lexicon text sources");
+            return null;
+        }
+        try {
+            ByteBuffer buffer = map(file);
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                LOGGER.info("The lexicon snapshot " + file.getAbsolutePath() + " has been written by another "
+                        + "version, loading the lexicon text sources");
+                return null;
+            }
+            int nbSources = buffer.getInt();
+            for (int i = 0; i < nbSources; i++) {
+                File source = new File(readString(buffer));
+                if (!source.isAbsolute()) {
+                    source = new File(homePath, source.getPath());
+                }
+                long length = buffer.getLong();
+                long lastModified = buffer.getLong();
+                if ((source.length() != length) || (source.lastModified() != lastModified)) {
+                    LOGGER.info("The lexicon snapshot " + file.getAbsolutePath() + " is older than "
+                            + source.getAbsolutePath() + ", loading the lexicon text sources");
+                    return null;
+                }
+            }
+            Map<String, ByteBuffer> sections = new HashMap<String, ByteBuffer>();
+            int nbSections = buffer.getInt();
+            for (int i = 0; i < nbSections; i++) {
+                String name = readString(buffer);
+                int length = buffer.getInt();
+                ByteBuffer section = buffer.slice();
+                section.limit(length);
+                sections.put(name, section);
+                buffer.position(buffer.position() + length);
+            }
+            LOGGER.info("Loading the lexicon from the snapshot " + file.getAbsolutePath());
+            return new LexiconSnapshot(sections);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read the lexicon snapshot " + file.getAbsolutePath() + ", loading the lexicon "
+                    + "text sources: " + e.getMessage());
+            return null;
+        } catch (BufferUnderflowException e) {
+            LOGGER.warn("The lexicon snapshot " + file.getAbsolutePath() + " is truncated, loading the lexicon "
+                    + "text sources");
+            return null;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("The lexicon snapshot " + file.getAbsolutePath() + " is corrupted, loading the lexicon "
+                    + "text sources");
+            return null;
+        }
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping remains valid once the file is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            raf.close();
+        }
+    }
+
+    public boolean contains(String name) {
+        return sections.containsKey(name);
+    }
+
+    private ByteBuffer getSection(String name) {
+        ByteBuffer section = sections.get(name);
+        if (section == null) {
+            throw new GrobidResourceException("The lexicon snapshot has no section '" + name + "'");
+        }
+        return section.duplicate();
+    }
+
+    /**
+     * @return a read-only set looked up in the mapped snapshot
+     */
+    public Set<String> getSet(String name) {
+        return new MappedStringSet(getSection(name));
+    }
+
+    public Map<String, String> getMap(String name) {
+        ByteBuffer section = getSection(name);
+        int size = section.getInt();
+        Map<String, String> map = new HashMap<String, String>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = readString(section);
+            map.put(key, readString(section));
+        }
+        return map;
+    }
+
+    public FastMatcher getMatcher(String name) {
+        return FastMatcher.read(getSection(name));
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeInt(s.length());
+        out.writeChars(s);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        char[] chars = new char[buffer.getInt()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar();
+        }
+        return new String(chars);
+    }
+
+    static int[] readInts(ByteBuffer buffer) {
+        int[] ints = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + 4 * ints.length);
+        return ints;
+    }
+
+    static void writeInts(DataOutputStream out, int[] ints, int length) throws IOException {
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeInt(ints[i]);
+        }
+    }
+
+    /**
+     * Writer of a snapshot from the lexical resources loaded from their text sources.
+     */
+    public static class Writer {
+        private final File homePath;
+        private final List<File> sources = new ArrayList<File>();
+        private final Map<String, byte[]> sections = new LinkedHashMap<String, byte[]>();
+
+        public Writer(File homePath) {
+            this.homePath = homePath;
+        }
+
+        /**
+         * Add a file the snapshot becomes stale with.
+         */
+        public void addSource(File source) {
+            if (!sources.contains(source)) {
+                sources.add(source);
+            }
+        }
+
+        /**
+         * Add a set as an open addressing table of offsets in the following strings.
+         */
+        public void addSet(String name, Set<String> set) throws IOException {
+            int tableSize = Integer.highestOneBit(Math.max(set.size(), 1)) * 4;
+            int[] table = new int[tableSize];
+            ByteArrayOutputStream strings = new ByteArrayOutputStream();
+            DataOutputStream stringsOut = new DataOutputStream(strings);
+            for (String s : set) {
+                int slot = FastMatcher.mix(s.hashCode()) & (tableSize - 1);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                // 0 marks an empty slot
+                table[slot] = stringsOut.size() + 1;
+                writeString(stringsOut, s);
+            }
+            stringsOut.flush();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(set.size());
+            writeInts(out, table, tableSize);
+            out.writeInt(strings.size());
+            strings.writeTo(out);
+            out.flush();
+            sections.put(name, bytes.toByteArray());
+        }
+
+        public void addMap(String name, Map<String, String> map) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(map.size());
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+            out.flush();
+            sections.put(name, bytes.toByteArray());
+        }
+
+        public void addMatcher(String name, FastMatcher matcher) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            matcher.write(out);
+            out.flush();
+            sections.put(name, bytes.toByteArray());
+        }
+
+        /**
+         * Write the snapshot, replacing the given file once complete.
+         */
+        public void write(File file) throws IOException {
+            File tmp = new File(file.getParentFile(), file.getName() + "." + KeyGen.getKey() + ".tmp");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sources.size());
+                String home = homePath.getAbsolutePath() + File.separator;
+                for (File source : sources) {
+                    String path = source.getAbsolutePath();
+                    writeString(out, path.startsWith(home) ? path.substring(home.length()) : path);
+                    out.writeLong(source.length());
+                    out.writeLong(source.lastModified());
+                }
+                out.writeInt(sections.size());
+                for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+                    writeString(out, section.getKey());
+                    out.writeInt(section.getValue().length);
+                    out.write(section.getValue());
+                }
+                out.close();
+                out = null;
+                if (file.exists() && !file.delete()) {
+                    throw new IOException("Cannot replace the lexicon snapshot " + file.getAbsolutePath());
+                }
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("Cannot write the lexicon snapshot " + file.getAbsolutePath());
+                }
+            } finally {
+                if (out != null) {
+                    out.close();
+                }
+                FileUtils.deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /**
+     * Read-only set of strings looked up in a section of the snapshot, without copying it on the heap.
+     */
+    private static class MappedStringSet extends AbstractSet<String> {
+        private final ByteBuffer buffer;
+        private final int size;
+        private final int tableSize;
+        // position of the strings in the buffer
+        private final int stringsStart;
+        private final int stringsEnd;
+
+        private MappedStringSet(ByteBuffer section) {
+            buffer = section.slice();
+            size = buffer.getInt(0);
+            tableSize = buffer.getInt(4);
+            stringsStart = 8 + 4 * tableSize + 4;
+            stringsEnd = stringsStart + buffer.getInt(8 + 4 * tableSize);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+            String s = (String) o;
+            int mask = tableSize - 1;
+            // only absolute reads, the set is shared by all threads
+            for (int slot = FastMatcher.mix(s.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                int offset = buffer.getInt(8 + 4 * slot);
+                if (offset == 0) {
+                    return false;
+                }
+                int position = stringsStart + offset - 1;
+                if (buffer.getInt(position) == s.length()) {
+                    int i = 0;
+                    while ((i < s.length()) && (buffer.getChar(position + 4 + 2 * i) == s.charAt(i))) {
+                        i++;
+                    }
+                    if (i == s.length()) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int position = stringsStart;
+
+                @Override
+                public boolean hasNext() {
+                    return position < stringsEnd;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int length = buffer.getInt(position);
+                    char[] chars = new char[length];
+                    for (int i = 0; i < length; i++) {
+                        chars[i] = buffer.getChar(position + 4 + 2 * i);
+                    }
+                    position += 4 + 2 * length;
+                    return new String(chars);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -69,6 +69,8 @@ public class GrobidMain {
 		help.append("-dIn: gives the path to the directory where inputs are saved. To use only when the called method needs it.\n");
 		help.append("-dOut: gives the path to the directory where results are saved. Output directory is the curent directory if not set.\n");
 		help.append("-s: is the parameter used for process using string as input and not file.\n");
+		help.append("-n: gives the number of files processed in parallel by processHeader and processFullText (default 1).\n");
+		help.append("-nConv: if set, processHeader and processFullText run pdf2xml in this number of threads, overlapping with the -n labeling threads.\n");
 		help.append("-exe: gives the command to execute. The Value should be one of these:\n");
 		help.append("\t" + availableCommands + "\n");
 		return help.toString();
@@ -119,6 +121,38 @@ public class GrobidMain {
 					i++;
 					continue;
 				}
+				if (currArg.equals("-n")) {
+					try {
+						gbdArgs.setNbThreads(Integer.parseInt(pArgs[i + 1]));
+					} catch (final NumberFormatException exp) {
+						System.err.println("-n value should be a positive integer: " + pArgs[i + 1]);
+						result = false;
+						break;
+					}
+					if (gbdArgs.getNbThreads() < 1) {
+						System.err.println("-n value should be a positive integer: " + pArgs[i + 1]);
+						result = false;
+						break;
+					}
+					i++;
+					continue;
+				}
+				if (currArg.equals("-nConv")) {
+					try {
+						gbdArgs.setNbConverters(Integer.parseInt(pArgs[i + 1]));
+					} catch (final NumberFormatException exp) {
+						System.err.println("-nConv value should be a positive integer: " + pArgs[i + 1]);
+						result = false;
+						break;
+					}
+					if (gbdArgs.getNbConverters() < 1) {
+						System.err.println("-nConv value should be a positive integer: " + pArgs[i + 1]);
+						result = false;
+						break;
+					}
+					i++;
+					continue;
+				}
 				if (currArg.equals("-exe")) {
 					final String command = pArgs[i + 1];
 					if (availableCommands.contains(command)) {
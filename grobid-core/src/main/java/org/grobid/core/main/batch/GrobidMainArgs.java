@@ -22,6 +22,10 @@ public class GrobidMainArgs {
 
 	private boolean isPdf;
 
+	private int nbThreads = 1;
+
+	private int nbConverters = 0;
+
 	/**
 	 * @return the path2grobidHome
 	 */
@@ -127,4 +131,34 @@ public class GrobidMainArgs {
 		isPdf = pIsPdf;
 	}
 
+	/**
+	 * @return the number of files processed concurrently
+	 */
+	public final int getNbThreads() {
+		return nbThreads;
+	}
+
+	/**
+	 * @param pNbThreads
+	 *            the number of files processed concurrently to set
+	 */
+	public final void setNbThreads(final int pNbThreads) {
+		nbThreads = pNbThreads;
+	}
+
+	/**
+	 * @return the number of pdf2xml conversion threads of a pipelined batch, 0 if the batch is not pipelined
+	 */
+	public final int getNbConverters() {
+		return nbConverters;
+	}
+
+	/**
+	 * @param pNbConverters
+	 *            the number of pdf2xml conversion threads to set
+	 */
+	public final void setNbConverters(final int pNbConverters) {
+		nbConverters = pNbConverters;
+	}
+
 }
@@ -3,6 +3,7 @@ package org.grobid.core.sax;
 import org.grobid.core.layout.Block;
 import org.grobid.core.document.Document;
 import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.layout.LayoutTokenStore;
 import org.grobid.core.utilities.TextUtilities;
 import org.grobid.core.analyzers.GrobidAnalyzer;
 import org.slf4j.Logger;
@@ -27,6 +28,8 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 	private StringBuffer accumulator = new StringBuffer(); // Accumulate parsed
 															// text
 	private String currentFont = null;
+	// lower case form of the current font, shared by the tokens
+	private String currentFontName = null;
 	private String colorFont = null;
 	private String previousToken = null;
 	private LayoutToken previousTok = null;
@@ -46,26 +49,50 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 	private List<String> tokenizations = null;
 
 	private Document doc = null;
+	// layout information of the tokens, the tokens of the blocks are views over it
+	private LayoutTokenStore tokenStore = null;
 
 	private int currentPage = -1;
+	private int nbPages = 0; // nb of pages parsed
 	private GrobidAnalyzer analyzer = GrobidAnalyzer.getInstance(); 
 
 	public PDF2XMLSaxParser() {
 		blabla = new StringBuffer();
 		tokenizations = new ArrayList<String>();
+		tokenStore = new LayoutTokenStore();
 	}
 
 	public PDF2XMLSaxParser(Document d, List<String> im) {
+		this(d, im, new ArrayList<String>(), 0);
+	}
+
+	/**
+	 * Parser for a further range of pages of a document, continuing the tokenization and the page numbering
+	 * of the pages already parsed.
+	 *
+	 * @param tokens the tokenization of the pages already parsed, the new tokens are added to it
+	 * @param previousPages the number of pages already parsed
+	 */
+	public PDF2XMLSaxParser(Document d, List<String> im, List<String> tokens, int previousPages) {
 		doc = d;
+		tokenStore = d.getTokenStore();
 		blabla = new StringBuffer();
 		images = im;
-		tokenizations = new ArrayList<String>();
+		tokenizations = tokens;
+		currentPage = previousPages - 1;
 	}
 
 	public List<String> getTokenization() {
 		return tokenizations;
 	}
 
+	/**
+	 * @return the number of pages parsed
+	 */
+	public int getNbPages() {
+		return nbPages;
+	}
+
 	public void characters(char[] ch, int start, int length) {
 		accumulator.append(ch, start, length);
 	}
@@ -359,7 +386,7 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 
 		if (qName.equals("TEXT")) {
 			blabla.append("\n");
-			LayoutToken token = new LayoutToken();
+			LayoutToken token = tokenStore.newToken();
 			token.setText("\n");
 			block.addToken(token);
 			nbTokens++;
@@ -397,7 +424,8 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 						//String tok = st.nextToken();
 						if (tok.length() > 0) {
 
-							LayoutToken token = new LayoutToken();
+							// the token is only added to the store if it is kept
+							LayoutToken token = null;
 
 							if ( (previousToken != null) && (tok != null)
 									&& (previousToken.length() > 0)
@@ -520,6 +548,7 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 							if ((!diaresis) && (!accent)) {
 								// blabla.append(" ");
 								blabla.append(tok);
+								token = tokenStore.newToken();
 								token.setText(tok);
 
 								tokenizations.add(tok);
@@ -534,29 +563,27 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 								currentFontSize = currentFontSize / 2;
 							}
 
-							if (currentFont != null)
-								token.setFont(currentFont.toLowerCase());
-							else
-								token.setFont("default");
-							token.setItalic(currentItalic);
-							token.setBold(currentBold);
-							token.setRotation(currentRotation);
-							token.setColorFont(colorFont);
-							token.setX(currentX);
-							token.setY(currentY);
-							token.setWidth(currentWidth);
-							token.setHeight(currentHeight);
-							token.setFontSize(currentFontSize);
+							if (token != null) {
+								if (currentFontName != null)
+									token.setFont(currentFontName);
+								else
+									token.setFont("default");
+								token.setItalic(currentItalic);
+								token.setBold(currentBold);
+								token.setRotation(currentRotation);
+								token.setColorFont(colorFont);
+								token.setX(currentX);
+								token.setY(currentY);
+								token.setWidth(currentWidth);
+								token.setHeight(currentHeight);
+								token.setFontSize(currentFontSize);
 
-							if (!diaresis && !accent) {
 								block.addToken(token);
 							}
 
 							if (block.getFont() == null) {
-								if (currentFont != null)
-									block.setFont(currentFont.toLowerCase());
-								else
-									token.setFont("default");
+								if (currentFontName != null)
+									block.setFont(currentFontName);
 							}
 							if (nbTokens == 0) {
 								block.setItalic(currentItalic);
@@ -712,6 +739,7 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 		if (qName.equals("PAGE")) {
 			int length = atts.getLength();
 			currentPage++;
+			nbPages++;
 
 			// Process each attribute
 			for (int i = 0; i < length; i++) {
@@ -826,6 +854,7 @@ public class PDF2XMLSaxParser extends DefaultHandler {
 					} else if (name.equals("font-name")) {
 						if (!value.equals(currentFont)) {
 							currentFont = value;
+							currentFontName = value.toLowerCase();
 							blabla.append(" ");
 						}
 					} else if (name.equals("font-size")) {
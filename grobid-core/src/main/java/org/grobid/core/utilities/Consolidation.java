@@ -5,14 +5,16 @@ import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Locale;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.google.common.util.concurrent.RateLimiter;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -22,6 +24,8 @@ import javax.xml.parsers.SAXParserFactory;
 import org.grobid.core.data.BiblioItem;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.sax.CrossrefUnixrefSaxParser;
+import org.grobid.core.utilities.consolidation.ConsolidationCache;
+import org.grobid.core.utilities.consolidation.ConsolidationCacheFactory;
 import org.xml.sax.InputSource;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -32,68 +36,25 @@ import org.xml.sax.helpers.DefaultHandler;
  */
 public class Consolidation {
 
-    // Cache crossref BD (allowed by the user crossref service agreement)
-    private Connection cCon = null;
+    // Cache of the crossref responses (allowed by the user crossref service agreement), 
+    // null if not cached
+    private final ConsolidationCache cache;
+
+    // lookups being sent to crossref by any thread, so that identical lookups are sent only once
+    private static final ConcurrentMap<String, FutureTask<String>> IN_FLIGHT = 
+        new ConcurrentHashMap<String, FutureTask<String>>();
+
+    private static RateLimiter rateLimiter;
+    private static boolean rateLimiterInitialized = false;
   
     public Consolidation() {
+        this(ConsolidationCacheFactory.getCache());
     }
 
-    /**
-     * Open database connection
-     */
-    public void openDb() throws ClassNotFoundException,
-            InstantiationException,
-            IllegalAccessException,
-            SQLException {
-        // compose database url: jdbc:mysql://<hostname>:<port>/<database>
-        String dbUrl2 = "jdbc:mysql://"
-                + GrobidProperties.getInstance().getMySQLHost()
-                + ":"
-                + GrobidProperties.getInstance().getMySQLPort()
-                + "/" + GrobidProperties.getInstance().getMySQLDBName() + "?useUnicode=true&characterEncoding=utf8";
-
-        // instantiate mysql driver manager, get database connection
-        try {
-            Class.forName("com.mysql.jdbc.Driver").newInstance();
-            cCon = DriverManager.getConnection(dbUrl2, GrobidProperties.getInstance().getMySQLUsername(), GrobidProperties.getInstance().getMySQLPw());
-            if (cCon != null) {
-                cCon.createStatement().execute("SET NAMES utf8");
-            }
-        } catch (Exception e) {
-            System.err.println("The connection to the MySQL database could not be established. \n"
-                    + "The call to Crossref service will not be cached.");
-        }
-    }
-
-    /**
-     * Close database connection
-     */
-    public void closeDb() {
-        try {
-            if (cCon != null) {
-                cCon.close();
-            }
-        } catch (SQLException se) {
-        }
+    public Consolidation(ConsolidationCache cache) {
+        this.cache = cache;
     }
 
-	/**
-	 *  SQL queries for the DOI cache
-	 */
-    static final String INSERT_CROSSREF_SQL =
-            "INSERT INTO AuthorTitle (Author, Title, Unixref) VALUES (?,?,?)";
-    static final String INSERT_CROSSREF_SQL2 =
-            "INSERT INTO AllSubFields (Request, Unixref) VALUES (?,?)";
-    static final String INSERT_CROSSREF_SQL3 =
-            "INSERT INTO DOIRequest (Request, Unixref) VALUES (?,?)";
-
-    static final String QUERY_CROSSREF_SQL =
-            "SELECT Unixref FROM AuthorTitle WHERE Author LIKE ? AND Title LIKE ?";
-    static final String QUERY_CROSSREF_SQL2 =
-            "SELECT Unixref FROM AllSubFields WHERE Request LIKE ?";
-    static final String QUERY_CROSSREF_SQL3 =
-            "SELECT Unixref FROM DOIRequest WHERE Request DOIRequest ?";
-
     /**
      * Lookup by DOI
      */
@@ -188,132 +149,18 @@ public class Consolidation {
 		if (StringUtils.isNotBlank(doi)) {
             // some cleaning of the doi
             if (doi.startsWith("doi:") | doi.startsWith("DOI:")) {
-                doi.substring(4, doi.length());
+                doi = doi.substring(4, doi.length());
                 doi = doi.trim();
             }
 
             doi = doi.replace(" ", "");
-            String xml = null;
-
-            // we check if the entry is not already in the DB
-            if (cCon != null) {
-                PreparedStatement pstmt = null;
-                try {
-                    pstmt = cCon.prepareStatement(QUERY_CROSSREF_SQL3);
-                    pstmt.setString(1, doi);
-
-                    ResultSet res = pstmt.executeQuery();
-                    if (res.next()) {
-                        xml = res.getString(1);
-                    }
-                    res.close();
-                    pstmt.close();
-                } catch (SQLException se) {
-                    //System.err.println("EXCEPTION HANDLING CROSSREF CACHE");
-                    throw new GrobidException("EXCEPTION HANDLING CROSSREF CACHE.", se);
-//           			se.printStackTrace();
-                } finally {
-                    try {
-                        if (pstmt != null)
-                            pstmt.close();
-                    } catch (SQLException se) {
-                    }
-                }
-
-                if (xml != null) {
-                    InputSource is = new InputSource();
-                    is.setCharacterStream(new StringReader(xml));
-
-                    DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
-
-                    // get a factory
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
-                    //get a new instance of parser
-                    SAXParser parser = spf.newSAXParser();
-                    parser.parse(is, crossref);
-
-                    if (bib2.size() > 0) {
-                        if (!bib2.get(0).getError())
-                            result = true;
-                    }
-                }
-            }
+            String subpath = String.format(DOI_BASE_QUERY, 
+					GrobidProperties.getCrossrefId(), 
+					GrobidProperties.getCrossrefPw(), 
+					doi);
+            URL url = new URL("http://" + GrobidProperties.getCrossrefHost() + "/" + subpath);
 
-            if (xml == null) {
-                String subpath = String.format(DOI_BASE_QUERY, 
-						GrobidProperties.getInstance().getCrossrefId(), 
-						GrobidProperties.getInstance().getCrossrefPw(), 
-						doi);
-                URL url = new URL("http://" + GrobidProperties.getInstance().getCrossrefHost() + "/" + subpath);
-
-                System.out.println("Sending: " + url.toString());
-                HttpURLConnection urlConn = null;
-                try {
-                    urlConn = (HttpURLConnection) url.openConnection();
-                } 
-				catch (Exception e) {
-                    try {
-                        urlConn = (HttpURLConnection) url.openConnection();
-                    } catch (Exception e2) {
-//						e2.printStackTrace();
-                        urlConn = null;
-                        throw new GrobidException("An exception occured while running Grobid.", e2);
-                    }
-                }
-                if (urlConn != null) {
-                    try {
-                        urlConn.setDoOutput(true);
-                        urlConn.setDoInput(true);
-                        urlConn.setRequestMethod("GET");
-
-                        urlConn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-
-                        InputStream in = urlConn.getInputStream();
-                        xml = TextUtilities.convertStreamToString(in);
-
-                        InputSource is = new InputSource();
-                        is.setCharacterStream(new StringReader(xml));
-
-                        DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
-
-                        // get a factory
-                        SAXParserFactory spf = SAXParserFactory.newInstance();
-                        //get a new instance of parser
-                        SAXParser parser = spf.newSAXParser();
-                        parser.parse(is, crossref);
-
-                        if (bib2.size() > 0) {
-                            if (!bib2.get(0).getError())
-                                result = true;
-                        }
-
-                        urlConn.disconnect();
-                    } catch (Exception e) {
-                        System.err.println("Warning: Consolidation set true, " +
-                                "but the online connection to Crossref fails.");
-                    }
-
-                    if (cCon != null) {
-                        // we put the answer (even in case of failure) un the DB
-                        PreparedStatement pstmt2 = null;
-                        try {
-                            pstmt2 = cCon.prepareStatement(INSERT_CROSSREF_SQL3);
-                            pstmt2.setString(1, doi);
-                            pstmt2.setString(2, xml);
-                            pstmt2.executeUpdate();
-                            pstmt2.close();
-                        } catch (SQLException se) {
-                            System.err.println("EXCEPTION HANDLING CROSSREF UPDATE");
-                        } finally {
-                            try {
-                                if (pstmt2 != null)
-                                    pstmt2.close();
-                            } catch (SQLException se) {
-                            }
-                        }
-                    }
-                }
-            }
+            result = consolidate(getDOIKey(doi), url, bib2);
         }
 		return result;
 	}
@@ -332,128 +179,14 @@ public class Consolidation {
 		boolean result = false;
 		// conservative check
 		if (StringUtils.isNotBlank(title) && StringUtils.isNotBlank(aut)) {
-			String xml = null;
-            // we check if the entry is not already in the DB
-            if (cCon != null) {
-                PreparedStatement pstmt = null;
-
-                try {
-                    pstmt = cCon.prepareStatement(QUERY_CROSSREF_SQL);
-                    pstmt.setString(1, aut);
-                    pstmt.setString(2, title);
-
-                    ResultSet res = pstmt.executeQuery();
-                    if (res.next()) {
-                        xml = res.getString(1);
-                    }
-                    res.close();
-                    pstmt.close();
-                } catch (SQLException se) {
-//           			System.err.println("EXCEPTION HANDLING CROSSREF CACHE");
-//           			se.printStackTrace();
-                    throw new GrobidException("EXCEPTION HANDLING CROSSREF CACHE", se);
-                } finally {
-                    try {
-                        if (pstmt != null)
-                            pstmt.close();
-                    } catch (SQLException se) {
-                    }
-                }
-
-                if (xml != null) {
-                    InputSource is = new InputSource();
-                    is.setCharacterStream(new StringReader(xml));
-
-                    DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
-
-                    // get a factory
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
-                    //get a new instance of parser
-                    SAXParser parser = spf.newSAXParser();
-                    parser.parse(is, crossref);
-
-                    if (bib2.size() > 0) {
-                        if (!bib2.get(0).getError())
-                            result = true;
-                    }
-                }
-            }
-            if (xml == null) {
-                String subpath = String.format(TITLE_BASE_QUERY, 
-						GrobidProperties.getInstance().getCrossrefId(), 
-						GrobidProperties.getInstance().getCrossrefPw(),
-                        URLEncoder.encode(title, "UTF-8"),
-                        URLEncoder.encode(aut, "UTF-8"));
-                URL url = new URL("http://" + GrobidProperties.getInstance().getCrossrefHost() + "/" + subpath);
-
-                System.out.println("Sending: " + url.toString());
-                HttpURLConnection urlConn = null;
-                try {
-                    urlConn = (HttpURLConnection) url.openConnection();
-                } catch (Exception e) {
-                    try {
-                        urlConn = (HttpURLConnection) url.openConnection();
-                    } catch (Exception e2) {
-//						e2.printStackTrace();
-                        urlConn = null;
-                        throw new GrobidException("An exception occured while running Grobid.", e2);
-                    }
-                }
-                if (urlConn != null) {
-                    try {
-                        urlConn.setDoOutput(true);
-                        urlConn.setDoInput(true);
-                        urlConn.setRequestMethod("GET");
-
-                        urlConn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-
-                        InputStream in = urlConn.getInputStream();
-                        xml = TextUtilities.convertStreamToString(in);
-
-                        InputSource is = new InputSource();
-                        is.setCharacterStream(new StringReader(xml));
-
-                        DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
-
-                        // get a factory
-                        SAXParserFactory spf = SAXParserFactory.newInstance();
-                        //get a new instance of parser
-                        SAXParser parser = spf.newSAXParser();
-                        parser.parse(is, crossref);
-
-                        if (bib2.size() > 0) {
-                            if (!bib2.get(0).getError())
-                                result = true;
-                        }
-
-                        urlConn.disconnect();
-                    } catch (Exception e) {
-                        System.err.println("Warning: Consolidation set true, " +
-                                "but the online connection to Crossref fails.");
-                    }
-
-                    if (cCon != null) {
-                        // we put the answer (even in case of failure) un the DB
-                        PreparedStatement pstmt2 = null;
-                        try {
-                            pstmt2 = cCon.prepareStatement(INSERT_CROSSREF_SQL);
-                            pstmt2.setString(1, aut);
-                            pstmt2.setString(2, title);
-                            pstmt2.setString(3, xml);
-                            pstmt2.executeUpdate();
-                            pstmt2.close();
-                        } catch (SQLException se) {
-                            System.err.println("EXCEPTION HANDLING CROSSREF UPDATE");
-                        } finally {
-                            try {
-                                if (pstmt2 != null)
-                                    pstmt2.close();
-                            } catch (SQLException se) {
-                            }
-                        }
-                    }
-                }
-            }
+            String subpath = String.format(TITLE_BASE_QUERY, 
+					GrobidProperties.getCrossrefId(), 
+					GrobidProperties.getCrossrefPw(),
+                    URLEncoder.encode(title, "UTF-8"),
+                    URLEncoder.encode(aut, "UTF-8"));
+            URL url = new URL("http://" + GrobidProperties.getCrossrefHost() + "/" + subpath);
+
+            result = consolidate(getAuthorTitleKey(aut, title), url, bib2);
 		}
 		return result;
 	}
@@ -481,133 +214,173 @@ public class Consolidation {
 		 		(StringUtils.isNotBlank(aut) || (StringUtils.isNotBlank(journal) && StringUtils.isNotBlank(volume)))
 		   ) {
 			String subpath = String.format(JOURNAL_BASE_QUERY, 
-					GrobidProperties.getInstance().getCrossrefId(), 
-					GrobidProperties.getInstance().getCrossrefPw(),
+					GrobidProperties.getCrossrefId(), 
+					GrobidProperties.getCrossrefPw(),
                     URLEncoder.encode(journal, "UTF-8"),
 					URLEncoder.encode(aut, "UTF-8"),
                     URLEncoder.encode(volume, "UTF-8"), 
 					firstPage);
-            URL url = new URL("http://" + GrobidProperties.getInstance().getCrossrefHost() + "/" + subpath);
-            String urlmsg = url.toString();
-            System.out.println(urlmsg);
-
-            String xml = null;
-
-            if (cCon != null) {
-                // we check if the query/entry is not already in the DB
-                PreparedStatement pstmt = null;
-
-                try {
-                    pstmt = cCon.prepareStatement(QUERY_CROSSREF_SQL2);
-                    pstmt.setString(1, urlmsg);
-
-                    ResultSet res = pstmt.executeQuery();
-                    if (res.next()) {
-                        xml = res.getString(1);
-                    }
-                    res.close();
-                    pstmt.close();
-                } catch (SQLException se) {
-                    System.err.println("EXCEPTION HANDLING CROSSREF CACHE");
-//           			se.printStackTrace();
-                    throw new GrobidException("EXCEPTION HANDLING CROSSREF CACHE.", se);
-                } finally {
-                    try {
-                        if (pstmt != null)
-                            pstmt.close();
-                    } catch (SQLException se) {
-                    }
-                }
-
-
-                if (xml != null) {
-                    InputSource is = new InputSource();
-                    is.setCharacterStream(new StringReader(xml));
-
-                    DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
-
-                    // get a factory
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
-                    //get a new instance of parser
-                    SAXParser parser = spf.newSAXParser();
-                    parser.parse(is, crossref);
-
-                    if (bib2.size() > 0) {
-                        if (!bib2.get(0).getError())
-                            result = true;
-                    }
-                }
-            }
+            URL url = new URL("http://" + GrobidProperties.getCrossrefHost() + "/" + subpath);
 
-            if (xml == null) {
-                System.out.println("Sending: " + urlmsg);
-                HttpURLConnection urlConn = null;
-                try {
-                    urlConn = (HttpURLConnection) url.openConnection();
-                } catch (Exception e) {
-                    try {
-                        urlConn = (HttpURLConnection) url.openConnection();
-                    } catch (Exception e2) {
-                        urlConn = null;
-                        throw new GrobidException("An exception occured while running Grobid.", e2);
-                    }
-                }
-                if (urlConn != null) {
-                    try {
-                        urlConn.setDoOutput(true);
-                        urlConn.setDoInput(true);
-                        urlConn.setRequestMethod("GET");
-
-                        urlConn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-
-                        InputStream in = urlConn.getInputStream();
-                        xml = TextUtilities.convertStreamToString(in);
-
-                        InputSource is = new InputSource();
-                        is.setCharacterStream(new StringReader(xml));
-
-                        DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
-
-                        // get a factory
-                        SAXParserFactory spf = SAXParserFactory.newInstance();
-                        //get a new instance of parser
-                        SAXParser p = spf.newSAXParser();
-                        p.parse(is, crossref);
-                        if (bib2.size() > 0) {
-                            if (!bib2.get(0).getError())
-                                result = true;
-                        }
-
-                        in.close();
-                        urlConn.disconnect();
-                    } catch (Exception e) {
-                        System.err.println("Warning: Consolidation set true, " +
-                                "but the online connection to Crossref fails.");
-                    }
-
-                    if (cCon != null) {
-                        // we put the answer (even in case of failure) un the DB
-                        PreparedStatement pstmt2 = null;
-                        try {
-                            pstmt2 = cCon.prepareStatement(INSERT_CROSSREF_SQL2);
-                            pstmt2.setString(1, urlmsg);
-                            pstmt2.setString(2, xml);
-                            pstmt2.executeUpdate();
-                            pstmt2.close();
-                        } catch (SQLException se) {
-                            System.err.println("EXCEPTION HANDLING CROSSREF UPDATE");
-                        } finally {
-                            try {
-                                if (pstmt2 != null)
-                                    pstmt2.close();
-                            } catch (SQLException se) {
-                            }
-                        }
-                    }
-                }
-            }
+            result = consolidate(getJournalKey(journal, volume, firstPage, aut), url, bib2);
 		}
 		return result;
 	}
 
+	/**
+	 * @return the cache key of a lookup by DOI
+	 */
+	public static String getDOIKey(String doi) {
+		return "doi:" + normalize(doi);
+	}
+
+	/**
+	 * @return the cache key of a lookup by first author and title
+	 */
+	public static String getAuthorTitleKey(String aut, String title) {
+		return "author-title:" + normalize(aut) + "|" + normalize(title);
+	}
+
+	/**
+	 * @return the cache key of a lookup by journal title, volume, first page and first author
+	 */
+	public static String getJournalKey(String journal, String volume, String firstPage, String aut) {
+		return "journal:" + normalize(journal) + "|" + normalize(volume) + "|" + normalize(firstPage) 
+			+ "|" + normalize(aut);
+	}
+
+	private static String normalize(String field) {
+		if (field == null) {
+			return "";
+		}
+		return field.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * Get the crossref response for a query, from the cache or else from the service, and parse it.
+	 */
+	private boolean consolidate(String key, URL url, List<BiblioItem> bib2) {
+		String xml = null;
+		if (cache != null) {
+			xml = cache.get(key);
+		}
+		if (xml == null) {
+			xml = fetchOnce(key, url);
+		}
+		if (xml == null) {
+			return false;
+		}
+
+		try {
+            InputSource is = new InputSource();
+            is.setCharacterStream(new StringReader(xml));
+
+            DefaultHandler crossref = new CrossrefUnixrefSaxParser(bib2);
+
+            // get a factory
+            SAXParserFactory spf = SAXParserFactory.newInstance();
+            //get a new instance of parser
+            SAXParser parser = spf.newSAXParser();
+            parser.parse(is, crossref);
+		} catch (Exception e) {
+            System.err.println("Warning: Consolidation set true, " +
+                    "but the response of Crossref cannot be parsed.");
+			return false;
+		}
+        return (bib2.size() > 0) && !bib2.get(0).getError();
+	}
+
+	/**
+	 * Send a lookup to crossref and cache its response, or wait for the response of the identical 
+	 * lookup already sent by another thread.
+	 */
+	private String fetchOnce(final String key, final URL url) {
+		FutureTask<String> task = new FutureTask<String>(new Callable<String>() {
+			public String call() {
+				// the response may have been cached since the first lookup in the cache
+				String xml = (cache != null) ? cache.get(key) : null;
+				if (xml == null) {
+					xml = fetch(url);
+					if ((xml != null) && (cache != null)) {
+						cache.put(key, xml);
+					}
+				}
+				return xml;
+			}
+		});
+		FutureTask<String> inFlight = IN_FLIGHT.putIfAbsent(key, task);
+		if (inFlight == null) {
+			inFlight = task;
+			try {
+				task.run();
+			} finally {
+				IN_FLIGHT.remove(key, task);
+			}
+		}
+		try {
+			return inFlight.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GrobidException("The consolidation has been interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof GrobidException) {
+				throw (GrobidException) e.getCause();
+			}
+			throw new GrobidException("An exception occured while running Grobid.", e.getCause());
+		}
+	}
+
+	/**
+	 * @return the limiter of the rate of lookups sent to crossref, null if the rate is not limited
+	 */
+	private static synchronized RateLimiter getRateLimiter() {
+		if (!rateLimiterInitialized) {
+			int maxRate = GrobidProperties.getConsolidationMaxRate();
+			if (maxRate > 0) {
+				rateLimiter = RateLimiter.create(maxRate);
+			}
+			rateLimiterInitialized = true;
+		}
+		return rateLimiter;
+	}
+
+	/**
+	 * @return the crossref response, null if the online connection to crossref fails
+	 */
+	private String fetch(URL url) {
+		RateLimiter limiter = getRateLimiter();
+		if (limiter != null) {
+			limiter.acquire();
+		}
+        System.out.println("Sending: " + url.toString());
+        HttpURLConnection urlConn = null;
+        try {
+            urlConn = (HttpURLConnection) url.openConnection();
+        } catch (Exception e) {
+            try {
+                urlConn = (HttpURLConnection) url.openConnection();
+            } catch (Exception e2) {
+                throw new GrobidException("An exception occured while running Grobid.", e2);
+            }
+        }
+        try {
+            urlConn.setDoOutput(true);
+            urlConn.setDoInput(true);
+            urlConn.setRequestMethod("GET");
+
+            urlConn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+
+            InputStream in = urlConn.getInputStream();
+            String xml = TextUtilities.convertStreamToString(in);
+            in.close();
+            return xml;
+        } catch (Exception e) {
+            System.err.println("Warning: Consolidation set true, " +
+                    "but the online connection to Crossref fails.");
+            return null;
+        } finally {
+            urlConn.disconnect();
+        }
+	}
+
 }
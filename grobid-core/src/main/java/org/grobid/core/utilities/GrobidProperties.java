@@ -635,6 +635,101 @@ public class GrobidProperties {
         return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_3RD_PARTY_PDF2XML_MEMORY_LIMIT, "2048"), 10);
     }
 
+	/**
+	 * Returns the type of cache of the consolidation responses: none, memory, file or mysql.
+	 * 
+	 * @return the cache type, memory by default, the file cache growing without bound
+	 */
+	public static String getConsolidationCacheType() {
+		return getPropertyValue(GrobidPropertyKeys.PROP_CONSOLIDATION_CACHE, "memory");
+	}
+
+	/**
+	 * Returns the directory of the file cache of the consolidation responses.
+	 * 
+	 * @return the cache directory, by default under the temp path
+	 */
+	public static File getConsolidationCachePath() {
+		String path = getPropertyValue(GrobidPropertyKeys.PROP_CONSOLIDATION_CACHE_PATH);
+		if (path == null) {
+			return new File(getTempPath(), "consolidation-cache");
+		}
+		return new File(path);
+	}
+
+	/**
+	 * Returns the maximum number of consolidation responses kept in memory.
+	 * 
+	 * @return the number of responses
+	 */
+	public static int getConsolidationCacheMemorySize() {
+		return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_CONSOLIDATION_CACHE_MEMORY_SIZE, "10000"), 10);
+	}
+
+	/**
+	 * Returns the number of threads sending the consolidation lookups to crossref.
+	 * 
+	 * @return the number of threads, 8 by default
+	 */
+	public static int getConsolidationThreads() {
+		return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_CONSOLIDATION_THREADS, "8"), 10);
+	}
+
+	/**
+	 * Returns the maximum number of consolidation lookups sent to crossref per second, 0 for no limit.
+	 * 
+	 * @return the number of lookups per second, 20 by default
+	 */
+	public static int getConsolidationMaxRate() {
+		return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_CONSOLIDATION_MAX_RATE, "20"), 10);
+	}
+
+	/**
+	 * Returns the directory of the cache of pdf2xml results.
+	 * 
+	 * @return the cache directory, by default under the temp path
+	 */
+	public static File getPdf2XMLCachePath() {
+		String path = getPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_CACHE_PATH);
+		if (path == null) {
+			return new File(getTempPath(), "pdf2xml-cache");
+		}
+		return new File(path);
+	}
+
+	/**
+	 * Returns the maximum size of the cache of pdf2xml results, 0 if results are not cached.
+	 * 
+	 * @return the size in MB
+	 */
+	public static int getPdf2XMLCacheMaxSizeMb() {
+		return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_CACHE_MAX_SIZE, "0"), 10);
+	}
+
+	/**
+	 * Returns true if the XML representation of a pdf is parsed as pdf2xml writes it on its standard output,
+	 * instead of being written to a temporary file first. Only the conversions without images are piped,
+	 * the piped output being copied to the pdf2xml cache when it is enabled.
+	 * 
+	 * @return true by default
+	 */
+	public static boolean isPdf2XMLPipe() {
+		return Boolean.parseBoolean(getPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_PIPE, "true"));
+	}
+
+	/**
+	 * Returns the directory where the uploaded documents are spooled, for instance on a tmpfs.
+	 * 
+	 * @return the upload directory, by default the temp path
+	 */
+	public static File getUploadPath() {
+		String path = getPropertyValue(GrobidPropertyKeys.PROP_UPLOAD_PATH);
+		if (path == null) {
+			return getTempPath();
+		}
+		return new File(path);
+	}
+
 	/**
 	 * Sets the username for a connection to mysql, given in the grobid-property
 	 * file.
@@ -810,6 +905,62 @@ public class GrobidProperties {
         return grobidCRFEngine;
     }
 
+    /**
+     * Returns the maximum number of labeled inputs memoized for each short-input model (date, names,
+     * affiliation), 0 if the memoization is disabled.
+     */
+    public static int getLabelCacheSize() {
+        return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_LABEL_CACHE_SIZE, "10000"));
+    }
+
+    /**
+     * Returns the approximate memory in MB that the loaded Wapiti models can use before the least recently
+     * used ones are unloaded, 0 for no limit.
+     */
+    public static long getModelsMemoryBudget() {
+        return Long.parseLong(getPropertyValue(GrobidPropertyKeys.PROP_MODELS_MEMORY_BUDGET, "0"));
+    }
+
+    /**
+     * Returns true if all the CRF++ models are loaded at start-up instead of on first use.
+     */
+    public static boolean isModelsPreload() {
+        return Boolean.parseBoolean(getPropertyValue(GrobidPropertyKeys.PROP_MODELS_PRELOAD, "false"));
+    }
+
+    /**
+     * Returns the number of pages converted and segmented at a time for large documents, 0 to process the
+     * documents in one shot. The windows bound the pdf2xml process and the size of a segmentation labeling,
+     * not the memory of the document: its tokens and features still cover all the pages, and the documents
+     * whose assets are extracted are converted in one go.
+     */
+    public static int getPdfWindowPages() {
+        return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_PDF_WINDOW_PAGES, "0"));
+    }
+
+    /**
+     * Returns the number of pages of context added on each side of a window when it is segmented.
+     */
+    public static int getPdfWindowOverlapPages() {
+        return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_PDF_WINDOW_OVERLAP_PAGES, "1"));
+    }
+
+    /**
+     * Returns the number of threads shared by all the engines for parsing the annex and references of a 
+     * document concurrently with its body, after its header, 0 to parse the sections of a document one after another.
+     */
+    public static int getFulltextSectionThreads() {
+        return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_FULLTEXT_SECTION_THREADS, "0"));
+    }
+
+    /**
+     * Returns the number of threads shared by all the engines for converting the extracted images to PNG, 
+     * which is also the maximum number of images decoded at a time.
+     */
+    public static int getAssetsThreads() {
+        return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_ASSETS_THREADS, "2"));
+    }
+
     public static File getModelPath(final GrobidModels model) {
         return new File(get_GROBID_HOME_PATH(), FOLDER_NAME_MODELS + File.separator 
 			+ model.getFolderName() + File.separator
@@ -846,6 +997,19 @@ public class GrobidProperties {
 		return new File(get_GROBID_HOME_PATH(), "lexicon").getAbsolutePath();
 	}
 
+	/**
+	 * Returns the precompiled snapshot of the lexical resources.
+	 * 
+	 * @return the snapshot file, which may not exist
+	 */
+	public static File getLexiconSnapshotPath() {
+		String path = getPropertyValue(GrobidPropertyKeys.PROP_LEXICON_SNAPSHOT_PATH);
+		if (path == null) {
+			return new File(getLexiconPath(), "lexicon.snapshot");
+		}
+		return new File(path);
+	}
+
     public static File getLanguageDetectionResourcePath() {
         return new File(get_GROBID_HOME_PATH(), "language-detection");
     };
@@ -868,6 +1032,15 @@ public class GrobidProperties {
 		return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_GROBID_POOL_MAX_WAIT)) * 1000;
 	}
 
+	/**
+	 * Returns the number of engines created with the pool, before the first request.
+	 * 
+	 * @return the number of engines
+	 */
+	public static int getPoolWarmUpSize() {
+		return Integer.parseInt(getPropertyValue(GrobidPropertyKeys.PROP_GROBID_POOL_WARMUP_SIZE, "0"));
+	}
+
 	/**
 	 * Returns if the execution context is stand alone or server.
 	 * 
@@ -932,4 +1105,4 @@ public class GrobidProperties {
 		updatePropertyFile(getGrobidPropertiesPath(), pKey, pValue);
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -14,8 +14,20 @@ public interface GrobidPropertyKeys {
     public static final String PROP_NATIVE_LIB_PATH = "grobid.nativelibrary.path";
     public static final String PROP_3RD_PARTY_PDF2XML = "grobid.3rdparty.pdf2xml.path";
     public static final String PROP_3RD_PARTY_PDF2XML_MEMORY_LIMIT = "grobid.3rdparty.pdf2xml.memory.limit.mb";
+    public static final String PROP_PDF2XML_CACHE_PATH = "grobid.pdf2xml.cache.path";
+    public static final String PROP_PDF2XML_CACHE_MAX_SIZE = "grobid.pdf2xml.cache.max.size.mb";
+    public static final String PROP_PDF2XML_PIPE = "grobid.pdf2xml.pipe";
+    public static final String PROP_UPLOAD_PATH = "grobid.upload.path";
+    public static final String PROP_LEXICON_SNAPSHOT_PATH = "grobid.lexicon.snapshot.path";
 
     public static final String PROP_GROBID_CRF_ENGINE = "grobid.crf.engine";
+    public static final String PROP_LABEL_CACHE_SIZE = "grobid.label.cache.size";
+    public static final String PROP_MODELS_MEMORY_BUDGET = "grobid.models.memory.budget.mb";
+    public static final String PROP_MODELS_PRELOAD = "grobid.models.preload";
+    public static final String PROP_PDF_WINDOW_PAGES = "grobid.pdf.window.pages";
+    public static final String PROP_PDF_WINDOW_OVERLAP_PAGES = "grobid.pdf.window.overlap.pages";
+    public static final String PROP_FULLTEXT_SECTION_THREADS = "grobid.fulltext.section.threads";
+    public static final String PROP_ASSETS_THREADS = "grobid.assets.threads";
     public static final String PROP_USE_LANG_ID = "grobid.use_language_id";
     public static final String PROP_LANG_DETECTOR_FACTORY = "grobid.language_detector_factory";
 
@@ -24,6 +36,12 @@ public interface GrobidPropertyKeys {
     public static final String PROP_CROSSREF_HOST = "grobid.crossref_host";
     public static final String PROP_CROSSREF_PORT = "grobid.crossref_port";
 
+    public static final String PROP_CONSOLIDATION_CACHE = "grobid.consolidation.cache";
+    public static final String PROP_CONSOLIDATION_CACHE_PATH = "grobid.consolidation.cache.path";
+    public static final String PROP_CONSOLIDATION_CACHE_MEMORY_SIZE = "grobid.consolidation.cache.memory.size";
+    public static final String PROP_CONSOLIDATION_THREADS = "grobid.consolidation.threads";
+    public static final String PROP_CONSOLIDATION_MAX_RATE = "grobid.consolidation.max.requests.per.second";
+
     public static final String PROP_MYSQL_HOST = "grobid.mysql_host";
     public static final String PROP_MYSQL_PORT = "grobid.mysql_port";
     public static final String PROP_MYSQL_USERNAME = "grobid.mysql_username";
@@ -37,6 +55,7 @@ public interface GrobidPropertyKeys {
 
     public static final String PROP_GROBID_MAX_CONNECTIONS = "org.grobid.max.connections";
     public static final String PROP_GROBID_POOL_MAX_WAIT = "org.grobid.pool.max.wait";
+    public static final String PROP_GROBID_POOL_WARMUP_SIZE = "org.grobid.pool.warmup.size";
 
     /**
      * Determines if properties like the firstnames, lastnames country codes and
@@ -74,6 +93,26 @@ public interface GrobidPropertyKeys {
      */
     public static final String PROP_GROBID_SERVICE_IS_PARALLEL_EXEC = "org.grobid.service.is.parallel.execution";
 
+    /**
+     * Maximum number of asynchronous jobs waiting to be processed, beyond which the new jobs are refused.
+     */
+    public static final String PROP_GROBID_SERVICE_JOBS_QUEUE_SIZE = "org.grobid.service.jobs.queue.size";
+
+    /**
+     * Number of threads processing the asynchronous jobs, 0 for one less than the size of the engine pool.
+     */
+    public static final String PROP_GROBID_SERVICE_JOBS_THREADS = "org.grobid.service.jobs.threads";
+
+    /**
+     * Time in seconds during which the result of an asynchronous job can be retrieved.
+     */
+    public static final String PROP_GROBID_SERVICE_JOBS_RESULT_TTL = "org.grobid.service.jobs.result.ttl.seconds";
+
+    /**
+     * Maximum number of results of asynchronous jobs kept, beyond which the oldest ones are forgotten.
+     */
+    public static final String PROP_GROBID_SERVICE_JOBS_MAX_RESULTS = "org.grobid.service.jobs.result.max";
+
     /**
      * The defined paths to create.
      */
@@ -1,5 +1,9 @@
 package org.grobid.core.utilities;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -47,6 +51,32 @@ public class SHA1 {
 		return sha1;
 	}
 
+	/**
+	 * Return the hash value of the content of a file using SHA1 algorithm.
+	 * 
+	 * @param pFile the file to hash.
+	 * @return The hashed value.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static String getSHA1(File pFile) throws IOException {
+		String sha1 = "";
+		InputStream in = new FileInputStream(pFile);
+		try {
+			MessageDigest crypt = MessageDigest.getInstance("SHA-1");
+			byte[] buffer = new byte[8192];
+			int len;
+			while ((len = in.read(buffer)) > 0) {
+				crypt.update(buffer, 0, len);
+			}
+			sha1 = byteToHex(crypt.digest());
+		} catch (NoSuchAlgorithmException exp) {
+			LOGGER.error(ERROR_WHILE_EXECUTING_SHA1 + exp);
+		} finally {
+			in.close();
+		}
+		return sha1;
+	}
+
 	/**
 	 * Convert from byte to hexa.
 	 * @param hash the input in bytes.
@@ -0,0 +1,18 @@
+package org.grobid.core.utilities.consolidation;
+
+/**
+ * Cache of the responses of the Crossref service used for consolidation, keyed by the normalized
+ * query (see {@link org.grobid.core.utilities.Consolidation}). Implementations must be safe for
+ * concurrent use.
+ */
+public interface ConsolidationCache {
+
+    /**
+     * @return the cached unixref response for the query key, or null if not cached
+     */
+    String get(String key);
+
+    void put(String key, String unixref);
+
+    void close();
+}
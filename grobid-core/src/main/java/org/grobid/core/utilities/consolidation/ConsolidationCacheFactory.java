@@ -0,0 +1,51 @@
+package org.grobid.core.utilities.consolidation;
+
+import org.grobid.core.exceptions.GrobidPropertyException;
+import org.grobid.core.utilities.GrobidProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the consolidation cache configured in grobid.properties, shared by all the consolidations.
+ */
+public class ConsolidationCacheFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsolidationCacheFactory.class);
+
+    public static final String CACHE_NONE = "none";
+    public static final String CACHE_MEMORY = "memory";
+    public static final String CACHE_FILE = "file";
+    public static final String CACHE_MYSQL = "mysql";
+
+    private static ConsolidationCache cache;
+
+    /**
+     * @return the consolidation cache, or null if the responses are not cached
+     */
+    public static synchronized ConsolidationCache getCache() {
+        if (cache == null) {
+            cache = createCache(GrobidProperties.getConsolidationCacheType());
+        }
+        return cache;
+    }
+
+    private static ConsolidationCache createCache(String type) {
+        int memorySize = GrobidProperties.getConsolidationCacheMemorySize();
+        if (CACHE_NONE.equals(type)) {
+            return null;
+        } else if (CACHE_MEMORY.equals(type)) {
+            return new MemoryConsolidationCache(memorySize, null);
+        } else if (CACHE_FILE.equals(type)) {
+            return new MemoryConsolidationCache(memorySize,
+                    new FileConsolidationCache(GrobidProperties.getConsolidationCachePath()));
+        } else if (CACHE_MYSQL.equals(type)) {
+            try {
+                return new MemoryConsolidationCache(memorySize, new MySQLConsolidationCache());
+            } catch (Exception e) {
+                LOGGER.warn("The connection to the MySQL database could not be established, "
+                        + "the consolidation cache is kept in memory only.", e);
+                return new MemoryConsolidationCache(memorySize, null);
+            }
+        }
+        throw new GrobidPropertyException("Unsupported consolidation cache: " + type);
+    }
+}
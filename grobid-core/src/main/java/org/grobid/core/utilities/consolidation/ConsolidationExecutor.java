@@ -0,0 +1,98 @@
+package org.grobid.core.utilities.consolidation;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.grobid.core.data.BiblioItem;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.utilities.Consolidation;
+import org.grobid.core.utilities.GrobidProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Consolidation of several bibliographical items concurrently, over a bounded pool of threads shared
+ * by all the documents being processed. The lookups themselves are rate limited and identical
+ * lookups in flight are coalesced by {@link Consolidation}.
+ */
+public class ConsolidationExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsolidationExecutor.class);
+
+    private static ConsolidationExecutor instance;
+
+    private final ExecutorService executor;
+    private final ConsolidationCache cache;
+
+    public static synchronized ConsolidationExecutor getInstance() {
+        if (instance == null) {
+            instance = new ConsolidationExecutor(GrobidProperties.getConsolidationThreads(),
+                    ConsolidationCacheFactory.getCache());
+        }
+        return instance;
+    }
+
+    /**
+     * @param nbThreads the maximum number of concurrent lookups
+     * @param cache     the cache of the crossref responses, or null
+     */
+    public ConsolidationExecutor(int nbThreads, ConsolidationCache cache) {
+        this.cache = cache;
+        executor = Executors.newFixedThreadPool(nbThreads,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("consolidation-%d").build());
+    }
+
+    /**
+     * Consolidate the given items concurrently and, once all the lookups are done, correct each item
+     * with its consolidated version in the calling thread. A failed lookup leaves its item unchanged.
+     *
+     * @return the number of consolidated items
+     */
+    public int consolidate(List<BiblioItem> biblios) {
+        List<Future<BiblioItem>> futures = new ArrayList<Future<BiblioItem>>(biblios.size());
+        for (final BiblioItem biblio : biblios) {
+            futures.add(executor.submit(new Callable<BiblioItem>() {
+                @Override
+                public BiblioItem call() throws Exception {
+                    List<BiblioItem> bibis = new ArrayList<BiblioItem>();
+                    boolean valid = new Consolidation(cache).consolidate(biblio, bibis);
+                    if (valid && (bibis.size() > 0)) {
+                        return bibis.get(0);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        int nbConsolidated = 0;
+        try {
+            for (int i = 0; i < biblios.size(); i++) {
+                try {
+                    BiblioItem bibo = futures.get(i).get();
+                    if (bibo != null) {
+                        BiblioItem.correct(biblios.get(i), bibo);
+                        nbConsolidated++;
+                    }
+                } catch (ExecutionException e) {
+                    LOGGER.warn("The consolidation of a bibliographical item failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<BiblioItem> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new GrobidException("The consolidation has been interrupted.", e);
+        }
+        return nbConsolidated;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+package org.grobid.core.utilities.consolidation;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.utilities.KeyGen;
+import org.grobid.core.utilities.SHA1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Embedded persistent consolidation cache, storing each response in its own file named after the
+ * SHA1 of the query key, spread over 256 sub-directories. The files are never evicted, so this tier
+ * is opt-in (grobid.consolidation.cache=file) and its directory is to be cleaned by the deployment.
+ */
+public class FileConsolidationCache implements ConsolidationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileConsolidationCache.class);
+
+    private final File directory;
+
+    public FileConsolidationCache(File directory) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new GrobidResourceException("Cannot create the consolidation cache directory '"
+                    + directory.getAbsolutePath() + "'");
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public String get(String key) {
+        File file = getFile(key);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return FileUtils.readFileToString(file, "UTF-8");
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read the consolidation cache file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, String unixref) {
+        File file = getFile(key);
+        // written under a temporary name first, so that a response is never read half written
+        File tmp = new File(file.getParentFile(), KeyGen.getKey() + ".tmp");
+        try {
+            FileUtils.writeStringToFile(tmp, unixref, "UTF-8");
+            if (!tmp.renameTo(file)) {
+                LOGGER.warn("Cannot write the consolidation cache file " + file);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write the consolidation cache file " + file + ": " + e.getMessage());
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private File getFile(String key) {
+        String hash = SHA1.getSHA1(key);
+        return new File(new File(directory, hash.substring(0, 2)), hash + ".xml");
+    }
+}
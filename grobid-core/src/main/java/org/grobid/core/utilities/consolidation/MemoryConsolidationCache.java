@@ -0,0 +1,50 @@
+package org.grobid.core.utilities.consolidation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Bounded in-memory tier of the consolidation cache, evicting the least recently used responses
+ * first. Responses missing from memory are looked up in the optional persistent cache behind it.
+ */
+public class MemoryConsolidationCache implements ConsolidationCache {
+    private final Cache<String, String> cache;
+    private final ConsolidationCache backend;
+
+    /**
+     * @param maxEntries the maximum number of responses kept in memory
+     * @param backend    the persistent cache behind the memory tier, or null
+     */
+    public MemoryConsolidationCache(int maxEntries, ConsolidationCache backend) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+        this.backend = backend;
+    }
+
+    @Override
+    public String get(String key) {
+        String unixref = cache.getIfPresent(key);
+        if ((unixref == null) && (backend != null)) {
+            unixref = backend.get(key);
+            if (unixref != null) {
+                cache.put(key, unixref);
+            }
+        }
+        return unixref;
+    }
+
+    @Override
+    public void put(String key, String unixref) {
+        cache.put(key, unixref);
+        if (backend != null) {
+            backend.put(key, unixref);
+        }
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+        if (backend != null) {
+            backend.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.grobid.core.utilities.consolidation;
+
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.utilities.GrobidProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Consolidation cache stored in the AllSubFields table of a MySQL database, the query key being
+ * stored in the Request column.
+ */
+public class MySQLConsolidationCache implements ConsolidationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MySQLConsolidationCache.class);
+
+    static final String INSERT_CROSSREF_SQL =
+            "INSERT INTO AllSubFields (Request, Unixref) VALUES (?,?)";
+    static final String QUERY_CROSSREF_SQL =
+            "SELECT Unixref FROM AllSubFields WHERE Request = ?";
+
+    private final Connection cCon;
+
+    public MySQLConsolidationCache() {
+        // compose database url: jdbc:mysql://<hostname>:<port>/<database>
+        String dbUrl = "jdbc:mysql://"
+                + GrobidProperties.getMySQLHost()
+                + ":"
+                + GrobidProperties.getMySQLPort()
+                + "/" + GrobidProperties.getMySQLDBName() + "?useUnicode=true&characterEncoding=utf8";
+        try {
+            Class.forName("com.mysql.jdbc.Driver").newInstance();
+            cCon = DriverManager.getConnection(dbUrl, GrobidProperties.getMySQLUsername(),
+                    GrobidProperties.getMySQLPw());
+            cCon.createStatement().execute("SET NAMES utf8");
+        } catch (Exception e) {
+            throw new GrobidException("The connection to the MySQL database could not be established.", e);
+        }
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = cCon.prepareStatement(QUERY_CROSSREF_SQL);
+            pstmt.setString(1, key);
+            ResultSet res = pstmt.executeQuery();
+            String unixref = null;
+            if (res.next()) {
+                unixref = res.getString(1);
+            }
+            res.close();
+            return unixref;
+        } catch (SQLException se) {
+            throw new GrobidException("EXCEPTION HANDLING CROSSREF CACHE.", se);
+        } finally {
+            close(pstmt);
+        }
+    }
+
+    @Override
+    public synchronized void put(String key, String unixref) {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = cCon.prepareStatement(INSERT_CROSSREF_SQL);
+            pstmt.setString(1, key);
+            pstmt.setString(2, unixref);
+            pstmt.executeUpdate();
+        } catch (SQLException se) {
+            LOGGER.warn("EXCEPTION HANDLING CROSSREF UPDATE: " + se.getMessage());
+        } finally {
+            close(pstmt);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            cCon.close();
+        } catch (SQLException se) {
+        }
+    }
+
+    private static void close(PreparedStatement pstmt) {
+        try {
+            if (pstmt != null)
+                pstmt.close();
+        } catch (SQLException se) {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.grobid.core.document;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+public class AssetConverterTest {
+	private File dataDirectory;
+	private File assetDirectory;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		AssetConverter.shutdown();
+		MockContext.destroyInitialContext();
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		File tmp = new File(System.getProperty("java.io.tmpdir"));
+		dataDirectory = new File(tmp, "grobid-assets-" + System.nanoTime() + "_data");
+		assetDirectory = new File(tmp, "grobid-assets-" + System.nanoTime());
+		Assert.assertTrue(dataDirectory.mkdir());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteQuietly(dataDirectory);
+		FileUtils.deleteQuietly(assetDirectory);
+	}
+
+	@Test
+	public void testConvertAndCopy() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+			image.setRGB(i, i, 0xff0000);
+			ImageIO.write(image, "jpg", new File(dataDirectory, "image-" + i + ".jpg"));
+		}
+		FileUtils.writeStringToFile(new File(dataDirectory, "image-6.vec"), "<svg/>", "UTF-8");
+		// not an image, skipped by the conversion
+		FileUtils.writeStringToFile(new File(dataDirectory, "image-7.jpg"), "garbage", "UTF-8");
+
+		AssetConverter converter = AssetConverter.start(dataDirectory, assetDirectory);
+		converter.await();
+
+		for (int i = 1; i <= 5; i++) {
+			BufferedImage png = ImageIO.read(new File(assetDirectory, "image-" + i + ".png"));
+			Assert.assertNotNull(png);
+			Assert.assertEquals(20, png.getWidth());
+			Assert.assertEquals(10, png.getHeight());
+		}
+		Assert.assertEquals("<svg/>",
+				FileUtils.readFileToString(new File(assetDirectory, "image-6.vec"), "UTF-8"));
+		Assert.assertFalse(new File(assetDirectory, "image-7.png").exists());
+	}
+
+	@Test
+	public void testMissingDataDirectory() throws Exception {
+		FileUtils.deleteQuietly(dataDirectory);
+		AssetConverter.start(dataDirectory, assetDirectory).await();
+		Assert.assertTrue(assetDirectory.exists());
+		Assert.assertEquals(0, assetDirectory.listFiles().length);
+	}
+}
@@ -0,0 +1,112 @@
+package org.grobid.core.document;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.GrobidPropertyKeys;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+public class DocumentSourceTest {
+	private static final File PDF = new File("src/test/resources/sample3/sample.pdf");
+
+	private String cacheSize;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Before
+	public void setUp() {
+		cacheSize = String.valueOf(GrobidProperties.getPdf2XMLCacheMaxSizeMb());
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_CACHE_MAX_SIZE, "0");
+	}
+
+	@After
+	public void tearDown() {
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_CACHE_MAX_SIZE, cacheSize);
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_PIPE, "true");
+	}
+
+	@Test
+	public void testPipe() {
+		DocumentSource source = DocumentSource.fromPdfPipe(PDF, 1, 2);
+		try {
+			Assert.assertNotNull(source.getXmlStream());
+			Assert.assertNull(source.getXmlFile());
+			Document doc = new Document(source);
+			Assert.assertEquals(2, doc.appendTokenizedDocument(source));
+		} finally {
+			DocumentSource.close(source, true);
+		}
+	}
+
+	@Test
+	public void testPipeFillsCache() throws Exception {
+		File cacheDirectory = new File(System.getProperty("java.io.tmpdir"), "grobid-pdf2xml-cache-" + System.nanoTime());
+		// a cache of its own, the shared one keeping the directory it was created with
+		Pdf2XmlCache cache = new Pdf2XmlCache(cacheDirectory, 16 * 1024L * 1024L);
+		Pdf2XmlCache.setInstance(cache);
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_CACHE_MAX_SIZE, "16");
+		try {
+			DocumentSource source = DocumentSource.fromPdfPipe(PDF, 1, 2);
+			try {
+				Assert.assertNotNull(source.getXmlStream());
+				Assert.assertEquals(2, new Document(source).appendTokenizedDocument(source));
+			} finally {
+				DocumentSource.close(source, true);
+			}
+			Assert.assertEquals(1, cache.getEntryCount());
+
+			// the second conversion is read from the cache
+			source = DocumentSource.fromPdfPipe(PDF, 1, 2);
+			try {
+				Assert.assertNull(source.getXmlStream());
+				Assert.assertNotNull(source.getXmlFile());
+				Assert.assertEquals(2, new Document(source).appendTokenizedDocument(source));
+			} finally {
+				DocumentSource.close(source, true);
+			}
+		} finally {
+			Pdf2XmlCache.setInstance(null);
+			FileUtils.deleteQuietly(cacheDirectory);
+		}
+	}
+
+	@Test
+	public void testPipeSameAsFile() {
+		Document piped = Document.fromPdf(PDF, -1, -1);
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_PDF2XML_PIPE, "false");
+		Document file = Document.fromPdf(PDF, -1, -1);
+
+		Assert.assertEquals(8, piped.getNbPages());
+		Assert.assertEquals(file.getNbPages(), piped.getNbPages());
+		Assert.assertEquals(file.getTokenizations(), piped.getTokenizations());
+		Assert.assertEquals(file.getBlocks().size(), piped.getBlocks().size());
+	}
+
+	@Test(expected = GrobidException.class)
+	public void testPipeNotPdf() throws Exception {
+		File notPdf = File.createTempFile("grobid-not-pdf", ".pdf");
+		try {
+			FileUtils.writeStringToFile(notPdf, "not a pdf", "UTF-8");
+			Document.fromPdf(notPdf, -1, -1);
+		} finally {
+			notPdf.delete();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.grobid.core.document;
+
+import org.grobid.core.layout.Block;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+public class DocumentWindowsTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testFromPdfWindows() {
+		// 8 pages
+		File pdf = new File("src/test/resources/sample3/sample.pdf");
+		Document whole = Document.fromPdf(pdf, -1, -1);
+		Document windows = Document.fromPdfWindows(pdf, -1, -1, 3);
+
+		Assert.assertEquals(8, whole.getNbPages());
+		Assert.assertEquals(8, windows.getNbPages());
+		Assert.assertEquals(whole.getTokenizations(), windows.getTokenizations());
+		List<Block> wholeBlocks = whole.getBlocks();
+		List<Block> windowsBlocks = windows.getBlocks();
+		Assert.assertEquals(wholeBlocks.size(), windowsBlocks.size());
+		for (int i = 0; i < wholeBlocks.size(); i++) {
+			// the first block of a window starts with a space as the first block of a document
+			Assert.assertEquals(wholeBlocks.get(i).getText().trim(), windowsBlocks.get(i).getText().trim());
+			Assert.assertEquals(wholeBlocks.get(i).getPage(), windowsBlocks.get(i).getPage());
+			Assert.assertEquals(wholeBlocks.get(i).getStartToken(), windowsBlocks.get(i).getStartToken());
+			Assert.assertEquals(wholeBlocks.get(i).getEndToken(), windowsBlocks.get(i).getEndToken());
+		}
+
+		// page range within the document
+		Document range = Document.fromPdfWindows(pdf, 2, 6, 2);
+		Assert.assertEquals(5, range.getNbPages());
+	}
+}
@@ -0,0 +1,114 @@
+package org.grobid.core.document;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Pdf2XmlCacheTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("pdf2xmlCacheTest", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(dir);
+	}
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(dir, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+
+	@Test
+	public void testKeyDependsOnContentAndOptions() throws IOException {
+		File pdf1 = write("a.pdf", "same content");
+		File pdf2 = write("b.pdf", "same content");
+		File pdf3 = write("c.pdf", "other content");
+		String key = Pdf2XmlCache.getKey(pdf1, -1, -1, false);
+		Assert.assertEquals(key, Pdf2XmlCache.getKey(pdf2, 0, 0, false));
+		Assert.assertFalse(key.equals(Pdf2XmlCache.getKey(pdf3, -1, -1, false)));
+		Assert.assertFalse(key.equals(Pdf2XmlCache.getKey(pdf1, 0, 2, false)));
+		Assert.assertFalse(key.equals(Pdf2XmlCache.getKey(pdf1, -1, -1, true)));
+	}
+
+	@Test
+	public void testPutAndGet() throws IOException {
+		Pdf2XmlCache cache = new Pdf2XmlCache(new File(dir, "cache"), 1024);
+		File xml = write("in.lxml", "<DOCUMENT/>");
+		write("in.lxml_data/image-1.png", "png");
+
+		Assert.assertNull(cache.get("k", new File(dir, "miss.lxml")));
+		cache.put("k", xml);
+		File out = cache.get("k", new File(dir, "out.lxml"));
+		Assert.assertNotNull(out);
+		Assert.assertEquals("<DOCUMENT/>", FileUtils.readFileToString(out, "UTF-8"));
+		Assert.assertEquals("png", FileUtils.readFileToString(new File(dir, "out.lxml_data/image-1.png"), "UTF-8"));
+
+		// the entries are found again after a restart
+		Assert.assertEquals(1, new Pdf2XmlCache(new File(dir, "cache"), 1024).getEntryCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() throws IOException {
+		Pdf2XmlCache cache = new Pdf2XmlCache(new File(dir, "cache"), 25);
+		cache.put("k1", write("1.lxml", "0123456789"));
+		cache.put("k2", write("2.lxml", "0123456789"));
+		Assert.assertNotNull(cache.get("k1", new File(dir, "out1.lxml")));
+		cache.put("k3", write("3.lxml", "0123456789"));
+
+		Assert.assertEquals(2, cache.getEntryCount());
+		Assert.assertEquals(20, cache.getSize());
+		Assert.assertNull(cache.get("k2", new File(dir, "out2.lxml")));
+		Assert.assertNotNull(cache.get("k1", new File(dir, "out1.lxml")));
+		Assert.assertNotNull(cache.get("k3", new File(dir, "out3.lxml")));
+	}
+
+	@Test
+	public void testGetDuringEviction() throws Exception {
+		final Pdf2XmlCache cache = new Pdf2XmlCache(new File(dir, "cache"), 3 * 100003);
+		final String content = StringUtils.repeat("0123456789", 10000);
+		final File xml = write("in.lxml", content);
+		write("in.lxml_data/image-1.png", "png");
+		final AtomicInteger puts = new AtomicInteger(0);
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				// each put evicts an older entry
+				for (int i = 0; i < 100; i++) {
+					cache.put("k" + i, xml);
+					puts.incrementAndGet();
+				}
+			}
+		};
+		writer.start();
+		File out = new File(dir, "out.lxml");
+		File outImage = new File(dir, "out.lxml_data/image-1.png");
+		while (puts.get() < 100) {
+			int last = puts.get();
+			for (int k = Math.max(last - 3, 0); k <= last; k++) {
+				FileUtils.deleteQuietly(outImage.getParentFile());
+				// a hit is always a complete copy, images included
+				if (cache.get("k" + k, out) != null) {
+					Assert.assertEquals(content.length(), out.length());
+					Assert.assertTrue(outImage.exists());
+				}
+			}
+		}
+		writer.join();
+		Assert.assertEquals(3, cache.getEntryCount());
+	}
+}
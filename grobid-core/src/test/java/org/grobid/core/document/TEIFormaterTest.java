@@ -0,0 +1,44 @@
+package org.grobid.core.document;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+public class TEIFormaterTest {
+
+	@Test
+	public void testFlush() throws Exception {
+		StringBuilder expected = new StringBuilder();
+		StringBuffer tei = new StringBuffer();
+		for (int i = 0; i < 2000; i++) {
+			tei.append("\t\t\t<p>").append(i).append("</p>\n");
+		}
+		expected.append(tei);
+		Assert.assertTrue(tei.length() > 8192);
+
+		StringWriter output = new StringWriter();
+		StringBuffer res = TEIFormater.flush(tei, output);
+		Assert.assertSame(tei, res);
+		Assert.assertEquals(0, tei.length());
+
+		tei.append("</TEI>\n");
+		expected.append("</TEI>\n");
+		TEIFormater.flush(tei, output);
+		Assert.assertEquals(expected.toString(), output.toString());
+	}
+
+	@Test
+	public void testFlushWithoutOutput() throws Exception {
+		StringBuffer tei = new StringBuffer("<TEI>");
+		TEIFormater.flush(tei, null);
+		Assert.assertEquals("<TEI>", tei.toString());
+	}
+
+	@Test
+	public void testFlushEmpty() throws Exception {
+		StringWriter output = new StringWriter();
+		TEIFormater.flush(new StringBuffer(), output);
+		Assert.assertEquals("", output.toString());
+	}
+}
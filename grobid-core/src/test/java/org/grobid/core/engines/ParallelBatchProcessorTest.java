@@ -0,0 +1,81 @@
+package org.grobid.core.engines;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.engines.counters.BatchProcessCounters;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.counters.CntManager;
+import org.grobid.core.utilities.counters.impl.CntManagerFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ParallelBatchProcessorTest {
+	private File inputDirectory;
+	private File outputDirectory;
+	private CntManager cntManager;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		File tmp = new File(System.getProperty("java.io.tmpdir"));
+		inputDirectory = new File(tmp, "grobid-batch-" + System.nanoTime());
+		outputDirectory = new File(tmp, "grobid-batch-" + System.nanoTime() + "_out");
+		Assert.assertTrue(inputDirectory.mkdir());
+		for (int i = 0; i < 10; i++) {
+			String name = ((i % 3 == 0) ? "fail" : "doc") + i + ".pdf";
+			FileUtils.writeStringToFile(new File(inputDirectory, name), "%PDF", "UTF-8");
+		}
+		cntManager = CntManagerFactory.getCntManager();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteQuietly(inputDirectory);
+		FileUtils.deleteQuietly(outputDirectory);
+	}
+
+	@Test
+	public void testFailuresAreCounted() throws Exception {
+		final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+		ParallelBatchProcessor processor = new ParallelBatchProcessor(3, cntManager) {
+			@Override
+			protected void processFile(File pdfFile, String resultPath, boolean consolidateHeader,
+									   boolean consolidateCitations, int type) throws Exception {
+				processed.add(pdfFile.getName());
+				if (pdfFile.getName().startsWith("fail")) {
+					throw new Exception("cannot process " + pdfFile.getName());
+				}
+			}
+		};
+
+		int nbSuccess = processor.processHeader(inputDirectory.getPath(), outputDirectory.getPath(), false);
+
+		Assert.assertEquals(6, nbSuccess);
+		// each file is processed once, the failures not stopping the batch
+		Assert.assertEquals(10, processed.size());
+		Assert.assertEquals(10, new HashSet<String>(processed).size());
+		Assert.assertEquals(10, cntManager.cnt(BatchProcessCounters.FILES_TO_PROCESS));
+		Assert.assertEquals(6, cntManager.cnt(BatchProcessCounters.PROCESSED_FILES));
+		Assert.assertEquals(4, cntManager.cnt(BatchProcessCounters.FAILED_FILES));
+	}
+}
@@ -0,0 +1,128 @@
+package org.grobid.core.engines;
+
+import org.apache.commons.io.FileUtils;
+import org.easymock.EasyMock;
+import org.grobid.core.document.Document;
+import org.grobid.core.document.DocumentSource;
+import org.grobid.core.engines.counters.BatchProcessCounters;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.counters.CntManager;
+import org.grobid.core.utilities.counters.impl.CntManagerFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PipelinedBatchProcessorTest {
+	private File inputDirectory;
+	private File outputDirectory;
+	private CntManager cntManager;
+	private DocumentSource source;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		File tmp = new File(System.getProperty("java.io.tmpdir"));
+		inputDirectory = new File(tmp, "grobid-batch-" + System.nanoTime());
+		outputDirectory = new File(tmp, "grobid-batch-" + System.nanoTime() + "_out");
+		Assert.assertTrue(inputDirectory.mkdir());
+		for (int i = 0; i < 10; i++) {
+			String name = ((i % 3 == 0) ? "fail" : "doc") + i + ".pdf";
+			FileUtils.writeStringToFile(new File(inputDirectory, name), "%PDF", "UTF-8");
+		}
+		cntManager = CntManagerFactory.getCntManager();
+		// a piped source, without XML file
+		source = EasyMock.createMock(DocumentSource.class);
+		EasyMock.expect(source.getXmlFile()).andReturn(null).anyTimes();
+		EasyMock.replay(source);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteQuietly(inputDirectory);
+		FileUtils.deleteQuietly(outputDirectory);
+	}
+
+	@Test
+	public void testLabelingFollowsConversion() throws Exception {
+		final Map<String, Document> converted = new ConcurrentHashMap<String, Document>();
+		final List<String> labeled = Collections.synchronizedList(new ArrayList<String>());
+		PipelinedBatchProcessor processor = new PipelinedBatchProcessor(2, 2, 1, cntManager) {
+			@Override
+			protected Document convert(File pdfFile, int startPage, int endPage) throws Exception {
+				if (pdfFile.getName().startsWith("fail")) {
+					throw new Exception("cannot convert " + pdfFile.getName());
+				}
+				Document doc = new Document(source);
+				converted.put(pdfFile.getName(), doc);
+				return doc;
+			}
+
+			@Override
+			protected void labelDocument(Document doc, File pdfFile, String resultPath, boolean consolidateHeader,
+										 boolean consolidateCitations, int type) throws Exception {
+				// the document converted for this very file
+				if (converted.get(pdfFile.getName()) == doc) {
+					labeled.add(pdfFile.getName());
+				}
+				if (pdfFile.getName().equals("doc1.pdf")) {
+					throw new Exception("cannot label " + pdfFile.getName());
+				}
+			}
+		};
+
+		int nbSuccess = processor.processFulltext(inputDirectory.getPath(), outputDirectory.getPath(), false, false);
+
+		Assert.assertEquals(5, nbSuccess);
+		Assert.assertEquals(6, converted.size());
+		Assert.assertEquals(6, labeled.size());
+		Assert.assertEquals(5, cntManager.cnt(BatchProcessCounters.PROCESSED_FILES));
+		// 4 conversion failures and 1 labeling failure
+		Assert.assertEquals(5, cntManager.cnt(BatchProcessCounters.FAILED_FILES));
+	}
+
+	@Test(timeout = 10000)
+	public void testLabelerErrorAbortsBatch() throws Exception {
+		PipelinedBatchProcessor processor = new PipelinedBatchProcessor(2, 1, 1, cntManager) {
+			@Override
+			protected Document convert(File pdfFile, int startPage, int endPage) throws Exception {
+				return new Document(source);
+			}
+
+			@Override
+			protected void labelDocument(Document doc, File pdfFile, String resultPath, boolean consolidateHeader,
+										 boolean consolidateCitations, int type) throws Exception {
+				throw new Error("labeler failure");
+			}
+		};
+
+		try {
+			processor.processHeader(inputDirectory.getPath(), outputDirectory.getPath(), false);
+			Assert.fail("The batch should be aborted");
+		} catch (GrobidException e) {
+			// the converters do not wait forever for room in the queue
+			Assert.assertEquals("labeler failure", e.getCause().getMessage());
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.engines.tagging.DebugCapture;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.GrobidPropertyKeys;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+
+public class SectionExecutorTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_FULLTEXT_SECTION_THREADS, "1");
+		SectionExecutor.shutdown();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		SectionExecutor.shutdown();
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_FULLTEXT_SECTION_THREADS, "0");
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testForkJoin() throws Exception {
+		Assert.assertTrue(SectionExecutor.isEnabled());
+		final Thread caller = Thread.currentThread();
+		FutureTask<Boolean> task = SectionExecutor.fork(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return Thread.currentThread() != caller;
+			}
+		});
+		Thread.sleep(100);
+		// started by the pool
+		Assert.assertTrue(SectionExecutor.join(task));
+	}
+
+	@Test
+	public void testJoinRunsPendingTask() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		// the only thread of the pool is busy
+		FutureTask<Void> busy = SectionExecutor.fork(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				release.await();
+				return null;
+			}
+		});
+		final Thread caller = Thread.currentThread();
+		FutureTask<Boolean> pending = SectionExecutor.fork(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return Thread.currentThread() == caller;
+			}
+		});
+		Assert.assertTrue(SectionExecutor.join(pending));
+		release.countDown();
+		SectionExecutor.join(busy);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testException() throws Exception {
+		FutureTask<Void> task = SectionExecutor.fork(new Callable<Void>() {
+			@Override
+			public Void call() {
+				throw new IllegalStateException("failed");
+			}
+		});
+		SectionExecutor.join(task);
+	}
+
+	@Test
+	public void testDebugCapture() throws Exception {
+		Callable<DebugCapture> current = new Callable<DebugCapture>() {
+			@Override
+			public DebugCapture call() {
+				return DebugCapture.current();
+			}
+		};
+		DebugCapture capture = DebugCapture.start();
+		try {
+			Assert.assertSame(capture, SectionExecutor.join(SectionExecutor.fork(current)));
+		} finally {
+			DebugCapture.stop();
+		}
+		Assert.assertNull(SectionExecutor.join(SectionExecutor.fork(current)));
+	}
+}
@@ -0,0 +1,64 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.engines.tagging.FeatureMatrix;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SegmentationTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+		LibraryLoader.load();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testLabelWindows() {
+		// 5 pages of 2 lines, a line being labeled from the value of the previous line
+		final FeatureMatrix features = new FeatureMatrix();
+		for (int i = 0; i < 10; i++) {
+			features.add("l" + i).add(i % 2 == 0 ? "PAGESTART" : "PAGEIN").endRow();
+		}
+		List<Integer> pageStarts = Arrays.asList(0, 2, 4, 6, 8);
+
+		final List<Integer> windowSizes = new ArrayList<Integer>();
+		Segmentation segmentation = new Segmentation() {
+			@Override
+			public int[] label(FeatureMatrix matrix) {
+				windowSizes.add(matrix.getRowCount());
+				int[] labels = new int[matrix.getRowCount()];
+				for (int row = 0; row < labels.length; row++) {
+					labels[row] = matrix.intern(row == 0 ? "<start>" : "after-" + matrix.getValue(row - 1, 0));
+				}
+				return labels;
+			}
+		};
+
+		int[] whole = segmentation.labelWindows(features, pageStarts, 0, 1);
+		Assert.assertEquals(Arrays.asList(10), windowSizes);
+		windowSizes.clear();
+
+		int[] windowed = segmentation.labelWindows(features, pageStarts, 2, 1);
+		// pages 0-1 with page 2, pages 2-3 with pages 1 and 4, page 4 with page 3
+		Assert.assertEquals(Arrays.asList(6, 8, 4), windowSizes);
+		Assert.assertEquals(10, windowed.length);
+		for (int row = 0; row < 10; row++) {
+			Assert.assertEquals(features.getValue(whole[row]), features.getValue(windowed[row]));
+		}
+	}
+}
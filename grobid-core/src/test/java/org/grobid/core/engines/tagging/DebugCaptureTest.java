@@ -0,0 +1,37 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class DebugCaptureTest {
+
+	@Test
+	public void testNothingRecordedWhenNotStarted() {
+		DebugCapture.record(GrobidModels.DATE, "a x", "a x L");
+		Assert.assertFalse(DebugCapture.isActive());
+		Assert.assertNull(DebugCapture.stop());
+	}
+
+	@Test
+	public void testRecordBetweenStartAndStop() {
+		DebugCapture capture = DebugCapture.start();
+		try {
+			DebugCapture.record(GrobidModels.DATE, "a x", "a x L1");
+			DebugCapture.record(GrobidModels.NAMES_HEADER, Arrays.asList("b x", "c x"), Arrays.asList("b x L2", "c x L3"));
+		} finally {
+			Assert.assertSame(capture, DebugCapture.stop());
+		}
+		DebugCapture.record(GrobidModels.DATE, "d x", "d x L4");
+
+		List<DebugCapture.Entry> entries = capture.getEntries();
+		Assert.assertEquals(3, entries.size());
+		Assert.assertEquals(GrobidModels.DATE, entries.get(0).getModel());
+		Assert.assertEquals("a x L1", entries.get(0).getLabeled());
+		Assert.assertEquals(GrobidModels.NAMES_HEADER, entries.get(2).getModel());
+		Assert.assertEquals("c x", entries.get(2).getFeatures());
+	}
+}
@@ -0,0 +1,92 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.features.FeaturesVectorSegmentation;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FeatureMatrixTest {
+
+	@Test
+	public void testGetRows() {
+		FeatureMatrix matrix = new FeatureMatrix();
+		matrix.add("a").add(1).endRow();
+		matrix.add("b").add(2).endRow();
+		matrix.endSequence();
+		matrix.add("c").add(3).endRow();
+		matrix.add("d").add(4).endRow();
+
+		FeatureMatrix rows = matrix.getRows(1, 4);
+		Assert.assertEquals(3, rows.getRowCount());
+		Assert.assertEquals("b 2\n\nc 3\nd 4\n", rows.toString());
+		Assert.assertEquals("c 3\n", matrix.getRows(2, 3).toString());
+		Assert.assertEquals(0, matrix.getRows(2, 2).getRowCount());
+	}
+
+	@Test
+	public void testRowsAndSequences() {
+		FeatureMatrix matrix = new FeatureMatrix();
+		matrix.add("Title").add(true).add(12).endRow();
+		matrix.add("of").add(false).endRow();
+		matrix.endSequence();
+		matrix.endSequence();
+		matrix.add("Abstract").add(true).add(300).endRow();
+
+		Assert.assertEquals(3, matrix.getRowCount());
+		Assert.assertEquals(2, matrix.getSequenceCount());
+		Assert.assertEquals(2, matrix.getSequenceEnd(0));
+		Assert.assertEquals(3, matrix.getSequenceEnd(1));
+		Assert.assertEquals(2, matrix.getColumnCount(1));
+		Assert.assertEquals("300", matrix.getValue(2, 2));
+		// values are interned
+		Assert.assertEquals(matrix.getValueId(0, 1), matrix.getValueId(2, 1));
+		Assert.assertEquals(matrix.getValueId(0, 1), matrix.intern("1"));
+
+		Assert.assertEquals("Title 1 12\nof 0\n\nAbstract 1 300\n", matrix.toString());
+		Assert.assertEquals(matrix.toString(), matrix.toTaggerInput());
+		Assert.assertEquals("of 0", matrix.getRow(1));
+
+		int[] labels = {matrix.intern("<title>"), matrix.intern("<title>"), matrix.intern("I-<abstract>")};
+		Assert.assertEquals("Title\t1\t12\t<title>\nof\t0\t<title>\n\nAbstract\t1\t300\tI-<abstract>\n",
+				matrix.toLabeledString(labels));
+
+		matrix.clear();
+		Assert.assertEquals(0, matrix.getRowCount());
+		Assert.assertEquals(0, matrix.getSequenceCount());
+		Assert.assertEquals("", matrix.toString());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEmptyRow() {
+		new FeatureMatrix().endRow();
+	}
+
+	@Test
+	public void testSegmentationVector() {
+		FeaturesVectorSegmentation features = new FeaturesVectorSegmentation();
+		features.string = "Introduction";
+		features.blockStatus = "BLOCKSTART";
+		features.pageStatus = "PAGEIN";
+		features.fontStatus = "NEWFONT";
+		features.fontSize = "HIGHERFONT";
+		features.bold = true;
+		features.capitalisation = "INITCAP";
+		features.digit = "NODIGIT";
+		features.relativeDocumentPosition = 3;
+		features.relativePagePositionChar = 7;
+		features.punctuationProfile = ".";
+		features.lineLength = 2;
+
+		String expected = "Introduction Introduction introduction I In Int Intr BLOCKSTART PAGEIN NEWFONT HIGHERFONT 1 0 "
+				+ "INITCAP NODIGIT 0 0 0 0 0 0 0 0 3 7 . 1 2\n";
+		Assert.assertEquals(expected, features.printVector());
+
+		FeatureMatrix matrix = new FeatureMatrix();
+		Assert.assertTrue(features.addRow(matrix));
+		Assert.assertEquals(expected, matrix.toString());
+
+		features.string = "";
+		Assert.assertNull(features.printVector());
+		Assert.assertFalse(features.addRow(matrix));
+		Assert.assertEquals(1, matrix.getRowCount());
+	}
+}
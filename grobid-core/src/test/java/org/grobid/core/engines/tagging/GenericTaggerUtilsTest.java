@@ -0,0 +1,63 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.utilities.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class GenericTaggerUtilsTest {
+
+	@Test
+	public void testCountBlocks() {
+		Assert.assertEquals(0, GenericTaggerUtils.countBlocks(""));
+		Assert.assertEquals(1, GenericTaggerUtils.countBlocks("a x\nb y\n"));
+		Assert.assertEquals(2, GenericTaggerUtils.countBlocks("a x\n\nb y\n\n"));
+		Assert.assertEquals(2, GenericTaggerUtils.countBlocks("\n a x\n \n\nb y"));
+	}
+
+	@Test
+	public void testJoinAndSplitSequences() {
+		List<String> sequences = Arrays.asList("a x\nb x\n", "", "c x\n\nd x\n", "e x");
+		String joined = GenericTaggerUtils.joinSequences(sequences);
+		Assert.assertEquals("a x\nb x\n\nc x\n\nd x\n\ne x", joined);
+
+		String labeled = "a\tx\tL1\nb\tx\tL2\n\nc\tx\tL3\n\nd\tx\tL4\n\ne\tx\tL5";
+		List<String> res = GenericTaggerUtils.splitSequences(labeled, sequences);
+		Assert.assertEquals(Arrays.asList("a\tx\tL1\nb\tx\tL2", "", "c\tx\tL3\n\nd\tx\tL4", "e\tx\tL5"), res);
+	}
+
+	@Test
+	public void testSplitSequencesMismatch() {
+		List<String> sequences = Arrays.asList("a x\nb x\n", "c x\n");
+		Assert.assertNull(GenericTaggerUtils.splitSequences("a\tx\tL1\nb\tx\tL2\nc\tx\tL3", sequences));
+	}
+
+	@Test
+	public void testGetLabels() {
+		FeatureMatrix matrix = new FeatureMatrix();
+		matrix.add("a").add("x").endRow();
+		matrix.add("b").add("x").endRow();
+		matrix.endSequence();
+		matrix.add("c").add("x").endRow();
+
+		int[] labels = GenericTaggerUtils.getLabels("a x I-<title>\nb\tx\t<title> \n\nc x <title>\n", matrix);
+		Assert.assertEquals(3, labels.length);
+		Assert.assertEquals("I-<title>", matrix.getValue(labels[0]));
+		Assert.assertEquals("<title>", matrix.getValue(labels[1]));
+		Assert.assertEquals(labels[1], labels[2]);
+
+		List<Pair<String, String>> tokens = GenericTaggerUtils.getTokensAndLabels(matrix, labels);
+		Assert.assertEquals(4, tokens.size());
+		Assert.assertEquals("a", tokens.get(0).a);
+		Assert.assertEquals("I-<title>", tokens.get(0).b);
+		Assert.assertNull(tokens.get(2));
+		Assert.assertEquals("c", tokens.get(3).a);
+		Assert.assertEquals("<title>", tokens.get(3).b);
+
+		Assert.assertNull(GenericTaggerUtils.getLabels("a x L1\nb x L2", matrix));
+		Assert.assertNull(GenericTaggerUtils.getLabels("a x L1\nb x L2\nc x L3\nd x L4", matrix));
+	}
+
+}
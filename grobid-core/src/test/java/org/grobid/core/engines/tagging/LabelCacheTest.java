@@ -0,0 +1,61 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.LabelCacheCounters;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.counters.CntManager;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class LabelCacheTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		LabelCache.invalidateAll();
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testMemoization() {
+		CntManager cntManager = Engine.getCntManager();
+		long hits = cntManager.cnt(LabelCacheCounters.HITS);
+		long misses = cntManager.cnt(LabelCacheCounters.MISSES);
+
+		LabelCache<String> cache = LabelCache.getCache(GrobidModels.DATE);
+		Assert.assertNotNull(cache);
+		Assert.assertSame(cache, LabelCache.getCache(GrobidModels.DATE));
+		Assert.assertNotSame(cache, LabelCache.getCache(GrobidModels.NAMES_HEADER));
+
+		Assert.assertNull(cache.get("2013"));
+		cache.put("2013", "2013\t<year>");
+		Assert.assertEquals("2013\t<year>", cache.get("2013"));
+		Assert.assertNull(LabelCache.<String>getCache(GrobidModels.NAMES_HEADER).get("2013"));
+
+		Assert.assertEquals(hits + 1, cntManager.cnt(LabelCacheCounters.HITS));
+		Assert.assertEquals(misses + 2, cntManager.cnt(LabelCacheCounters.MISSES));
+	}
+
+	@Test
+	public void testInvalidation() {
+		LabelCache<String> cache = LabelCache.getCache(GrobidModels.AFFIILIATON_ADDRESS);
+		cache.put("CNRS", "CNRS\t<institution>");
+		LabelCache.invalidate(GrobidModels.AFFIILIATON_ADDRESS);
+
+		LabelCache<String> reloaded = LabelCache.getCache(GrobidModels.AFFIILIATON_ADDRESS);
+		Assert.assertNotSame(cache, reloaded);
+		Assert.assertNull(reloaded.get("CNRS"));
+		// a labeling still running with the previous model does not fill the new cache
+		cache.put("INRIA", "INRIA\t<institution>");
+		Assert.assertNull(reloaded.get("INRIA"));
+	}
+}
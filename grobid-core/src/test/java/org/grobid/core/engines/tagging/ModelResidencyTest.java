@@ -0,0 +1,86 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.ModelCounters;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ModelResidencyTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+		LibraryLoader.load();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		ModelResidency.setMemoryBudget(-1);
+		MockContext.destroyInitialContext();
+	}
+
+	private static void use(WapitiTagger tagger) throws InterruptedException {
+		tagger.acquireModel().release();
+		// distinct times of last use
+		Thread.sleep(5);
+	}
+
+	@Test
+	public void testLazyLoadingAndEviction() throws Exception {
+		WapitiTagger date = new WapitiTagger(GrobidModels.DATE);
+		WapitiTagger figure = new WapitiTagger(GrobidModels.FIGURE);
+		WapitiTagger names = new WapitiTagger(GrobidModels.NAMES_CITATION);
+		try {
+			Assert.assertFalse(date.isLoaded());
+			ModelResidency.setMemoryBudget(date.getModelSize() + names.getModelSize());
+			long evicted = Engine.getCntManager().cnt(ModelCounters.EVICTED_MODELS);
+
+			use(date);
+			use(figure);
+			use(date);
+			Assert.assertTrue(date.isLoaded());
+			Assert.assertTrue(figure.isLoaded());
+
+			// the least recently used model is unloaded to fit in the budget
+			use(names);
+			Assert.assertTrue(names.isLoaded());
+			Assert.assertTrue(date.isLoaded());
+			Assert.assertFalse(figure.isLoaded());
+			Assert.assertTrue(Engine.getCntManager().cnt(ModelCounters.EVICTED_MODELS) > evicted);
+			Assert.assertTrue(ModelResidency.getResidentMemory() <= ModelResidency.getMemoryBudget());
+			Assert.assertFalse(ModelResidency.getResidentModels().contains(GrobidModels.FIGURE));
+
+			// and loaded again on next use
+			use(figure);
+			Assert.assertTrue(figure.isLoaded());
+		} finally {
+			ModelResidency.unload(date);
+			ModelResidency.unload(figure);
+			ModelResidency.unload(names);
+		}
+		Assert.assertFalse(date.isLoaded());
+	}
+
+	@Test
+	public void testCloseKeepsSharedModel() throws Exception {
+		WapitiTagger date = new WapitiTagger(GrobidModels.DATE);
+		try {
+			use(date);
+			// the tagger is shared by the engines, closing one of them does not unload it
+			date.close();
+			Assert.assertTrue(date.isLoaded());
+			Assert.assertTrue(ModelResidency.unload(date));
+			Assert.assertFalse(date.isLoaded());
+			Assert.assertFalse(ModelResidency.unload(date));
+		} finally {
+			ModelResidency.unload(date);
+		}
+	}
+}
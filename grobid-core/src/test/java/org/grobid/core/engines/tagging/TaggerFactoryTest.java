@@ -0,0 +1,65 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.ModelCounters;
+import org.grobid.core.jni.WapitiModel;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+public class TaggerFactoryTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+		LibraryLoader.load();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testModelFor() {
+		Assert.assertEquals(GrobidModels.NAMES_HEADER, GrobidModels.modelFor("name/header"));
+		Assert.assertEquals(GrobidModels.NAMES_HEADER, GrobidModels.modelFor("name-header"));
+		Assert.assertEquals(GrobidModels.NAMES_HEADER, GrobidModels.modelFor("NAMES_HEADER"));
+		Assert.assertNull(GrobidModels.modelFor("unknown"));
+	}
+
+	@Test
+	public void testRetiredModelFreedAfterLastLabeling() {
+		WapitiModel model = new WapitiModel(new File(GrobidModels.DATE.getModelPath()));
+		Assert.assertTrue(model.acquire());
+		model.retire();
+		// still used by a labeling in progress
+		Assert.assertTrue(model.acquire());
+		model.release();
+		model.release();
+		Assert.assertFalse(model.acquire());
+	}
+
+	@Test
+	public void testReloadModel() {
+		long reloaded = Engine.getCntManager().cnt(ModelCounters.RELOADED_MODELS);
+		Assert.assertFalse(TaggerFactory.reloadModel(GrobidModels.FIGURE));
+
+		GenericTagger tagger = TaggerFactory.getTagger(GrobidModels.DATE);
+		// the model is loaded on first use
+		Assert.assertFalse(TaggerFactory.reloadModel(GrobidModels.DATE));
+		((WapitiTagger) tagger).acquireModel().release();
+		Assert.assertTrue(TaggerFactory.reloadModel(GrobidModels.DATE));
+		// the parsers keep the same tagger, which now uses the new version
+		Assert.assertSame(tagger, TaggerFactory.getTagger(GrobidModels.DATE));
+		Assert.assertEquals(reloaded + 1, Engine.getCntManager().cnt(ModelCounters.RELOADED_MODELS));
+	}
+}
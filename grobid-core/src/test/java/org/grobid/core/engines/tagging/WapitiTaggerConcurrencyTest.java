@@ -0,0 +1,121 @@
+package org.grobid.core.engines.tagging;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.ModelCounters;
+import org.grobid.core.features.FeaturesVectorDate;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Concurrent labeling with a single shared model.
+ */
+public class WapitiTaggerConcurrencyTest {
+	private static final String[] DATES = {"12 March 2013", "2004", "Received: 3 June 1999; accepted 10/11/1999",
+			"Spring 2012", "Jan. 5, 2010", "published online 2014-07-21"};
+
+	private static final int NB_THREADS = 8;
+	private static final int NB_ITERATIONS = 200;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+		LibraryLoader.load();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testSharedTagger() {
+		Assert.assertSame(TaggerFactory.getTagger(GrobidModels.DATE), TaggerFactory.getTagger(GrobidModels.DATE));
+	}
+
+	@Test
+	public void testConcurrentLabeling() throws Exception {
+		final WapitiTagger tagger = new WapitiTagger(GrobidModels.DATE);
+		ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+		try {
+			long loaded = Engine.getCntManager().cnt(ModelCounters.LOADED_MODELS);
+			final List<String> inputs = new ArrayList<String>();
+			final List<String> expected = new ArrayList<String>();
+			for (String date : DATES) {
+				String input = getFeatures(date);
+				inputs.add(input);
+				expected.add(tagger.label(input));
+			}
+
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < NB_THREADS; t++) {
+				final int offset = t;
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int errors = 0;
+						for (int i = 0; i < NB_ITERATIONS; i++) {
+							int n = (offset + i) % inputs.size();
+							if (!expected.get(n).equals(tagger.label(inputs.get(n)))) {
+								errors++;
+							}
+						}
+						// the batch labeling goes through the same native model
+						if (!expected.equals(tagger.labelBatch(inputs))) {
+							errors++;
+						}
+						return errors;
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				Assert.assertEquals(0, result.get().intValue());
+			}
+			// a single native model for all the threads
+			Assert.assertEquals(loaded + 1, Engine.getCntManager().cnt(ModelCounters.LOADED_MODELS));
+		} finally {
+			executor.shutdown();
+			ModelResidency.unload(tagger);
+		}
+	}
+
+	/**
+	 * Simplified date features, built without the lexicon.
+	 */
+	private static String getFeatures(String date) {
+		String[] tokens = date.split("(?<=[\\s,.;:/-])|(?=[,.;:/-])");
+		StringBuilder res = new StringBuilder();
+		for (int i = 0; i < tokens.length; i++) {
+			String token = tokens[i].trim();
+			if (token.length() == 0) {
+				continue;
+			}
+			FeaturesVectorDate features = new FeaturesVectorDate();
+			features.string = token;
+			features.lineStatus = (i == 0) ? "LINESTART" : ((i == tokens.length - 1) ? "LINEEND" : "LINEIN");
+			features.capitalisation = Character.isUpperCase(token.charAt(0)) ? "INITCAP" : "NOCAPS";
+			features.digit = token.matches("[0-9]+") ? "ALLDIGIT"
+					: (token.matches(".*[0-9].*") ? "CONTAINDIGIT" : "NODIGIT");
+			features.singleChar = token.length() == 1;
+			features.year = token.matches("(19|20)[0-9]{2}");
+			features.month = token.matches("(?i)(jan|march|june|spring).*");
+			features.punctType = token.matches("[,.;:/-]") ? "PUNCT" : "NOPUNCT";
+			features.label = "<date>";
+			res.append(features.printVector());
+		}
+		return res.toString();
+	}
+}
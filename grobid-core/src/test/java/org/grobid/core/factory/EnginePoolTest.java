@@ -0,0 +1,126 @@
+package org.grobid.core.factory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.EnginePoolCounters;
+import org.grobid.core.utilities.counters.CntManager;
+import org.grobid.core.utilities.counters.impl.CntManagerFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EnginePoolTest {
+
+	private CntManager cntManager;
+
+	@Before
+	public void setUp() {
+		cntManager = CntManagerFactory.getCntManager();
+	}
+
+	private EnginePool newPool(int maxSize, long timeout) {
+		// the engines are not used, their parsers do not need to be loaded
+		return new EnginePool(new AbstractEngineFactory(), maxSize, timeout, cntManager) {
+			@Override
+			protected void warm(Engine engine) {
+			}
+		};
+	}
+
+	@Test
+	public void testReuse() {
+		EnginePool pool = newPool(2, 100);
+		Engine engine = pool.borrow();
+		assertEquals(1, pool.getActiveCount());
+		pool.release(engine);
+		assertEquals(0, pool.getActiveCount());
+		assertEquals(1, pool.getIdleCount());
+		assertSame(engine, pool.borrow());
+		assertEquals(1, pool.getCreatedCount());
+
+		pool.invalidate(engine);
+		assertNotSame(engine, pool.borrow());
+		assertEquals(2, pool.getCreatedCount());
+		assertEquals(1, cntManager.cnt(EnginePoolCounters.INVALIDATED_ENGINES));
+	}
+
+	@Test
+	public void testTimeout() {
+		EnginePool pool = newPool(1, 1000);
+		Engine engine = pool.borrow();
+		long start = System.currentTimeMillis();
+		try {
+			pool.borrow(50);
+			fail("the pool is exhausted");
+		} catch (NoSuchElementException e) {
+			assertTrue(System.currentTimeMillis() - start < 1000);
+		}
+		assertEquals(1, cntManager.cnt(EnginePoolCounters.BORROW_TIMEOUTS));
+		pool.release(engine);
+		assertSame(engine, pool.borrow(50));
+	}
+
+	@Test
+	public void testWarmUp() {
+		EnginePool pool = newPool(3, 100);
+		pool.warmUp(5);
+		assertEquals(3, pool.getIdleCount());
+		assertEquals(3, pool.getCreatedCount());
+		pool.borrow();
+		assertEquals(3, pool.getCreatedCount());
+		pool.clear();
+		assertEquals(0, pool.getIdleCount());
+	}
+
+	@Test
+	public void testConcurrentBorrowing() throws Exception {
+		final EnginePool pool = newPool(3, 10000);
+		final AtomicInteger inUse = new AtomicInteger(0);
+		final AtomicInteger maxInUse = new AtomicInteger(0);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int j = 0; j < 200; j++) {
+							Engine engine = pool.borrow();
+							int n = inUse.incrementAndGet();
+							int max = maxInUse.get();
+							while (n > max && !maxInUse.compareAndSet(max, n)) {
+								max = maxInUse.get();
+							}
+							inUse.decrementAndGet();
+							pool.release(engine);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(maxInUse.get() <= 3);
+		assertTrue(pool.getCreatedCount() <= 3);
+		assertEquals(0, pool.getActiveCount());
+		assertEquals(pool.getCreatedCount(), pool.getIdleCount());
+		assertEquals(1600, cntManager.cnt(EnginePoolCounters.BORROWED_ENGINES));
+	}
+}
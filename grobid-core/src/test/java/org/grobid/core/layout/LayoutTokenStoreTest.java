@@ -0,0 +1,148 @@
+package org.grobid.core.layout;
+
+import org.apache.commons.io.FileUtils;
+import org.easymock.EasyMock;
+import org.grobid.core.document.Document;
+import org.grobid.core.document.DocumentSource;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+public class LayoutTokenStoreTest {
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		MockContext.destroyInitialContext();
+	}
+
+	@Test
+	public void testViews() {
+		LayoutTokenStore store = new LayoutTokenStore(1);
+		LayoutToken first = store.newToken();
+		first.setText("Title");
+		first.setFont("times-bold");
+		first.setColorFont("#000000");
+		first.setBold(true);
+		first.setX(72.5);
+		first.setFontSize(14.0);
+		LayoutToken second = store.newToken();
+		second.setText("of");
+		second.setFont("times-bold");
+		second.setItalic(true);
+
+		Assert.assertEquals(2, store.size());
+		// the font and colour are stored once
+		Assert.assertEquals(2, store.getDictionarySize());
+
+		LayoutToken view = store.get(0);
+		Assert.assertEquals(first, view);
+		Assert.assertEquals("Title", view.getText());
+		Assert.assertEquals("times-bold", view.getFont());
+		Assert.assertEquals("#000000", view.getColorFont());
+		Assert.assertTrue(view.getBold());
+		Assert.assertFalse(view.getItalic());
+		Assert.assertFalse(view.getRotation());
+		Assert.assertEquals(72.5, view.getX(), 0.0);
+		Assert.assertEquals(14.0, view.getFontSize(), 0.0);
+
+		Assert.assertNull(store.get(1).getColorFont());
+		Assert.assertTrue(store.get(1).getItalic());
+		second.setItalic(false);
+		Assert.assertFalse(store.get(1).getItalic());
+
+		store.trimToSize();
+		store.newToken();
+		Assert.assertEquals(3, store.size());
+		Assert.assertEquals("of", store.get(1).getText());
+	}
+
+	@Test
+	public void testStandaloneToken() {
+		LayoutToken token = new LayoutToken();
+		token.setText("x");
+		token.setWidth(3.0);
+		Assert.assertEquals("x", token.getText());
+		Assert.assertEquals(3.0, token.getWidth(), 0.0);
+		Assert.assertNull(token.getFont());
+		Assert.assertFalse(token.equals(new LayoutToken()));
+	}
+
+	@Test
+	public void testBlockTokens() {
+		LayoutTokenStore store = new LayoutTokenStore();
+		Block block = new Block();
+		Assert.assertNull(block.getTokens());
+		for (int i = 0; i < 4; i++) {
+			LayoutToken token = store.newToken();
+			token.setText("t" + i);
+			block.addToken(token);
+		}
+		Assert.assertEquals(4, block.getTokens().size());
+		block.removeToken(0);
+		block.removeToken(2);
+		List<LayoutToken> tokens = block.getTokens();
+		Assert.assertEquals(2, tokens.size());
+		Assert.assertEquals("t1", tokens.get(0).getText());
+		Assert.assertEquals("t2", tokens.get(1).getText());
+
+		// tokens which are not contiguous in the store
+		Block other = new Block();
+		other.addToken(store.get(3));
+		other.addToken(store.get(0));
+		other.addToken(new LayoutToken());
+		other.removeToken(1);
+		Assert.assertEquals(2, other.getTokens().size());
+		Assert.assertEquals("t3", other.getTokens().get(0).getText());
+
+		other.resetTokens();
+		Assert.assertNull(other.getTokens());
+	}
+
+	@Test
+	public void testParsing() throws Exception {
+		File xml = File.createTempFile("pdf2xml", ".xml");
+		try {
+			FileUtils.writeStringToFile(xml, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+					"<DOCUMENT><PAGE id=\"p1\" width=\"595\" height=\"842\">" +
+					"<BLOCK id=\"p1_b1\"><TEXT id=\"p1_t1\"><TOKEN font-name=\"Times-Bold\" font-size=\"14\" bold=\"yes\" italic=\"no\" " +
+					"font-color=\"#000000\" rotation=\"0\" x=\"72\" y=\"80\" width=\"30\" height=\"14\">Compact</TOKEN>" +
+					"<TOKEN font-name=\"Times-Bold\" font-size=\"14\" bold=\"yes\" italic=\"no\" font-color=\"#000000\" " +
+					"rotation=\"0\" x=\"105\" y=\"80\" width=\"30\" height=\"14\">tokens</TOKEN></TEXT></BLOCK>" +
+					"</PAGE></DOCUMENT>", "UTF-8");
+			DocumentSource source = EasyMock.createMock(DocumentSource.class);
+			EasyMock.expect(source.getXmlFile()).andReturn(xml);
+			EasyMock.replay(source);
+
+			Document doc = new Document(source);
+			doc.addTokenizedDocument();
+
+			LayoutTokenStore store = doc.getTokenStore();
+			// two words and the end of line
+			Assert.assertEquals(3, store.size());
+			Assert.assertEquals(2, store.getDictionarySize());
+			Block block = doc.getBlocks().get(0);
+			List<LayoutToken> tokens = block.getTokens();
+			Assert.assertEquals(3, tokens.size());
+			Assert.assertEquals("Compact", tokens.get(0).getText());
+			Assert.assertEquals("times-bold", tokens.get(0).getFont());
+			Assert.assertTrue(tokens.get(0).getBold());
+			Assert.assertEquals(105.0, tokens.get(1).getX(), 0.0);
+			Assert.assertEquals(14.0, tokens.get(1).getFontSize(), 0.0);
+			Assert.assertEquals("\n", tokens.get(2).getText());
+		} finally {
+			xml.delete();
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package org.grobid.core.lexicon;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.utilities.OffsetPosition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FastMatcherTermsTest {
+
+	private File termFile;
+
+	@Before
+	public void setUp() throws Exception {
+		termFile = File.createTempFile("terms", ".txt");
+		FileUtils.writeStringToFile(termFile, "Nature\nNature Physics\nPhysics\nNew York\n"
+				+ "Journal of Physics\nof\n", "UTF-8");
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(termFile);
+	}
+
+	private static String toString(List<OffsetPosition> positions) {
+		StringBuilder result = new StringBuilder();
+		for (OffsetPosition position : positions) {
+			result.append("[").append(position.start).append(",").append(position.end).append("]");
+		}
+		return result.toString();
+	}
+
+	@Test
+	public void testOverlappingMatches() {
+		FastMatcher matcher = new FastMatcher(termFile);
+		// the matches ending on the same token are given the longest first
+		assertEquals("[0,0][0,1][1,1]", toString(matcher.matcher("Nature Physics")));
+		assertEquals("[1,1][0,2][2,2]", toString(matcher.matcher("journal OF physics")));
+	}
+
+	@Test
+	public void testPositions() {
+		FastMatcher matcher = new FastMatcher(termFile);
+		// spaces are not counted, the other delimiters and the tags are
+		assertEquals("[6,6]", toString(matcher.matcher("Taylor, et al., Nature 297:(1982)")));
+		assertEquals("[2,4][6,6]", toString(matcher.matcher("in <b> New-York <b> nature")));
+		assertEquals("", toString(matcher.matcher("New Jersey")));
+		assertEquals("", toString(matcher.matcher("")));
+	}
+
+	@Test
+	public void testTokens() {
+		FastMatcher matcher = new FastMatcher(termFile);
+		assertEquals("[1,2]", toString(matcher.matcher(Arrays.asList("in", "@newline", "New\tNNP", "York"))));
+	}
+
+	@Test
+	public void testLoadAfterMatching() throws Exception {
+		FastMatcher matcher = new FastMatcher(termFile);
+		assertEquals("", toString(matcher.matcher("Science Advances")));
+		assertEquals(1, matcher.loadTerm("science advances"));
+		assertEquals("[0,1]", toString(matcher.matcher("Science Advances")));
+		assertEquals("[0,0][0,1][1,1]", toString(matcher.matcher("Nature Physics")));
+	}
+}
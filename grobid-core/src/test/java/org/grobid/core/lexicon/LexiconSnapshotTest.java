@@ -0,0 +1,102 @@
+package org.grobid.core.lexicon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.utilities.KeyGen;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LexiconSnapshotTest {
+
+	private File home;
+	private File source;
+	private File snapshotFile;
+
+	@Before
+	public void setUp() throws Exception {
+		home = new File(System.getProperty("java.io.tmpdir"), "lexicon-snapshot-" + KeyGen.getKey());
+		source = new File(home, "lexicon/journals.txt");
+		FileUtils.writeStringToFile(source, "Nature\nNature Physics\nPhysical Review B\n", "UTF-8");
+		snapshotFile = new File(home, "lexicon/lexicon.snapshot");
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(home);
+	}
+
+	private void writeSnapshot() throws Exception {
+		LexiconSnapshot.Writer writer = new LexiconSnapshot.Writer(home);
+		writer.addSource(source);
+		writer.addSet("names", new HashSet<String>(Arrays.asList("jones", "müller", "", "smith")));
+		Map<String, String> codes = new HashMap<String, String>();
+		codes.put("france", "FR");
+		codes.put("germany", "DE");
+		writer.addMap("codes", codes);
+		writer.addMatcher("journals", new FastMatcher(source));
+		writer.write(snapshotFile);
+	}
+
+	@Test
+	public void testReadBack() throws Exception {
+		writeSnapshot();
+		LexiconSnapshot snapshot = LexiconSnapshot.open(snapshotFile, home);
+		assertNotNull(snapshot);
+
+		Set<String> names = snapshot.getSet("names");
+		assertEquals(4, names.size());
+		assertTrue(names.contains("müller"));
+		assertTrue(names.contains(""));
+		assertFalse(names.contains("muller"));
+		assertFalse(names.contains("Jones"));
+		assertEquals(new HashSet<String>(Arrays.asList("jones", "müller", "", "smith")), new HashSet<String>(names));
+
+		assertEquals("DE", snapshot.getMap("codes").get("germany"));
+		assertEquals(2, snapshot.getMap("codes").size());
+
+		assertTrue(snapshot.contains("journals"));
+		assertFalse(snapshot.contains("cities"));
+		String text = "see Physical Review B, and Nature Physics";
+		assertEquals(new FastMatcher(source).matcher(text).toString(),
+				snapshot.getMatcher("journals").matcher(text).toString());
+		assertEquals(3, snapshot.getMatcher("journals").matcher(text).size());
+	}
+
+	@Test
+	public void testStaleSnapshot() throws Exception {
+		writeSnapshot();
+		// the snapshot remains valid when grobid-home is moved
+		File movedHome = new File(home.getPath() + "-moved");
+		try {
+			FileUtils.copyDirectory(home, movedHome);
+			assertNotNull(LexiconSnapshot.open(new File(movedHome, "lexicon/lexicon.snapshot"), movedHome));
+		} finally {
+			FileUtils.deleteQuietly(movedHome);
+		}
+
+		FileUtils.writeStringToFile(source, "Nature\nScience\n", "UTF-8");
+		assertNull(LexiconSnapshot.open(snapshotFile, home));
+	}
+
+	@Test
+	public void testInvalidSnapshot() throws Exception {
+		assertNull(LexiconSnapshot.open(snapshotFile, home));
+		FileUtils.writeStringToFile(snapshotFile, "not a snapshot", "UTF-8");
+		assertNull(LexiconSnapshot.open(snapshotFile, home));
+		FileUtils.writeByteArrayToFile(snapshotFile, new byte[0]);
+		assertNull(LexiconSnapshot.open(snapshotFile, home));
+	}
+}
@@ -1,10 +1,15 @@
 package org.grobid.core.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.StringWriter;
+
+import org.grobid.core.engines.SectionExecutor;
 import org.grobid.core.factory.GrobidFactory;
 import org.grobid.core.main.GrobidConstants;
 import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.GrobidPropertyKeys;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -87,4 +92,37 @@ public class TestFullTextParser extends EngineTest {
 		//System.out.println(tei);
 	}
 	
-}
+	@Test
+	public void testFullTextStreamedSameAsString() throws Exception {
+		getTestResourcePath();
+
+		String pdfPath = testPath + "/Wang-paperAVE2008.pdf";
+
+		String tei = engine.fullTextToTEI(pdfPath, false, false, null, -1, -1, false);
+		assertNotNull(tei);
+
+		// the TEI written section by section is the same as the one built as a string
+		StringWriter writer = new StringWriter();
+		engine.fullTextToTEI(pdfPath, false, false, null, -1, -1, false, writer);
+		assertEquals(tei, writer.toString());
+	}
+
+	@Test
+	public void testFullTextSectionsParallelSameAsSequential() throws Exception {
+		getTestResourcePath();
+
+		String pdfPath = testPath + "/Wang-paperAVE2008.pdf";
+
+		String tei = engine.fullTextToTEI(pdfPath, false, false, null, -1, -1, false);
+		assertNotNull(tei);
+
+		GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_FULLTEXT_SECTION_THREADS, "2");
+		try {
+			assertEquals(tei, engine.fullTextToTEI(pdfPath, false, false, null, -1, -1, false));
+		} finally {
+			SectionExecutor.shutdown();
+			GrobidProperties.setPropertyValue(GrobidPropertyKeys.PROP_FULLTEXT_SECTION_THREADS, "0");
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package org.grobid.core.utilities.consolidation;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.utilities.Consolidation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ConsolidationCacheTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("consolidationCacheTest", "");
+		dir.delete();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(dir);
+	}
+
+	@Test
+	public void testFileCacheIsPersistent() {
+		ConsolidationCache cache = new FileConsolidationCache(dir);
+		Assert.assertNull(cache.get("doi:10.1000/1"));
+		cache.put("doi:10.1000/1", "<doi_records/>");
+		Assert.assertEquals("<doi_records/>", new FileConsolidationCache(dir).get("doi:10.1000/1"));
+	}
+
+	@Test
+	public void testMemoryTierFallsBackToPersistentCache() {
+		new FileConsolidationCache(dir).put("k1", "v1");
+		ConsolidationCache cache = new MemoryConsolidationCache(1, new FileConsolidationCache(dir));
+		Assert.assertEquals("v1", cache.get("k1"));
+		cache.put("k2", "v2");
+		// k1 has been evicted from memory but is still stored on disk
+		Assert.assertEquals("v1", cache.get("k1"));
+		Assert.assertEquals("v2", cache.get("k2"));
+
+		ConsolidationCache memoryOnly = new MemoryConsolidationCache(1, null);
+		memoryOnly.put("k1", "v1");
+		memoryOnly.put("k2", "v2");
+		Assert.assertNull(memoryOnly.get("k1"));
+	}
+
+	@Test
+	public void testKeysAreNormalized() {
+		Assert.assertEquals(Consolidation.getDOIKey("10.1000/ABC"), Consolidation.getDOIKey(" 10.1000/abc"));
+		Assert.assertEquals(Consolidation.getAuthorTitleKey("Lopez", "A  Title"),
+				Consolidation.getAuthorTitleKey("lopez ", "a title"));
+		Assert.assertFalse(Consolidation.getJournalKey("J", "1", "10", null).equals(
+				Consolidation.getJournalKey("J", "1", "11", null)));
+	}
+}
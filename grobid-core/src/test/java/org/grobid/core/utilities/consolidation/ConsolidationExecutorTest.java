@@ -0,0 +1,133 @@
+package org.grobid.core.utilities.consolidation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.grobid.core.data.BiblioItem;
+import org.grobid.core.mock.MockContext;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consolidation against a local stub standing for the crossref service.
+ */
+public class ConsolidationExecutorTest {
+
+	private static HttpServer server;
+	private static final AtomicInteger requests = new AtomicInteger(0);
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		MockContext.setInitialContext();
+		GrobidProperties.getInstance();
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				String query = exchange.getRequestURI().getQuery();
+				try {
+					// slow enough for the identical lookups to be in flight together
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (query.contains("10.1000/broken")) {
+					exchange.sendResponseHeaders(500, -1);
+					exchange.close();
+					return;
+				}
+				String doi = query.substring(query.indexOf("info:doi/") + 9, query.indexOf("&noredirect"));
+				byte[] body = ("<doi_records><doi_record><crossref><journal><journal_article>"
+						+ "<titles><title>Title of " + doi + "</title></titles>"
+						+ "<doi_data><doi>" + doi + "</doi></doi_data>"
+						+ "</journal_article></journal></crossref></doi_record></doi_records>").getBytes("UTF-8");
+				exchange.sendResponseHeaders(200, body.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		server.start();
+		GrobidProperties.setCrossrefHost("localhost:" + server.getAddress().getPort());
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws Exception {
+		server.stop(0);
+		MockContext.destroyInitialContext();
+	}
+
+	@Before
+	public void setUp() {
+		requests.set(0);
+	}
+
+	private static BiblioItem biblio(String doi) {
+		BiblioItem biblio = new BiblioItem();
+		biblio.setDOI(doi);
+		return biblio;
+	}
+
+	@Test
+	public void testIdenticalLookupsAreCoalesced() {
+		ConsolidationExecutor executor = new ConsolidationExecutor(8, null);
+		try {
+			List<BiblioItem> biblios = new ArrayList<BiblioItem>();
+			for (int i = 0; i < 4; i++) {
+				biblios.add(biblio("10.1000/same"));
+			}
+			biblios.add(biblio("10.1000/other"));
+
+			Assert.assertEquals(5, executor.consolidate(biblios));
+			Assert.assertEquals(2, requests.get());
+			for (int i = 0; i < 4; i++) {
+				Assert.assertEquals("Title of 10.1000/same", biblios.get(i).getArticleTitle());
+			}
+			Assert.assertEquals("Title of 10.1000/other", biblios.get(4).getArticleTitle());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCachedResponsesAreNotRequestedAgain() {
+		ConsolidationExecutor executor = new ConsolidationExecutor(2, new MemoryConsolidationCache(10, null));
+		try {
+			List<BiblioItem> biblios = new ArrayList<BiblioItem>();
+			biblios.add(biblio("10.1000/cached"));
+			executor.consolidate(biblios);
+			executor.consolidate(biblios);
+			Assert.assertEquals(1, requests.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailedLookupLeavesItemUnchanged() {
+		ConsolidationExecutor executor = new ConsolidationExecutor(2, null);
+		try {
+			List<BiblioItem> biblios = new ArrayList<BiblioItem>();
+			biblios.add(biblio("10.1000/broken"));
+			biblios.add(biblio("10.1000/fine"));
+
+			Assert.assertEquals(1, executor.consolidate(biblios));
+			Assert.assertNull(biblios.get(0).getArticleTitle());
+			Assert.assertEquals("Title of 10.1000/fine", biblios.get(1).getArticleTitle());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -57,6 +57,22 @@ public interface GrobidPathes {
 	 */
 	public static final String PATH_BULCK_HEADER= "processBulckHeaderDocument";
 	
+	/**
+	 * path extension for processing the headers of a batch of documents.
+	 */
+	public static final String PATH_BULK_HEADER= "processBulkHeaderDocument";
+	
+	/**
+	 * path extension for processing the full text of a batch of documents.
+	 */
+	public static final String PATH_BULK_FULL_TEXT= "processBulkFulltextDocument";
+
+	/**
+	 * path extension for the asynchronous jobs, followed by header or fulltext for 
+	 * submitting a document, or by the job id for getting its result.
+	 */
+	public static final String PATH_JOBS= "jobs";
+	
 	/**
 	 * path extension for processing full text of documents.
 	 */
@@ -72,6 +88,12 @@ public interface GrobidPathes {
 	 */
 	public static final String PATH_FULL_TEXT_HTML= "processFulltextDocumentHTML";
 	
+	/**
+	 * path extension for processing full text of documents together with the capture of the 
+	 * intermediate labeling of each model.
+	 */
+	public static final String PATH_FULL_TEXT_DEBUG= "processFulltextDocumentDebug";
+	
 	/**
 	 * path extension for processing dates.
 	 */
@@ -122,6 +144,12 @@ public interface GrobidPathes {
 	 */
 	public static final String PATH_CITATION= "processCitation";
 	
+	/**
+	 * path extension for processing lists of dates, names, affiliations and citations, 
+	 * followed by the kind of strings, e.g. processBatch/citations.
+	 */
+	public static final String PATH_BATCH= "processBatch";
+	
 	/**
 	 * path extension for processing all the references in a PDF file.
 	 */
@@ -141,4 +169,9 @@ public interface GrobidPathes {
 	 * path extension to update property value.
 	 */
 	public static final String PATH_CHANGE_PROPERTY_VALUE= "changePropertyValue";
+	
+	/**
+	 * path extension to switch to the new version of a retrained model without restarting.
+	 */
+	public static final String PATH_RELOAD_MODEL= "reloadModel";
 }
@@ -19,15 +19,18 @@ package org.grobid.service;
 import java.io.InputStream;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
@@ -35,14 +38,18 @@ import javax.ws.rs.core.UriInfo;
 
 import org.grobid.core.factory.AbstractEngineFactory;
 import org.grobid.service.process.GrobidRestProcessAdmin;
+import org.grobid.service.process.GrobidRestProcessBulk;
 import org.grobid.service.process.GrobidRestProcessFiles;
 import org.grobid.service.process.GrobidRestProcessGeneric;
+import org.grobid.service.process.GrobidRestProcessJobs;
 import org.grobid.service.process.GrobidRestProcessString;
 import org.grobid.service.util.GrobidServiceProperties;
 import org.grobid.service.util.ZipUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sun.jersey.multipart.FormDataBodyPart;
+import com.sun.jersey.multipart.FormDataMultiPart;
 import com.sun.jersey.multipart.FormDataParam;
 import com.sun.jersey.spi.resource.Singleton;
 
@@ -66,9 +73,11 @@ public class GrobidRestService implements GrobidPathes {
 	private static final String DATE = "date";
 	private static final String AFFILIATIONS = "affiliations";
 	private static final String CITATION = "citations";
+	private static final String CITATION_NAMES = "citationNames";
 	private static final String TEXT = "text";
 	private static final String SHA1 = "sha1";
 	private static final String XML = "xml";
+	private static final String MODEL = "model";
 	private static final String INPUT = "input";
 
 	public GrobidRestService() {
@@ -284,6 +293,151 @@ public class GrobidRestService implements GrobidPathes {
 	}
 
 
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessBulk#processBulkHeaderDocument(FormDataMultiPart, boolean, boolean)
+	 */
+	@Path(PATH_BULK_HEADER)
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces({GrobidRestProcessBulk.NDJSON, GrobidRestProcessBulk.ZIP})
+	@POST
+	public Response processBulkHeaderDocument_post(FormDataMultiPart multiPart) {
+		return GrobidRestProcessBulk.processBulkHeaderDocument(multiPart, 
+			isOn(getField(multiPart, "consolidate")), isZip(getField(multiPart, "format")));
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessBulk#processBulkHeaderDocument(InputStream, boolean, boolean)
+	 */
+	@Path(PATH_BULK_HEADER)
+	@Consumes(GrobidRestProcessBulk.ZIP)
+	@Produces({GrobidRestProcessBulk.NDJSON, GrobidRestProcessBulk.ZIP})
+	@POST
+	public Response processBulkHeaderZip_post(InputStream zip, 
+		@QueryParam("consolidate") String consolidate, 
+		@QueryParam("format") String format) {
+		return GrobidRestProcessBulk.processBulkHeaderDocument(zip, isOn(consolidate), isZip(format));
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessBulk#processBulkFulltextDocument(FormDataMultiPart, boolean, boolean, boolean)
+	 */
+	@Path(PATH_BULK_FULL_TEXT)
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces({GrobidRestProcessBulk.NDJSON, GrobidRestProcessBulk.ZIP})
+	@POST
+	public Response processBulkFulltextDocument_post(FormDataMultiPart multiPart) {
+		return GrobidRestProcessBulk.processBulkFulltextDocument(multiPart, 
+			isOn(getField(multiPart, "consolidate")), isOn(getField(multiPart, "generateIDs")), 
+			isZip(getField(multiPart, "format")));
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessBulk#processBulkFulltextDocument(InputStream, boolean, boolean, boolean)
+	 */
+	@Path(PATH_BULK_FULL_TEXT)
+	@Consumes(GrobidRestProcessBulk.ZIP)
+	@Produces({GrobidRestProcessBulk.NDJSON, GrobidRestProcessBulk.ZIP})
+	@POST
+	public Response processBulkFulltextZip_post(InputStream zip, 
+		@QueryParam("consolidate") String consolidate, 
+		@QueryParam("generateIDs") String generateIDs, 
+		@QueryParam("format") String format) {
+		return GrobidRestProcessBulk.processBulkFulltextDocument(zip, isOn(consolidate), isOn(generateIDs), 
+			isZip(format));
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessJobs#submitHeaderJob(InputStream, boolean)
+	 */
+	@Path(PATH_JOBS + "/header")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(MediaType.APPLICATION_JSON)
+	@POST
+	public Response submitHeaderJob_post(@FormDataParam(INPUT) InputStream inputStream,
+		@FormDataParam("consolidate") String consolidate) {
+		return GrobidRestProcessJobs.submitHeaderJob(inputStream, isOn(consolidate));
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessJobs#submitFulltextJob(InputStream, boolean, int, int, boolean)
+	 */
+	@Path(PATH_JOBS + "/fulltext")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(MediaType.APPLICATION_JSON)
+	@POST
+	public Response submitFulltextJob_post(@FormDataParam(INPUT) InputStream inputStream,
+		@FormDataParam("consolidate") String consolidate, 
+		@DefaultValue("-1") @FormDataParam("start") int startPage,
+		@DefaultValue("-1") @FormDataParam("end") int endPage,
+		@FormDataParam("generateIDs") String generateIDs) {
+		return GrobidRestProcessJobs.submitFulltextJob(inputStream, isOn(consolidate), startPage, endPage, 
+			isOn(generateIDs));
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessJobs#getJob(String, int)
+	 */
+	@Path(PATH_JOBS + "/{id}")
+	@Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+	@GET
+	public Response getJob(@PathParam("id") String id, 
+		@DefaultValue("0") @QueryParam("wait") int wait) {
+		return GrobidRestProcessJobs.getJob(id, wait);
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessJobs#deleteJob(String)
+	 */
+	@Path(PATH_JOBS + "/{id}")
+	@Produces(MediaType.APPLICATION_JSON)
+	@DELETE
+	public Response deleteJob(@PathParam("id") String id) {
+		return GrobidRestProcessJobs.deleteJob(id);
+	}
+
+	/**
+	 * @return the value of a field of a multipart request, null if absent
+	 */
+	private static String getField(FormDataMultiPart multiPart, String name) {
+		FormDataBodyPart field = multiPart.getField(name);
+		return (field == null) ? null : field.getValue();
+	}
+
+	private static boolean isOn(String flag) {
+		return (flag != null) && flag.equals("1");
+	}
+
+	/**
+	 * @return true if the results of a batch are requested as a zip, false for NDJSON (default)
+	 */
+	private static boolean isZip(String format) {
+		return (format != null) && format.equalsIgnoreCase("zip");
+	}
+
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessFiles#processStatelessFulltextDebugDocument(InputStream, boolean, int, int, boolean)
+	 */
+	@Path(PATH_FULL_TEXT_DEBUG)
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces("application/zip")
+	@POST
+	public Response processFulltextDebugDocument_post(@FormDataParam(INPUT) InputStream inputStream,
+	 	@FormDataParam("consolidate") String consolidate, 
+		@DefaultValue("-1") @FormDataParam("start") int startPage,
+		@DefaultValue("-1") @FormDataParam("end") int endPage,
+		@FormDataParam("generateIDs") String generateIDs) {
+		boolean consol = false;
+		boolean generate = false;
+		if ( (consolidate != null) && (consolidate.equals("1")) ) {
+			consol = true;
+		}
+		if ( (generateIDs != null) && (generateIDs.equals("1")) ) {
+			generate = true;
+		}
+		return GrobidRestProcessFiles.processStatelessFulltextDebugDocument(inputStream, 
+			consol, startPage, endPage, generate);
+	}
+
 	/**
 	 * @see org.grobid.service.process.GrobidRestProcessFiles#processStatelessFulltextDocument(InputStream, String)
 	 */
@@ -519,6 +673,38 @@ public class GrobidRestService implements GrobidPathes {
 		return GrobidRestProcessString.processCitation(citation, consol);
 	}
 
+	/**
+	 * Process a list of strings, newline-delimited or as a JSON array, the kind of strings 
+	 * being one of date, names (header names), citationNames, affiliations and citations.
+	 * 
+	 * @see org.grobid.service.process.GrobidRestProcessString#processBatch(InputStream, boolean, GrobidRestProcessString.BatchType, boolean)
+	 */
+	@Path(PATH_BATCH + "/{type}")
+	@Consumes({MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON})
+	@Produces(GrobidRestProcessBulk.NDJSON)
+	@POST
+	public Response processBatch_post(InputStream input, 
+		@PathParam("type") String type, 
+		@Context HttpHeaders headers, 
+		@QueryParam("consolidate") String consolidate) {
+		GrobidRestProcessString.BatchType batchType;
+		if (type.equals(DATE)) {
+			batchType = GrobidRestProcessString.BatchType.DATE;
+		} else if (type.equals(NAMES)) {
+			batchType = GrobidRestProcessString.BatchType.NAMES_HEADER;
+		} else if (type.equals(CITATION_NAMES)) {
+			batchType = GrobidRestProcessString.BatchType.NAMES_CITATION;
+		} else if (type.equals(AFFILIATIONS)) {
+			batchType = GrobidRestProcessString.BatchType.AFFILIATION;
+		} else if (type.equals(CITATION)) {
+			batchType = GrobidRestProcessString.BatchType.CITATION;
+		} else {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		}
+		boolean json = MediaType.APPLICATION_JSON_TYPE.isCompatible(headers.getMediaType());
+		return GrobidRestProcessString.processBatch(input, json, batchType, isOn(consolidate));
+	}
+
 	/**
 	 * @see org.grobid.service.process.GrobidRestProcessAdmin#processSHA1(String)
 	 */
@@ -585,6 +771,17 @@ public class GrobidRestService implements GrobidPathes {
 		return GrobidRestProcessAdmin.changePropertyValue(xml);
 	}
 
+	/**
+	 * @see org.grobid.service.process.GrobidRestProcessAdmin#reloadModel(String, String)
+	 */
+	@Path(PATH_RELOAD_MODEL)
+	@Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+	@Produces(MediaType.TEXT_PLAIN)
+	@POST
+	public Response reloadModelPost(@FormParam(SHA1) String sha1, @FormParam(MODEL) String model) {
+		return GrobidRestProcessAdmin.reloadModel(sha1, model);
+	}
+
 	/**
 	 * @see org.grobid.service.process.GrobidRestProcessFiles#processStatelessReferencesDocument(InputStream, bool)
 	 */
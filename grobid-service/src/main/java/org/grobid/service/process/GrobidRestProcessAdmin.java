@@ -7,8 +7,17 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
 import org.apache.commons.lang3.StringUtils;
+import org.grobid.core.GrobidModels;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.counters.EnginePoolCounters;
+import org.grobid.core.engines.counters.ModelCounters;
+import org.grobid.core.engines.tagging.ModelResidency;
+import org.grobid.core.engines.tagging.TaggerFactory;
+import org.grobid.core.factory.EnginePool;
+import org.grobid.core.factory.GrobidPoolingFactory;
 import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.SHA1;
+import org.grobid.core.utilities.counters.CntManager;
 import org.grobid.service.parser.ChangePropertyParser;
 import org.grobid.service.util.GrobidPropertiesUtil;
 import org.grobid.service.util.GrobidProperty;
@@ -78,6 +87,35 @@ public class GrobidRestProcessAdmin {
 							+ "</td></tr>");
 				}
 
+				if (GrobidServiceProperties.isParallelExec()) {
+					EnginePool pool = GrobidPoolingFactory.getEnginePool();
+					CntManager cntManager = Engine.getCntManager();
+					htmlCode.append("<th><td colspan=\"2\">engine pool</td></th>");
+					htmlCode.append("<tr><td>active engines</td><td>" + pool.getActiveCount() + "</td></tr>");
+					htmlCode.append("<tr><td>idle engines</td><td>" + pool.getIdleCount() + "</td></tr>");
+					htmlCode.append("<tr><td>max engines</td><td>" + pool.getMaxSize() + "</td></tr>");
+					htmlCode.append("<tr><td>created engines</td><td>" + pool.getCreatedCount() + "</td></tr>");
+					htmlCode.append("<tr><td>borrowed engines</td><td>"
+							+ cntManager.cnt(EnginePoolCounters.BORROWED_ENGINES) + "</td></tr>");
+					htmlCode.append("<tr><td>borrow timeouts</td><td>"
+							+ cntManager.cnt(EnginePoolCounters.BORROW_TIMEOUTS) + "</td></tr>");
+					htmlCode.append("<tr><td>borrow wait time (ms)</td><td>"
+							+ cntManager.cnt(EnginePoolCounters.BORROW_WAIT_TIME_MS) + "</td></tr>");
+				}
+				htmlCode.append("<th><td colspan=\"2\">models</td></th>");
+				htmlCode.append("<tr><td>loaded models</td><td>"
+						+ ModelResidency.getResidentModels() + "</td></tr>");
+				htmlCode.append("<tr><td>loaded models memory (MB, approx.)</td><td>"
+						+ (ModelResidency.getResidentMemory() / (1024 * 1024)) + "</td></tr>");
+				htmlCode.append("<tr><td>model loads / time (ms)</td><td>"
+						+ Engine.getCntManager().cnt(ModelCounters.LOADED_MODELS) + " / "
+						+ Engine.getCntManager().cnt(ModelCounters.LOAD_TIME_MS) + "</td></tr>");
+				htmlCode.append("<tr><td>model evictions / time (ms)</td><td>"
+						+ Engine.getCntManager().cnt(ModelCounters.EVICTED_MODELS) + " / "
+						+ Engine.getCntManager().cnt(ModelCounters.EVICTION_TIME_MS) + "</td></tr>");
+				htmlCode.append("<tr><td>reloaded models</td><td>"
+						+ Engine.getCntManager().cnt(ModelCounters.RELOADED_MODELS) + "</td></tr>");
+
 				htmlCode.append("</table>");
 				htmlCode.append("</body>");
 				htmlCode.append("</html>");
@@ -216,4 +254,50 @@ public class GrobidRestProcessAdmin {
 		LOGGER.debug("<< changePropertyValue");
 		return response;
 	}
+
+	/**
+	 * Switch to the current version of the file of a model, typically after it
+	 * has been retrained, without restarting the service. The requests in
+	 * progress finish with the previous version of the model.
+	 * 
+	 * @param sha1
+	 *            password
+	 * @param modelName
+	 *            name of the model, e.g. header, name-citation or DATE
+	 * @return Response describing the reloading.
+	 */
+	public static Response reloadModel(String sha1, String modelName) {
+		LOGGER.debug(">> reloadModel");
+		Response response = null;
+		try {
+			if (StringUtils.equals(GrobidServiceProperties.getAdminPw(),
+					SHA1.getSHA1(sha1))) {
+				GrobidModels model = GrobidModels.modelFor(modelName);
+				if (model == null) {
+					response = Response.status(Status.BAD_REQUEST)
+							.entity("Unknown model: " + modelName)
+							.type(MediaType.TEXT_PLAIN).build();
+				} else {
+					long start = System.currentTimeMillis();
+					String retVal;
+					if (TaggerFactory.reloadModel(model)) {
+						retVal = "Model " + model + " reloaded in "
+								+ (System.currentTimeMillis() - start) + " ms";
+					} else {
+						retVal = "Model " + model
+								+ " not loaded yet, its current version will be loaded on first use";
+					}
+					response = Response.status(Status.OK).entity(retVal)
+							.type(MediaType.TEXT_PLAIN).build();
+				}
+			} else {
+				response = Response.status(Status.FORBIDDEN).build();
+			}
+		} catch (Exception exp) {
+			LOGGER.error("Cannot reload the model " + modelName + ". ", exp);
+			response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
+		}
+		LOGGER.debug("<< reloadModel");
+		return response;
+	}
 }
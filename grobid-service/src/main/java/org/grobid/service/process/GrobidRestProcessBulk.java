@@ -0,0 +1,469 @@
+package org.grobid.service.process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.grobid.core.engines.Engine;
+import org.grobid.core.factory.GrobidPoolingFactory;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.service.util.GrobidRestUtils;
+import org.grobid.service.util.GrobidServiceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.jersey.multipart.FormDataBodyPart;
+import com.sun.jersey.multipart.FormDataMultiPart;
+
+/**
+ * Processing of a batch of PDF documents in a single request. The documents are the parts of a multipart
+ * request, each part being a PDF or a zip of PDF files, or the entries of a zip sent as request body.
+ *
+ * The documents are spooled to disk before the response, then processed in parallel, each one with an
+ * engine of the pool, a batch leaving at least one engine of the pool to the other requests. The results
+ * are streamed as soon as each document is processed, either as NDJSON (one JSON object per line with the
+ * file name, its status, the processing time in ms and the TEI or the error) or as a zip with a TEI entry
+ * per document followed by the status of all the documents in status.ndjson.
+ */
+public class GrobidRestProcessBulk {
+
+    /**
+     * The class Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GrobidRestProcessBulk.class);
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String ZIP = "application/zip";
+
+    private static final String INPUT = "input";
+    private static final String STATUS_ENTRY = "status.ndjson";
+
+    // magic number of the zip files
+    private static final byte[] ZIP_SIGNATURE = {'P', 'K', 3, 4};
+
+    private static final int HEADER = 0;
+    private static final int FULLTEXT = 1;
+
+    /**
+     * Process the headers of the documents of a multipart request.
+     *
+     * @param multiPart   the documents, in the parts named input
+     * @param consolidate consolidation parameter for the header extraction
+     * @param zipFormat   if true the results are returned as a zip, else as NDJSON
+     * @return the streamed results
+     */
+    public static Response processBulkHeaderDocument(FormDataMultiPart multiPart, boolean consolidate,
+                                                     boolean zipFormat) {
+        return process(spool(multiPart), HEADER, consolidate, false, zipFormat);
+    }
+
+    /**
+     * Process the headers of the PDF files of a zip.
+     */
+    public static Response processBulkHeaderDocument(InputStream zip, boolean consolidate, boolean zipFormat) {
+        return process(spool(zip), HEADER, consolidate, false, zipFormat);
+    }
+
+    /**
+     * Process the full text of the documents of a multipart request.
+     *
+     * @param multiPart   the documents, in the parts named input
+     * @param consolidate consolidation parameter for the header and the citations
+     * @param generateIDs if true, generate random attribute id on the textual elements of the TEI
+     * @param zipFormat   if true the results are returned as a zip, else as NDJSON
+     * @return the streamed results
+     */
+    public static Response processBulkFulltextDocument(FormDataMultiPart multiPart, boolean consolidate,
+                                                       boolean generateIDs, boolean zipFormat) {
+        return process(spool(multiPart), FULLTEXT, consolidate, generateIDs, zipFormat);
+    }
+
+    /**
+     * Process the full text of the PDF files of a zip.
+     */
+    public static Response processBulkFulltextDocument(InputStream zip, boolean consolidate,
+                                                       boolean generateIDs, boolean zipFormat) {
+        return process(spool(zip), FULLTEXT, consolidate, generateIDs, zipFormat);
+    }
+
+    /**
+     * @return the documents of the parts named input, or null if they cannot be spooled
+     */
+    private static List<BulkFile> spool(FormDataMultiPart multiPart) {
+        List<BulkFile> files = new ArrayList<BulkFile>();
+        Set<String> names = new HashSet<String>();
+        List<FormDataBodyPart> parts = multiPart.getFields(INPUT);
+        try {
+            if (parts != null) {
+                for (FormDataBodyPart part : parts) {
+                    String name = null;
+                    if (part.getContentDisposition() != null) {
+                        name = part.getContentDisposition().getFileName();
+                    }
+                    spool(part.getValueAs(InputStream.class), name, files, names);
+                }
+            }
+            return files;
+        } catch (Exception exp) {
+            LOGGER.error("Cannot spool the documents of the batch. ", exp);
+            delete(files);
+            return null;
+        }
+    }
+
+    /**
+     * @return the PDF files of a zip, or null if they cannot be spooled
+     */
+    private static List<BulkFile> spool(InputStream zip) {
+        List<BulkFile> files = new ArrayList<BulkFile>();
+        try {
+            spool(zip, null, files, new HashSet<String>());
+            return files;
+        } catch (Exception exp) {
+            LOGGER.error("Cannot spool the documents of the batch. ", exp);
+            delete(files);
+            return null;
+        } finally {
+            try {
+                zip.close();
+            } catch (IOException e) {
+                LOGGER.error("Cannot close the batch input stream", e);
+            }
+        }
+    }
+
+    private static void spool(InputStream inputStream, String name, List<BulkFile> files, Set<String> names)
+            throws IOException {
+        InputStream in = new BufferedInputStream(inputStream);
+        if (isZip(in)) {
+            ZipInputStream zip = new ZipInputStream(in);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(".pdf")) {
+                    // writeInputFile closes its input
+                    add(new CloseShieldInputStream(zip), entry.getName(), files, names);
+                }
+            }
+            zip.close();
+        } else {
+            add(in, name, files, names);
+        }
+    }
+
+    private static boolean isZip(InputStream in) throws IOException {
+        in.mark(ZIP_SIGNATURE.length);
+        try {
+            for (byte b : ZIP_SIGNATURE) {
+                if (in.read() != b) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static void add(InputStream in, String name, List<BulkFile> files, Set<String> names)
+            throws IOException {
+        int index = files.size();
+        if ((name == null) || (name.trim().length() == 0)) {
+            name = "document" + index + ".pdf";
+        }
+        // the names identify the results, they are made unique within the batch
+        String unique = name;
+        while (!names.add(unique)) {
+            unique = index + "-" + unique;
+        }
+        name = unique;
+        File file = GrobidRestUtils.writeInputFile(in);
+        if (file == null) {
+            throw new IOException("Cannot write the document " + name + " to disk");
+        }
+        files.add(new BulkFile(index, name, file));
+    }
+
+    private static void delete(List<BulkFile> files) {
+        for (BulkFile file : files) {
+            file.delete();
+        }
+    }
+
+    private static Response process(final List<BulkFile> files, final int type, final boolean consolidate,
+                                    final boolean generateIDs, final boolean zipFormat) {
+        LOGGER.debug(methodLogIn());
+        if (files == null) {
+            return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+        }
+        if (files.isEmpty()) {
+            return Response.status(Status.BAD_REQUEST).build();
+        }
+        final boolean isparallelExec = GrobidServiceProperties.isParallelExec();
+        StreamingOutput stream = new StreamingOutput() {
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                int nbThreads = getThreads(files.size(), GrobidProperties.getMaxPoolConnections(), isparallelExec);
+                LOGGER.info("Processing a batch of " + files.size() + " documents with " + nbThreads + " threads");
+                ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+                CompletionService<BulkResult> completion = new ExecutorCompletionService<BulkResult>(executor);
+                ResultWriter writer = zipFormat ? new ZipResultWriter(output) : new NdjsonResultWriter(output);
+                try {
+                    for (final BulkFile file : files) {
+                        completion.submit(new Callable<BulkResult>() {
+                            @Override
+                            public BulkResult call() {
+                                return processFile(file, type, consolidate, generateIDs, isparallelExec);
+                            }
+                        });
+                    }
+                    for (int i = 0; i < files.size(); i++) {
+                        writer.write(completion.take().get());
+                    }
+                    writer.finish();
+                } catch (InterruptedException exp) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while processing the batch", exp);
+                } catch (ExecutionException exp) {
+                    // processFile reports the errors in the results
+                    throw new IOException("An unexpected exception occurs while processing the batch", exp.getCause());
+                } finally {
+                    // stops the processing if the client is gone
+                    executor.shutdownNow();
+                    delete(files);
+                    LOGGER.debug(methodLogOut());
+                }
+            }
+        };
+        return Response.ok().type(zipFormat ? ZIP : NDJSON).entity(stream).build();
+    }
+
+    /**
+     * @return the number of documents of a batch processed at a time, which leaves at least one engine of 
+     * the pool to the other requests
+     */
+    static int getThreads(int nbFiles, int poolSize, boolean isparallelExec) {
+        if (!isparallelExec) {
+            // with a single engine, the documents are processed one at a time anyway
+            return 1;
+        }
+        return Math.max(Math.min(nbFiles, poolSize - 1), 1);
+    }
+
+    private static BulkResult processFile(BulkFile file, int type, boolean consolidate, boolean generateIDs,
+                                          boolean isparallelExec) {
+        BulkResult result = new BulkResult(file);
+        long start = System.currentTimeMillis();
+        if (!file.claim()) {
+            // the response is already over
+            result.status = Status.SERVICE_UNAVAILABLE.getStatusCode();
+            return result;
+        }
+        Engine engine = null;
+        try {
+            engine = GrobidRestUtils.getEngine(isparallelExec);
+            if (isparallelExec) {
+                result.tei = process(engine, file.file, type, consolidate, generateIDs);
+            } else {
+                synchronized (engine) {
+                    result.tei = process(engine, file.file, type, consolidate, generateIDs);
+                }
+            }
+            result.status = GrobidRestUtils.isResultOK(result.tei) ?
+                Status.OK.getStatusCode() : Status.NO_CONTENT.getStatusCode();
+        } catch (NoSuchElementException nseExp) {
+            LOGGER.error("Could not get an engine from the pool within configured time for " + file.name);
+            result.status = Status.SERVICE_UNAVAILABLE.getStatusCode();
+            result.error = "No engine available";
+        } catch (Exception exp) {
+            LOGGER.error("An unexpected exception occurs while processing " + file.name + ". ", exp);
+            result.status = Status.INTERNAL_SERVER_ERROR.getStatusCode();
+            result.error = String.valueOf(exp.getMessage());
+        } finally {
+            if (isparallelExec && (engine != null)) {
+                GrobidPoolingFactory.returnEngine(engine);
+            }
+            GrobidRestUtils.removeTempFile(file.file);
+            result.time = System.currentTimeMillis() - start;
+        }
+        return result;
+    }
+
+    private static String process(Engine engine, File file, int type, boolean consolidate, boolean generateIDs)
+            throws Exception {
+        if (type == HEADER) {
+            return engine.processHeader(file.getAbsolutePath(), consolidate, null);
+        }
+        return engine.fullTextToTEI(file.getAbsolutePath(), consolidate, false, null, -1, -1, generateIDs);
+    }
+
+    /**
+     * @return the status of a result as a JSON object, with its TEI if required
+     */
+    static String toJson(BulkResult result, boolean withTei) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"index\":").append(result.file.index);
+        json.append(",\"file\":\"").append(GrobidRestUtils.escapeJson(result.file.name)).append('"');
+        json.append(",\"status\":").append(result.status);
+        json.append(",\"time\":").append(result.time);
+        if (result.entry != null) {
+            json.append(",\"entry\":\"").append(GrobidRestUtils.escapeJson(result.entry)).append('"');
+        }
+        if (result.error != null) {
+            json.append(",\"error\":\"").append(GrobidRestUtils.escapeJson(result.error)).append('"');
+        }
+        if (withTei && (result.tei != null)) {
+            json.append(",\"tei\":\"").append(GrobidRestUtils.escapeJson(result.tei)).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Document of a batch, spooled to disk.
+     */
+    static class BulkFile {
+        final int index;
+        final String name;
+        final File file;
+        // set by the first of the processing and the cleanup of the batch, so that the file is removed once
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        BulkFile(int index, String name, File file) {
+            this.index = index;
+            this.name = name;
+            this.file = file;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void delete() {
+            if (claim()) {
+                GrobidRestUtils.removeTempFile(file);
+            }
+        }
+    }
+
+    static class BulkResult {
+        final BulkFile file;
+        int status;
+        long time;
+        String tei;
+        String error;
+        // name of the TEI entry in a zip
+        String entry;
+
+        BulkResult(BulkFile file) {
+            this.file = file;
+        }
+    }
+
+    interface ResultWriter {
+        void write(BulkResult result) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    static class NdjsonResultWriter implements ResultWriter {
+        private final Writer writer;
+
+        NdjsonResultWriter(OutputStream output) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"));
+        }
+
+        @Override
+        public void write(BulkResult result) throws IOException {
+            writer.write(toJson(result, true));
+            writer.write('\n');
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writer of the results as a zip, whose TEI entries are named after the documents. The names which differ 
+     * only by the case or by the .pdf extension are made unique with the index of the document, the status 
+     * of each document giving the name of its entry.
+     */
+    static class ZipResultWriter implements ResultWriter {
+        private final ZipOutputStream zip;
+        private final StringBuilder status = new StringBuilder();
+        // the entry names in lower case, as they are extracted on case-insensitive file systems
+        private final Set<String> entries = new HashSet<String>();
+
+        ZipResultWriter(OutputStream output) {
+            zip = new ZipOutputStream(output);
+            entries.add(STATUS_ENTRY);
+        }
+
+        @Override
+        public void write(BulkResult result) throws IOException {
+            if (result.tei != null) {
+                result.entry = getEntryName(result.file);
+                zip.putNextEntry(new ZipEntry(result.entry));
+                zip.write(result.tei.getBytes("UTF-8"));
+                zip.closeEntry();
+                zip.flush();
+            }
+            status.append(toJson(result, false)).append('\n');
+        }
+
+        private String getEntryName(BulkFile file) {
+            String name = file.name;
+            if (name.toLowerCase().endsWith(".pdf")) {
+                name = name.substring(0, name.length() - 4);
+            }
+            String entry = name + ".tei.xml";
+            for (int i = 1; !entries.add(entry.toLowerCase()); i++) {
+                entry = name + "-" + file.index + ((i > 1) ? "-" + i : "") + ".tei.xml";
+            }
+            return entry;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            zip.putNextEntry(new ZipEntry(STATUS_ENTRY));
+            zip.write(status.toString().getBytes("UTF-8"));
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        }
+    }
+
+    public static String methodLogIn() {
+        return ">> " + GrobidRestProcessBulk.class.getName() + "." + Thread.currentThread().getStackTrace()[1].getMethodName();
+    }
+
+    public static String methodLogOut() {
+        return "<< " + GrobidRestProcessBulk.class.getName() + "." + Thread.currentThread().getStackTrace()[1].getMethodName();
+    }
+}
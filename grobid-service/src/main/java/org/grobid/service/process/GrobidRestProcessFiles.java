@@ -14,6 +14,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.io.output.CountingOutputStream;
 
 import org.grobid.core.annotations.TeiStAXParser;
 import org.grobid.core.engines.Engine;
@@ -26,6 +27,7 @@ import org.grobid.service.util.GrobidRestUtils;
 import org.grobid.service.util.GrobidServiceProperties;
 import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.KeyGen;
+import org.grobid.core.engines.tagging.DebugCapture;
 import org.grobid.core.engines.tagging.GrobidCRFEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -135,19 +137,7 @@ public class GrobidRestProcessFiles {
      * @return Response containing the TEI files representing the header part.
      */
     public static Response processStatelessBulkHeaderDocument(final InputStream inputStream) {
-        LOGGER.debug(methodLogIn());
-        Response response = null;
-        LOGGER.debug(methodLogIn());
-        try {
-            File originFile = GrobidRestUtils.writeInputFile(inputStream);
-            LOGGER.info("originFile=" + originFile);
-        } catch (Exception e) {
-            LOGGER.error("An unexpected exception occurs. ", e);
-            response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
-        }
-        LOGGER.debug(methodLogOut());
-
-        return response;
+        return GrobidRestProcessBulk.processBulkHeaderDocument(inputStream, false, true);
     }
 
     /**
@@ -173,6 +163,10 @@ public class GrobidRestProcessFiles {
 															final int endPage, 
 															final boolean generateIDs) {
         LOGGER.debug(methodLogIn());
+        if (!htmlFormat) {
+            return processStatelessFulltextDocumentStreaming(inputStream, consolidate, startPage, endPage, 
+                generateIDs);
+        }
         Response response = null;
         String retVal = null;
         boolean isparallelExec = GrobidServiceProperties.isParallelExec();
@@ -203,12 +197,8 @@ public class GrobidRestProcessFiles {
                 if (!GrobidRestUtils.isResultOK(retVal)) {
                     response = Response.status(Status.NO_CONTENT).build();
                 } else {
-                    if (htmlFormat) {
-                        response = Response.status(Status.OK).entity(formatAsHTML(retVal)).
-							type(MediaType.APPLICATION_XML).build();
-                    } else {
-                        response = Response.status(Status.OK).entity(retVal).type(MediaType.APPLICATION_XML).build();
-                    }
+                    response = Response.status(Status.OK).entity(formatAsHTML(retVal)).
+						type(MediaType.APPLICATION_XML).build();
                 }
             }
         } catch (NoSuchElementException nseExp) {
@@ -228,23 +218,83 @@ public class GrobidRestProcessFiles {
     }
 
     /**
-     * Uploads the origin document which shall be extracted into TEI + assets in a ZIP 
-	 * archive.
+     * Full text processing whose TEI is written to the response section by section while the 
+     * document is processed, instead of being built as a string. The input file is spooled before the 
+     * response is returned, and the engine is borrowed while the response is written so that it is 
+     * always returned to the pool. An error before any byte of the response is sent gives a status 
+     * (503 without engine, 500 otherwise), and an interrupted response afterwards.
+     */
+    private static Response processStatelessFulltextDocumentStreaming(final InputStream inputStream,
+                                                            final boolean consolidate,
+															final int startPage,
+															final int endPage, 
+															final boolean generateIDs) {
+        final boolean isparallelExec = GrobidServiceProperties.isParallelExec();
+        final File input = GrobidRestUtils.writeInputFile(inputStream);
+        if (input == null) {
+            return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+        }
+
+        StreamingOutput stream = new StreamingOutput() {
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                // counts the bytes handed to the response, below the buffers of the writer
+                CountingOutputStream counter = new CountingOutputStream(output);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(counter, "UTF-8"));
+                Engine engine = null;
+                try {
+                    engine = GrobidRestUtils.getEngine(isparallelExec);
+                    if (isparallelExec) {
+                        engine.fullTextToTEI(input.getAbsolutePath(), consolidate, false, null, 
+                            startPage, endPage, generateIDs, writer);
+                    } else {
+                        synchronized (engine) {
+                            engine.fullTextToTEI(input.getAbsolutePath(), consolidate, false, null, 
+                                startPage, endPage, generateIDs, writer);
+                        }
+                    }
+                    writer.flush();
+                } catch (NoSuchElementException nseExp) {
+                    LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.");
+                    throw new WebApplicationException(Status.SERVICE_UNAVAILABLE);
+                } catch (Exception exp) {
+                    LOGGER.error("An unexpected exception occurs. ", exp);
+                    if (counter.getByteCount() == 0) {
+                        throw new WebApplicationException(exp, Status.INTERNAL_SERVER_ERROR);
+                    }
+                    // the status is already sent, the response can only be interrupted
+                    throw new IOException("The processing failed after the start of the response", exp);
+                } finally {
+                    GrobidRestUtils.removeTempFile(input);
+                    if (isparallelExec && (engine != null)) {
+                        GrobidPoolingFactory.returnEngine(engine);
+                    }
+                    LOGGER.debug(methodLogOut());
+                }
+                if (counter.getByteCount() == 0) {
+                    throw new WebApplicationException(Status.NO_CONTENT);
+                }
+            }
+        };
+        return Response.status(Status.OK).entity(stream).type(MediaType.APPLICATION_XML).build();
+    }
+
+    /**
+     * Uploads the origin document which shall be extracted into TEI, and returns in a ZIP archive
+     * the TEI together with the feature matrix and the labeled output of each call to a model 
+     * during the processing, for debugging purposes.
      *
      * @param inputStream the data of origin document
      * @param consolidate the consolidation option allows GROBID to exploit Crossref
      *                             web services for improving header information		
-     * @param htmlFormat  if the result has to be formatted to be displayed as html.
    	 * @param startPage give the starting page to consider in case of segmentation of the 
    	 * PDF, -1 for the first page (default) 
    	 * @param endPage give the end page to consider in case of segmentation of the 
    	 * PDF, -1 for the last page (default)
 	 * @param generateIDs if true, generate random attribute id on the textual elements of 
 	 * the resulting TEI 		
-     * @return a response object mainly contain the TEI representation of the
-     *         full text
+     * @return a response object containing the ZIP archive
      */
-    public static Response processStatelessFulltextAssetDocument(final InputStream inputStream,
+    public static Response processStatelessFulltextDebugDocument(final InputStream inputStream,
                                                             final boolean consolidate,
 															final int startPage,
 															final int endPage, 
@@ -255,67 +305,53 @@ public class GrobidRestProcessFiles {
         boolean isparallelExec = GrobidServiceProperties.isParallelExec();
         File originFile = null;
         Engine engine = null;
-		String assetPath = null;
+        DebugCapture capture = null;
         try {
             originFile = GrobidRestUtils.writeInputFile(inputStream);
 
             if (originFile == null) {
                 response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
             } else {
-				// set the path for the asset files
-				assetPath = GrobidProperties.getTempPath().getPath() + "/" + KeyGen.getKey();
-				
                 // starts conversion process
 				engine = GrobidRestUtils.getEngine(isparallelExec);
-                if (isparallelExec) {
-                    retVal = engine.fullTextToTEI(originFile.getAbsolutePath(), 
-						consolidate, false, assetPath, startPage, endPage, generateIDs);
-                    GrobidPoolingFactory.returnEngine(engine);
-					engine = null;
-                } else {
-                    synchronized (engine) {
+                DebugCapture.start();
+                try {
+                    if (isparallelExec) {
                         retVal = engine.fullTextToTEI(originFile.getAbsolutePath(), 
-							consolidate, false, assetPath, startPage, endPage, generateIDs);
+							consolidate, false, null, startPage, endPage, generateIDs);
+                        GrobidPoolingFactory.returnEngine(engine);
+						engine = null;
+                    } else {
+                        synchronized (engine) {
+                            retVal = engine.fullTextToTEI(originFile.getAbsolutePath(), 
+								consolidate, false, null, startPage, endPage, generateIDs);
+                        }
                     }
+                } finally {
+                    capture = DebugCapture.stop();
                 }
 
-                GrobidRestUtils.removeTempFile(originFile);				
+                GrobidRestUtils.removeTempFile(originFile);
 
                 if (!GrobidRestUtils.isResultOK(retVal)) {
                     response = Response.status(Status.NO_CONTENT).build();
                 } else {
-                   
-                    response = Response.status(Status.OK).type("application/zip").build();
-					
 					ByteArrayOutputStream ouputStream = new ByteArrayOutputStream();
 					ZipOutputStream out = new ZipOutputStream(ouputStream);
+					Charset utf8 = Charset.forName("UTF-8");
 					out.putNextEntry(new ZipEntry("tei.xml"));
-					out.write(retVal.getBytes(Charset.forName("UTF-8")));
-					// put now the assets, i.e. all the files under the asset path
-					File assetPathDir = new File(assetPath);
-					if (assetPathDir.exists()) {
-				        File[] files = assetPathDir.listFiles();
-				        if (files != null) {
-							byte[] buffer = new byte[1024];
-				            for (final File currFile : files) {
-			                    if (currFile.getName().toLowerCase().endsWith(".jpg") 
-									|| currFile.getName().toLowerCase().endsWith(".png") ) {
-									try {
-										ZipEntry ze= new ZipEntry(currFile.getName());
-										out.putNextEntry(ze);
-										FileInputStream in = new FileInputStream(currFile);
-										int len;
-										while ((len = in.read(buffer)) > 0) {
-											out.write(buffer, 0, len);
-										}
-										in.close();
-										out.closeEntry();
-									} catch (IOException e) {
-									    e.printStackTrace();
-									}
-								}
-							}
-						}
+					out.write(retVal.getBytes(utf8));
+					out.closeEntry();
+					int index = 0;
+					for (DebugCapture.Entry entry : capture.getEntries()) {
+						// one features and one labeled file per call, ordered as the calls
+						String prefix = String.format("%03d-%s", index++, entry.getModel().getModelName());
+						out.putNextEntry(new ZipEntry(prefix + ".features.txt"));
+						out.write(entry.getFeatures().getBytes(utf8));
+						out.closeEntry();
+						out.putNextEntry(new ZipEntry(prefix + ".labeled.txt"));
+						out.write(entry.getLabeled().getBytes(utf8));
+						out.closeEntry();
 					}
 					out.finish();
 
@@ -323,7 +359,7 @@ public class GrobidRestProcessFiles {
 					            .ok()
 					            .type("application/zip")
 					            .entity(ouputStream.toByteArray())
-								.header("Content-Disposition", "attachment; filename=\"result.zip\"")
+								.header("Content-Disposition", "attachment; filename=\"debug.zip\"")
 					            .build();
 					out.close();
                 }
@@ -336,9 +372,6 @@ public class GrobidRestProcessFiles {
             response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
         } finally {
             GrobidRestUtils.removeTempFile(originFile);
-			if (assetPath != null) {
-				GrobidRestUtils.removeTempDirectory(assetPath);
-			}
             if (isparallelExec && (engine != null)) {
                 GrobidPoolingFactory.returnEngine(engine);
             }
@@ -347,6 +380,173 @@ public class GrobidRestProcessFiles {
         return response;
     }
 
+    /**
+     * Uploads the origin document which shall be extracted into TEI + assets in a ZIP 
+	 * archive. The archive is streamed to the client: the TEI entry is written section by 
+	 * section while the document is processed, then the images are copied from disk. The 
+	 * engine is borrowed while the archive is written, so that it is always returned to the pool.
+     *
+     * @param inputStream the data of origin document
+     * @param consolidate the consolidation option allows GROBID to exploit Crossref
+     *                             web services for improving header information		
+     * @param htmlFormat  if the result has to be formatted to be displayed as html.
+   	 * @param startPage give the starting page to consider in case of segmentation of the 
+   	 * PDF, -1 for the first page (default) 
+   	 * @param endPage give the end page to consider in case of segmentation of the 
+   	 * PDF, -1 for the last page (default)
+	 * @param generateIDs if true, generate random attribute id on the textual elements of 
+	 * the resulting TEI 		
+     * @return a response object mainly contain the TEI representation of the
+     *         full text
+     */
+    public static Response processStatelessFulltextAssetDocument(final InputStream inputStream,
+                                                            final boolean consolidate,
+															final int startPage,
+															final int endPage, 
+															final boolean generateIDs) {
+        LOGGER.debug(methodLogIn());
+        final boolean isparallelExec = GrobidServiceProperties.isParallelExec();
+        final File input = GrobidRestUtils.writeInputFile(inputStream);
+        if (input == null) {
+            return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+        }
+
+        // set the path for the asset files
+        final String assetPath = GrobidProperties.getTempPath().getPath() + "/" + KeyGen.getKey();
+        StreamingOutput stream = new StreamingOutput() {
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                // counts the bytes handed to the response, below the buffers of the archive
+                CountingOutputStream counter = new CountingOutputStream(output);
+                ZipOutputStream zip = new ZipOutputStream(counter);
+                // the TEI entry is started with its first character, so that an empty TEI gives no archive
+                ZipEntryOutputStream tei = new ZipEntryOutputStream(zip, "tei.xml");
+                Writer writer = new BufferedWriter(new OutputStreamWriter(tei, "UTF-8"));
+                Engine engine = null;
+                try {
+                    engine = GrobidRestUtils.getEngine(isparallelExec);
+                    if (isparallelExec) {
+                        engine.fullTextToTEI(input.getAbsolutePath(), consolidate, false, assetPath, 
+                            startPage, endPage, generateIDs, writer);
+                    } else {
+                        synchronized (engine) {
+                            engine.fullTextToTEI(input.getAbsolutePath(), consolidate, false, assetPath, 
+                                startPage, endPage, generateIDs, writer);
+                        }
+                    }
+                    writer.flush();
+                    if (!tei.isStarted()) {
+                        throw new WebApplicationException(Status.NO_CONTENT);
+                    }
+                    zip.closeEntry();
+                    // put now the assets, i.e. all the images under the asset path, converted by the 
+                    // processing
+                    File[] files = new File(assetPath).listFiles();
+                    if (files != null) {
+                        byte[] buffer = new byte[8192];
+                        for (final File currFile : files) {
+                            String name = currFile.getName().toLowerCase();
+                            if (name.endsWith(".jpg") || name.endsWith(".png")) {
+                                zip.putNextEntry(new ZipEntry(currFile.getName()));
+                                InputStream in = new FileInputStream(currFile);
+                                try {
+                                    int len;
+                                    while ((len = in.read(buffer)) > 0) {
+                                        zip.write(buffer, 0, len);
+                                    }
+                                } finally {
+                                    in.close();
+                                }
+                                zip.closeEntry();
+                            }
+                        }
+                    }
+                    zip.finish();
+                    zip.flush();
+                } catch (WebApplicationException exp) {
+                    throw exp;
+                } catch (NoSuchElementException nseExp) {
+                    LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.");
+                    throw new WebApplicationException(Status.SERVICE_UNAVAILABLE);
+                } catch (Exception exp) {
+                    LOGGER.error("An unexpected exception occurs. ", exp);
+                    if (counter.getByteCount() == 0) {
+                        throw new WebApplicationException(exp, Status.INTERNAL_SERVER_ERROR);
+                    }
+                    // the status is already sent, the response can only be interrupted
+                    throw new IOException("The processing failed after the start of the response", exp);
+                } finally {
+                    GrobidRestUtils.removeTempFile(input);
+                    GrobidRestUtils.removeTempDirectory(assetPath);
+                    if (isparallelExec && (engine != null)) {
+                        GrobidPoolingFactory.returnEngine(engine);
+                    }
+                    LOGGER.debug(methodLogOut());
+                }
+            }
+        };
+        return Response
+                .ok()
+                .type("application/zip")
+                .entity(stream)
+                .header("Content-Disposition", "attachment; filename=\"result.zip\"")
+                .build();
+    }
+
+    /**
+     * Stream writing a single entry of a zip archive, which is started with the first byte written; 
+     * closing it leaves the archive open.
+     */
+    private static class ZipEntryOutputStream extends OutputStream {
+        private final ZipOutputStream zip;
+        private final String name;
+        private boolean started = false;
+
+        ZipEntryOutputStream(ZipOutputStream zip, String name) {
+            this.zip = zip;
+            this.name = name;
+        }
+
+        /**
+         * @return true if something has been written to the entry
+         */
+        boolean isStarted() {
+            return started;
+        }
+
+        private void start() throws IOException {
+            if (!started) {
+                zip.putNextEntry(new ZipEntry(name));
+                started = true;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            start();
+            zip.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                start();
+                zip.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (started) {
+                zip.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
 
     /**
      * Process a patent document encoded in TEI for extracting and parsing citations in the description body.
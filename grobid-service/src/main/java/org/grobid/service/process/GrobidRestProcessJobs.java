@@ -0,0 +1,196 @@
+package org.grobid.service.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.grobid.service.GrobidPathes;
+import org.grobid.service.util.GrobidRestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous processing of PDF documents: a document is queued as a job whose id is returned at once, and
+ * the TEI is retrieved later with the id, by polling or by waiting for the end of the job.
+ *
+ * When the queue is full, the submissions are refused with the status 429 (too many requests) and a
+ * Retry-After header estimated from the jobs waiting, rather than holding the request until an engine is
+ * free.
+ */
+public class GrobidRestProcessJobs {
+
+    /**
+     * The class Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GrobidRestProcessJobs.class);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Maximum waiting time of a request for the end of a job, in seconds.
+     */
+    public static final int MAX_WAIT = 60;
+
+    /**
+     * Queue the processing of the header of a document.
+     *
+     * @param inputStream the data of origin document
+     * @param consolidate consolidation parameter for the header extraction
+     * @return 202 with the job status and its location, or 429 if the queue is full
+     */
+    public static Response submitHeaderJob(InputStream inputStream, boolean consolidate) {
+        return submit(JobQueue.Type.HEADER, inputStream, consolidate, -1, -1, false);
+    }
+
+    /**
+     * Queue the processing of the full text of a document.
+     *
+     * @param inputStream the data of origin document
+     * @param consolidate consolidation parameter for the header and the citations
+     * @param startPage   give the starting page to consider in case of segmentation of the
+     *                    PDF, -1 for the first page (default)
+     * @param endPage     give the end page to consider in case of segmentation of the
+     *                    PDF, -1 for the last page (default)
+     * @param generateIDs if true, generate random attribute id on the textual elements of the TEI
+     * @return 202 with the job status and its location, or 429 if the queue is full
+     */
+    public static Response submitFulltextJob(InputStream inputStream, boolean consolidate, int startPage,
+                                             int endPage, boolean generateIDs) {
+        return submit(JobQueue.Type.FULLTEXT, inputStream, consolidate, startPage, endPage, generateIDs);
+    }
+
+    private static Response submit(JobQueue.Type type, InputStream inputStream, boolean consolidate,
+                                   int startPage, int endPage, boolean generateIDs) {
+        LOGGER.debug(methodLogIn());
+        Response response;
+        JobQueue jobQueue = JobQueue.getInstance();
+        // refused before spooling the document when possible
+        if (jobQueue.isFull()) {
+            response = tooManyRequests(jobQueue, inputStream);
+        } else {
+            File file = GrobidRestUtils.writeInputFile(inputStream);
+            if (file == null) {
+                response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
+            } else {
+                JobQueue.Job job = jobQueue.submit(type, file, consolidate, startPage, endPage, generateIDs);
+                if (job == null) {
+                    response = tooManyRequests(jobQueue, null);
+                } else {
+                    response = Response.status(Status.ACCEPTED)
+                        .location(URI.create(GrobidPathes.PATH_JOBS + "/" + job.getId()))
+                        .type(MediaType.APPLICATION_JSON).entity(toJson(job)).build();
+                }
+            }
+        }
+        LOGGER.debug(methodLogOut());
+        return response;
+    }
+
+    private static Response tooManyRequests(JobQueue jobQueue, InputStream inputStream) {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                LOGGER.error("Cannot close the input stream", e);
+            }
+        }
+        LOGGER.warn("Job refused, " + jobQueue.getQueued() + " jobs already queued");
+        return Response.status(TOO_MANY_REQUESTS)
+            .header("Retry-After", String.valueOf(jobQueue.getEstimatedWait())).build();
+    }
+
+    /**
+     * Get the result of a job, waiting at most the given time for the end of the job.
+     *
+     * @param id   the job id
+     * @param wait the maximum waiting time in seconds, 0 for returning at once, capped to {@value #MAX_WAIT}
+     * @return 200 with the TEI, 204 if the result is empty, 202 with the job status if it is not finished,
+     * 500 with the error if it failed, 404 if the job is unknown or its result expired
+     */
+    public static Response getJob(String id, int wait) {
+        LOGGER.debug(methodLogIn());
+        Response response;
+        JobQueue jobQueue = JobQueue.getInstance();
+        JobQueue.Job job = jobQueue.get(id);
+        if (job == null) {
+            response = Response.status(Status.NOT_FOUND).build();
+        } else {
+            try {
+                if (wait > 0) {
+                    job.await(Math.min(wait, MAX_WAIT));
+                }
+                if (!job.isFinished()) {
+                    response = Response.status(Status.ACCEPTED).type(MediaType.APPLICATION_JSON)
+                        .header("Retry-After", String.valueOf(jobQueue.getEstimatedWait()))
+                        .entity(toJson(job)).build();
+                } else if (job.getStatus() == JobQueue.Status.FAILED) {
+                    response = Response.status(Status.INTERNAL_SERVER_ERROR).type(MediaType.APPLICATION_JSON)
+                        .entity(toJson(job)).build();
+                } else if (GrobidRestUtils.isResultOK(job.getTei())) {
+                    response = Response.status(Status.OK).type(MediaType.APPLICATION_XML)
+                        .entity(job.getTei()).build();
+                } else {
+                    response = Response.status(Status.NO_CONTENT).build();
+                }
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                response = Response.status(Status.SERVICE_UNAVAILABLE).build();
+            }
+        }
+        LOGGER.debug(methodLogOut());
+        return response;
+    }
+
+    /**
+     * Cancel a job which is not started yet, or forget the result of a finished job.
+     *
+     * @param id the job id
+     * @return 204 if the job is removed, 409 if it is running, 404 if it is unknown
+     */
+    public static Response deleteJob(String id) {
+        LOGGER.debug(methodLogIn());
+        Response response;
+        JobQueue jobQueue = JobQueue.getInstance();
+        JobQueue.Job job = jobQueue.get(id);
+        if (job == null) {
+            response = Response.status(Status.NOT_FOUND).build();
+        } else if (jobQueue.remove(job)) {
+            response = Response.status(Status.NO_CONTENT).build();
+        } else {
+            response = Response.status(Status.CONFLICT).type(MediaType.APPLICATION_JSON)
+                .entity(toJson(job)).build();
+        }
+        LOGGER.debug(methodLogOut());
+        return response;
+    }
+
+    /**
+     * @return the status of a job as a JSON object, e.g. {"id":"...","type":"header","status":"queued"}
+     */
+    static String toJson(JobQueue.Job job) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"id\":\"").append(job.getId()).append('"');
+        json.append(",\"type\":\"").append(job.getType().name().toLowerCase()).append('"');
+        json.append(",\"status\":\"").append(job.getStatus().name().toLowerCase()).append('"');
+        if (job.isFinished()) {
+            json.append(",\"time\":").append(job.getTime());
+        }
+        if (job.getError() != null) {
+            json.append(",\"error\":\"").append(GrobidRestUtils.escapeJson(job.getError())).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    public static String methodLogIn() {
+        return ">> " + GrobidRestProcessJobs.class.getName() + "." + Thread.currentThread().getStackTrace()[1].getMethodName();
+    }
+
+    public static String methodLogOut() {
+        return "<< " + GrobidRestProcessJobs.class.getName() + "." + Thread.currentThread().getStackTrace()[1].getMethodName();
+    }
+}
@@ -1,12 +1,22 @@
 package org.grobid.service.process;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
 
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.lang3.StringUtils;
 
 import org.grobid.core.data.Affiliation;
 import org.grobid.core.data.BiblioItem;
@@ -18,6 +28,7 @@ import org.grobid.core.engines.Engine;
 import org.grobid.core.factory.GrobidPoolingFactory;
 import org.grobid.service.util.GrobidRestUtils;
 import org.grobid.service.util.GrobidServiceProperties;
+import org.grobid.service.util.StringListReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -364,6 +375,175 @@ public class GrobidRestProcessString {
 		return response;
 	}
 
+	/**
+	 * Kind of strings processed by a batch.
+	 */
+	public enum BatchType {
+		DATE, NAMES_HEADER, NAMES_CITATION, AFFILIATION, CITATION
+	}
+
+	/**
+	 * Number of strings labeled at a time by a batch.
+	 */
+	private static final int BATCH_CHUNK_SIZE = 1000;
+
+	/**
+	 * Parse a list of raw strings with a single engine. The strings are read by chunks from the 
+	 * request, each chunk being labeled at once, and the results are streamed in the order of the 
+	 * strings as NDJSON, one JSON object per string: {"index":0,"status":200,"tei":"..."}, the 
+	 * status being 204 without tei if nothing is recognized.
+	 * 
+	 * @param input
+	 *            the strings, newline-delimited or as a JSON array
+	 * @param json
+	 *            true if the strings are a JSON array
+	 * @param type
+	 *            the kind of strings
+	 * @param consolidate
+	 *            consolidation parameter for the parsed citations
+	 * @return a response streaming the structured xml representation of each string
+	 */
+	public static Response processBatch(final InputStream input, final boolean json, final BatchType type, 
+										final boolean consolidate) {
+		LOGGER.debug(methodLogIn());
+		final boolean isparallelExec = GrobidServiceProperties.isParallelExec();
+		final StringListReader reader;
+		final List<String> first;
+		try {
+			reader = new StringListReader(input, json);
+			// an invalid list still gives a status
+			first = reader.next(BATCH_CHUNK_SIZE);
+		} catch (IOException e) {
+			LOGGER.error("Cannot read the list of strings: " + e.getMessage());
+			return Response.status(Status.BAD_REQUEST).build();
+		}
+		if (first.isEmpty()) {
+			return Response.status(Status.NO_CONTENT).build();
+		}
+
+		StreamingOutput stream = new StreamingOutput() {
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				Writer writer = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"));
+				// borrowed while the response is written, so that it is always returned to the pool
+				Engine engine = null;
+				try {
+					engine = GrobidRestUtils.getEngine(isparallelExec);
+					int index = 0;
+					List<String> strings = first;
+					while (!strings.isEmpty()) {
+						List<String> results;
+						if (isparallelExec) {
+							results = processChunk(engine, strings, type, consolidate);
+						} else {
+							// the other requests can use the engine between the chunks
+							synchronized (engine) {
+								results = processChunk(engine, strings, type, consolidate);
+							}
+						}
+						for (String result : results) {
+							writer.write("{\"index\":" + index++);
+							if (GrobidRestUtils.isResultOK(result)) {
+								writer.write(",\"status\":200,\"tei\":\"" + GrobidRestUtils.escapeJson(result) + "\"}\n");
+							} else {
+								writer.write(",\"status\":204}\n");
+							}
+						}
+						writer.flush();
+						strings = reader.next(BATCH_CHUNK_SIZE);
+					}
+				} catch (NoSuchElementException nseExp) {
+					// nothing is written before the engine is borrowed
+					LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.");
+					throw new WebApplicationException(Status.SERVICE_UNAVAILABLE);
+				} catch (IOException e) {
+					throw e;
+				} catch (Exception e) {
+					LOGGER.error("An unexpected exception occurs. ", e);
+					// the status is already sent, the response can only be interrupted
+					throw new IOException("The processing failed after the start of the response", e);
+				} finally {
+					if (isparallelExec && (engine != null)) {
+						GrobidPoolingFactory.returnEngine(engine);
+					}
+					LOGGER.debug(methodLogOut());
+				}
+			}
+		};
+		return Response.status(Status.OK).entity(stream).type(GrobidRestProcessBulk.NDJSON).build();
+	}
+
+	/**
+	 * @return the TEI of each string, in the same order, null if nothing is recognized
+	 */
+	private static List<String> processChunk(Engine engine, List<String> strings, BatchType type, 
+											 boolean consolidate) throws Exception {
+		// the blank strings are not labeled
+		List<String> inputs = new ArrayList<String>(strings.size());
+		for (String string : strings) {
+			if (!StringUtils.isBlank(string)) {
+				string = string.replaceAll("\\t", " ");
+				if (type != BatchType.AFFILIATION) {
+					string = string.replaceAll("\\n", " ");
+				}
+				inputs.add(string);
+			}
+		}
+
+		List<String> tei = new ArrayList<String>(inputs.size());
+		if (!inputs.isEmpty()) {
+			switch (type) {
+				case DATE:
+					for (List<Date> dates : engine.processDates(inputs)) {
+						StringBuilder buffer = new StringBuilder();
+						if (dates != null) {
+							for (Date date : dates) {
+								buffer.append(date.toTEI());
+							}
+						}
+						tei.add(buffer.toString());
+					}
+					break;
+				case NAMES_HEADER:
+				case NAMES_CITATION:
+					List<List<Person>> authorsList = (type == BatchType.NAMES_HEADER) ? 
+						engine.processAuthorsHeaderLists(inputs) : engine.processAuthorsCitationLists(inputs);
+					for (List<Person> authors : authorsList) {
+						StringBuilder buffer = new StringBuilder();
+						if (authors != null) {
+							for (Person person : authors) {
+								buffer.append(person.toTEI());
+							}
+						}
+						tei.add(buffer.toString());
+					}
+					break;
+				case AFFILIATION:
+					for (List<Affiliation> affiliations : engine.processAffiliations(inputs)) {
+						StringBuilder buffer = new StringBuilder();
+						if (affiliations != null) {
+							for (Affiliation affiliation : affiliations) {
+								buffer.append(affiliation.toTEI());
+							}
+						}
+						tei.add(buffer.toString());
+					}
+					break;
+				case CITATION:
+					for (BiblioItem biblioItem : engine.processRawReferences(inputs, consolidate)) {
+						tei.add(biblioItem == null ? null : biblioItem.toTEI(-1));
+					}
+					break;
+			}
+		}
+
+		List<String> results = new ArrayList<String>(strings.size());
+		int i = 0;
+		for (String string : strings) {
+			results.add(StringUtils.isBlank(string) ? null : tei.get(i++));
+		}
+		return results;
+	}
+
 	/**
 	 * @return
 	 */
@@ -0,0 +1,376 @@
+package org.grobid.service.process;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.grobid.core.engines.Engine;
+import org.grobid.core.factory.GrobidPoolingFactory;
+import org.grobid.service.util.GrobidRestUtils;
+import org.grobid.service.util.GrobidServiceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process queue of the asynchronous jobs, processed by a fixed number of worker threads each borrowing an
+ * engine of the pool for the time of a job.
+ *
+ * The header jobs are taken before the full text ones, and the jobs of the same type in submission order. The
+ * queue is bounded: when it is full, new jobs are refused with an estimation of the time needed to make room,
+ * instead of waiting for an engine. The results are kept for a limited time after the end of the jobs, and
+ * at most a given number of them, the oldest ones being forgotten first.
+ */
+public class JobQueue {
+
+    /**
+     * The class Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobQueue.class);
+
+    private static JobQueue instance = null;
+
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<Job>();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<String, Job>();
+    // the finished jobs whose result is kept, in the order of their end
+    private final Deque<Job> results = new ArrayDeque<Job>();
+    private final AtomicLong sequence = new AtomicLong(0);
+    private final int capacity;
+    private final int nbThreads;
+    private final long resultTtl;
+    private final int maxResults;
+    private final boolean isparallelExec;
+    // moving average of the processing time of the jobs in ms, for estimating the waiting times
+    private double averageTime = 0;
+
+    public enum Type {
+        // declared by priority
+        HEADER, FULLTEXT
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    JobQueue(int capacity, int nbThreads, long resultTtl, int maxResults, boolean isparallelExec) {
+        this.capacity = capacity;
+        this.nbThreads = nbThreads;
+        this.resultTtl = resultTtl;
+        this.maxResults = maxResults;
+        this.isparallelExec = isparallelExec;
+        for (int i = 1; i <= nbThreads; i++) {
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "grobid-jobs-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * @return the queue of the service, started on first use
+     */
+    public static synchronized JobQueue getInstance() {
+        if (instance == null) {
+            boolean isparallelExec = GrobidServiceProperties.isParallelExec();
+            // with a single engine, the jobs are processed one at a time anyway
+            int nbThreads = isparallelExec ? Math.max(GrobidServiceProperties.getJobsThreads(), 1) : 1;
+            instance = new JobQueue(GrobidServiceProperties.getJobsQueueSize(), nbThreads,
+                GrobidServiceProperties.getJobsResultTtl() * 1000L, GrobidServiceProperties.getJobsMaxResults(),
+                isparallelExec);
+            LOGGER.info("Asynchronous jobs processed by " + nbThreads + " threads, at most "
+                + instance.capacity + " jobs waiting and " + instance.maxResults + " results kept");
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the queue of the service, for the tests.
+     */
+    static synchronized void setInstance(JobQueue queue) {
+        instance = queue;
+    }
+
+    /**
+     * Queue a job, unless the queue is full.
+     *
+     * @param type        the processing of the document
+     * @param file        the document spooled to disk, removed at the end of the job or if it is refused
+     * @param consolidate consolidation parameter
+     * @param startPage   first page of the full text, -1 for the first page of the document
+     * @param endPage     last page of the full text, -1 for the last page of the document
+     * @param generateIDs if true, generate random attribute id on the textual elements of the TEI
+     * @return the queued job, or null if the queue is full
+     */
+    public Job submit(Type type, File file, boolean consolidate, int startPage, int endPage,
+                      boolean generateIDs) {
+        purge();
+        Job job = new Job(type, file, consolidate, startPage, endPage, generateIDs, sequence.incrementAndGet());
+        synchronized (queue) {
+            if (queue.size() >= capacity) {
+                GrobidRestUtils.removeTempFile(file);
+                return null;
+            }
+            jobs.put(job.id, job);
+            queue.add(job);
+        }
+        return job;
+    }
+
+    /**
+     * @return the job with the given id, null if unknown or expired
+     */
+    public Job get(String id) {
+        purge();
+        return (id == null) ? null : jobs.get(id);
+    }
+
+    /**
+     * Forget a job, removing it from the queue if it is not started yet.
+     *
+     * @return false if the job is running and cannot be removed
+     */
+    public boolean remove(Job job) {
+        if (queue.remove(job)) {
+            GrobidRestUtils.removeTempFile(job.file);
+        } else if (!job.isFinished()) {
+            return false;
+        }
+        jobs.remove(job.id);
+        synchronized (results) {
+            results.remove(job);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of jobs waiting to be processed
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * @return true if a new job would be refused
+     */
+    public boolean isFull() {
+        return queue.size() >= capacity;
+    }
+
+    /**
+     * @return the estimated time in seconds before the jobs currently queued are started, at least 1
+     */
+    public int getEstimatedWait() {
+        double wait = getAverageTime() * (queue.size() + 1) / nbThreads / 1000.0;
+        return Math.max((int) Math.ceil(wait), 1);
+    }
+
+    /**
+     * @return the moving average of the processing time of the jobs in ms
+     */
+    synchronized double getAverageTime() {
+        return averageTime;
+    }
+
+    private synchronized void addTime(long time) {
+        averageTime = (averageTime == 0) ? time : 0.8 * averageTime + 0.2 * time;
+    }
+
+    private void work() {
+        while (true) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                process(job);
+                addTime(job.getTime());
+            } catch (Throwable exp) {
+                if ((exp instanceof NoSuchElementException) && (job.getStatus() == Status.QUEUED)) {
+                    // the engines are all used by synchronous requests, the job keeps its turn
+                    LOGGER.warn("No engine available for the job " + job.id + ", queued again");
+                    queue.add(job);
+                    continue;
+                }
+                LOGGER.error("An unexpected exception occurs while processing the job " + job.id + ". ", exp);
+                job.fail(exp);
+            }
+            retain(job);
+        }
+    }
+
+    /**
+     * Process a job with an engine of the pool, the job being finished at the end.
+     *
+     * @throws NoSuchElementException if no engine is available, the job being then not started
+     */
+    protected void process(Job job) throws Exception {
+        Engine engine = GrobidRestUtils.getEngine(isparallelExec);
+        try {
+            job.start();
+            if (isparallelExec) {
+                job.process(engine);
+            } else {
+                synchronized (engine) {
+                    job.process(engine);
+                }
+            }
+        } finally {
+            if (isparallelExec) {
+                GrobidPoolingFactory.returnEngine(engine);
+            }
+        }
+    }
+
+    /**
+     * Keep the result of a finished job, forgetting the oldest results beyond the maximum number.
+     */
+    private void retain(Job job) {
+        synchronized (results) {
+            results.addLast(job);
+            while (results.size() > maxResults) {
+                jobs.remove(results.removeFirst().id);
+            }
+        }
+    }
+
+    /**
+     * Forget the jobs finished for longer than the retention time of the results.
+     */
+    private void purge() {
+        long limit = System.currentTimeMillis() - resultTtl;
+        synchronized (results) {
+            while (!results.isEmpty() && (results.peekFirst().finished < limit)) {
+                jobs.remove(results.removeFirst().id);
+            }
+        }
+    }
+
+    /**
+     * A document to process, and its result once processed.
+     */
+    public static class Job implements Comparable<Job> {
+        private final String id = UUID.randomUUID().toString();
+        private final Type type;
+        private final File file;
+        private final boolean consolidate;
+        private final int startPage;
+        private final int endPage;
+        private final boolean generateIDs;
+        private final long order;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Status status = Status.QUEUED;
+        private volatile long started;
+        private volatile long finished;
+        private volatile String tei;
+        private volatile String error;
+
+        Job(Type type, File file, boolean consolidate, int startPage, int endPage, boolean generateIDs,
+            long order) {
+            this.type = type;
+            this.file = file;
+            this.consolidate = consolidate;
+            this.startPage = startPage;
+            this.endPage = endPage;
+            this.generateIDs = generateIDs;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int priority = type.compareTo(other.type);
+            if (priority != 0) {
+                return priority;
+            }
+            return (order < other.order) ? -1 : ((order == other.order) ? 0 : 1);
+        }
+
+        void start() {
+            started = System.currentTimeMillis();
+            status = Status.RUNNING;
+        }
+
+        void process(Engine engine) throws Exception {
+            try {
+                if (type == Type.HEADER) {
+                    complete(engine.processHeader(file.getAbsolutePath(), consolidate, null));
+                } else {
+                    complete(engine.fullTextToTEI(file.getAbsolutePath(), consolidate, false, null,
+                        startPage, endPage, generateIDs));
+                }
+            } finally {
+                GrobidRestUtils.removeTempFile(file);
+            }
+        }
+
+        void complete(String tei) {
+            this.tei = tei;
+            finish(Status.DONE);
+        }
+
+        void fail(Throwable exp) {
+            error = String.valueOf(exp.getMessage());
+            GrobidRestUtils.removeTempFile(file);
+            finish(Status.FAILED);
+        }
+
+        private void finish(Status status) {
+            finished = System.currentTimeMillis();
+            this.status = status;
+            done.countDown();
+        }
+
+        /**
+         * Wait for the end of the job.
+         *
+         * @param seconds the maximum waiting time
+         * @return true if the job is finished
+         */
+        public boolean await(int seconds) throws InterruptedException {
+            return done.await(seconds, TimeUnit.SECONDS);
+        }
+
+        public boolean isFinished() {
+            return done.getCount() == 0;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the processing time in ms, 0 if the job is not finished
+         */
+        public long getTime() {
+            return ((started == 0) || (finished == 0)) ? 0 : finished - started;
+        }
+
+        public String getTei() {
+            return tei;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
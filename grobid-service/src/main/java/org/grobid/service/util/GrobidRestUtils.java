@@ -4,7 +4,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 
 import org.apache.commons.lang3.StringUtils;
 import org.grobid.core.engines.Engine;
@@ -41,30 +43,45 @@ public class GrobidRestUtils {
 	}
 
 	/**
-	 * Write an input stream in temp directory.
+	 * Size of the transfers from the request to the spooled file.
+	 */
+	private static final long UPLOAD_TRANSFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Write an input stream in the upload directory (grobid.upload.path, the temp
+	 * directory by default), which can be put on a tmpfs. The upload is transferred
+	 * to the file channel by large chunks.
 	 * 
 	 * @param inputStream
-	 * @return
+	 * @return the spooled file, or null if it cannot be written
 	 */
 	public static File writeInputFile(InputStream inputStream) {
 		LOGGER.debug(">> set origin document for stateless service'...");
 
 		File originFile = null;
-		OutputStream out = null;
+		FileOutputStream out = null;
 		try {
-			originFile = newTempFile("origin", "pdf");
+			File uploadPath = GrobidProperties.getUploadPath();
+			if (!uploadPath.exists() && !uploadPath.mkdirs()) {
+				throw new IOException("Cannot create the upload directory '" + uploadPath + "'");
+			}
+			originFile = File.createTempFile("origin", "pdf", uploadPath);
 
 			out = new FileOutputStream(originFile);
-
-			byte buf[] = new byte[1024];
-			int len;
-			while ((len = inputStream.read(buf)) > 0) {
-				out.write(buf, 0, len);
+			FileChannel channel = out.getChannel();
+			ReadableByteChannel in = Channels.newChannel(inputStream);
+			long position = 0;
+			long len;
+			while ((len = channel.transferFrom(in, position, UPLOAD_TRANSFER_SIZE)) > 0) {
+				position += len;
 			}
 		} catch (IOException e) {
 			LOGGER.error(
 					"An internal error occurs, while writing to disk (file to write '"
 							+ originFile + "').", e);
+			if (originFile != null) {
+				originFile.delete();
+			}
 			originFile = null;
 		} finally {
 			try {
@@ -129,6 +146,58 @@ public class GrobidRestUtils {
 		}
 	}
 
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * Escape a string as the content of a JSON string. The quote, the backslash
+	 * and the control characters are escaped, and the non ASCII characters are
+	 * written as unicode escapes of their UTF-16 code units, a character above
+	 * U+FFFF giving the escapes of its surrogate pair. The result is ASCII.
+	 * 
+	 * @param string
+	 *            the string to escape.
+	 * @return the escaped string, without the enclosing quotes.
+	 */
+	public static String escapeJson(String string) {
+		StringBuilder json = new StringBuilder(string.length() + 16);
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			case '\b':
+				json.append("\\b");
+				break;
+			case '\f':
+				json.append("\\f");
+				break;
+			case '\n':
+				json.append("\\n");
+				break;
+			case '\r':
+				json.append("\\r");
+				break;
+			case '\t':
+				json.append("\\t");
+				break;
+			default:
+				if ((c < 0x20) || (c > 0x7E)) {
+					json.append("\\u").append(HEX_DIGITS[(c >> 12) & 0xF])
+							.append(HEX_DIGITS[(c >> 8) & 0xF])
+							.append(HEX_DIGITS[(c >> 4) & 0xF])
+							.append(HEX_DIGITS[c & 0xF]);
+				} else {
+					json.append(c);
+				}
+			}
+		}
+		return json.toString();
+	}
+
 	/**
 	 * @return a new engine from GrobidFactory if the execution is parallel,
 	 *         else return the instance of engine.
@@ -257,6 +257,53 @@ public class GrobidServiceProperties {
 				.stringToBoolean(getPropertyValue(GrobidPropertyKeys.PROP_GROBID_SERVICE_IS_PARALLEL_EXEC));
 	}
 
+	/**
+	 * Returns the maximum number of asynchronous jobs waiting to be processed, given by property
+	 * {@value GrobidPropertyKeys#PROP_GROBID_SERVICE_JOBS_QUEUE_SIZE}.
+	 * 
+	 * @return the size of the queue, 100 by default
+	 */
+	public static int getJobsQueueSize() {
+		return getIntPropertyValue(GrobidPropertyKeys.PROP_GROBID_SERVICE_JOBS_QUEUE_SIZE, 100);
+	}
+
+	/**
+	 * Returns the number of threads processing the asynchronous jobs, given by property
+	 * {@value GrobidPropertyKeys#PROP_GROBID_SERVICE_JOBS_THREADS}.
+	 * 
+	 * @return the number of threads, by default one less than the size of the engine pool so that an 
+	 * engine is left to the synchronous requests
+	 */
+	public static int getJobsThreads() {
+		int threads = getIntPropertyValue(GrobidPropertyKeys.PROP_GROBID_SERVICE_JOBS_THREADS, 0);
+		return (threads > 0) ? threads : Math.max(GrobidProperties.getMaxPoolConnections() - 1, 1);
+	}
+
+	/**
+	 * Returns the time during which the result of an asynchronous job can be retrieved, given by 
+	 * property {@value GrobidPropertyKeys#PROP_GROBID_SERVICE_JOBS_RESULT_TTL}.
+	 * 
+	 * @return the time in seconds, 600 by default
+	 */
+	public static int getJobsResultTtl() {
+		return getIntPropertyValue(GrobidPropertyKeys.PROP_GROBID_SERVICE_JOBS_RESULT_TTL, 600);
+	}
+
+	/**
+	 * Returns the maximum number of results of asynchronous jobs kept, given by property
+	 * {@value GrobidPropertyKeys#PROP_GROBID_SERVICE_JOBS_MAX_RESULTS}.
+	 * 
+	 * @return the number of results, 1000 by default
+	 */
+	public static int getJobsMaxResults() {
+		return getIntPropertyValue(GrobidPropertyKeys.PROP_GROBID_SERVICE_JOBS_MAX_RESULTS, 1000);
+	}
+
+	private static int getIntPropertyValue(String pkey, int defaultValue) {
+		String value = getPropertyValue(pkey);
+		return StringUtils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+	}
+
 	/**
 	 * Update grobid.properties with the key and value given as argument.
 	 * 
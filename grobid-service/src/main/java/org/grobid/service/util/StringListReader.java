@@ -0,0 +1,163 @@
+package org.grobid.service.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a list of strings from a request body by chunks, without loading the whole list in memory. The list
+ * is either newline-delimited, one string per line, or a JSON array of strings (null items being kept as
+ * null).
+ */
+public class StringListReader {
+	private final BufferedReader reader;
+	private final boolean json;
+	private boolean started = false;
+	private boolean finished = false;
+
+	public StringListReader(InputStream input, boolean json) throws IOException {
+		reader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
+		this.json = json;
+	}
+
+	/**
+	 * @param size the maximum number of strings to read
+	 * @return the next strings of the list, empty at the end of the list
+	 * @throws IOException if the list cannot be read or is not a valid JSON array of strings
+	 */
+	public List<String> next(int size) throws IOException {
+		List<String> strings = new ArrayList<String>();
+		while (!finished && (strings.size() < size)) {
+			if (json) {
+				readJson(strings);
+			} else {
+				String line = reader.readLine();
+				if (line == null) {
+					finished = true;
+				} else {
+					strings.add(line);
+				}
+			}
+		}
+		return strings;
+	}
+
+	/**
+	 * Read the next item of the JSON array, if any, with the separator following it, so that an invalid 
+	 * list fails with the chunk of its last valid item.
+	 */
+	private void readJson(List<String> strings) throws IOException {
+		int c = skipWhitespaces();
+		if (!started) {
+			if (c != '[') {
+				throw new IOException("A JSON array is expected");
+			}
+			started = true;
+			c = skipWhitespaces();
+			if (c == ']') {
+				finish();
+				return;
+			}
+		}
+
+		if (c == '"') {
+			strings.add(readJsonString());
+		} else if (c == 'n') {
+			for (char expected : "ull".toCharArray()) {
+				if (reader.read() != expected) {
+					throw new IOException("Invalid JSON array, only strings are expected");
+				}
+			}
+			strings.add(null);
+		} else {
+			throw new IOException("Invalid JSON array, only strings are expected");
+		}
+
+		c = skipWhitespaces();
+		if (c == ']') {
+			finish();
+		} else if (c != ',') {
+			throw new IOException("Invalid JSON array, ',' or ']' expected");
+		}
+	}
+
+	/**
+	 * End of the JSON array, which can only be followed by whitespaces.
+	 */
+	private void finish() throws IOException {
+		finished = true;
+		int c;
+		while ((c = reader.read()) != -1) {
+			if ((c != ' ') && (c != '\t') && (c != '\n') && (c != '\r')) {
+				throw new IOException("Invalid JSON array, unexpected content after the array");
+			}
+		}
+	}
+
+	private String readJsonString() throws IOException {
+		StringBuilder string = new StringBuilder();
+		while (true) {
+			int c = reader.read();
+			if (c == -1) {
+				throw new IOException("Invalid JSON array, unterminated string");
+			} else if (c == '"') {
+				return string.toString();
+			} else if (c < 0x20) {
+				throw new IOException("Invalid JSON array, control character in a string");
+			} else if (c != '\\') {
+				string.append((char) c);
+				continue;
+			}
+			c = reader.read();
+			switch (c) {
+				case '"':
+				case '\\':
+				case '/':
+					string.append((char) c);
+					break;
+				case 'b':
+					string.append('\b');
+					break;
+				case 'f':
+					string.append('\f');
+					break;
+				case 'n':
+					string.append('\n');
+					break;
+				case 'r':
+					string.append('\r');
+					break;
+				case 't':
+					string.append('\t');
+					break;
+				case 'u':
+					char[] hex = new char[4];
+					for (int i = 0; i < 4; i++) {
+						int h = reader.read();
+						if (Character.digit(h, 16) < 0) {
+							throw new IOException("Invalid JSON array, bad unicode escape");
+						}
+						hex[i] = (char) h;
+					}
+					string.append((char) Integer.parseInt(new String(hex), 16));
+					break;
+				default:
+					throw new IOException("Invalid JSON array, bad escape sequence");
+			}
+		}
+	}
+
+	private int skipWhitespaces() throws IOException {
+		int c;
+		do {
+			c = reader.read();
+		} while ((c == ' ') || (c == '\t') || (c == '\n') || (c == '\r'));
+		if (c == -1) {
+			throw new IOException("Invalid JSON array, unexpected end of input");
+		}
+		return c;
+	}
+}
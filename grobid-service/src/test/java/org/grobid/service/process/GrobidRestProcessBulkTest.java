@@ -0,0 +1,125 @@
+package org.grobid.service.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.grobid.service.util.GrobidRestUtils;
+import org.grobid.service.util.StringListReader;
+import org.junit.Test;
+
+public class GrobidRestProcessBulkTest {
+
+    private static GrobidRestProcessBulk.BulkResult result(int index, String name, String tei) {
+        GrobidRestProcessBulk.BulkResult result =
+            new GrobidRestProcessBulk.BulkResult(new GrobidRestProcessBulk.BulkFile(index, name, new File(name)));
+        result.status = 200;
+        result.time = 12;
+        result.tei = tei;
+        return result;
+    }
+
+    @Test
+    public void testToJsonEscaping() throws Exception {
+        GrobidRestProcessBulk.BulkResult result = result(3, "a \"b\"\\c.pdf", "<TEI>\n\t\u00e9t\u00e9</TEI>");
+        assertEquals("{\"index\":3,\"file\":\"a \\\"b\\\"\\\\c.pdf\",\"status\":200,\"time\":12,"
+            + "\"tei\":\"<TEI>\\n\\t\\u00E9t\\u00E9</TEI>\"}", GrobidRestProcessBulk.toJson(result, true));
+
+        result.tei = null;
+        result.status = 500;
+        result.error = "line 1\r\nline 2";
+        assertEquals("{\"index\":3,\"file\":\"a \\\"b\\\"\\\\c.pdf\",\"status\":500,\"time\":12,"
+            + "\"error\":\"line 1\\r\\nline 2\"}", GrobidRestProcessBulk.toJson(result, true));
+    }
+
+    @Test
+    public void testToJsonSupplementaryCharacter() throws Exception {
+        // MATHEMATICAL BOLD CAPITAL A, U+1D400, written as its surrogate pair
+        String tei = "<TEI>x" + new String(Character.toChars(0x1D400)) + "y\u0001</TEI>";
+        String json = GrobidRestProcessBulk.toJson(result(0, "a.pdf", tei), true);
+        assertTrue(json.endsWith(",\"tei\":\"<TEI>x\\uD835\\uDC00y\\u0001</TEI>\"}"));
+
+        // read back by a JSON parser
+        String escaped = GrobidRestUtils.escapeJson(tei);
+        StringListReader reader =
+            new StringListReader(new ByteArrayInputStream(("[\"" + escaped + "\"]").getBytes("UTF-8")), true);
+        assertEquals(Arrays.asList(tei), reader.next(10));
+    }
+
+    @Test
+    public void testNdjsonWriter() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GrobidRestProcessBulk.ResultWriter writer = new GrobidRestProcessBulk.NdjsonResultWriter(output);
+        writer.write(result(1, "b.pdf", "<TEI>b</TEI>"));
+        writer.write(result(0, "a.pdf", "<TEI>\na\n</TEI>"));
+        writer.finish();
+
+        String[] lines = output.toString("UTF-8").split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"index\":1,\"file\":\"b.pdf\""));
+        assertTrue(lines[1].endsWith("\"tei\":\"<TEI>\\na\\n</TEI>\"}"));
+    }
+
+    @Test
+    public void testZipWriterUniqueEntries() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GrobidRestProcessBulk.ResultWriter writer = new GrobidRestProcessBulk.ZipResultWriter(output);
+        String[] names = {"a", "a.pdf", "x.PDF", "x.pdf", "a-1.pdf", "status.ndjson"};
+        for (int i = 0; i < names.length; i++) {
+            writer.write(result(i, names[i], "<TEI>" + i + "</TEI>"));
+        }
+        writer.write(result(names.length, "failed.pdf", null));
+        writer.finish();
+
+        List<String> entries = new ArrayList<String>();
+        Set<String> lowerCase = new HashSet<String>();
+        String status = null;
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()));
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String content = IOUtils.toString(zip, "UTF-8");
+            if (entry.getName().equals("status.ndjson")) {
+                status = content;
+            } else {
+                entries.add(entry.getName());
+            }
+            lowerCase.add(entry.getName().toLowerCase());
+        }
+        zip.close();
+
+        // one entry per TEI, unique even on a case-insensitive file system, then the status
+        assertEquals(names.length, entries.size());
+        assertEquals(names.length + 1, lowerCase.size());
+        assertEquals("a.tei.xml", entries.get(0));
+        assertEquals("a-1.tei.xml", entries.get(1));
+        assertEquals("x.tei.xml", entries.get(2));
+        assertEquals("x-3.tei.xml", entries.get(3));
+        assertEquals("a-1-4.tei.xml", entries.get(4));
+        assertEquals("status.ndjson.tei.xml", entries.get(5));
+
+        String[] lines = status.split("\n");
+        assertEquals(names.length + 1, lines.length);
+        assertTrue(lines[3].contains("\"entry\":\"x-3.tei.xml\""));
+        assertTrue(!lines[names.length].contains("\"entry\""));
+    }
+
+    @Test
+    public void testThreads() {
+        // an engine of the pool is left to the other requests
+        assertEquals(3, GrobidRestProcessBulk.getThreads(10, 4, true));
+        assertEquals(2, GrobidRestProcessBulk.getThreads(2, 4, true));
+        assertEquals(1, GrobidRestProcessBulk.getThreads(10, 1, true));
+        assertEquals(1, GrobidRestProcessBulk.getThreads(10, 4, false));
+    }
+}
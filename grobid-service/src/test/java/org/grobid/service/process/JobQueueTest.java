@@ -0,0 +1,183 @@
+package org.grobid.service.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class JobQueueTest {
+
+    /**
+     * Queue processed by a single thread without engine, each job waiting for the release of the queue.
+     */
+    private static class TestQueue extends JobQueue {
+        final List<JobQueue.Job> processed = Collections.synchronizedList(new ArrayList<JobQueue.Job>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        TestQueue(int capacity, long resultTtl, int maxResults) {
+            super(capacity, 1, resultTtl, maxResults, true);
+        }
+
+        @Override
+        protected void process(JobQueue.Job job) throws Exception {
+            job.start();
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            processed.add(job);
+            job.complete("<TEI/>");
+        }
+    }
+
+    private final List<File> files = new ArrayList<File>();
+
+    private File file() throws Exception {
+        File file = File.createTempFile("grobid-job", ".pdf");
+        files.add(file);
+        return file;
+    }
+
+    private JobQueue.Job submit(JobQueue queue, JobQueue.Type type) throws Exception {
+        return queue.submit(type, file(), false, -1, -1, false);
+    }
+
+    @After
+    public void tearDown() {
+        JobQueue.setInstance(null);
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPriorityOrder() throws Exception {
+        TestQueue queue = new TestQueue(10, 60000, 100);
+        JobQueue.Job running = submit(queue, JobQueue.Type.FULLTEXT);
+        assertTrue(queue.started.await(10, TimeUnit.SECONDS));
+
+        JobQueue.Job fulltext1 = submit(queue, JobQueue.Type.FULLTEXT);
+        JobQueue.Job header1 = submit(queue, JobQueue.Type.HEADER);
+        JobQueue.Job fulltext2 = submit(queue, JobQueue.Type.FULLTEXT);
+        JobQueue.Job header2 = submit(queue, JobQueue.Type.HEADER);
+        assertEquals(JobQueue.Status.RUNNING, running.getStatus());
+        assertEquals(JobQueue.Status.QUEUED, header1.getStatus());
+        assertEquals(4, queue.getQueued());
+        queue.release.countDown();
+        assertTrue(fulltext2.await(10));
+
+        // the headers first, then the full texts, each in submission order
+        assertEquals(Arrays.asList(running, header1, header2, fulltext1, fulltext2), queue.processed);
+        assertEquals(JobQueue.Status.DONE, header2.getStatus());
+        assertEquals("<TEI/>", header2.getTei());
+        assertSame(header2, queue.get(header2.getId()));
+    }
+
+    @Test
+    public void testFullQueue() throws Exception {
+        TestQueue queue = new TestQueue(2, 60000, 100);
+        submit(queue, JobQueue.Type.HEADER);
+        assertTrue(queue.started.await(10, TimeUnit.SECONDS));
+        assertNotNull(submit(queue, JobQueue.Type.HEADER));
+        assertNotNull(submit(queue, JobQueue.Type.HEADER));
+        assertTrue(queue.isFull());
+
+        // refused, the document being removed
+        File refused = file();
+        assertNull(queue.submit(JobQueue.Type.HEADER, refused, false, -1, -1, false));
+        assertFalse(refused.exists());
+
+        JobQueue.setInstance(queue);
+        Response response = GrobidRestProcessJobs.submitHeaderJob(new ByteArrayInputStream(new byte[10]), false);
+        assertEquals(429, response.getStatus());
+        Object retryAfter = response.getMetadata().getFirst("Retry-After");
+        assertTrue(Integer.parseInt(String.valueOf(retryAfter)) >= 1);
+        queue.release.countDown();
+    }
+
+    @Test
+    public void testCancelQueuedJob() throws Exception {
+        TestQueue queue = new TestQueue(10, 60000, 100);
+        JobQueue.Job running = submit(queue, JobQueue.Type.HEADER);
+        assertTrue(queue.started.await(10, TimeUnit.SECONDS));
+        File file = file();
+        JobQueue.Job cancelled = queue.submit(JobQueue.Type.HEADER, file, false, -1, -1, false);
+        JobQueue.Job next = submit(queue, JobQueue.Type.FULLTEXT);
+
+        assertFalse(queue.remove(running));
+        assertTrue(queue.remove(cancelled));
+        assertFalse(file.exists());
+        assertNull(queue.get(cancelled.getId()));
+        assertEquals(1, queue.getQueued());
+
+        queue.release.countDown();
+        assertTrue(next.await(10));
+        assertEquals(Arrays.asList(running, next), queue.processed);
+        assertEquals(JobQueue.Status.QUEUED, cancelled.getStatus());
+
+        // forgetting a finished job
+        assertTrue(queue.remove(running));
+        assertNull(queue.get(running.getId()));
+    }
+
+    @Test
+    public void testResultTtl() throws Exception {
+        TestQueue queue = new TestQueue(10, 200, 100);
+        queue.release.countDown();
+        JobQueue.Job job = submit(queue, JobQueue.Type.HEADER);
+        assertTrue(job.await(10));
+        assertSame(job, queue.get(job.getId()));
+
+        Thread.sleep(400);
+        assertNull(queue.get(job.getId()));
+    }
+
+    @Test
+    public void testMaxResults() throws Exception {
+        TestQueue queue = new TestQueue(10, 60000, 2);
+        queue.release.countDown();
+        List<JobQueue.Job> jobs = new ArrayList<JobQueue.Job>();
+        for (int i = 0; i < 3; i++) {
+            JobQueue.Job job = submit(queue, JobQueue.Type.HEADER);
+            assertTrue(job.await(10));
+            jobs.add(job);
+        }
+        // waits for the worker to retain the last result
+        Thread.sleep(100);
+
+        assertNull(queue.get(jobs.get(0).getId()));
+        assertSame(jobs.get(1), queue.get(jobs.get(1).getId()));
+        assertSame(jobs.get(2), queue.get(jobs.get(2).getId()));
+    }
+
+    @Test
+    public void testFailedJob() throws Exception {
+        JobQueue queue = new JobQueue(10, 1, 60000, 100, true) {
+            @Override
+            protected void process(JobQueue.Job job) throws Exception {
+                job.start();
+                throw new Exception("cannot process");
+            }
+        };
+        JobQueue.Job job = submit(queue, JobQueue.Type.FULLTEXT);
+        assertTrue(job.await(10));
+        assertEquals(JobQueue.Status.FAILED, job.getStatus());
+        assertEquals("cannot process", job.getError());
+        assertNull(job.getTei());
+    }
+}
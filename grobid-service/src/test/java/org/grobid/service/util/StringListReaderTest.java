@@ -0,0 +1,154 @@
+package org.grobid.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StringListReaderTest {
+
+    private static StringListReader reader(String input, boolean json) throws IOException {
+        return new StringListReader(new ByteArrayInputStream(input.getBytes("UTF-8")), json);
+    }
+
+    private static List<String> readAll(String input, boolean json) throws IOException {
+        StringListReader reader = reader(input, json);
+        List<String> strings = new ArrayList<String>();
+        List<String> chunk;
+        while (!(chunk = reader.next(1000)).isEmpty()) {
+            strings.addAll(chunk);
+        }
+        return strings;
+    }
+
+    private static void assertInvalid(String input) {
+        try {
+            readAll(input, true);
+            fail("Invalid JSON array accepted: " + input);
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLines() throws Exception {
+        List<String> strings = readAll("a\n\nb c\r\nd", false);
+        assertEquals(4, strings.size());
+        assertEquals("", strings.get(1));
+        assertEquals("b c", strings.get(2));
+        assertEquals("d", strings.get(3));
+    }
+
+    @Test
+    public void testEscapes() throws Exception {
+        List<String> strings = readAll(
+            " [ \"a\\\"b\\\\c\\/d\" , \"\\b\\f\\n\\r\\t\", \"\\u00e9t\\u00C9\", \"\\ud83d\\ude00\", \"\" ] ", true);
+        assertEquals(5, strings.size());
+        assertEquals("a\"b\\c/d", strings.get(0));
+        assertEquals("\b\f\n\r\t", strings.get(1));
+        assertEquals("\u00e9t\u00c9", strings.get(2));
+        // surrogate pair
+        assertEquals(new String(Character.toChars(0x1F600)), strings.get(3));
+        assertEquals("", strings.get(4));
+    }
+
+    @Test
+    public void testNull() throws Exception {
+        List<String> strings = readAll("[null, \"a\",null]", true);
+        assertEquals(3, strings.size());
+        assertNull(strings.get(0));
+        assertEquals("a", strings.get(1));
+        assertNull(strings.get(2));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertTrue(readAll("[]", true).isEmpty());
+        assertTrue(readAll(" [ ]\n", true).isEmpty());
+        assertTrue(readAll("", false).isEmpty());
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+        assertInvalid("");
+        assertInvalid("\"a\"");
+        assertInvalid("{\"a\":\"b\"}");
+        // nested or non string items
+        assertInvalid("[[\"a\"]]");
+        assertInvalid("[\"a\", [\"b\"]]");
+        assertInvalid("[\"a\", {}]");
+        assertInvalid("[1]");
+        assertInvalid("[true]");
+        // malformed null
+        assertInvalid("[nul]");
+        assertInvalid("[nullx]");
+        assertInvalid("[null\"a\"]");
+        assertInvalid("[nulll]");
+        // separators
+        assertInvalid("[\"a\" \"b\"]");
+        assertInvalid("[\"a\",]");
+        assertInvalid("[,\"a\"]");
+        assertInvalid("[\"a\"");
+        assertInvalid("[\"a\",");
+        assertInvalid("[\"a\"] x");
+        assertInvalid("[\"a\"][\"b\"]");
+        // strings
+        assertInvalid("[\"a]");
+        assertInvalid("[\"a\\x\"]");
+        assertInvalid("[\"\\u00g0\"]");
+        assertInvalid("[\"\\u00\"]");
+        assertInvalid("[\"a\nb\"]");
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        for (int size : new int[]{999, 1000, 1001, 2000, 2500}) {
+            StringBuilder json = new StringBuilder("[");
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                json.append((i == 0) ? "" : ",").append('"').append(i).append('"');
+                lines.append(i).append('\n');
+            }
+            json.append(']');
+
+            for (StringListReader reader : new StringListReader[]{
+                reader(json.toString(), true), reader(lines.toString(), false)}) {
+                int index = 0;
+                List<String> chunk;
+                while (!(chunk = reader.next(1000)).isEmpty()) {
+                    // full chunks, but the last one
+                    assertEquals(Math.min(1000, size - index), chunk.size());
+                    for (String string : chunk) {
+                        assertEquals(String.valueOf(index++), string);
+                    }
+                }
+                assertEquals(size, index);
+                assertTrue(reader.next(1000).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidAfterChunk() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append("\"a\",");
+        }
+        json.append("1]");
+        StringListReader reader = reader(json.toString(), true);
+        assertEquals(1000, reader.next(1000).size());
+        try {
+            reader.next(1000);
+            fail("Invalid item after a full chunk accepted");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
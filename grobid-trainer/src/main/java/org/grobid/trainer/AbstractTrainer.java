@@ -63,6 +63,14 @@ public abstract class AbstractTrainer implements Trainer {
 
 		if (!tempModelPath.renameTo(oldModelPath)) {
 			LOGGER.warn("Unable to rename new model file: " + tempModelPath);
+			return;
+		}
+
+		// a tagger already created in this JVM switches to the new version of the model
+		try {
+			TaggerFactory.reloadModel(model);
+		} catch (GrobidException e) {
+			LOGGER.warn("The new model will be used after a restart: " + e.getMessage());
 		}
 	}
 